@@ -13,20 +13,31 @@ package org.eclipse.che.api.core.notification;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +51,11 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default events are delivered synchronously in the thread that publishes event. In asynchronous mode (see
+ * {@link #EventService(boolean, int, OverflowPolicy)} or configuration property {@code notification.event_service.async})
+ * each subscriber gets own bounded queue, events are delivered to subscriber in order they were published but publisher
+ * does not wait for subscribers. Behaviour of publisher when queue of subscriber is full is controlled by
+ * {@link OverflowPolicy}.
  *
  * @author andrew00x
  */
@@ -51,12 +67,56 @@ public class EventService {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
-    private final LoadingCache<Class<?>, Set<Class<?>>>[]       typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
 
-    @SuppressWarnings("unchecked")
+    private final LoadingCache<Class<?>, Set<Class<?>>>[]              typeCache;
+    private final ConcurrentMap<Class<?>, Set<EventSubscriber>>        subscribersByEventType;
+    private final ConcurrentMap<Class<?>, LongAdder>                   publishedByEventType;
+    private final ConcurrentMap<EventSubscriber, SubscriberDispatcher> dispatchers;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("notification.event_service.async")
+    private boolean async;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("notification.event_service.queue_size")
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("notification.event_service.overflow_policy")
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    private ExecutorService executor;
+
+    /** Creates event service that delivers events synchronously. */
     public EventService() {
+        this(false, DEFAULT_QUEUE_SIZE, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates event service.
+     *
+     * @param async
+     *         if {@code true} events are delivered asynchronously, otherwise subscribers are called in the publisher thread
+     * @param queueSize
+     *         max number of events waiting for delivery to a single subscriber, ignored in synchronous mode
+     * @param overflowPolicy
+     *         what to do when queue of subscriber is full, ignored in synchronous mode
+     */
+    @SuppressWarnings("unchecked")
+    public EventService(boolean async, int queueSize, OverflowPolicy overflowPolicy) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("Queue size must be greater than 0.");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Null overflow policy.");
+        }
+        this.async = async;
+        this.queueSize = queueSize;
+        this.overflowPolicy = overflowPolicy;
         subscribersByEventType = new ConcurrentHashMap<>();
+        publishedByEventType = new ConcurrentHashMap<>();
+        dispatchers = new ConcurrentHashMap<>();
         typeCache = new LoadingCache[CACHE_NUM];
         for (int i = 0; i < CACHE_NUM; i++) {
             typeCache[i] = CacheBuilder.newBuilder().concurrencyLevel(SEG_SIZE).build(
@@ -96,10 +156,19 @@ public class EventService {
             throw new IllegalArgumentException("Null event.");
         }
         final Class<?> eventClass = event.getClass();
+        LongAdder published = publishedByEventType.get(eventClass);
+        if (published == null) {
+            published = publishedByEventType.computeIfAbsent(eventClass, c -> new LongAdder());
+        }
+        published.increment();
         for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].getUnchecked(eventClass)) {
             final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
             if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
                 for (EventSubscriber eventSubscriber : eventSubscribers) {
+                    if (async) {
+                        getDispatcher(eventSubscriber).enqueue(event);
+                        continue;
+                    }
                     try {
                         LOG.debug("Publish event {} for {}", event, eventSubscriber);
                         eventSubscriber.onEvent(event);
@@ -161,8 +230,88 @@ public class EventService {
                 if (entries.isEmpty()) {
                     subscribersByEventType.remove(eventType);
                 }
+                if (!isSubscribed(subscriber)) {
+                    final SubscriberDispatcher dispatcher = dispatchers.remove(subscriber);
+                    if (dispatcher != null) {
+                        dispatcher.close();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns {@code true} if events are delivered to subscribers asynchronously. */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /** Returns number of published events grouped by event type. */
+    public Map<Class<?>, Long> getPublishedEventsCount() {
+        final Map<Class<?>, Long> result = new HashMap<>();
+        for (Map.Entry<Class<?>, LongAdder> entry : publishedByEventType.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /** Returns delivery statistics of subscribers. Always returns empty list if service works in synchronous mode. */
+    public List<SubscriberMetrics> getSubscriberMetrics() {
+        final List<SubscriberMetrics> result = new ArrayList<>(dispatchers.size());
+        for (SubscriberDispatcher dispatcher : dispatchers.values()) {
+            result.add(dispatcher.getMetrics());
+        }
+        return result;
+    }
+
+    /** Stops asynchronous delivery of events. Events which were not delivered yet are discarded. */
+    @PreDestroy
+    public void stop() {
+        final ExecutorService toShutdown;
+        synchronized (this) {
+            toShutdown = executor;
+        }
+        for (SubscriberDispatcher dispatcher : dispatchers.values()) {
+            dispatcher.close();
+        }
+        dispatchers.clear();
+        if (toShutdown != null) {
+            toShutdown.shutdown();
+            try {
+                if (!toShutdown.awaitTermination(10, TimeUnit.SECONDS)) {
+                    toShutdown.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                toShutdown.shutdownNow();
+            }
+        }
+    }
+
+    private SubscriberDispatcher getDispatcher(EventSubscriber subscriber) {
+        SubscriberDispatcher dispatcher = dispatchers.get(subscriber);
+        if (dispatcher == null) {
+            dispatcher = dispatchers.computeIfAbsent(subscriber,
+                                                     s -> new SubscriberDispatcher(s, getExecutor(), queueSize, overflowPolicy));
+        }
+        return dispatcher;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("EventService-%d")
+                                                                               .setDaemon(true)
+                                                                               .build());
+        }
+        return executor;
+    }
+
+    private boolean isSubscribed(EventSubscriber<?> subscriber) {
+        for (Set<EventSubscriber> entries : subscribersByEventType.values()) {
+            if (entries.contains(subscriber)) {
+                return true;
             }
         }
+        return false;
     }
 
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+/**
+ * Defines what {@link EventService} does when an asynchronous subscriber queue is full.
+ *
+ * @see EventService#EventService(boolean, int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+    /** Publisher waits until subscriber takes the next event from its queue. */
+    BLOCK,
+    /** The oldest pending event of subscriber is discarded to make room for the new one. */
+    DROP_OLDEST,
+    /**
+     * Event is not queued if an equal event is already waiting for delivery to the same subscriber.
+     * If queue is full and there is no equal pending event publisher waits as with {@link #BLOCK}.
+     */
+    COALESCE
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers events to single {@link EventSubscriber} from its own bounded queue. Events are processed one by one in order
+ * they were published, at most one thread of the shared executor serves the subscriber at any moment of time, so
+ * subscriber is not required to be thread-safe.
+ */
+class SubscriberDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(SubscriberDispatcher.class);
+
+    private final EventSubscriber             subscriber;
+    private final Executor                    executor;
+    private final OverflowPolicy              overflowPolicy;
+    private final BlockingDeque<PendingEvent> queue;
+    private final AtomicBoolean               scheduled;
+    private final AtomicLong                  delivered;
+    private final AtomicLong                  dropped;
+    private final AtomicLong                  totalLatency;
+    private final AtomicLong                  maxLatency;
+
+    private volatile boolean closed;
+
+    SubscriberDispatcher(EventSubscriber subscriber, Executor executor, int queueSize, OverflowPolicy overflowPolicy) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new LinkedBlockingDeque<>(queueSize);
+        this.scheduled = new AtomicBoolean();
+        this.delivered = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.totalLatency = new AtomicLong();
+        this.maxLatency = new AtomicLong();
+    }
+
+    /**
+     * Adds event to the queue of subscriber. Depending on {@link OverflowPolicy} this method may block if queue is full.
+     * Note: with {@link OverflowPolicy#BLOCK} subscriber must not publish events of type it is subscribed to, otherwise it
+     * may wait for itself forever.
+     */
+    void enqueue(Object event) {
+        if (closed) {
+            return;
+        }
+        final PendingEvent pending = new PendingEvent(event, System.nanoTime());
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!queue.offerLast(pending)) {
+                    if (queue.pollFirst() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case COALESCE:
+                for (PendingEvent waiting : queue) {
+                    if (event.equals(waiting.event)) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                }
+                put(pending);
+                break;
+            default:
+                put(pending);
+        }
+        schedule();
+    }
+
+    /** Stops delivery of events. Events which are waiting in queue are discarded. */
+    void close() {
+        closed = true;
+        dropped.addAndGet(queue.size());
+        queue.clear();
+    }
+
+    SubscriberMetrics getMetrics() {
+        return new SubscriberMetrics(String.valueOf(subscriber),
+                                     queue.size(),
+                                     delivered.get(),
+                                     dropped.get(),
+                                     totalLatency.get(),
+                                     maxLatency.get());
+    }
+
+    private void put(PendingEvent pending) {
+        if (queue.offerLast(pending)) {
+            return;
+        }
+        // make sure queue is drained while we are waiting
+        schedule();
+        try {
+            queue.putLast(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void schedule() {
+        if (!closed && !queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                LOG.warn("Unable deliver events to {}, event service is stopped", subscriber);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        try {
+            PendingEvent pending;
+            while (!closed && (pending = queue.pollFirst()) != null) {
+                try {
+                    LOG.debug("Publish event {} for {}", pending.event, subscriber);
+                    subscriber.onEvent(pending.event);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+                final long latency = System.nanoTime() - pending.published;
+                delivered.incrementAndGet();
+                totalLatency.addAndGet(latency);
+                long max;
+                while (latency > (max = maxLatency.get()) && !maxLatency.compareAndSet(max, latency)) {
+                    // retry
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            // events might be added after last poll but before resetting of flag
+            schedule();
+        }
+    }
+
+    private static class PendingEvent {
+        final Object event;
+        final long   published;
+
+        PendingEvent(Object event, long published) {
+            this.event = event;
+            this.published = published;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+/**
+ * Snapshot of delivery statistics of single subscriber of {@link EventService} that works in asynchronous mode.
+ * Latency is measured from the moment when event is published to the moment when subscriber completes processing it.
+ *
+ * @see EventService#getSubscriberMetrics()
+ */
+public class SubscriberMetrics {
+    private final String subscriber;
+    private final int    queueSize;
+    private final long   delivered;
+    private final long   dropped;
+    private final long   totalLatencyNanos;
+    private final long   maxLatencyNanos;
+
+    SubscriberMetrics(String subscriber, int queueSize, long delivered, long dropped, long totalLatencyNanos, long maxLatencyNanos) {
+        this.subscriber = subscriber;
+        this.queueSize = queueSize;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /** Returns string representation of subscriber. */
+    public String getSubscriber() {
+        return subscriber;
+    }
+
+    /** Returns number of events waiting for delivery. */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /** Returns number of events delivered to subscriber. */
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /** Returns number of events discarded because of {@link OverflowPolicy}. */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /** Returns average latency of delivery in nanoseconds or {@code 0} if nothing was delivered yet. */
+    public long getAverageLatencyNanos() {
+        return delivered == 0 ? 0 : totalLatencyNanos / delivered;
+    }
+
+    /** Returns maximal latency of delivery in nanoseconds. */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriberMetrics{" +
+               "subscriber='" + subscriber + '\'' +
+               ", queueSize=" + queueSize +
+               ", delivered=" + delivered +
+               ", dropped=" + dropped +
+               ", averageLatencyNanos=" + getAverageLatencyNanos() +
+               ", maxLatencyNanos=" + maxLatencyNanos +
+               '}';
+    }
+}
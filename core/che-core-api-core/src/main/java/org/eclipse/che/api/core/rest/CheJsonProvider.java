@@ -28,6 +28,8 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -36,7 +38,7 @@ import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -79,10 +81,20 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
                         MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
         // Add Cache-Control before start write body.
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
+        if (JsonEntityBuffer.writeTo(t, entityStream)) {
+            // entity is already serialized, e.g. for calculation of ETag
+            return;
+        }
         if (t instanceof JsonSerializable) {
-            try (Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"))) {
-                w.write(((JsonSerializable)t).toJson());
+            // Write directly to the entity stream, don't build whole JSON in memory.
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(entityStream, StandardCharsets.UTF_8))) {
+                DtoFactory.getInstance().toJson(t, w);
             }
+        } else if (JsonEntityBuffer.isSupported(t)) {
+            // List of DTOs, write it in the same form as it is read and hashed, see readFrom and ETagResponseFilter
+            final OutputStream out = new BufferedOutputStream(entityStream);
+            JsonEntityBuffer.write(t, out);
+            out.flush();
         } else {
             delegate.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
         }
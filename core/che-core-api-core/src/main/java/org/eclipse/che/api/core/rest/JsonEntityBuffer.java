@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.HashingOutputStream;
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.server.JsonStreamHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Per-thread buffer that holds JSON of the response entity serialized before the response is written, e.g. for calculation of
+ * its hash. {@link CheJsonProvider} writes content of the buffer as is if it is asked to write the same entity instance, so
+ * the entity is serialized only once. Buffer is reused by the next requests processed by the same thread.
+ * <p/>
+ * Supported entities are {@link JsonSerializable} and lists of {@link JsonSerializable} without {@code null} elements.
+ *
+ * @see org.eclipse.che.everrest.ETagResponseFilter
+ */
+public final class JsonEntityBuffer {
+    /** Buffers that grew bigger than this size are not kept for reuse. */
+    private static final int MAX_REUSED_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<JsonEntityBuffer> BUFFERS = ThreadLocal.withInitial(JsonEntityBuffer::new);
+
+    private ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+    private Object                entity;
+
+    /** Checks whether entity may be serialized into the buffer. */
+    public static boolean isSupported(Object entity) {
+        if (entity instanceof JsonSerializable) {
+            return true;
+        }
+        if (entity instanceof List) {
+            for (Object element : (List<?>)entity) {
+                if (!(element instanceof JsonSerializable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Serializes entity into the buffer of the current thread and calculates hash of serialized bytes at the same time.
+     * Hash of list is calculated from JSON of its elements only, as if elements were hashed one by one.
+     *
+     * @param entity
+     *         entity to serialize, must be supported by the buffer
+     * @param hashFunction
+     *         function for calculation of hash
+     * @return hash of serialized entity
+     * @throws IllegalArgumentException
+     *         if entity is not supported
+     * @throws IOException
+     *         if entity can't be serialized
+     * @see #isSupported(Object)
+     */
+    public static HashCode serialize(Object entity, HashFunction hashFunction) throws IOException {
+        if (!isSupported(entity)) {
+            throw new IllegalArgumentException("Unsupported entity " + entity.getClass());
+        }
+        final JsonEntityBuffer buffer = BUFFERS.get();
+        buffer.entity = null;
+        buffer.bytes.reset();
+        final HashingOutputStream hashingOutput = new HashingOutputStream(hashFunction, buffer.bytes);
+        write(entity, buffer.bytes, hashingOutput);
+        buffer.entity = entity;
+        return hashingOutput.hash();
+    }
+
+    /**
+     * Writes JSON of supported entity to the output without buffering it, list is written as JSON array of its elements.
+     *
+     * @throws IllegalArgumentException
+     *         if entity is not supported
+     * @see #isSupported(Object)
+     */
+    public static void write(Object entity, OutputStream output) throws IOException {
+        if (!isSupported(entity)) {
+            throw new IllegalArgumentException("Unsupported entity " + entity.getClass());
+        }
+        write(entity, output, output);
+    }
+
+    /**
+     * Writes content of the buffer of the current thread to the output if it contains serialized {@code entity} and releases
+     * the buffer.
+     *
+     * @return {@code true} if entity was written and {@code false} if buffer doesn't contain this entity
+     */
+    public static boolean writeTo(Object entity, OutputStream output) throws IOException {
+        final JsonEntityBuffer buffer = BUFFERS.get();
+        if (buffer.entity != entity) {
+            // content of some other response was not sent, don't keep it any longer
+            release();
+            return false;
+        }
+        try {
+            buffer.bytes.writeTo(output);
+            output.flush();
+        } finally {
+            release();
+        }
+        return true;
+    }
+
+    /** Releases buffer of the current thread, e.g. when response is sent without entity. */
+    public static void release() {
+        final JsonEntityBuffer buffer = BUFFERS.get();
+        buffer.entity = null;
+        if (buffer.bytes.size() > MAX_REUSED_SIZE) {
+            buffer.bytes = new ByteArrayOutputStream(8192);
+        } else {
+            buffer.bytes.reset();
+        }
+    }
+
+    /** Writes brackets and separators of list to {@code output} and JSON of DTOs to {@code jsonOutput}. */
+    private static void write(Object entity, OutputStream output, OutputStream jsonOutput) throws IOException {
+        if (entity instanceof List) {
+            output.write('[');
+            boolean first = true;
+            for (Object element : (List<?>)entity) {
+                if (!first) {
+                    output.write(',');
+                }
+                write((JsonSerializable)element, jsonOutput);
+                first = false;
+            }
+            output.write(']');
+        } else {
+            write((JsonSerializable)entity, jsonOutput);
+        }
+        output.flush();
+    }
+
+    private static void write(JsonSerializable dto, OutputStream output) throws IOException {
+        final JsonWriter writer = JsonStreamHelper.newWriter(new OutputStreamWriter(output, UTF_8));
+        dto.writeTo(writer);
+        writer.flush();
+    }
+
+    private JsonEntityBuffer() {
+    }
+}
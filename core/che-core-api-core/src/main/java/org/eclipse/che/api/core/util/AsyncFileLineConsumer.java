@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Line consumer that writes lines to the file asynchronously. Producers add lines to the bounded lock-free queue, all instances
+ * share single writer thread that drains queues in batches and flushes file periodically (optionally with fsync). When queue
+ * is full producer either waits for writer or drops the line depending on configuration, time of waiting and number of dropped
+ * lines are available with {@link #getBlockedTimeNanos()} and {@link #getDroppedLines()}.
+ * <p/>
+ * Everything written before call of {@link #flush()} or {@link #close()} is in the file when these methods return.
+ * <p/>
+ * Subclasses may store lines in other way by overriding {@link #doWrite(String)}, {@link #doFlush()} and {@link #doClose()},
+ * these methods are always called from the writer thread.
+ */
+public class AsyncFileLineConsumer implements LineConsumer {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncFileLineConsumer.class);
+
+    /** Default max number of lines waiting to be written. */
+    public static final int  DEFAULT_CAPACITY          = 8192;
+    /** Default period of flushing of file in milliseconds. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 200;
+
+    private static final ScheduledExecutorService WRITER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("AsyncFileLineConsumer")
+                                                                                 .setDaemon(true)
+                                                                                 .build());
+
+    private final File                          file;
+    private final FileOutputStream              output;
+    private final Writer                        writer;
+    private final ConcurrentLinkedQueue<String> queue;
+    private final AtomicInteger                 queueSize;
+    private final AtomicBoolean                 drainRequested;
+    private final AtomicLong                    droppedLines;
+    private final AtomicLong                    blockedNanos;
+    private final int                           capacity;
+    private final boolean                       fsync;
+    private final boolean                       dropOnOverflow;
+    private final ScheduledFuture<?>            flushTask;
+    /** Number of producers that are inside of {@link #writeLine(String)}, file is closed when all of them leave it. */
+    private final AtomicInteger                 activeProducers;
+    /** Number of producers that wait for free space in queue, writer notifies {@link #monitor} only if there are any. */
+    private final AtomicInteger                 waitingProducers;
+    private final Object                        monitor;
+
+    private volatile boolean closed;
+    /** Accessed only from writer thread. */
+    private          boolean writerClosed;
+
+    /**
+     * Creates consumer with default capacity and flush interval. Producers wait if queue is full, file is not synced to the
+     * storage device explicitly.
+     */
+    public AsyncFileLineConsumer(File file) throws IOException {
+        this(file, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS, false, false);
+    }
+
+    /**
+     * Creates consumer.
+     *
+     * @param file
+     *         file to write lines to
+     * @param capacity
+     *         max number of lines waiting to be written
+     * @param flushIntervalMillis
+     *         period of flushing of file
+     * @param fsync
+     *         if {@code true} file is synced to the storage device after each flush
+     * @param dropOnOverflow
+     *         if {@code true} lines are dropped if queue is full, otherwise producer waits for writer
+     */
+    public AsyncFileLineConsumer(File file, int capacity, long flushIntervalMillis, boolean fsync, boolean dropOnOverflow)
+            throws IOException {
+        this(file, capacity, flushIntervalMillis, fsync, dropOnOverflow, new FileOutputStream(file));
+    }
+
+    /**
+     * Constructor for subclasses that override {@link #doWrite(String)}, {@link #doFlush()} and {@link #doClose()} and don't need
+     * the file to be opened.
+     */
+    protected AsyncFileLineConsumer(File file, int capacity, long flushIntervalMillis, boolean dropOnOverflow) {
+        this(file, capacity, flushIntervalMillis, false, dropOnOverflow, null);
+    }
+
+    private AsyncFileLineConsumer(File file,
+                                  int capacity,
+                                  long flushIntervalMillis,
+                                  boolean fsync,
+                                  boolean dropOnOverflow,
+                                  FileOutputStream output) {
+        if (capacity <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Capacity and flush interval must be greater than 0.");
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.fsync = fsync;
+        this.dropOnOverflow = dropOnOverflow;
+        this.output = output;
+        this.writer = output == null ? null : new BufferedWriter(new OutputStreamWriter(output, Charset.defaultCharset()));
+        queue = new ConcurrentLinkedQueue<>();
+        queueSize = new AtomicInteger();
+        drainRequested = new AtomicBoolean();
+        droppedLines = new AtomicLong();
+        blockedNanos = new AtomicLong();
+        activeProducers = new AtomicInteger();
+        waitingProducers = new AtomicInteger();
+        monitor = new Object();
+        flushTask = WRITER.scheduleWithFixedDelay(this::drain, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /** Returns number of lines that were dropped because queue was full. */
+    public long getDroppedLines() {
+        return droppedLines.get();
+    }
+
+    /** Returns total time in nanoseconds that producers spent waiting for free space in queue. */
+    public long getBlockedTimeNanos() {
+        return blockedNanos.get();
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        activeProducers.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IOException(String.format("Unable write to file '%s', consumer is closed", file));
+            }
+            if (!tryReserve()) {
+                if (dropOnOverflow) {
+                    droppedLines.incrementAndGet();
+                    requestDrain();
+                    return;
+                }
+                awaitSpace();
+            }
+            queue.offer(line == null ? "" : line);
+            if (queueSize.get() >= capacity / 2) {
+                requestDrain();
+            }
+        } finally {
+            if (activeProducers.decrementAndGet() == 0 && closed) {
+                synchronized (monitor) {
+                    monitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Writes all lines that are waiting in queue to the file. */
+    public void flush() throws IOException {
+        await(WRITER.submit(this::drain));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flushTask.cancel(false);
+        awaitProducers();
+        await(WRITER.submit(() -> {
+            drain();
+            writerClosed = true;
+            try {
+                doClose();
+            } catch (IOException e) {
+                LOG.error(String.format("Unable close file '%s'. %s", file, e.getMessage()), e);
+            }
+        }));
+    }
+
+    /** Waits until writer takes lines from the full queue and reserves place for one more line. */
+    private void awaitSpace() throws IOException {
+        final long start = System.nanoTime();
+        waitingProducers.incrementAndGet();
+        try {
+            synchronized (monitor) {
+                // writer notifies after it takes lines from queue, so space that is freed after this check isn't missed
+                while (!tryReserve()) {
+                    if (closed) {
+                        throw new IOException(String.format("Unable write to file '%s', consumer is closed", file));
+                    }
+                    requestDrain();
+                    monitor.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted while waiting for writing to file '%s'", file));
+        } finally {
+            waitingProducers.decrementAndGet();
+        }
+        blockedNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Wakes up producers that wait for free space in queue, they fail since consumer is closed, and waits for producers that
+     * already passed the check of state of consumer, so their lines are in queue before it is drained for the last time.
+     */
+    private void awaitProducers() {
+        boolean interrupted = false;
+        synchronized (monitor) {
+            monitor.notifyAll();
+            while (activeProducers.get() > 0) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean tryReserve() {
+        if (queueSize.incrementAndGet() <= capacity) {
+            return true;
+        }
+        queueSize.decrementAndGet();
+        return false;
+    }
+
+    private void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            WRITER.execute(this::drain);
+        }
+    }
+
+    /** Must be called only from writer thread. */
+    private void drain() {
+        drainRequested.set(false);
+        if (writerClosed) {
+            return;
+        }
+        String line;
+        int taken = 0;
+        try {
+            while ((line = queue.poll()) != null) {
+                queueSize.decrementAndGet();
+                taken++;
+                doWrite(line);
+            }
+            if (taken > 0) {
+                doFlush();
+            }
+        } catch (IOException e) {
+            LOG.error(String.format("Unable write to file '%s'. %s", file, e.getMessage()), e);
+        } finally {
+            if (taken > 0 && waitingProducers.get() > 0) {
+                synchronized (monitor) {
+                    monitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Writes single line. */
+    protected void doWrite(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    /** Flushes lines written with {@link #doWrite(String)}, is called after each batch of lines. */
+    protected void doFlush() throws IOException {
+        writer.flush();
+        if (fsync) {
+            output.getFD().sync();
+        }
+    }
+
+    /** Releases resources, is called once after all lines are written. */
+    protected void doClose() throws IOException {
+        writer.close();
+    }
+
+    private void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Interrupted while writing to file '%s'", file));
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
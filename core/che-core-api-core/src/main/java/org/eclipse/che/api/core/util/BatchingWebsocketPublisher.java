@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.everrest.websockets.WSConnectionContext;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Groups lines of output that are sent to websocket channels. Lines written to {@link LineConsumer} that is created by this
+ * publisher are buffered and sent as single message when time window of the channel elapses or when size of buffered lines
+ * exceeds byte budget. All channels are served by single scheduler thread. Number of messages sent to a channel per second
+ * is limited, if producer is faster lines are accumulated in bigger batches. If even that is not enough the oldest lines of
+ * channel are skipped and replaced with a note about it.
+ * <p/>
+ * Lines that end with carriage return are replaced by the next line on client side, so such line is never joined with other
+ * lines: it is either overwritten by the next line in the same batch or sent as separate message.
+ * <p/>
+ * Usage example:
+ * <pre>
+ * {@code
+ * LineConsumer consumer = BatchingWebsocketPublisher.getInstance()
+ *                                                   .newLineConsumer("my-channel", 100, lines -> JsonUtils.getJsonString(String.join("\n", lines)));
+ * consumer.writeLine("hello");
+ * // ...
+ * consumer.close(); // sends everything that is still buffered
+ * }
+ * </pre>
+ */
+public class BatchingWebsocketPublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchingWebsocketPublisher.class);
+
+    /** Default time window of channel in milliseconds. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS       = 50;
+    /** Default size of buffered lines after which batch is sent without waiting for the end of time window. */
+    public static final int  DEFAULT_MAX_BATCH_BYTES         = 64 * 1024;
+    /** Default max number of messages sent to single channel per second. */
+    public static final int  DEFAULT_MAX_MESSAGES_PER_SECOND = 20;
+    /** Number of full batches that may be buffered for a channel before the oldest lines are skipped. */
+    private static final int MAX_PENDING_BATCHES             = 16;
+
+    private static BatchingWebsocketPublisher instance;
+
+    /** Returns shared publisher that is configured with default parameters. */
+    public static synchronized BatchingWebsocketPublisher getInstance() {
+        if (instance == null) {
+            instance = new BatchingWebsocketPublisher(DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_MAX_BATCH_BYTES, DEFAULT_MAX_MESSAGES_PER_SECOND);
+        }
+        return instance;
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Set<ChannelBuffer>       buffers;
+    private final long                     flushIntervalMillis;
+    private final int                      maxBatchBytes;
+    private final long                     minSendIntervalNanos;
+
+    /**
+     * Creates new publisher.
+     *
+     * @param flushIntervalMillis
+     *         default time window of channel, also it is period of scheduler that checks all channels
+     * @param maxBatchBytes
+     *         size of buffered lines (in chars) after which batch is sent without waiting for the end of time window
+     * @param maxMessagesPerSecond
+     *         max number of messages that are sent to single channel per second
+     */
+    public BatchingWebsocketPublisher(long flushIntervalMillis, int maxBatchBytes, int maxMessagesPerSecond) {
+        if (flushIntervalMillis <= 0 || maxBatchBytes <= 0 || maxMessagesPerSecond <= 0) {
+            throw new IllegalArgumentException("Flush interval, batch size and rate limit must be greater than 0.");
+        }
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBatchBytes = maxBatchBytes;
+        this.minSendIntervalNanos = TimeUnit.SECONDS.toNanos(1) / maxMessagesPerSecond;
+        this.buffers = ConcurrentHashMap.newKeySet();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("BatchingWebsocketPublisher")
+                                                                                              .setDaemon(true)
+                                                                                              .build());
+        scheduler.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates line consumer that sends batches of lines to websocket channel {@code channel} using default time window.
+     *
+     * @param channel
+     *         websocket channel
+     * @param bodyFormatter
+     *         converts batch of lines to the body of websocket message
+     */
+    public LineConsumer newLineConsumer(String channel, Function<List<String>, String> bodyFormatter) {
+        return newLineConsumer(channel, flushIntervalMillis, bodyFormatter);
+    }
+
+    /**
+     * Creates line consumer that sends batches of lines to websocket channel {@code channel}.
+     *
+     * @param channel
+     *         websocket channel
+     * @param intervalMillis
+     *         time window of channel, batch is sent not often than once per this time
+     * @param bodyFormatter
+     *         converts batch of lines to the body of websocket message
+     */
+    public LineConsumer newLineConsumer(String channel, long intervalMillis, Function<List<String>, String> bodyFormatter) {
+        return newLineConsumer(intervalMillis, lines -> sendMessage(channel, bodyFormatter.apply(lines)));
+    }
+
+    /**
+     * Creates line consumer that passes batches of lines to {@code batchSender}. It is useful when message should be sent in
+     * some special way, otherwise {@link #newLineConsumer(String, long, Function)} should be used.
+     *
+     * @param intervalMillis
+     *         time window of consumer, batch is passed to {@code batchSender} not often than once per this time
+     * @param batchSender
+     *         receives batches of lines, never gets empty list
+     */
+    public LineConsumer newLineConsumer(long intervalMillis, Consumer<List<String>> batchSender) {
+        final ChannelBuffer buffer = new ChannelBuffer(intervalMillis, batchSender);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    /** Stops publisher. Lines that are still buffered are sent before returning from this method. */
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ChannelBuffer buffer : buffers) {
+            buffer.close();
+        }
+    }
+
+    private void flushAll() {
+        for (ChannelBuffer buffer : buffers) {
+            try {
+                buffer.flush(false);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void sendMessage(String channel, String body) {
+        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+        bm.setChannel(channel);
+        bm.setBody(body);
+        try {
+            WSConnectionContext.sendMessage(bm);
+        } catch (Exception e) {
+            LOG.error("A problem occurred while sending websocket message", e);
+        }
+    }
+
+    private static boolean endsWithCarriageReturn(String line) {
+        return !line.isEmpty() && line.charAt(line.length() - 1) == '\r';
+    }
+
+    private class ChannelBuffer implements LineConsumer {
+        private final long                   intervalNanos;
+        private final Consumer<List<String>> batchSender;
+        private final Object                 sendLock;
+        private final LinkedList<String>     lines;
+
+        private int     size;
+        private int     skipped;
+        private long    lastSent;
+        private boolean flushScheduled;
+        private boolean closed;
+
+        ChannelBuffer(long intervalMillis, Consumer<List<String>> batchSender) {
+            this.intervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(intervalMillis), minSendIntervalNanos);
+            this.batchSender = batchSender;
+            this.sendLock = new Object();
+            this.lines = new LinkedList<>();
+            this.lastSent = System.nanoTime() - intervalNanos;
+        }
+
+        @Override
+        public void writeLine(String line) {
+            if (line == null) {
+                return;
+            }
+            boolean scheduleFlush = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (!lines.isEmpty() && endsWithCarriageReturn(lines.getLast())) {
+                    size -= lines.removeLast().length();
+                }
+                lines.add(line);
+                size += line.length();
+                while (size > maxBatchBytes * MAX_PENDING_BATCHES && lines.size() > 1) {
+                    size -= lines.removeFirst().length();
+                    skipped++;
+                }
+                if (size >= maxBatchBytes && !flushScheduled) {
+                    scheduleFlush = flushScheduled = true;
+                }
+            }
+            if (scheduleFlush) {
+                try {
+                    scheduler.execute(() -> flush(false));
+                } catch (RejectedExecutionException e) {
+                    flush(true);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            flush(true);
+            buffers.remove(this);
+        }
+
+        void flush(boolean force) {
+            synchronized (sendLock) {
+                final List<String> batch;
+                synchronized (this) {
+                    flushScheduled = false;
+                    if (lines.isEmpty() || (!force && System.nanoTime() - lastSent < intervalNanos)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(lines.size() + 1);
+                    if (skipped > 0) {
+                        batch.add(String.format("[%d lines skipped]", skipped));
+                        skipped = 0;
+                    }
+                    batch.addAll(lines);
+                    lines.clear();
+                    size = 0;
+                    lastSent = System.nanoTime();
+                }
+                final String last = batch.get(batch.size() - 1);
+                if (batch.size() > 1 && endsWithCarriageReturn(last)) {
+                    batchSender.accept(batch.subList(0, batch.size() - 1));
+                    batchSender.accept(batch.subList(batch.size() - 1, batch.size()));
+                } else {
+                    batchSender.accept(batch);
+                }
+            }
+        }
+    }
+}
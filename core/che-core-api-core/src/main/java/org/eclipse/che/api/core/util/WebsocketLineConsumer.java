@@ -11,40 +11,33 @@
 package org.eclipse.che.api.core.util;
 
 import org.everrest.core.impl.provider.json.JsonUtils;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
-import org.slf4j.Logger;
 
 import java.io.IOException;
 
-import static org.slf4j.LoggerFactory.getLogger;
-
 /**
- * Line consumer that send messages to specified websocket channel
+ * Line consumer that send messages to specified websocket channel. Lines are grouped in batches with
+ * {@link BatchingWebsocketPublisher}, each message contains one or more lines separated with line feed.
  *
  * @author Alexander Garagatyi
  */
 public class WebsocketLineConsumer implements LineConsumer {
-    private static final Logger LOG = getLogger(WebsocketLineConsumer.class);
-    private final String channel;
+    private final LineConsumer delegate;
 
     public WebsocketLineConsumer(String channel) {
-        this.channel = channel;
+        this(channel, BatchingWebsocketPublisher.getInstance());
+    }
+
+    public WebsocketLineConsumer(String channel, BatchingWebsocketPublisher publisher) {
+        this.delegate = publisher.newLineConsumer(channel, lines -> JsonUtils.getJsonString(String.join("\n", lines)));
     }
 
     @Override
     public void writeLine(String line) throws IOException {
-        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-        bm.setChannel(channel);
-        bm.setBody(JsonUtils.getJsonString(line));
-        try {
-            WSConnectionContext.sendMessage(bm);
-        } catch (Exception e) {
-            LOG.error("A problem occurred while sending websocket message", e);
-        }
+        delegate.writeLine(line);
     }
 
     @Override
     public void close() throws IOException {
+        delegate.close();
     }
 }
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.everrest;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.UbjsonWriter;
+import org.everrest.websockets.WSConnectionContext;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Broadcasts DTOs to websocket channels encoding them as negotiated by each connection, see {@link CheWSConnection.Encoding}.
+ * DTOs that have no compact form are always sent as readable JSON.
+ * <p/>
+ * Binary message is <a href="http://ubjson.org">Universal Binary JSON</a> object with two properties: {@code channel}, name of
+ * channel, and {@code body}, DTO in compact form.
+ */
+public final class ChannelDtoBroadcaster {
+    private static final Logger LOG = LoggerFactory.getLogger(ChannelDtoBroadcaster.class);
+
+    /**
+     * Sends DTO to all connections subscribed to the channel. Each DTO is serialized at most once per encoding.
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dto} is not DTO
+     * @throws Exception
+     *         if message can't be sent to the channel
+     */
+    public static void broadcast(String channel, Object dto) throws Exception {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        if (!dtoFactory.hasCompactForm(dto) || !CheWSConnection.hasNegotiatedEncodings()) {
+            WSConnectionContext.sendMessage(newMessage(channel, dtoFactory.toJson(dto)));
+            return;
+        }
+        ChannelBroadcastMessage json = null;
+        ChannelBroadcastMessage compactJson = null;
+        ByteBuffer binary = null;
+        for (CheWSConnection connection : CheWSConnection.getOpenConnections()) {
+            if (!connection.getChannels().contains(channel)) {
+                continue;
+            }
+            try {
+                switch (connection.getEncoding()) {
+                    case BINARY:
+                        if (binary == null) {
+                            binary = toBinary(channel, dto);
+                        }
+                        connection.sendBinary(binary.duplicate());
+                        break;
+                    case COMPACT_JSON:
+                        if (compactJson == null) {
+                            compactJson = newMessage(channel, dtoFactory.toCompactJson(dto));
+                        }
+                        connection.sendMessage(compactJson);
+                        break;
+                    default:
+                        if (json == null) {
+                            json = newMessage(channel, dtoFactory.toJson(dto));
+                        }
+                        connection.sendMessage(json);
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to send message to channel {} of connection {}: {}", channel, connection.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static ChannelBroadcastMessage newMessage(String channel, String body) {
+        final ChannelBroadcastMessage message = new ChannelBroadcastMessage();
+        message.setChannel(channel);
+        message.setBody(body);
+        return message;
+    }
+
+    private static ByteBuffer toBinary(String channel, Object dto) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final UbjsonWriter writer = new UbjsonWriter(out);
+        writer.beginObject();
+        writer.name("channel").value(channel);
+        writer.name("body");
+        DtoFactory.getInstance().toCompactJson(dto, writer);
+        writer.endObject();
+        writer.flush();
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    private ChannelDtoBroadcaster() {
+    }
+}
@@ -14,19 +14,102 @@ import static org.eclipse.che.everrest.ServerContainerInitializeListener.ENVIRON
 
 import org.everrest.websockets.WSConnectionImpl;
 
+import javax.websocket.CloseReason;
 import javax.websocket.EndpointConfig;
 import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Sergii Kabashniuk
  */
 public class CheWSConnection extends WSConnectionImpl {
+    /**
+     * Name of query parameter of websocket URL which may be used by client for choosing of encoding of DTOs broadcasted to
+     * channels, e.g. {@code ws://host/api/ws?encoding=compact}. Readable JSON is used if parameter is missing or has unknown value.
+     *
+     * @see Encoding
+     * @see ChannelDtoBroadcaster
+     */
+    public static final String ENCODING_PARAMETER = "encoding";
+
+    /** Encoding of DTOs broadcasted to channels. */
+    public enum Encoding {
+        /** Readable JSON in text message, default. */
+        JSON,
+        /** Compact JSON in text message, see {@link org.eclipse.che.dto.server.CompactJsonSerializable}. */
+        COMPACT_JSON,
+        /** Compact form in binary message, see {@link org.eclipse.che.dto.server.UbjsonWriter}. */
+        BINARY;
+
+        static Encoding fromParameter(String value) {
+            if ("compact".equals(value)) {
+                return COMPACT_JSON;
+            }
+            if ("binary".equals(value)) {
+                return BINARY;
+            }
+            return JSON;
+        }
+    }
+
+    private static final Set<CheWSConnection> OPEN_CONNECTIONS  = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger        NEGOTIATED_COUNTER = new AtomicInteger();
+
+    private volatile Session  session;
+    private volatile Encoding encoding = Encoding.JSON;
+
+    /** Returns all opened connections. */
+    public static Collection<CheWSConnection> getOpenConnections() {
+        return Collections.unmodifiableSet(OPEN_CONNECTIONS);
+    }
+
+    /** Checks whether any opened connection uses encoding other than {@link Encoding#JSON}. */
+    public static boolean hasNegotiatedEncodings() {
+        return NEGOTIATED_COUNTER.get() > 0;
+    }
+
     @Override
     public void onOpen(Session session, EndpointConfig config) {
         final Map<String, Object> userProperties = config.getUserProperties();
         setAttribute(ENVIRONMENT_CONTEXT, userProperties.get(ENVIRONMENT_CONTEXT));
+        this.session = session;
+        final List<String> encodingParameter = session.getRequestParameterMap().get(ENCODING_PARAMETER);
+        encoding = Encoding.fromParameter(encodingParameter == null || encodingParameter.isEmpty() ? null : encodingParameter.get(0));
         super.onOpen(session, config);
+        if (OPEN_CONNECTIONS.add(this) && encoding != Encoding.JSON) {
+            NEGOTIATED_COUNTER.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        if (OPEN_CONNECTIONS.remove(this) && encoding != Encoding.JSON) {
+            NEGOTIATED_COUNTER.decrementAndGet();
+        }
+        super.onClose(session, closeReason);
+    }
+
+    /** Returns encoding of DTOs which is chosen by client of this connection. */
+    public Encoding getEncoding() {
+        return encoding;
+    }
 
+    /** Sends binary message to the client. */
+    public void sendBinary(ByteBuffer data) throws IOException {
+        final Session session = this.session;
+        if (session == null || !session.isOpen()) {
+            throw new IOException("Connection is closed");
+        }
+        synchronized (session) {
+            session.getBasicRemote().sendBinary(data);
+        }
     }
 }
@@ -15,21 +15,25 @@ import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 
+import org.eclipse.che.api.core.rest.JsonEntityBuffer;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.everrest.core.ApplicationContext;
 import org.everrest.core.Filter;
 import org.everrest.core.GenericContainerResponse;
 import org.everrest.core.ResponseFilter;
 
+import javax.inject.Named;
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
-import java.nio.charset.Charset;
+import java.io.IOException;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.JSON_SERIALIZABLE;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.STRING;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.UNKNOWN;
@@ -38,12 +42,31 @@ import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.UNKNOWN;
  * Filter implementing {@link org.everrest.core.ResponseFilter} in order to generate ETag for clients that want to use conditional
  * requests.
  * It is applying on GET method and JSON content type only.
+ * <p/>
+ * If resource already set ETag header, e.g. from version or modification stamp of the entity, the tag is used as is and entity
+ * is not hashed at all.
+ * <p/>
+ * If {@code che.etag.single_pass_serialization} is {@code true}, DTOs and lists of DTOs are serialized once into the
+ * {@link JsonEntityBuffer}, hash is calculated while writing and {@link org.eclipse.che.api.core.rest.CheJsonProvider} sends the
+ * buffered content as response body instead of serializing the entity again. Both body and ETag are the same as without this
+ * option: hash of list is calculated from JSON of its elements in both modes.
  *
  * @author Florent Benoit
  */
 @Filter
 public class ETagResponseFilter implements ResponseFilter {
 
+    @com.google.inject.Inject(optional = true)
+    @Named("che.etag.single_pass_serialization")
+    private boolean singlePassSerialization;
+
+    public ETagResponseFilter() {
+    }
+
+    ETagResponseFilter(boolean singlePassSerialization) {
+        this.singlePassSerialization = singlePassSerialization;
+    }
+
     public enum EntityType {
         JSON_SERIALIZABLE,
         STRING,
@@ -80,8 +103,36 @@ public class ETagResponseFilter implements ResponseFilter {
             return;
         }
 
+        // resource provided own tag, no need to hash the entity
+        Object existingTag = containerResponse.getHttpHeaders().getFirst(HttpHeaders.ETAG);
+        if (existingTag != null) {
+            EntityTag entityTag = existingTag instanceof EntityTag ? (EntityTag)existingTag : EntityTag.valueOf(existingTag.toString());
+            Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+            if (builder != null) {
+                containerResponse.setResponse(builder.tag(entityTag).build());
+            }
+            return;
+        }
+
         // calculate hash with MD5
         HashFunction hashFunction = Hashing.md5();
+
+        if (singlePassSerialization && JsonEntityBuffer.isSupported(entity)) {
+            boolean bodySent = false;
+            try {
+                HashCode hashCode = JsonEntityBuffer.serialize(entity, hashFunction);
+                bodySent = setEntityTag(containerResponse, request, new EntityTag(hashCode.toString()));
+            } catch (IOException | RuntimeException e) {
+                // entity is sent without ETag and serialized by provider as usual
+            } finally {
+                if (!bodySent) {
+                    // nobody is going to read the buffer, don't keep the entity and its bytes
+                    JsonEntityBuffer.release();
+                }
+            }
+            return;
+        }
+
         Hasher hasher = hashFunction.newHasher();
         boolean hashingSuccess = true;
 
@@ -105,21 +156,29 @@ public class ETagResponseFilter implements ResponseFilter {
             HashCode hashCode = hasher.hash();
 
             // Create the entity tag
-            EntityTag entityTag = new EntityTag(hashCode.toString());
+            setEntityTag(containerResponse, request, new EntityTag(hashCode.toString()));
+        }
 
-            // Check the etag
-            Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+    }
 
-            // not modified ?
-            if (builder != null) {
-                containerResponse.setResponse(builder.tag(entityTag).build());
-            } else {
-                // it has been changed, so send response with new ETag and entity
-                Response.ResponseBuilder responseBuilder = Response.fromResponse(containerResponse.getResponse()).tag(entityTag);
-                containerResponse.setResponse(responseBuilder.build());
-            }
-        }
+    /**
+     * Checks preconditions of request and sets either 'Not Modified' response or the ETag header of the current response.
+     *
+     * @return {@code true} if response with entity is sent and {@code false} if 'Not Modified' response is sent
+     */
+    private boolean setEntityTag(GenericContainerResponse containerResponse, Request request, EntityTag entityTag) {
+        // Check the etag
+        Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
 
+        // not modified ?
+        if (builder != null) {
+            containerResponse.setResponse(builder.tag(entityTag).build());
+            return false;
+        }
+        // it has been changed, so send response with new ETag and entity
+        Response.ResponseBuilder responseBuilder = Response.fromResponse(containerResponse.getResponse()).tag(entityTag);
+        containerResponse.setResponse(responseBuilder.build());
+        return true;
     }
 
     /**
@@ -141,7 +200,7 @@ public class ETagResponseFilter implements ResponseFilter {
         }
         // add hash if all is OK
         try {
-            hasher.putString(getJson(entity, entityType), Charset.defaultCharset());
+            hasher.putString(getJson(entity, entityType), UTF_8);
         } catch (RuntimeException e) {
             return false;
         }
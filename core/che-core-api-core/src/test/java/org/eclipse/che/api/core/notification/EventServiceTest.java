@@ -15,8 +15,12 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -157,4 +161,112 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testAsyncDeliveryPreservesOrderAndDoesNotBlockPublisher() throws Exception {
+        EventService asyncBus = new EventService(true, 100, OverflowPolicy.BLOCK);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(10);
+            final List<String> events = Collections.synchronizedList(new ArrayList<>());
+            asyncBus.subscribe(new EventSubscriber<String>() {
+                @Override
+                public void onEvent(String event) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    events.add(event);
+                    done.countDown();
+                }
+            });
+            for (int i = 0; i < 10; i++) {
+                asyncBus.publish(String.valueOf(i));
+            }
+            // subscriber is still waiting, but all events are already published
+            Assert.assertTrue(events.isEmpty());
+            release.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(events, Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"));
+            Assert.assertEquals(asyncBus.getPublishedEventsCount().get(String.class), Long.valueOf(10));
+            waitDelivered(asyncBus, 10);
+        } finally {
+            asyncBus.stop();
+        }
+    }
+
+    @Test
+    public void testAsyncDropOldestOverflowPolicy() throws Exception {
+        EventService asyncBus = new EventService(true, 2, OverflowPolicy.DROP_OLDEST);
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final List<String> events = Collections.synchronizedList(new ArrayList<>());
+            asyncBus.subscribe(new EventSubscriber<String>() {
+                @Override
+                public void onEvent(String event) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    events.add(event);
+                }
+            });
+            asyncBus.publish("first");
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            asyncBus.publish("a");
+            asyncBus.publish("b");
+            asyncBus.publish("c");
+            Assert.assertEquals(asyncBus.getSubscriberMetrics().get(0).getDropped(), 1);
+            release.countDown();
+            waitDelivered(asyncBus, 3);
+            Assert.assertEquals(events, Arrays.asList("first", "b", "c"));
+        } finally {
+            asyncBus.stop();
+        }
+    }
+
+    @Test
+    public void testAsyncCoalesceOverflowPolicy() throws Exception {
+        EventService asyncBus = new EventService(true, 10, OverflowPolicy.COALESCE);
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final List<String> events = Collections.synchronizedList(new ArrayList<>());
+            asyncBus.subscribe(new EventSubscriber<String>() {
+                @Override
+                public void onEvent(String event) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    events.add(event);
+                }
+            });
+            asyncBus.publish("first");
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            asyncBus.publish("changed");
+            asyncBus.publish("changed");
+            asyncBus.publish("changed");
+            release.countDown();
+            waitDelivered(asyncBus, 2);
+            Assert.assertEquals(events, Arrays.asList("first", "changed"));
+            Assert.assertEquals(asyncBus.getSubscriberMetrics().get(0).getDropped(), 2);
+        } finally {
+            asyncBus.stop();
+        }
+    }
+
+    private void waitDelivered(EventService asyncBus, long expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (asyncBus.getSubscriberMetrics().get(0).getDelivered() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(asyncBus.getSubscriberMetrics().get(0).getDelivered(), expected);
+    }
 }
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncFileLineConsumerTest {
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = File.createTempFile("async-consumer", ".log");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void shouldWriteAllLinesOnClose() throws Exception {
+        AsyncFileLineConsumer consumer = new AsyncFileLineConsumer(file, 16, 10_000, false, false);
+
+        for (int i = 0; i < 1000; i++) {
+            consumer.writeLine("line " + i);
+        }
+        consumer.close();
+
+        List<String> lines = Files.readAllLines(file.toPath(), Charset.defaultCharset());
+        assertEquals(lines.size(), 1000);
+        assertEquals(lines.get(0), "line 0");
+        assertEquals(lines.get(999), "line 999");
+        assertEquals(consumer.getDroppedLines(), 0);
+    }
+
+    @Test
+    public void shouldMakeLinesVisibleAfterFlush() throws Exception {
+        AsyncFileLineConsumer consumer = new AsyncFileLineConsumer(file, 1024, 10_000, true, false);
+        try {
+            consumer.writeLine("first");
+            consumer.writeLine(null);
+            consumer.writeLine("second");
+            consumer.flush();
+
+            assertEquals(new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()), "first\n\nsecond\n");
+        } finally {
+            consumer.close();
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldWakeUpProducerWhenWriterTakesLinesFromFullQueue() throws Exception {
+        CountDownLatch writerReleased = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        AsyncFileLineConsumer consumer = new AsyncFileLineConsumer(file, 2, 10_000, false) {
+            @Override
+            protected void doWrite(String line) throws IOException {
+                try {
+                    writerReleased.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                written.add(line);
+            }
+
+            @Override
+            protected void doFlush() {
+            }
+
+            @Override
+            protected void doClose() {
+            }
+        };
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10; i++) {
+                    consumer.writeLine("line " + i);
+                }
+            } catch (IOException ignored) {
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+
+        writerReleased.countDown();
+        producer.join();
+        consumer.close();
+
+        assertEquals(written.size(), 10);
+        assertTrue(consumer.getBlockedTimeNanos() > 0);
+    }
+
+    @Test(timeOut = 30_000)
+    public void shouldWriteAllAcceptedLinesWhenConsumerIsClosedConcurrentlyWithProducers() throws Exception {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            AtomicInteger writtenLines = new AtomicInteger();
+            AsyncFileLineConsumer consumer = new AsyncFileLineConsumer(file, 4, 10_000, false) {
+                @Override
+                protected void doWrite(String line) {
+                    writtenLines.incrementAndGet();
+                }
+
+                @Override
+                protected void doFlush() {
+                }
+
+                @Override
+                protected void doClose() {
+                }
+            };
+            AtomicInteger acceptedLines = new AtomicInteger();
+            ExecutorService producers = Executors.newFixedThreadPool(4);
+            for (int i = 0; i < 4; i++) {
+                producers.execute(() -> {
+                    try {
+                        while (true) {
+                            consumer.writeLine("line");
+                            acceptedLines.incrementAndGet();
+                        }
+                    } catch (IOException closed) {
+                        // consumer is closed
+                    }
+                });
+            }
+            Thread.sleep(5);
+
+            consumer.close();
+            producers.shutdown();
+            assertTrue(producers.awaitTermination(5, TimeUnit.SECONDS));
+
+            assertEquals(writtenLines.get(), acceptedLines.get());
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldNotAcceptLinesAfterClose() throws Exception {
+        AsyncFileLineConsumer consumer = new AsyncFileLineConsumer(file);
+        consumer.close();
+
+        consumer.writeLine("line");
+    }
+}
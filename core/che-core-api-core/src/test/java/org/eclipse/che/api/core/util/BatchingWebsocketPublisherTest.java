@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class BatchingWebsocketPublisherTest {
+    private BatchingWebsocketPublisher publisher;
+    private List<List<String>>         batches;
+
+    @BeforeMethod
+    public void setUp() {
+        publisher = new BatchingWebsocketPublisher(10_000, 1024, 1000);
+        batches = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        publisher.stop();
+    }
+
+    @Test
+    public void shouldSendBufferedLinesAsSingleBatchOnClose() throws Exception {
+        LineConsumer consumer = publisher.newLineConsumer(10_000, lines -> batches.add(new ArrayList<>(lines)));
+
+        consumer.writeLine("a");
+        consumer.writeLine("b");
+        consumer.writeLine("c");
+        assertTrue(batches.isEmpty());
+        consumer.close();
+
+        assertEquals(batches, Collections.singletonList(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void shouldSendBatchWhenByteBudgetIsExceeded() throws Exception {
+        LineConsumer consumer = publisher.newLineConsumer(0, lines -> batches.add(new ArrayList<>(lines)));
+        char[] chars = new char[600];
+        Arrays.fill(chars, 'x');
+        String line = new String(chars);
+
+        consumer.writeLine(line);
+        consumer.writeLine(line);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(batches, Collections.singletonList(Arrays.asList(line, line)));
+    }
+
+    @Test
+    public void shouldReplaceLineThatEndsWithCarriageReturn() throws Exception {
+        LineConsumer consumer = publisher.newLineConsumer(10_000, lines -> batches.add(new ArrayList<>(lines)));
+
+        consumer.writeLine("start");
+        consumer.writeLine("10%\r");
+        consumer.writeLine("50%\r");
+        consumer.writeLine("100%\r");
+        consumer.close();
+
+        assertEquals(batches, Arrays.asList(Collections.singletonList("start"), Collections.singletonList("100%\r")));
+    }
+}
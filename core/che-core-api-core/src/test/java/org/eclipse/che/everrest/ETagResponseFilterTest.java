@@ -11,6 +11,8 @@
 package org.eclipse.che.everrest;
 
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
+import org.eclipse.che.api.core.rest.CheJsonProvider;
+import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.everrest.core.ApplicationContext;
 import org.everrest.core.impl.ApplicationProviderBinder;
 import org.everrest.core.impl.ContainerRequest;
@@ -20,10 +22,12 @@ import org.everrest.core.impl.EverrestProcessor;
 import org.everrest.core.impl.RequestDispatcher;
 import org.everrest.core.impl.RequestHandlerImpl;
 import org.everrest.core.impl.ResourceBinderImpl;
+import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 import org.everrest.core.tools.DependencySupplierImpl;
 import org.everrest.core.tools.ResourceLauncher;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import javax.ws.rs.GET;
@@ -40,9 +44,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.OK;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.everrest.core.ApplicationContext.anApplicationContext;
 import static org.testng.Assert.assertEquals;
 
@@ -84,6 +90,27 @@ public class ETagResponseFilterTest {
         }
 
 
+        @GET
+        @Path("/versioned")
+        @Produces(APPLICATION_JSON)
+        public Response getVersioned() {
+            return Response.ok("versionedContent").tag(new EntityTag("version-1")).build();
+        }
+
+        @GET
+        @Path("/dto")
+        @Produces(APPLICATION_JSON)
+        public ServiceError getDto() {
+            return newDto(ServiceError.class).withMessage("hello");
+        }
+
+        @GET
+        @Path("/dtolist")
+        @Produces(APPLICATION_JSON)
+        public List<ServiceError> getDtos() {
+            return Arrays.asList(newDto(ServiceError.class).withMessage("a"), newDto(ServiceError.class).withMessage("b"));
+        }
+
         @GET
         @Path("/modify")
         @Produces(APPLICATION_JSON)
@@ -107,13 +134,18 @@ public class ETagResponseFilterTest {
      */
     @BeforeMethod
     public void before() throws Exception {
+        resourceLauncher = newResourceLauncher(new ETagResponseFilter());
+    }
+
+    private ResourceLauncher newResourceLauncher(ETagResponseFilter filter) throws Exception {
         //set up launcher
         final ResourceBinderImpl resources = new ResourceBinderImpl();
         resources.addResource(MyJaxRSService.class, null);
         final DependencySupplierImpl dependencies = new DependencySupplierImpl();
         final ApplicationProviderBinder providers = new ApplicationProviderBinder();
         providers.addExceptionMapper(ApiExceptionMapper.class);
-        providers.addResponseFilter(ETagResponseFilter.class);
+        providers.addMessageBodyWriter(new CheJsonProvider<>(null));
+        providers.addResponseFilter(filter);
         final URI uri = new URI(BASE_URI);
         final ContainerRequest req = new ContainerRequest(null, uri, uri, null, null, null);
         final ApplicationContext contextImpl = anApplicationContext().withRequest(req).withProviders(providers).build();
@@ -123,10 +155,9 @@ public class ETagResponseFilterTest {
                                                                   dependencies,
                                                                   new RequestHandlerImpl(new RequestDispatcher(resources), providers),
                                                                   null);
-        resourceLauncher = new ResourceLauncher(processor);
+        return new ResourceLauncher(processor);
     }
 
-
     /**
      * Check if ETag is generated for a list of JSON
      */
@@ -144,6 +175,30 @@ public class ETagResponseFilterTest {
         Assert.assertEquals(headerTags.get(0), new EntityTag("900150983cd24fb0d6963f7d28e17f72"));
     }
 
+    @DataProvider(name = "dtoPaths")
+    public Object[][] dtoPaths() {
+        return new Object[][]{{"/dto"}, {"/dtolist"}};
+    }
+
+    /**
+     * Check if body and ETag of DTO entities are the same when entity is serialized once
+     */
+    @Test(dataProvider = "dtoPaths")
+    public void singlePassSerializationSendsSameBodyAndEntityTag(String path) throws Exception {
+        final ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        final ContainerResponse response = newResourceLauncher(new ETagResponseFilter(false))
+                .service(HttpMethod.GET, SERVICE_PATH + path, BASE_URI, null, null, writer, null);
+        final ByteArrayContainerResponseWriter singlePassWriter = new ByteArrayContainerResponseWriter();
+        final ContainerResponse singlePassResponse = newResourceLauncher(new ETagResponseFilter(true))
+                .service(HttpMethod.GET, SERVICE_PATH + path, BASE_URI, null, null, singlePassWriter, null);
+
+        assertEquals(response.getStatus(), OK.getStatusCode());
+        assertEquals(singlePassResponse.getStatus(), OK.getStatusCode());
+        Assert.assertNotNull(response.getHttpHeaders().getFirst(HttpHeaders.ETAG));
+        assertEquals(singlePassResponse.getHttpHeaders().getFirst(HttpHeaders.ETAG), response.getHttpHeaders().getFirst(HttpHeaders.ETAG));
+        assertEquals(new String(singlePassWriter.getBody(), UTF_8), new String(writer.getBody(), UTF_8));
+    }
+
     /**
      * Check if ETag is added in response if we're also using a custom header
      */
@@ -190,6 +245,35 @@ public class ETagResponseFilterTest {
 
 
 
+    /**
+     * Check if ETag set by resource is kept instead of hash of entity
+     */
+    @Test
+    public void useEntityTagSetByResource() throws Exception {
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/versioned", BASE_URI, null, null, null);
+        assertEquals(response.getStatus(), OK.getStatusCode());
+        Assert.assertEquals(response.getEntity(), "versionedContent");
+        List<Object> headerTags = response.getHttpHeaders().get("ETag");
+        Assert.assertNotNull(headerTags);
+        Assert.assertEquals(headerTags.size(), 1);
+        Assert.assertEquals(headerTags.get(0), new EntityTag("version-1"));
+    }
+
+    /**
+     * Check if ETag set by resource is used for checking of preconditions
+     */
+    @Test
+    public void filterEntityTagSetByResourceWithEtag() throws Exception {
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Collections.singletonList(new EntityTag("version-1").toString()));
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/versioned", BASE_URI, headers, null, null);
+        assertEquals(response.getStatus(), NOT_MODIFIED.getStatusCode());
+        Assert.assertNull(response.getEntity());
+    }
+
     /**
      * Check if ETag sent with header is redirecting to NOT_MODIFIED
      */
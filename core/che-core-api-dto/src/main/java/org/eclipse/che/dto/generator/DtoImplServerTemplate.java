@@ -11,8 +11,11 @@
 
 package org.eclipse.che.dto.generator;
 
+import org.eclipse.che.dto.server.CompactJsonSerializable;
 import org.eclipse.che.dto.server.JsonArrayImpl;
+import org.eclipse.che.dto.server.JsonCopyHelper;
 import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.server.JsonStreamHelper;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
 import org.eclipse.che.dto.shared.DelegateRule;
 import org.eclipse.che.dto.shared.DTOImpl;
@@ -37,9 +40,11 @@ import java.util.Set;
 
 /** Generates the source code for a generated Server DTO impl. */
 public class DtoImplServerTemplate extends DtoImpl {
-    private static final String JSON_ARRAY_IMPL   = JsonArrayImpl.class.getCanonicalName();
-    private static final String JSON_MAP_IMPL     = JsonStringMapImpl.class.getCanonicalName();
-    private static final String SERVER_DTO_MARKER = "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
+    private static final String JSON_ARRAY_IMPL    = JsonArrayImpl.class.getCanonicalName();
+    private static final String JSON_MAP_IMPL      = JsonStringMapImpl.class.getCanonicalName();
+    private static final String JSON_STREAM_HELPER = JsonStreamHelper.class.getCanonicalName();
+    private static final String JSON_COPY_HELPER   = JsonCopyHelper.class.getCanonicalName();
+    private static final String SERVER_DTO_MARKER  = "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
 
     DtoImplServerTemplate(DtoTemplate template, Class<?> superInterface) {
         super(template, superInterface);
@@ -50,27 +55,23 @@ public class DtoImplServerTemplate extends DtoImpl {
         StringBuilder builder = new StringBuilder();
         final Class<?> dtoInterface = getDtoInterface();
         final String dtoInterfaceName = dtoInterface.getCanonicalName();
-        emitPreamble(dtoInterface, builder);
         List<Method> getters = getDtoGetters(dtoInterface);
+        List<Method> methods = addInheritedGetters(getters);
+        final Method[] compactGetters = getCompactGetters(methods);
+        emitPreamble(dtoInterface, compactGetters != null, builder);
         // Enumerate the getters and emit field names and getters + setters.
         emitFields(getters, builder);
         emitGettersAndSetters(getters, builder);
-        List<Method> inheritedGetters = getInheritedDtoGetters(dtoInterface);
-        List<Method> methods = new ArrayList<>();
-        methods.addAll(getters);
-        Set<String> getterNames = new HashSet<>();
-        for (Method getter : getters) {
-            getterNames.add(getter.getName());
-        }
-        for (Method getter : inheritedGetters) {
-            if (getterNames.add(getter.getName())) {
-                methods.add(getter);
-            }
-        }
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamSerializer(methods, builder);
         emitDeserializer(methods, builder);
+        emitStreamDeserializer(methods, builder);
+        if (compactGetters != null) {
+            emitCompactStreamSerializer(compactGetters, builder);
+            emitCompactStreamDeserializer(compactGetters, builder);
+        }
         emitDeserializerShortcut(builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
@@ -93,7 +94,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         //     // Override method to return type B instead of A.
         //     B withProperty();
         // }
-        getterNames.clear();
+        Set<String> getterNames = new HashSet<>();
         for (Method getter : getters) {
             getterNames.add(getter.getName());
         }
@@ -113,6 +114,27 @@ public class DtoImplServerTemplate extends DtoImpl {
         return builder.toString();
     }
 
+    /** Checks whether DTO implementation supports compact form, see {@link CompactJsonSerializable}. */
+    boolean hasCompactForm() {
+        return getCompactGetters(addInheritedGetters(getDtoGetters(getDtoInterface()))) != null;
+    }
+
+    /** Returns given getters of DTO interface together with getters inherited from super DTO interfaces. */
+    private List<Method> addInheritedGetters(List<Method> getters) {
+        List<Method> methods = new ArrayList<>();
+        methods.addAll(getters);
+        Set<String> getterNames = new HashSet<>();
+        for (Method getter : getters) {
+            getterNames.add(getter.getName());
+        }
+        for (Method getter : getInheritedDtoGetters(getDtoInterface())) {
+            if (getterNames.add(getter.getName())) {
+                methods.add(getter);
+            }
+        }
+        return methods;
+    }
+
     private void emitEqualsAndHashCode(List<Method> getters, StringBuilder builder) {
         builder.append("    @Override\n");
         builder.append("    public boolean equals(Object o) {\n");
@@ -301,8 +323,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
-        builder.append("      return gson.toJson(toJsonElementInt(false));\n");
+        builder.append("      return ").append(JSON_STREAM_HELPER).append(".toJson(this);\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -420,8 +441,7 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append(i).append("JsonElement ").append(outVar).append(" = ").append(depth == 0 ? " this." + inVar : inVar).append(
                     " == null ? JsonNull.INSTANCE : new JsonPrimitive(").append(depth == 0 ? "this." + inVar : inVar).append(");\n");
         } else if (isAny(rawClass)) {
-            // TODO JsonElement.deepCopy() is package-protected, JSONs are serialized to strings then parsed for copying them
-            // outVar = inVar == null ? JsonNull.INSTNACE : (copyJsons ? new JsonParser().parse(inVar) : inVar);
+            // outVar = inVar == null ? JsonNull.INSTNACE : (copyJsons ? JsonCopyHelper.copyOf(inVar) : inVar);
             builder.append(i).append("JsonElement ").append(outVar).append(" = ").append(depth == 0 ? " this." + inVar : inVar)
                     .append(" == null || !(").append(inVar).append(" instanceof JsonElement) ? JsonNull.INSTANCE : (");
             appendCopyJsonExpression(inVar, builder).append(");\n");
@@ -451,6 +471,121 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /** Generates method that writes fields directly to JsonWriter, without building of JsonElement. */
+    private void emitStreamSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeTo(JsonWriter writer) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            // compact form is rarely used and has own rules for trailing elements, reuse them
+            builder.append("      gson.toJson(toJsonElementInt(false), writer);\n");
+        } else {
+            builder.append("      writer.beginObject();\n");
+            for (Method getter : getters) {
+                builder.append("\n");
+                builder.append("      writer.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                emitStreamSerializerImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()),
+                                         "      ");
+            }
+            builder.append("      writer.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the value of the given variable to JsonWriter, the same JSON as with
+     * {@link #emitSerializerImpl(List, int, StringBuilder, String, String, String)} is produced.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamSerializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        final Class<?> rawClass = getRawClass(expandedTypes.get(depth));
+        final String value = depth == 0 ? "this." + inVar : inVar;
+        final String childInVar = inVar + "_";
+        if (isList(rawClass) || isMap(rawClass)) {
+            final String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            final String entryVar = "entry" + depth;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            }
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  writer.beginArray();\n");
+                builder.append(i).append("  for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                       .append(") {\n");
+            } else {
+                builder.append(i).append("  writer.beginObject();\n");
+                builder.append(i).append("  for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(value).append(".entrySet()) {\n");
+                builder.append(i).append("    writer.name(").append(entryVar).append(".getKey());\n");
+                builder.append(i).append("    ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+            }
+            emitStreamSerializerImpl(expandedTypes, depth + 1, builder, childInVar, i + "    ");
+            builder.append(i).append("  }\n");
+            builder.append(i).append(isList(rawClass) ? "  writer.endArray();\n" : "  writer.endObject();\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("writer.value(").append(value).append(" == null ? null : ").append(value).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitStreamSerializeDto(getImplNameForDto(rawClass), value, builder, i);
+        } else if (rawClass.equals(String.class)
+                   || rawClass == boolean.class
+                   || rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            builder.append(i).append("writer.value(").append(value).append(");\n");
+        } else if (rawClass == float.class
+                   || rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            // the same text representation as JsonPrimitive has
+            builder.append(i).append("writer.value((Number)").append(value).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.value(").append(value).append(".booleanValue());\n");
+            builder.append(i).append("}\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(value).append(" instanceof JsonElement) {\n");
+            builder.append(i).append("  gson.toJson((JsonElement)").append(value).append(", writer);\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitStreamSerializeDto(dtoImplementation.getCanonicalName(), value, builder, i);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private void emitStreamSerializeDto(String implName, String value, StringBuilder builder, String i) {
+        builder.append(i).append("if (").append(value).append(" == null) {\n");
+        builder.append(i).append("  writer.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ((").append(implName).append(")").append(value).append(").writeTo(writer);\n");
+        builder.append(i).append("}\n");
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -477,6 +612,209 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /** Generates a static factory method that reads a new instance directly from JsonReader, without building of JsonElement. */
+    private void emitStreamDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" readFrom(JsonReader reader) throws java.io.IOException {\n");
+        builder.append("      if (reader.peek() == JsonToken.NULL) {\n");
+        builder.append("        reader.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n");
+        if (isCompactJson()) {
+            builder.append("      return fromJsonElement(new JsonParser().parse(reader), false);\n");
+            builder.append("    }\n\n");
+            return;
+        }
+        builder.append("\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      reader.beginObject();\n");
+        builder.append("      while (reader.hasNext()) {\n");
+        builder.append("        switch (reader.nextName()) {\n");
+        final Set<String> jsonFieldNames = new HashSet<>();
+        for (Method getter : getters) {
+            final String jsonFieldName = getJsonFieldName(getter);
+            if (!jsonFieldNames.add(jsonFieldName)) {
+                continue;
+            }
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(quoteStringLiteral(jsonFieldName)).append(": {\n");
+            emitStreamDeserializerImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            reader.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      reader.endObject();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Returns DTO getters ordered by {@link SerializationIndex}, gaps in index sequence are filled with {@code null}s. Returns
+     * {@code null} if DTO has no compact form, i.e. none of its getters is annotated with {@link SerializationIndex}.
+     */
+    private Method[] getCompactGetters(List<Method> getters) {
+        final Map<Integer, Method> indexedGetters = new HashMap<>();
+        int maxIndex = 0;
+        for (Method getter : getters) {
+            final SerializationIndex serializationIndex = getter.getAnnotation(SerializationIndex.class);
+            if (serializationIndex == null) {
+                continue;
+            }
+            // the same restrictions as for CompactJsonDto
+            final int index = serializationIndex.value();
+            Preconditions.checkState(index > 0 && index <= 53, "Serialization index out of range [1..53] for %s in %s",
+                                     getter.getName(), getDtoInterface().getSimpleName());
+            Preconditions.checkState(indexedGetters.put(index, getter) == null, "Duplicate serialization index for %s in %s",
+                                     getter.getName(), getDtoInterface().getSimpleName());
+            maxIndex = Math.max(index, maxIndex);
+        }
+        if (indexedGetters.isEmpty()) {
+            return null;
+        }
+        for (Method getter : getters) {
+            Preconditions.checkState(getter.isAnnotationPresent(SerializationIndex.class),
+                                     "Serialization index is not specified for %s in %s", getter.getName(),
+                                     getDtoInterface().getSimpleName());
+        }
+        final Method[] result = new Method[maxIndex];
+        for (int index = 0; index < maxIndex; index++) {
+            result[index] = indexedGetters.get(index + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Generates method that writes DTO in compact form: JSON array of values ordered by {@link SerializationIndex}. Values are
+     * written in the same way as in readable form.
+     */
+    private void emitCompactStreamSerializer(Method[] compactGetters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeCompactTo(JsonWriter writer) throws java.io.IOException {\n");
+        builder.append("      writer.beginArray();\n");
+        for (Method getter : compactGetters) {
+            builder.append("\n");
+            if (getter == null) {
+                builder.append("      writer.nullValue();\n");
+            } else {
+                emitStreamSerializerImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()),
+                                         "      ");
+            }
+        }
+        builder.append("      writer.endArray();\n");
+        builder.append("    }\n\n");
+    }
+
+    /** Generates a static factory method that reads a new instance in compact form from JsonReader. */
+    private void emitCompactStreamDeserializer(Method[] compactGetters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName())
+               .append(" readCompactFrom(JsonReader reader) throws java.io.IOException {\n");
+        builder.append("      if (reader.peek() == JsonToken.NULL) {\n");
+        builder.append("        reader.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      reader.beginArray();\n");
+        builder.append("      for (int index = 0; reader.hasNext(); index++) {\n");
+        builder.append("        switch (index) {\n");
+        for (int index = 0; index < compactGetters.length; index++) {
+            final Method getter = compactGetters[index];
+            if (getter == null) {
+                continue;
+            }
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(index).append(": {\n");
+            emitStreamDeserializerImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            reader.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      reader.endArray();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read value of the given type from JsonReader, the same JSON as with
+     * {@link #emitDeserializerImpl(List, int, StringBuilder, String, String, String)} is accepted.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamDeserializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final Class<?> rawClass = getRawClass(type);
+        final String childOutVar = outVar + "_";
+        if (isList(rawClass) || isMap(rawClass)) {
+            final boolean list = isList(rawClass);
+            final String keyVar = "key" + depth;
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (reader.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append(list ? "  reader.beginArray();\n" : "  reader.beginObject();\n");
+            builder.append(i).append("  while (reader.hasNext()) {\n");
+            if (!list) {
+                builder.append(i).append("    String ").append(keyVar).append(" = reader.nextName();\n");
+            }
+            emitStreamDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+            if (list) {
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+            } else {
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+            }
+            builder.append(i).append("  }\n");
+            builder.append(i).append(list ? "  reader.endArray();\n" : "  reader.endObject();\n");
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".readFrom(reader);\n");
+        } else if (rawClass == boolean.class) {
+            // JsonPrimitive accepts "true" and "false" strings as boolean values
+            builder.append(i).append("boolean ").append(outVar)
+                   .append(" = reader.peek() == JsonToken.STRING ? Boolean.parseBoolean(reader.nextString()) : reader.nextBoolean();\n");
+        } else if (rawClass == int.class || rawClass == short.class || rawClass == byte.class) {
+            final String cast = rawClass == int.class ? "" : "(" + rawClass.getSimpleName() + ")";
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = ").append(cast)
+                   .append("reader.nextInt();\n");
+        } else if (rawClass == long.class) {
+            builder.append(i).append("long ").append(outVar).append(" = reader.nextLong();\n");
+        } else if (rawClass == double.class || rawClass == float.class) {
+            final String cast = rawClass == double.class ? "" : "(float)";
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = ").append(cast)
+                   .append("reader.nextDouble();\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("JsonElement ").append(outVar).append(" = new JsonParser().parse(reader);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".readFrom(reader);\n");
+            } else {
+                // Use gson to handle all other types.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(reader, ")
+                       .append(rawClassName).append(".class);\n");
+            }
+        }
+    }
+
     private void emitDeserializerShortcut(StringBuilder builder) {
         builder.append("    public static ");
         builder.append(getImplClassName());
@@ -484,8 +822,8 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("      if (jsonString == null) {\n");
         builder.append("        return null;\n");
         builder.append("      }\n\n");
-        // The default fromJsonElement(json) creates its own JSON thus keeping parts of its as value is OK
-        builder.append("      return fromJsonElement(new JsonParser().parse(jsonString), false);\n");
+        builder.append("      return ").append(JSON_STREAM_HELPER).append(".fromJson(jsonString, ").append(getImplClassName())
+               .append("::readFrom);\n");
         builder.append("    }\n\n");
     }
 
@@ -586,8 +924,7 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = ").append(inVar).append(
                     ".getAs").append(primitiveNameCap).append("();\n");
         } else if (isAny(rawClass)) {
-            // TODO JsonElement.deepCopy() is package-protected, JSONs are serialized to strings then parsed for copying them
-            // outVar = copyJsons ? new JsonParser().parse(inVar) : inVar;
+            // outVar = copyJsons ? JsonCopyHelper.copyOf(inVar) : inVar;
             builder.append(i).append("JsonElement ").append(outVar).append(" = ");
             appendCopyJsonExpression(inVar, builder).append(";\n");
         } else {
@@ -612,19 +949,16 @@ public class DtoImplServerTemplate extends DtoImpl {
      */
     private static StringBuilder appendCopyJsonExpression(String inVar, StringBuilder builder) {
         builder.append(COPY_JSONS_PARAM).append(" ? ");
-        appendNaiveCopyJsonExpression(inVar, builder).append(" : (JsonElement)(").append(inVar).append(")");
+        appendDeepCopyJsonExpression(inVar, builder).append(" : (JsonElement)(").append(inVar).append(")");
         return builder;
     }
-    private static StringBuilder appendNaiveCopyJsonExpression(String inValue, StringBuilder builder) {
-        builder.append("((");
-        builder.append(inValue);
-        builder.append(") != null ? new JsonParser().parse((");
-        builder.append(inValue);
-        builder.append(").toString()) : null)");
-        return builder;
+
+    /** Append the expression that creates deep copy of the given value of 'any' property, {@code null} is copied as {@code null}. */
+    private static StringBuilder appendDeepCopyJsonExpression(String inValue, StringBuilder builder) {
+        return builder.append(JSON_COPY_HELPER).append(".copyOf(").append(inValue).append(")");
     }
 
-    private void emitPreamble(Class<?> dtoInterface, StringBuilder builder) {
+    private void emitPreamble(Class<?> dtoInterface, boolean hasCompactForm, StringBuilder builder) {
         builder.append(SERVER_DTO_MARKER);
         builder.append("  public static class ");
         builder.append(getImplClassName());
@@ -644,6 +978,9 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append(" implements ");
         builder.append(dtoInterface.getCanonicalName());
         builder.append(", JsonSerializable ");
+        if (hasCompactForm) {
+            builder.append(", ").append(CompactJsonSerializable.class.getCanonicalName()).append(" ");
+        }
         builder.append(" {\n\n");
         emitFactoryMethod(builder);
         emitDefaultConstructor(builder);
@@ -790,19 +1127,17 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(origin).append(".")
                    .append(getterName).append("();\n");
             builder.append(i).append("if (").append(fieldNameIn).append(" != null) {\n");
-            builder.append(i).append("  ").append(rawTypeName).append(" ").append(fieldNameOut)
-                   .append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append("  ").append(rawTypeName).append(" ").append(fieldNameOut).append(" = ");
+            emitNewCollection(type, fieldNameIn, builder);
+            builder.append(";\n");
             emitDeepCopyCollections(expandedTypes, depth, builder, fieldNameIn, fieldNameOut, i);
             builder.append(i).append("  ").append("this.").append(fieldName).append(" = ").append(fieldNameOut).append(";\n");
             builder.append(i).append("}\n");
-        } else if (isAny(rawClass)) {
-            builder.append(i).append("this.").append(fieldName).append(" = ");
-            appendNaiveCopyJsonExpression(origin + "." + getterName + "()", builder).append(";\n");
-        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+        } else if (isAny(rawClass) || isCopyableDto(rawClass)) {
             builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(origin).append(".")
                    .append(getterName).append("();\n");
             builder.append(i).append("this.").append(fieldName).append(" = ");
-            emitCheckNullAndCopyDto(rawClass, fieldNameIn, builder);
+            emitCopyValue(rawClass, fieldNameIn, builder);
             builder.append(";\n");
         } else {
             builder.append(i).append("this.").append(fieldName).append(" = ")
@@ -829,11 +1164,14 @@ public class DtoImplServerTemplate extends DtoImpl {
                     entryVar).append(".getValue();\n");
         }
         if (isList(childRawType) || isMap(childRawType)) {
+            builder.append(i).append("    ").append(childTypeName).append(" ").append(childVarOut).append(" = null;\n");
             builder.append(i).append("    if (").append(childVarIn).append(" != null) {\n");
-            builder.append(i).append("      ").append(childTypeName).append(" ").append(childVarOut)
-                   .append(" = new ").append(getImplName(expandedTypes.get(depth + 1), true)).append("();\n");
+            builder.append(i).append("      ").append(childVarOut).append(" = ");
+            emitNewCollection(expandedTypes.get(depth + 1), childVarIn, builder);
+            builder.append(";\n");
             emitDeepCopyCollections(expandedTypes, depth + 1, builder, childVarIn, childVarOut, i + "    ");
-            builder.append(i).append("      ").append(varOut);
+            builder.append(i).append("    ").append("}\n");
+            builder.append(i).append("    ").append(varOut);
             if (isList(rawClass)) {
                 builder.append(".add(");
             } else {
@@ -841,16 +1179,15 @@ public class DtoImplServerTemplate extends DtoImpl {
             }
             builder.append(childVarOut);
             builder.append(");\n");
-            builder.append(i).append("    ").append("}\n");
         } else {
-            builder.append(i).append("      ").append(varOut);
+            builder.append(i).append("    ").append(varOut);
             if (isList(rawClass)) {
                 builder.append(".add(");
             } else {
                 builder.append(".put(").append(entryVar).append(".getKey(), ");
             }
-            if (getEnclosingTemplate().isDtoInterface(childRawType)) {
-                emitCheckNullAndCopyDto(childRawType, childVarIn, builder);
+            if (isAny(childRawType) || isCopyableDto(childRawType)) {
+                emitCopyValue(childRawType, childVarIn, builder);
             } else {
                 builder.append(childVarIn);
             }
@@ -859,9 +1196,45 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append(i).append("  }\n");
     }
 
-    private void emitCheckNullAndCopyDto(Class<?> dto, String fieldName, StringBuilder builder) {
-        String implName = dto.getSimpleName() + "Impl";
-        builder.append(fieldName).append(" == null ? null : ").append("new ").append(implName).append("(").append(fieldName).append(")");
+    /** Emit the expression that creates new collection of the given type, lists are presized for all elements of {@code varIn}. */
+    private void emitNewCollection(Type type, String varIn, StringBuilder builder) {
+        builder.append("new ").append(getImplName(type, true)).append("(");
+        if (isList(getRawClass(type))) {
+            builder.append(varIn).append(".size()");
+        }
+        builder.append(")");
+    }
+
+    /**
+     * Checks whether values of the given type are copied deeply by copy constructor. These are DTOs generated in the same template
+     * and DTOs which implementations provide copy constructor.
+     */
+    private boolean isCopyableDto(Class<?> type) {
+        if (getEnclosingTemplate().isDtoInterface(type)) {
+            return true;
+        }
+        final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(type);
+        if (dtoImplementation == null) {
+            return false;
+        }
+        try {
+            dtoImplementation.getConstructor(type);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** Emit the expression that creates deep copy of the value of 'any' type or copyable DTO type. */
+    private void emitCopyValue(Class<?> type, String value, StringBuilder builder) {
+        if (isAny(type)) {
+            appendDeepCopyJsonExpression(value, builder);
+            return;
+        }
+        final String implName = getEnclosingTemplate().isDtoInterface(type)
+                                ? getImplNameForDto(type)
+                                : getEnclosingTemplate().getDtoImplementation(type).getCanonicalName();
+        builder.append(value).append(" == null ? null : ").append("new ").append(implName).append("(").append(value).append(")");
     }
 
     /** Emit a method that ensures a collection is initialized. */
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * DTO that may be serialized to compact form in addition to the readable one. Implemented by generated DTOs which getters
+ * are annotated with {@link org.eclipse.che.dto.shared.SerializationIndex}.
+ * <p/>
+ * Compact form is JSON array which contains values of properties ordered by their serialization indexes, gaps in index sequence
+ * are filled with {@code null}s. Values themselves are written in readable form. Compact form may be written as text with regular
+ * {@link JsonWriter} or in binary form with {@link UbjsonWriter}.
+ *
+ * @see DtoFactory#toCompactJson(Object)
+ * @see DtoFactory#createDtoFromCompactJson(String, Class)
+ */
+public interface CompactJsonSerializable extends JsonSerializable {
+
+    /** Writes DTO in compact form to the stream. */
+    void writeCompactTo(JsonWriter writer) throws IOException;
+}
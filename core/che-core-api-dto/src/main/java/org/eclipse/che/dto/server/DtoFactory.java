@@ -16,18 +16,20 @@ import com.google.common.cache.LoadingCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -143,6 +145,24 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Writes JSON representation of DTO to the specified writer without building of intermediate JSON string or object.
+     *
+     * @throws IllegalArgumentException
+     *         if specified object isn't instance of {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(T dto, Writer writer) throws IOException {
+        if (dto instanceof JsonSerializable) {
+            final JsonWriter jsonWriter = JsonStreamHelper.newWriter(writer);
+            ((JsonSerializable)dto).writeTo(jsonWriter);
+            jsonWriter.flush();
+            return;
+        }
+        throw new IllegalArgumentException("JsonSerializable instance required. ");
+    }
+
     public <T> JsonElement toJsonElement(T dto) {
         if (dto instanceof JsonSerializable) {
             return ((JsonSerializable)dto).toJsonElement();
@@ -150,6 +170,47 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /** Checks whether DTO may be serialized in compact form. */
+    public boolean hasCompactForm(Object dto) {
+        return dto instanceof CompactJsonSerializable;
+    }
+
+    /**
+     * Serializes DTO to JSON in compact form.
+     *
+     * @throws IllegalArgumentException
+     *         if DTO has no compact form
+     * @see CompactJsonSerializable
+     */
+    public <T> String toCompactJson(T dto) {
+        final StringWriter out = new StringWriter();
+        try {
+            toCompactJson(dto, JsonStreamHelper.newWriter(out));
+        } catch (IOException e) {
+            // writing to the string never fails
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes DTO in compact form to the specified writer, e.g. to {@link UbjsonWriter} for binary encoding.
+     *
+     * @throws IllegalArgumentException
+     *         if DTO has no compact form
+     * @throws IOException
+     *         if an i/o error occurs
+     * @see CompactJsonSerializable
+     */
+    public <T> void toCompactJson(T dto, JsonWriter writer) throws IOException {
+        if (dto instanceof CompactJsonSerializable) {
+            ((CompactJsonSerializable)dto).writeCompactTo(writer);
+            writer.flush();
+            return;
+        }
+        throw new IllegalArgumentException("CompactJsonSerializable instance required. ");
+    }
+
     /**
      * Creates new instance of class which implements specified DTO interface.
      *
@@ -193,14 +254,7 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
-        }
-        return dtoProvider.fromJson(sb.toString());
+        return JsonStreamHelper.fromJson(json, getDtoProvider(dtoInterface)::fromJson);
     }
 
     /**
@@ -220,6 +274,35 @@ public final class DtoFactory {
         return createDtoFromJson(new InputStreamReader(json), dtoInterface);
     }
 
+    /**
+     * Creates new instance of class which implements specified DTO interface from JSON in compact form.
+     *
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws UnsupportedOperationException
+     *         if DTO has no compact form
+     * @see CompactJsonSerializable
+     */
+    public <T> T createDtoFromCompactJson(String json, Class<T> dtoInterface) {
+        return JsonStreamHelper.fromJson(json, getDtoProvider(dtoInterface)::fromCompactJson);
+    }
+
+    /**
+     * Reads new instance of class which implements specified DTO interface in compact form from the specified reader, e.g. from
+     * {@link UbjsonReader} for binary encoding.
+     *
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws UnsupportedOperationException
+     *         if DTO has no compact form
+     * @throws IOException
+     *         if an i/o error occurs
+     * @see CompactJsonSerializable
+     */
+    public <T> T createDtoFromCompactJson(JsonReader reader, Class<T> dtoInterface) throws IOException {
+        return getDtoProvider(dtoInterface).fromCompactJson(reader);
+    }
+
     //
 
     /**
@@ -257,21 +340,16 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
-        try {
-            list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+        final List<T> result = JsonStreamHelper.fromJson(json, reader -> {
+            final List<T> list = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                list.add(dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
-        }
-        return new JsonArrayImpl<>(result);
+            reader.endArray();
+            return list;
+        });
+        return new JsonArrayImpl<>(result == null ? new ArrayList<>() : result);
     }
 
     /**
@@ -331,21 +409,16 @@ public final class DtoFactory {
     @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
-        try {
-            map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+        final Map<String, T> result = JsonStreamHelper.fromJson(json, reader -> {
+            final Map<String, T> map = new LinkedHashMap<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                map.put(reader.nextName(), dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
-        }
-        return new JsonStringMapImpl<>(result);
+            reader.endObject();
+            return map;
+        });
+        return new JsonStringMapImpl<>(result == null ? new LinkedHashMap<>() : result);
     }
 
     /**
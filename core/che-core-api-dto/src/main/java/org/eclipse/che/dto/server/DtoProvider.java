@@ -11,6 +11,10 @@
 package org.eclipse.che.dto.server;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
 
 /**
  * Provides implementation of DTO interface.
@@ -24,6 +28,25 @@ public interface DtoProvider<DTO> {
 
     DTO fromJson(JsonElement json);
 
+    /**
+     * Reads DTO from the JSON stream. Default implementation parses JSON object first, providers of generated DTOs read fields
+     * directly from the stream.
+     */
+    default DTO fromJson(JsonReader reader) throws IOException {
+        return fromJson(new JsonParser().parse(reader));
+    }
+
+    /**
+     * Reads DTO in compact form from the stream.
+     *
+     * @throws UnsupportedOperationException
+     *         if DTO has no compact form
+     * @see CompactJsonSerializable
+     */
+    default DTO fromCompactJson(JsonReader reader) throws IOException {
+        throw new UnsupportedOperationException("Compact form isn't supported by " + getImplClass());
+    }
+
     DTO newInstance();
 
     DTO clone(DTO origin);
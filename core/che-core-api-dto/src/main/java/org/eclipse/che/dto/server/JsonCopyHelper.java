@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.Map;
+
+/**
+ * Deep copy of JSON values that are stored in 'any' ({@code Object}) properties of DTOs, used by generated DTO implementations.
+ * Unlike copying through JSON string, values are copied node by node, immutable primitives and nulls are shared.
+ */
+public final class JsonCopyHelper {
+
+    /**
+     * Creates deep copy of the value of 'any' property.
+     *
+     * @return copy of {@code value} if it is {@link JsonElement}, result of parsing of string representation of {@code value}
+     * if it is not {@link JsonElement} or {@code null} if {@code value} is {@code null}
+     */
+    public static JsonElement copyOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof JsonElement) {
+            return deepCopy((JsonElement)value);
+        }
+        return new JsonParser().parse(value.toString());
+    }
+
+    /** Creates deep copy of JSON element. */
+    public static JsonElement deepCopy(JsonElement element) {
+        if (element.isJsonObject()) {
+            final JsonObject copy = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                copy.add(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (element.isJsonArray()) {
+            final JsonArray copy = new JsonArray();
+            for (JsonElement child : element.getAsJsonArray()) {
+                copy.add(deepCopy(child));
+            }
+            return copy;
+        }
+        // JsonPrimitive and JsonNull are immutable
+        return element;
+    }
+
+    private JsonCopyHelper() {
+    }
+}
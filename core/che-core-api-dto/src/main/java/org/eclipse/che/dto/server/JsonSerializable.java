@@ -13,9 +13,11 @@
 // limitations under the License.
 package org.eclipse.che.dto.server;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 
 /** An entity that may serialize itself to JSON. */
 public interface JsonSerializable extends Serializable {
@@ -25,4 +27,13 @@ public interface JsonSerializable extends Serializable {
 
     /** Serializes DTO to JSON object. */
     JsonElement toJsonElement();
+
+    /**
+     * Writes DTO to the JSON stream without building intermediate JSON object. Default implementation writes result of
+     * {@link #toJson()} as is, so the output is the same as the output of {@link #toJson()}, generated DTOs write their fields
+     * directly.
+     */
+    default void writeTo(JsonWriter writer) throws IOException {
+        writer.jsonValue(toJson());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Helpers for streaming serialization of DTOs, used by generated DTO implementations and {@link DtoFactory}. Readers and writers
+ * are configured in the same way as gson does it for its tree model, so streaming and tree serialization produce the same
+ * results: {@code null} properties of objects are omitted, HTML characters are not escaped and non-strict JSON is accepted.
+ */
+public final class JsonStreamHelper {
+
+    /** Reads value from JSON stream. */
+    public interface ReadFunction<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /** Creates writer for serialization of DTOs. */
+    public static JsonWriter newWriter(Writer out) {
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setSerializeNulls(false);
+        writer.setLenient(true);
+        return writer;
+    }
+
+    /** Creates reader for deserialization of DTOs. */
+    public static JsonReader newReader(Reader in) {
+        final JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /** Serializes DTO to JSON string. */
+    public static String toJson(JsonSerializable dto) {
+        final StringWriter out = new StringWriter();
+        try {
+            dto.writeTo(newWriter(out));
+        } catch (IOException e) {
+            // writing to the string never fails
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reads single JSON document from the string.
+     *
+     * @return result of {@code function} or {@code null} if string is empty
+     * @throws JsonSyntaxException
+     *         if JSON is malformed
+     */
+    public static <T> T fromJson(String json, ReadFunction<T> function) {
+        try {
+            return fromJson(new StringReader(json), function);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads single JSON document from the reader.
+     *
+     * @return result of {@code function} or {@code null} if reader doesn't contain any data
+     * @throws JsonSyntaxException
+     *         if JSON is malformed
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public static <T> T fromJson(Reader json, ReadFunction<T> function) throws IOException {
+        final JsonReader reader = newReader(json);
+        try {
+            try {
+                reader.peek();
+            } catch (EOFException e) {
+                // empty document, the same as JsonParser does
+                return null;
+            }
+            final T result = function.read(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return result;
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private JsonStreamHelper() {
+    }
+}
@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads JSON values in <a href="http://ubjson.org">Universal Binary JSON</a> format, so DTOs and JSON elements may be read
+ * from binary form with the same code as from text form. Containers with size and type optimization aren't supported.
+ *
+ * @see UbjsonWriter
+ */
+public class UbjsonReader extends JsonReader {
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private static final int NONE         = -1;
+    // states of containers
+    private static final int ARRAY        = 1;
+    private static final int OBJECT_NAME  = 2;
+    private static final int OBJECT_VALUE = 3;
+
+    private final DataInputStream in;
+
+    private int[] stack = new int[32];
+    private int   stackSize;
+    /** Marker of the next value that is already read from the stream or {@link #NONE}. */
+    private int   marker = NONE;
+
+    public UbjsonReader(InputStream in) {
+        super(UNREADABLE_READER);
+        this.in = new DataInputStream(in);
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        marker = NONE;
+        push(ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        marker = NONE;
+        stackSize--;
+        valueConsumed();
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        marker = NONE;
+        push(OBJECT_NAME);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        marker = NONE;
+        stackSize--;
+        valueConsumed();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        final JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (marker == NONE) {
+            marker = readMarker();
+        }
+        if (marker == NONE) {
+            if (stackSize > 0) {
+                throw new EOFException("End of input");
+            }
+            return JsonToken.END_DOCUMENT;
+        }
+        if (stackSize > 0 && stack[stackSize - 1] == OBJECT_NAME) {
+            return marker == '}' ? JsonToken.END_OBJECT : JsonToken.NAME;
+        }
+        switch (marker) {
+            case 'Z':
+                return JsonToken.NULL;
+            case 'T':
+            case 'F':
+                return JsonToken.BOOLEAN;
+            case 'i':
+            case 'U':
+            case 'I':
+            case 'l':
+            case 'L':
+            case 'd':
+            case 'D':
+            case 'H':
+                return JsonToken.NUMBER;
+            case 'S':
+            case 'C':
+                return JsonToken.STRING;
+            case '[':
+                return JsonToken.BEGIN_ARRAY;
+            case ']':
+                if (stackSize > 0 && stack[stackSize - 1] == ARRAY) {
+                    return JsonToken.END_ARRAY;
+                }
+                break;
+            case '{':
+                return JsonToken.BEGIN_OBJECT;
+            case '$':
+            case '#':
+                throw new MalformedJsonException("Optimized containers are not supported");
+        }
+        throw new MalformedJsonException("Unexpected marker '" + (char)marker + "'");
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        final String name = readString(readInteger(marker));
+        marker = NONE;
+        stack[stackSize - 1] = OBJECT_VALUE;
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        final JsonToken token = peek();
+        final String result;
+        if (token == JsonToken.STRING) {
+            result = nextStringValue();
+        } else if (token == JsonToken.NUMBER) {
+            result = readNumberAsString();
+        } else {
+            throw new IllegalStateException("Expected a string but was " + token);
+        }
+        marker = NONE;
+        valueConsumed();
+        return result;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        final boolean result = marker == 'T';
+        marker = NONE;
+        valueConsumed();
+        return result;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        marker = NONE;
+        valueConsumed();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        final JsonToken token = peek();
+        final double result;
+        if (token == JsonToken.NUMBER) {
+            switch (marker) {
+                case 'd':
+                    result = in.readFloat();
+                    break;
+                case 'D':
+                    result = in.readDouble();
+                    break;
+                case 'H':
+                    result = Double.parseDouble(readNumberAsString());
+                    break;
+                default:
+                    result = readInteger(marker);
+            }
+        } else if (token == JsonToken.STRING) {
+            result = Double.parseDouble(nextStringValue());
+        } else {
+            throw new IllegalStateException("Expected a double but was " + token);
+        }
+        marker = NONE;
+        valueConsumed();
+        return result;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        final JsonToken token = peek();
+        final long result;
+        if (token == JsonToken.NUMBER) {
+            switch (marker) {
+                case 'd':
+                    result = toLongExact(in.readFloat());
+                    break;
+                case 'D':
+                    result = toLongExact(in.readDouble());
+                    break;
+                case 'H':
+                    result = parseLong(readNumberAsString());
+                    break;
+                default:
+                    result = readInteger(marker);
+            }
+        } else if (token == JsonToken.STRING) {
+            result = parseLong(nextStringValue());
+        } else {
+            throw new IllegalStateException("Expected a long but was " + token);
+        }
+        marker = NONE;
+        valueConsumed();
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        final long result = nextLong();
+        if ((int)result != result) {
+            throw new NumberFormatException("Expected an int but was " + result);
+        }
+        return (int)result;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case BEGIN_OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case NAME:
+                nextName();
+                break;
+            case BOOLEAN:
+                nextBoolean();
+                break;
+            case NULL:
+                nextNull();
+                break;
+            case STRING:
+            case NUMBER:
+                nextString();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected " + peek());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stackSize = 0;
+        marker = NONE;
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        final JsonToken token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token);
+        }
+    }
+
+    private void push(int state) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = state;
+    }
+
+    /** Object expects the next name when value of the current property is read. */
+    private void valueConsumed() {
+        if (stackSize > 0 && stack[stackSize - 1] == OBJECT_VALUE) {
+            stack[stackSize - 1] = OBJECT_NAME;
+        }
+    }
+
+    /** Reads next marker skipping no-op markers, returns {@link #NONE} at the end of stream. */
+    private int readMarker() throws IOException {
+        int next;
+        do {
+            next = in.read();
+        } while (next == 'N');
+        return next < 0 ? NONE : next;
+    }
+
+    private long readInteger(int type) throws IOException {
+        switch (type) {
+            case 'i':
+                return in.readByte();
+            case 'U':
+                return in.readUnsignedByte();
+            case 'I':
+                return in.readShort();
+            case 'l':
+                return in.readInt();
+            case 'L':
+                return in.readLong();
+            default:
+                throw new MalformedJsonException("Integer expected but was '" + (char)type + "'");
+        }
+    }
+
+    private String readString(long length) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new MalformedJsonException("Invalid length of string " + length);
+        }
+        final byte[] bytes = new byte[(int)length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private String readNumberAsString() throws IOException {
+        switch (marker) {
+            case 'd':
+                return Float.toString(in.readFloat());
+            case 'D':
+                return Double.toString(in.readDouble());
+            case 'H':
+                return readString(readInteger(in.readUnsignedByte()));
+            default:
+                return Long.toString(readInteger(marker));
+        }
+    }
+
+    /** Reads value of the current string token without changing of state of reader. */
+    private String nextStringValue() throws IOException {
+        return marker == 'C' ? String.valueOf((char)in.readUnsignedByte()) : readString(readInteger(in.readUnsignedByte()));
+    }
+
+    private static long toLongExact(double value) {
+        final long result = (long)value;
+        if (result != value) {
+            throw new NumberFormatException("Expected a long but was " + value);
+        }
+        return result;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return new BigDecimal(value).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Expected a long but was " + value);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes JSON values in <a href="http://ubjson.org">Universal Binary JSON</a> format, so DTOs and JSON elements may be written
+ * in binary form with the same code as in text form. Containers are written without size and type optimization, integers
+ * are written with the smallest type that fits the value, numbers that don't fit to {@code long} or {@code double} are written
+ * as high-precision numbers.
+ * <p/>
+ * Like {@link JsonWriter} properties with {@code null} values are omitted unless {@link #setSerializeNulls(boolean)} is set to
+ * {@code true}.
+ *
+ * @see UbjsonReader
+ */
+public class UbjsonWriter extends JsonWriter {
+    private static final Gson RAW_JSON_GSON = new GsonBuilder().serializeNulls().create();
+
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int counter) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final DataOutputStream out;
+
+    private String deferredName;
+    private int    depth;
+
+    public UbjsonWriter(OutputStream out) {
+        super(UNWRITABLE_WRITER);
+        this.out = new DataOutputStream(out);
+        setSerializeNulls(false);
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        out.writeByte('[');
+        depth++;
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        out.writeByte('{');
+        depth++;
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        if (deferredName != null || depth == 0) {
+            throw new IllegalStateException();
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        out.writeByte('S');
+        writeString(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        out.writeByte('Z');
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        out.writeByte(value ? 'T' : 'F');
+        return this;
+    }
+
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        writeDeferredName();
+        out.writeByte('D');
+        out.writeDouble(value);
+        return this;
+    }
+
+    public JsonWriter value(float value) throws IOException {
+        writeDeferredName();
+        out.writeByte('d');
+        out.writeFloat(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        writeInteger(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer
+            || value instanceof Long
+            || value instanceof Short
+            || value instanceof Byte
+            || value instanceof AtomicInteger
+            || value instanceof AtomicLong) {
+            return value(value.longValue());
+        }
+        if (value instanceof Double) {
+            return value(value.doubleValue());
+        }
+        if (value instanceof Float) {
+            return value(value.floatValue());
+        }
+        if (value instanceof BigInteger && ((BigInteger)value).bitLength() < Long.SIZE) {
+            return value(value.longValue());
+        }
+        // e.g. BigDecimal or numbers parsed by gson, keep text representation as is
+        writeDeferredName();
+        out.writeByte('H');
+        writeString(value.toString());
+        return this;
+    }
+
+    /** Converts raw JSON value to binary form, {@code null} properties of raw JSON objects are kept. */
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        RAW_JSON_GSON.toJson(new JsonParser().parse(value), this);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if (depth > 0) {
+            throw new IOException("Incomplete document");
+        }
+    }
+
+    private JsonWriter close(char marker) throws IOException {
+        if (depth == 0 || deferredName != null) {
+            throw new IllegalStateException();
+        }
+        out.writeByte(marker);
+        depth--;
+        return this;
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            writeString(deferredName);
+            deferredName = null;
+        }
+    }
+
+    /** Writes length of UTF-8 representation of the string and its bytes, as for names of properties and string values. */
+    private void writeString(String value) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        writeInteger(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeInteger(long value) throws IOException {
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            out.writeByte('i');
+            out.writeByte((int)value);
+        } else if (value >= 0 && value <= 0xFF) {
+            out.writeByte('U');
+            out.writeByte((int)value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            out.writeByte('I');
+            out.writeShort((int)value);
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            out.writeByte('l');
+            out.writeInt((int)value);
+        } else {
+            out.writeByte('L');
+            out.writeLong(value);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.DtoWithAny;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonCopyHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Compares time of copying of DTOs with generated copy constructors ({@link DtoFactory#clone(Object)}) and with JSON round trip,
+ * and time of copying of 'any' values with {@link JsonCopyHelper} and through JSON string, as copy constructors did before. It
+ * isn't run with tests, run it with {@code main} method, optional arguments are number of elements in collections and number of
+ * copies per round.
+ */
+public class DtoCopyBenchmark {
+    private static final DtoFactory DTO_FACTORY = DtoFactory.getInstance();
+
+    public static void main(String[] args) throws Exception {
+        final int elements = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        final int copies = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        final JsonElement anyValue = createAnyValue(elements);
+        final DtoWithAny dtoWithAny = createDtoWithAny(anyValue, elements);
+        final ComplicatedDto complicatedDto = createComplicatedDto(elements);
+
+        System.out.printf("elements: %d, copies: %d%n", elements, copies);
+        for (int round = 0; round < 2; round++) {
+            // first round warms up
+            final boolean print = round == 1;
+            compare(print, "any value", copies,
+                    () -> new JsonParser().parse(anyValue.toString()),
+                    () -> JsonCopyHelper.deepCopy(anyValue));
+            compare(print, "dto with any", copies,
+                    () -> DTO_FACTORY.createDtoFromJson(DTO_FACTORY.toJson(dtoWithAny), DtoWithAny.class),
+                    () -> DTO_FACTORY.clone(dtoWithAny));
+            compare(print, "complicated dto", copies,
+                    () -> DTO_FACTORY.createDtoFromJson(DTO_FACTORY.toJson(complicatedDto), ComplicatedDto.class),
+                    () -> DTO_FACTORY.clone(complicatedDto));
+        }
+    }
+
+    private static void compare(boolean print, String name, int copies, Supplier<?> throughJson, Supplier<?> copy) {
+        final long jsonTime = measure(throughJson, copies);
+        final long copyTime = measure(copy, copies);
+        if (print) {
+            System.out.printf("%-16s through JSON: %8.2f us/copy; copy: %8.2f us/copy; x%.2f%n",
+                              name,
+                              jsonTime / 1e3 / copies,
+                              copyTime / 1e3 / copies,
+                              (double)jsonTime / copyTime);
+        }
+    }
+
+    private static long measure(Supplier<?> copy, int copies) {
+        // keep results reachable, so copying can't be eliminated
+        final Object[] results = new Object[copies];
+        final long start = System.nanoTime();
+        for (int i = 0; i < copies; i++) {
+            results[i] = copy.get();
+        }
+        final long time = System.nanoTime() - start;
+        if (results[copies - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return time;
+    }
+
+    private static JsonElement createAnyValue(int elements) {
+        final JsonArray array = new JsonArray();
+        for (int i = 0; i < elements; i++) {
+            final JsonObject object = new JsonObject();
+            object.addProperty("name", "element" + i);
+            object.addProperty("index", i);
+            object.addProperty("enabled", i % 2 == 0);
+            final JsonArray tags = new JsonArray();
+            tags.add(new JsonParser().parse("\"tag" + i + '"'));
+            object.add("tags", tags);
+            array.add(object);
+        }
+        final JsonObject value = new JsonObject();
+        value.add("elements", array);
+        return value;
+    }
+
+    private static DtoWithAny createDtoWithAny(JsonElement anyValue, int elements) {
+        final List<Object> objects = new ArrayList<>(elements);
+        for (JsonElement element : anyValue.getAsJsonObject().getAsJsonArray("elements")) {
+            objects.add(element);
+        }
+        return DTO_FACTORY.createDto(DtoWithAny.class).withStuff(anyValue).withObjects(objects);
+    }
+
+    private static ComplicatedDto createComplicatedDto(int elements) {
+        final List<String> strings = new ArrayList<>(elements);
+        final List<SimpleDto> simpleDtos = new ArrayList<>(elements);
+        final Map<String, SimpleDto> map = new HashMap<>();
+        for (int i = 0; i < elements; i++) {
+            final SimpleDto simpleDto = DTO_FACTORY.createDto(SimpleDto.class).withId(i).withName("name" + i);
+            strings.add("string" + i);
+            simpleDtos.add(simpleDto);
+            map.put("key" + i, simpleDto);
+        }
+        return DTO_FACTORY.createDto(ComplicatedDto.class)
+                          .withStrings(strings)
+                          .withSimpleEnum(ComplicatedDto.SimpleEnum.ONE)
+                          .withSimpleDtos(simpleDtos)
+                          .withMap(map)
+                          .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, ComplicatedDto.SimpleEnum.TWO)));
+    }
+}
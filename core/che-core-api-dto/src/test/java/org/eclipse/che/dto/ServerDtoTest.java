@@ -10,25 +10,39 @@
  *******************************************************************************/
 package org.eclipse.che.dto;
 
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonToken;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
 import org.eclipse.che.dto.definitions.DtoWithAny;
 import org.eclipse.che.dto.definitions.DtoWithDelegate;
 import org.eclipse.che.dto.definitions.DtoWithFieldNames;
+import org.eclipse.che.dto.definitions.DtoWithSerializationIndex;
 import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonArrayImpl;
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.server.JsonStreamHelper;
+import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.eclipse.che.dto.server.UbjsonReader;
+import org.eclipse.che.dto.server.UbjsonWriter;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +50,7 @@ import java.util.Map;
 
 import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -166,6 +181,42 @@ public class ServerDtoTest {
         assertEquals(expJson, json);
     }
 
+    @Test
+    public void testCloneWithAny() throws Exception {
+        DtoWithAny dto1 = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                    .withObjects(createListTestValueForAny());
+        DtoWithAny dto2 = dtoFactory.clone(dto1);
+        assertEquals(dto2, dto1);
+
+        ((JsonObject)dto1.getStuff()).getAsJsonObject("b").addProperty("c", "changed");
+        ((JsonObject)dto1.getObjects().get(0)).addProperty("x", 2);
+
+        assertEquals(dto2.getStuff(), createTestValueForAny());
+        assertEquals(dto2.getObjects(), createListTestValueForAny());
+    }
+
+    @Test
+    public void testCloneKeepsNullElementsOfNestedCollections() throws Exception {
+        final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("name");
+        final Map<String, SimpleDto> map = new HashMap<>();
+        map.put("dto", simpleDto);
+        map.put("null", null);
+        final ComplicatedDto dto1 = dtoFactory.createDto(ComplicatedDto.class)
+                                              .withSimpleDtos(asList(simpleDto, null))
+                                              .withMap(map)
+                                              .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE), null));
+
+        final ComplicatedDto dto2 = dtoFactory.clone(dto1);
+
+        assertEquals(dto2, dto1);
+        assertEquals(dto2.getSimpleDtos().get(1), null);
+        assertTrue(dto2.getMap().containsKey("null"));
+        assertEquals(dto2.getArrayOfArrayOfEnum().get(1), null);
+        simpleDto.withName("changed");
+        assertEquals(dto2.getSimpleDtos().get(0).getName(), "name");
+        assertEquals(dto2.getMap().get("dto").getName(), "name");
+    }
+
     /** Intentionally call several times to ensure non-reference equality */
     private static JsonElement createTestValueForAny() {
         return new JsonParser().parse("{a:100,b:{c:'blah'}}");
@@ -279,6 +330,152 @@ public class ServerDtoTest {
         assertEquals(arrayOfArrayOfEnum.get(2).getAsString(), ComplicatedDto.SimpleEnum.THREE.name());
     }
 
+    @Test
+    public void shouldWriteTheSameJsonAsTreeSerializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("<Something> & \"quoted\"").withId(1);
+        Map<String, SimpleDto> mapDtos = new HashMap<>();
+        mapDtos.put("first", simpleDto);
+        mapDtos.put("second", null);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("a", null, "b"))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(asList(simpleDto, null))
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE),
+                                                                      new ArrayList<>()));
+
+        StringWriter writer = new StringWriter();
+        dtoFactory.toJson(dto, writer);
+
+        String expected = new GsonBuilder().disableHtmlEscaping().create().toJson(dtoFactory.toJsonElement(dto));
+        assertEquals(writer.toString(), expected);
+        assertEquals(dtoFactory.toJson(dto), expected);
+    }
+
+    @Test
+    public void shouldWriteListAndMapToStreamInTheSameWayAsToJson() throws Exception {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "<b>");
+        map.put("c", null);
+        map.put("d", "e & f");
+        final JsonStringMapImpl<String> jsonMap = new JsonStringMapImpl<>(map);
+        final JsonArrayImpl<String> jsonArray = new JsonArrayImpl<>(asList("<a>", null, "b & c"));
+
+        assertEquals(JsonStreamHelper.toJson(jsonMap), jsonMap.toJson());
+        assertEquals(JsonStreamHelper.toJson(jsonArray), jsonArray.toJson());
+        assertEquals(jsonArray.toJson(), "[\"<a>\",null,\"b & c\"]");
+    }
+
+    @Test
+    public void shouldWriteResultOfToJsonToStreamWhenWriteToIsNotImplemented() throws Exception {
+        final String json = "{\"a\":\"<b>\",\"c\":null,\"d\":[1,\"e & f\"]}";
+        final JsonSerializable serializable = new JsonSerializable() {
+            @Override
+            public String toJson() {
+                return json;
+            }
+
+            @Override
+            public JsonElement toJsonElement() {
+                return new JsonParser().parse(json);
+            }
+        };
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        serializable.writeTo(new UbjsonWriter(out));
+
+        assertEquals(JsonStreamHelper.toJson(serializable), json);
+        assertEquals(new JsonParser().parse(new UbjsonReader(new ByteArrayInputStream(out.toByteArray()))),
+                     new JsonParser().parse(json));
+    }
+
+    @Test
+    public void shouldReadDtoFromStream() throws Exception {
+        String json = "{\"name\":\"foo\",\"id\":\"1\",\"unknown\":{\"a\":[1,2]},\"default\":null}";
+
+        SimpleDto dto = dtoFactory.createDtoFromJson(new StringReader(json), SimpleDto.class);
+
+        checkSimpleDto(dto, "foo", 1, null);
+        assertEquals(dto, dtoFactory.createDtoFromJson(json, SimpleDto.class));
+        assertEquals(dtoFactory.createDtoFromJson(new StringReader(""), SimpleDto.class), null);
+    }
+
+    @Test
+    public void shouldReadListAndMapOfDtosFromStream() throws Exception {
+        String json = "[{\"name\":\"foo\",\"id\":1},null,{\"name\":\"bar\",\"id\":2}]";
+
+        List<SimpleDto> list = dtoFactory.createListDtoFromJson(new StringReader(json), SimpleDto.class);
+        Map<String, SimpleDto> map = dtoFactory.createMapDtoFromJson(new StringReader("{\"foo\":{\"name\":\"foo\",\"id\":1}}"),
+                                                                     SimpleDto.class);
+
+        assertEquals(list.size(), 3);
+        checkSimpleDto(list.get(0), "foo", 1, null);
+        assertEquals(list.get(1), null);
+        checkSimpleDto(list.get(2), "bar", 2, null);
+        checkSimpleDto(map.get("foo"), "foo", 1, null);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void shouldFailWhenStreamContainsMalformedJson() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"foo\" \"id\":1}}"), SimpleDto.class);
+    }
+
+    @Test
+    public void shouldSerializeDtoInCompactForm() throws Exception {
+        final DtoWithSerializationIndex dto = createDtoWithSerializationIndex();
+
+        final String json = dtoFactory.toCompactJson(dto);
+
+        assertEquals(new JsonParser().parse(json),
+                     new JsonParser().parse("[\"name\",1024,null,\"TWO\",true,[{\"id\":1,\"name\":\"child\"}],{\"a\":1.5},{a:100,b:{c:'blah'}}]"));
+        assertEquals(dtoFactory.createDtoFromCompactJson(json, DtoWithSerializationIndex.class), dto);
+        // readable form is still available
+        assertEquals(dtoFactory.createDtoFromJson(dtoFactory.toJson(dto), DtoWithSerializationIndex.class), dto);
+    }
+
+    @Test
+    public void shouldSerializeDtoInBinaryForm() throws Exception {
+        final DtoWithSerializationIndex dto = createDtoWithSerializationIndex();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        dtoFactory.toCompactJson(dto, new UbjsonWriter(out));
+
+        assertTrue(out.size() < dtoFactory.toCompactJson(dto).length());
+        final UbjsonReader reader = new UbjsonReader(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(dtoFactory.createDtoFromCompactJson(reader, DtoWithSerializationIndex.class), dto);
+        assertEquals(reader.peek(), JsonToken.END_DOCUMENT);
+    }
+
+    @Test
+    public void shouldSkipUnknownElementsOfCompactForm() throws Exception {
+        final DtoWithSerializationIndex dto =
+                dtoFactory.createDtoFromCompactJson("[\"name\",1,{\"unknown\":[1,2]},null,false]",
+                                                    DtoWithSerializationIndex.class);
+
+        assertEquals(dto, dtoFactory.createDto(DtoWithSerializationIndex.class).withName("name").withSize(1));
+    }
+
+    @Test
+    public void shouldNotProvideCompactFormForDtoWithoutSerializationIndexes() throws Exception {
+        final SimpleDto dto = dtoFactory.createDto(SimpleDto.class);
+
+        assertFalse(dtoFactory.hasCompactForm(dto));
+        assertTrue(dtoFactory.hasCompactForm(createDtoWithSerializationIndex()));
+    }
+
+    private static DtoWithSerializationIndex createDtoWithSerializationIndex() {
+        final Map<String, Double> attributes = new HashMap<>();
+        attributes.put("a", 1.5);
+        return dtoFactory.createDto(DtoWithSerializationIndex.class)
+                         .withName("name")
+                         .withSize(1024)
+                         .withType(ComplicatedDto.SimpleEnum.TWO)
+                         .withFile(true)
+                         .withChildren(asList(dtoFactory.createDto(SimpleDto.class).withId(1).withName("child")))
+                         .withAttributes(attributes)
+                         .withStuff(createTestValueForAny());
+    }
+
     @Test
     public void testComplicatedDtoDeserializer() throws Exception {
         final String fooString = "Something";
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.definitions;
+
+import org.eclipse.che.dto.shared.DTO;
+import org.eclipse.che.dto.shared.SerializationIndex;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO that may be serialized in compact form, has gap in serialization indexes.
+ */
+@DTO
+public interface DtoWithSerializationIndex {
+    @SerializationIndex(1)
+    String getName();
+
+    DtoWithSerializationIndex withName(String name);
+
+    @SerializationIndex(2)
+    long getSize();
+
+    DtoWithSerializationIndex withSize(long size);
+
+    @SerializationIndex(4)
+    ComplicatedDto.SimpleEnum getType();
+
+    DtoWithSerializationIndex withType(ComplicatedDto.SimpleEnum type);
+
+    @SerializationIndex(5)
+    boolean isFile();
+
+    DtoWithSerializationIndex withFile(boolean file);
+
+    @SerializationIndex(6)
+    List<SimpleDto> getChildren();
+
+    DtoWithSerializationIndex withChildren(List<SimpleDto> children);
+
+    @SerializationIndex(7)
+    Map<String, Double> getAttributes();
+
+    DtoWithSerializationIndex withAttributes(Map<String, Double> attributes);
+
+    @SerializationIndex(8)
+    Object getStuff();
+
+    DtoWithSerializationIndex withStuff(Object stuff);
+}
@@ -21,10 +21,12 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.channels.FileChannel;
+import java.nio.file.CopyOption;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
@@ -32,6 +34,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
@@ -40,6 +43,10 @@ import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.TERMINATE;
@@ -48,6 +55,9 @@ public class IoUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(IoUtil.class);
 
+    /** Number of files which are copied by one task of executor. */
+    private static final int FILES_PER_COPY_TASK = 32;
+
     private IoUtil() {
     }
 
@@ -424,6 +434,89 @@ public class IoUtil {
         }
     }
 
+    /**
+     * Copy file or directory to the specified destination, existed files in destination directory are overwritten.
+     * <p/>
+     * Directories are created first, then files are copied in multiple threads with {@link Files#copy(Path, Path, CopyOption...)},
+     * so copying of big trees isn't limited by latency of single file operations. Folder {@code target} is skipped if it is inside
+     * of {@code source}.
+     *
+     * @param source
+     *         copy source
+     * @param target
+     *         copy destination
+     * @param filter
+     *         copy filter
+     * @param executor
+     *         copies files, may be {@code null}, then files are copied in the calling thread
+     * @throws java.io.IOException
+     *         if any i/o error occurs
+     */
+    public static void copy(File source, File target, FilenameFilter filter, ExecutorService executor) throws IOException {
+        if (!source.isDirectory()) {
+            copy(source, target, filter, true, true);
+            return;
+        }
+        final FilenameFilter fileFilter = filter == null ? ANY_FILTER : filter;
+        final Path sourceRoot = source.toPath();
+        final Path targetRoot = target.toPath();
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(sourceRoot, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(sourceRoot) && !fileFilter.accept(dir.getParent().toFile(), dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (dir.equals(targetRoot)) {
+                    // target is inside of source, don't copy copies
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(targetRoot.resolve(sourceRoot.relativize(dir)));
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (fileFilter.accept(file.getParent().toFile(), file.getFileName().toString())) {
+                    files.add(file);
+                }
+                return CONTINUE;
+            }
+        });
+        if (executor == null || files.size() <= FILES_PER_COPY_TASK) {
+            copyFiles(files, sourceRoot, targetRoot);
+            return;
+        }
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < files.size(); from += FILES_PER_COPY_TASK) {
+            final List<Path> taskFiles = files.subList(from, Math.min(from + FILES_PER_COPY_TASK, files.size()));
+            tasks.add(() -> {
+                copyFiles(taskFiles, sourceRoot, targetRoot);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while copying files");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private static void copyFiles(List<Path> files, Path sourceRoot, Path targetRoot) throws IOException {
+        for (Path file : files) {
+            Files.copy(file, targetRoot.resolve(sourceRoot.relativize(file)), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private static void copyFile(File source, File target, boolean replaceIfExists) throws IOException {
         if (!target.createNewFile()) {
             if (target.exists() && !replaceIfExists) {
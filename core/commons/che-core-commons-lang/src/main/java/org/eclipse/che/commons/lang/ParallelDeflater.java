@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Deflate compression that uses multiple threads, in the same way as <a href="http://zlib.net/pigz/">pigz</a> does.
+ * <p/>
+ * Input is split in blocks of fixed size, each block is compressed in separate task with last 32K of previous block as dictionary
+ * and is ended with sync flush, so compressed blocks that are written one after another in order of input make single valid
+ * deflate stream. Compression ratio is just a bit worse than ratio of single threaded compression. Checksum of input is
+ * calculated by thread that writes data.
+ * <p/>
+ * Instance of this class holds threads that are shared by all streams that are created with it, threads are stopped when they
+ * are idle for a minute. Use {@link ParallelZipOutputStream} or {@link ParallelGZIPOutputStream} for creation of zip or gzip
+ * content.
+ */
+public class ParallelDeflater implements Closeable {
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE     = 32 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /** Deflaters of compressing thread, one for each compression level. */
+    private static final ThreadLocal<Deflater[]> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater[10]);
+
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private static volatile ParallelDeflater defaultDeflater;
+
+    /** Gets instance that uses as many threads as number of available processors and blocks of default size. */
+    public static ParallelDeflater getDefault() {
+        ParallelDeflater deflater = defaultDeflater;
+        if (deflater == null) {
+            synchronized (ParallelDeflater.class) {
+                deflater = defaultDeflater;
+                if (deflater == null) {
+                    defaultDeflater = deflater = new ParallelDeflater(Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_SIZE);
+                }
+            }
+        }
+        return deflater;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int                blockSize;
+    private final int                maxPendingBlocks;
+
+    /**
+     * @param threads
+     *         number of threads that compress blocks
+     * @param blockSize
+     *         size of block of input that is compressed by one task, must not be less than 32K
+     */
+    public ParallelDeflater(int threads, int blockSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Block size must not be less than " + DICTIONARY_SIZE);
+        }
+        this.blockSize = blockSize;
+        // Enough to keep all threads busy while writer waits for the oldest block, but memory is still bounded.
+        this.maxPendingBlocks = threads * 4;
+        final String namePrefix = "ParallelDeflater-" + INSTANCE_COUNTER.incrementAndGet() + '-';
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Creates stream that writes raw deflate data, without any header and trailer, to specified output.
+     *
+     * @param output
+     *         output for compressed data
+     * @param level
+     *         compression level, see {@link Deflater}
+     */
+    public DeflateOutputStream newDeflateStream(OutputStream output, int level) {
+        return newDeflateStream(newOrderedOutput(output), level);
+    }
+
+    OrderedOutput newOrderedOutput(OutputStream output) {
+        return new OrderedOutput(output, maxPendingBlocks);
+    }
+
+    /** Creates stream which data is written to {@code output} after all data that is already added to it. */
+    DeflateOutputStream newDeflateStream(OrderedOutput output, int level) {
+        return new DeflateOutputStream(output, level);
+    }
+
+    /** Stops threads. Compression of blocks that are already submitted is completed, but new blocks are rejected. */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private Future<byte[]> submit(byte[] block, int length, byte[] dictionary, int dictionaryLength, int level, boolean last) {
+        return executor.submit(() -> compress(block, length, dictionary, dictionaryLength, level, last));
+    }
+
+    private static byte[] compress(byte[] block, int length, byte[] dictionary, int dictionaryLength, int level, boolean last) {
+        final Deflater deflater = getDeflater(level);
+        try {
+            if (dictionaryLength > 0) {
+                deflater.setDictionary(dictionary, dictionaryLength - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(block, 0, length);
+            byte[] compressed = new byte[length / 2 + 64];
+            int compressedLength = 0;
+            if (last) {
+                deflater.finish();
+            }
+            for (; ; ) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                final int space = compressed.length - compressedLength;
+                final int n = deflater.deflate(compressed, compressedLength, space, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                compressedLength += n;
+                if (last ? deflater.finished() : n < space) {
+                    break;
+                }
+            }
+            return compressedLength == compressed.length ? compressed : Arrays.copyOf(compressed, compressedLength);
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /** Creating of deflater is expensive comparing to compression of small block, so deflaters are reused by thread. */
+    private static Deflater getDeflater(int level) {
+        final Deflater[] deflaters = DEFLATERS.get();
+        final int index = level == Deflater.DEFAULT_COMPRESSION ? 6 : level;
+        Deflater deflater = deflaters[index];
+        if (deflater == null) {
+            deflaters[index] = deflater = new Deflater(index, true);
+        }
+        return deflater;
+    }
+
+    /** Action of {@link OrderedOutput}. */
+    interface OutputAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * Writes compressed blocks and any other data to the underlying output in order they are added. Caller is blocked when too
+     * many compressed blocks are waiting to be written.
+     */
+    static final class OrderedOutput {
+        private final OutputStream             output;
+        private final int                      maxPendingBlocks;
+        private final ArrayDeque<OutputAction> actions;
+        private final ArrayDeque<Boolean>      isBlock;
+
+        private int  pendingBlocks;
+        private long position;
+
+        OrderedOutput(OutputStream output, int maxPendingBlocks) {
+            this.output = output;
+            this.maxPendingBlocks = maxPendingBlocks;
+            actions = new ArrayDeque<>();
+            isBlock = new ArrayDeque<>();
+        }
+
+        /** Adds action that is performed after all actions that are added before it. */
+        void add(OutputAction action) throws IOException {
+            add(action, false);
+        }
+
+        /** Adds action that writes block. Waits for writing of blocks that are added earlier if there are too many of them. */
+        void addBlock(OutputAction action) throws IOException {
+            add(action, true);
+            while (pendingBlocks > maxPendingBlocks) {
+                runNext();
+            }
+        }
+
+        private void add(OutputAction action, boolean block) {
+            actions.add(action);
+            isBlock.add(block);
+            if (block) {
+                pendingBlocks++;
+            }
+        }
+
+        /** Performs all added actions. */
+        void drain() throws IOException {
+            while (!actions.isEmpty()) {
+                runNext();
+            }
+        }
+
+        private void runNext() throws IOException {
+            if (isBlock.poll()) {
+                pendingBlocks--;
+            }
+            actions.poll().run();
+        }
+
+        /** Writes data to the underlying output. Should be called from added actions only. */
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            output.write(bytes, offset, length);
+            position += length;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            write(bytes, 0, bytes.length);
+        }
+
+        /** Number of bytes that are written to the underlying output. */
+        long getPosition() {
+            return position;
+        }
+
+        OutputStream getOutput() {
+            return output;
+        }
+    }
+
+    /** Stream that compresses data in multiple threads and writes raw deflate data. */
+    public final class DeflateOutputStream extends OutputStream {
+        private final OrderedOutput output;
+        private final int           level;
+        private final CRC32         crc;
+
+        private byte[]  block;
+        private int     blockLength;
+        private byte[]  previousBlock;
+        private long    bytesRead;
+        private long    bytesWritten;
+        private boolean finished;
+        private boolean closed;
+
+        DeflateOutputStream(OrderedOutput output, int level) {
+            this.output = output;
+            this.level = level;
+            crc = new CRC32();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("Stream is finished");
+            }
+            if (off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+            crc.update(b, off, len);
+            bytesRead += len;
+            while (len > 0) {
+                if (block == null) {
+                    block = new byte[Math.min(INITIAL_BUFFER_SIZE, blockSize)];
+                    blockLength = 0;
+                } else if (blockLength == block.length) {
+                    // Buffer grows up to size of block, content of small files doesn't need the whole block.
+                    block = Arrays.copyOf(block, Math.min(block.length * 2, blockSize));
+                }
+                final int n = Math.min(len, block.length - blockLength);
+                System.arraycopy(b, off, block, blockLength, n);
+                blockLength += n;
+                off += n;
+                len -= n;
+                if (blockLength == blockSize) {
+                    submitBlock(false);
+                }
+            }
+        }
+
+        private void submitBlock(boolean last) throws IOException {
+            byte[] data = block == null ? new byte[0] : block;
+            if (last && blockLength < data.length) {
+                // Don't hold the whole buffer while the last block of stream is waiting to be written.
+                data = Arrays.copyOf(data, blockLength);
+            }
+            final Future<byte[]> compressed;
+            try {
+                compressed = submit(data, blockLength, previousBlock, previousBlock == null ? 0 : previousBlock.length, level, last);
+            } catch (RejectedExecutionException e) {
+                throw new IOException("Deflater is closed", e);
+            }
+            output.addBlock(() -> {
+                final byte[] bytes = await(compressed);
+                output.write(bytes);
+                bytesWritten += bytes.length;
+            });
+            previousBlock = last ? null : data;
+            block = null;
+            blockLength = 0;
+        }
+
+        /**
+         * Compresses the rest of input and ends deflate stream but doesn't wait until compressed data is written. Subsequent
+         * actions of the same {@link OrderedOutput} are performed after compressed data of this stream is written.
+         */
+        void end() throws IOException {
+            if (!finished) {
+                submitBlock(true);
+                finished = true;
+            }
+        }
+
+        /** Ends deflate stream and writes all compressed data to the underlying output without closing it. */
+        public void finish() throws IOException {
+            end();
+            output.drain();
+        }
+
+        /** Flushes the underlying output. Data that isn't compressed yet is written later. */
+        @Override
+        public void flush() throws IOException {
+            output.getOutput().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                try {
+                    finish();
+                } finally {
+                    output.getOutput().close();
+                }
+            }
+        }
+
+        /** Gets checksum of input. */
+        public long getCrc() {
+            return crc.getValue();
+        }
+
+        /** Gets number of bytes of input. */
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        /** Gets number of bytes of compressed data that are written to the underlying output so far. */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+
+    private static byte[] await(Future<byte[]> compressed) throws IOException {
+        try {
+            return compressed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compression of data");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
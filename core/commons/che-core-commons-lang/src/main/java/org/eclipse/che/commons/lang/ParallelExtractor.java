@@ -0,0 +1,453 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Extracts zip and tar archives and writes files in multiple threads.
+ * <p/>
+ * Entries of zip file are read in random order, so directories are created up front and then files are decompressed and written
+ * by threads of this extractor. Entries of zip or tar stream may be read only one after another, so content of small files is read
+ * in memory and is written by threads of extractor while next entries are read, content of big files is written by thread that
+ * reads archive. Size of files is set before their content is written when it is known.
+ * <p/>
+ * Entries that point outside of target directory, e.g. {@code ../file} or {@code /file}, are rejected, entries that point to
+ * target directory itself, e.g. {@code ./}, are skipped. Directories are created as needed, e.g. if archive contains files but
+ * doesn't contain their parent directories. If archive contains few entries with the same name then the last one wins, as if
+ * entries were extracted one after another.
+ */
+public class ParallelExtractor implements Closeable {
+    /** Content of files that are smaller than this is read from stream in memory and is written by separate thread. */
+    private static final int IN_MEMORY_FILE_SIZE = 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE    = 64 * 1024;
+
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private static volatile ParallelExtractor defaultExtractor;
+
+    /** Gets instance that uses as many threads as number of available processors. */
+    public static ParallelExtractor getDefault() {
+        ParallelExtractor extractor = defaultExtractor;
+        if (extractor == null) {
+            synchronized (ParallelExtractor.class) {
+                extractor = defaultExtractor;
+                if (extractor == null) {
+                    defaultExtractor = extractor = new ParallelExtractor(Runtime.getRuntime().availableProcessors());
+                }
+            }
+        }
+        return extractor;
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param threads
+     *         number of threads that write files
+     */
+    public ParallelExtractor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        final String namePrefix = "ParallelExtractor-" + INSTANCE_COUNTER.incrementAndGet() + '-';
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Creates group of tasks that are run by threads of this extractor. Twice as many tasks as there are threads may be
+     * submitted but not completed, it is enough to keep all threads busy.
+     */
+    public TaskGroup newTaskGroup() {
+        return new TaskGroup(executor, getThreads() * 2);
+    }
+
+    /**
+     * Extracts zip file.
+     *
+     * @param zip
+     *         zip file
+     * @param targetDir
+     *         directory to extract archive to
+     * @param overwrite
+     *         overwrite existing files, if {@code false} and any file from archive exists then nothing is extracted
+     * @param stripNumber
+     *         strip number leading components from file names on extraction
+     * @throws IOException
+     *         if i/o error occurs, if archive contains entry that points outside of {@code targetDir} or if any file from archive
+     *         exists and {@code overwrite} is {@code false}
+     */
+    public void unzip(File zip, File targetDir, boolean overwrite, int stripNumber) throws IOException {
+        final Path target = targetDir.toPath().toAbsolutePath().normalize();
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            // the last entry wins if there are few entries with the same name, files are written in parallel otherwise
+            final Map<Path, ZipEntry> files = new LinkedHashMap<>();
+            final Set<Path> directories = new TreeSet<>();
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+                final ZipEntry entry = entries.nextElement();
+                final Path path = resolve(target, entry.getName(), stripNumber);
+                if (path == null) {
+                    continue;
+                }
+                if (entry.isDirectory()) {
+                    directories.add(path);
+                } else {
+                    if (!overwrite && path.toFile().exists()) {
+                        throw new FileAlreadyExistsException(path.toString());
+                    }
+                    files.put(path, entry);
+                    directories.add(path.getParent());
+                }
+            }
+            // parents go before children in sorted set, most of directories are created with single call
+            for (Path directory : directories) {
+                createDirectory(directory.toFile());
+            }
+            final TaskGroup tasks = newTaskGroup();
+            boolean submitted = false;
+            try {
+                for (Iterator<Map.Entry<Path, ZipEntry>> i = files.entrySet().iterator(); i.hasNext() && !tasks.isFailed(); ) {
+                    final Map.Entry<Path, ZipEntry> next = i.next();
+                    final ZipEntry entry = next.getValue();
+                    final File file = next.getKey().toFile();
+                    tasks.submit(1, () -> {
+                        try (InputStream content = zipFile.getInputStream(entry)) {
+                            writeFile(file, content, entry.getSize());
+                        }
+                    });
+                }
+                submitted = true;
+            } finally {
+                if (!submitted) {
+                    // zip file is closed when this method exits, running tasks must not read it after that
+                    tasks.abort();
+                }
+            }
+            awaitTasks(tasks);
+        }
+    }
+
+    /**
+     * Extracts zip stream. Entries are read one after another, so files are written in multiple threads but are decompressed in
+     * calling thread. Use {@link #unzip(File, File, boolean, int)} if archive may be saved in file.
+     *
+     * @see #unzip(File, File, boolean, int)
+     */
+    public void unzip(InputStream zip, File targetDir, boolean overwrite, int stripNumber) throws IOException {
+        final Path target = targetDir.toPath().toAbsolutePath().normalize();
+        final ZipInputStream zipIn = new ZipInputStream(zip);
+        final StreamExtraction extraction = new StreamExtraction(overwrite);
+        boolean read = false;
+        try {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null && !extraction.tasks.isFailed()) {
+                final Path path = resolve(target, entry.getName(), stripNumber);
+                if (path != null) {
+                    if (entry.isDirectory()) {
+                        extraction.createDirectory(path);
+                    } else {
+                        extraction.extractFile(path, zipIn, entry.getSize());
+                    }
+                }
+                zipIn.closeEntry();
+            }
+            read = true;
+        } finally {
+            if (!read) {
+                extraction.tasks.abort();
+            }
+        }
+        awaitTasks(extraction.tasks);
+    }
+
+    /**
+     * Extracts tar stream. Symbolic links and other special entries are skipped.
+     *
+     * @see #unzip(InputStream, File, boolean, int)
+     */
+    public void untar(InputStream tar, File targetDir, boolean overwrite, int stripNumber) throws IOException {
+        final Path target = targetDir.toPath().toAbsolutePath().normalize();
+        final TarArchiveInputStream tarIn = new TarArchiveInputStream(tar);
+        final StreamExtraction extraction = new StreamExtraction(overwrite);
+        boolean read = false;
+        try {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextTarEntry()) != null && !extraction.tasks.isFailed()) {
+                final Path path = resolve(target, entry.getName(), stripNumber);
+                if (path != null) {
+                    if (entry.isDirectory()) {
+                        extraction.createDirectory(path);
+                    } else if (entry.isFile()) {
+                        extraction.extractFile(path, tarIn, entry.getSize());
+                    }
+                }
+            }
+            read = true;
+        } finally {
+            if (!read) {
+                extraction.tasks.abort();
+            }
+        }
+        awaitTasks(extraction.tasks);
+    }
+
+    /** Stops threads. Tasks that are already submitted are completed, but new tasks are rejected. */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /** Extraction of archive that may be read only one entry after another. */
+    private final class StreamExtraction {
+        final boolean   overwrite;
+        final TaskGroup tasks;
+        final Set<Path> createdDirectories;
+
+        StreamExtraction(boolean overwrite) {
+            this.overwrite = overwrite;
+            tasks = newTaskGroup();
+            createdDirectories = new HashSet<>();
+        }
+
+        void createDirectory(Path directory) throws IOException {
+            if (createdDirectories.add(directory)) {
+                ParallelExtractor.createDirectory(directory.toFile());
+            }
+        }
+
+        void extractFile(Path path, InputStream content, long size) throws IOException {
+            createDirectory(path.getParent());
+            final File file = path.toFile();
+            if (!overwrite && file.exists()) {
+                throw new FileAlreadyExistsException(path.toString());
+            }
+            if (size >= 0 && size <= IN_MEMORY_FILE_SIZE) {
+                final byte[] bytes = readFully(content, (int)size);
+                tasks.submit(1, () -> writeFile(file, new ByteArrayInputStream(bytes), bytes.length));
+            } else {
+                writeFile(file, content, size);
+            }
+        }
+    }
+
+    /**
+     * Resolves name of entry against target directory.
+     *
+     * @return path of entry or {@code null} if entry is skipped because its name has less than {@code stripNumber} components or
+     * because it points to target directory itself, e.g. {@code ./}
+     * @throws IOException
+     *         if entry points outside of target directory
+     */
+    static Path resolve(Path target, String name, int stripNumber) throws IOException {
+        String relative = name.replace('\\', '/');
+        for (int i = 0; i < stripNumber; i++) {
+            final int separator = relative.indexOf('/');
+            if (separator < 0 || separator == relative.length() - 1) {
+                return null;
+            }
+            relative = relative.substring(separator + 1);
+        }
+        final Path path = target.resolve(relative).normalize();
+        if (path.equals(target)) {
+            return null;
+        }
+        if (!path.startsWith(target)) {
+            throw new IOException("Entry " + name + " is outside of target directory");
+        }
+        return path;
+    }
+
+    private static void createDirectory(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Unable to create folder " + directory.getAbsolutePath());
+        }
+    }
+
+    private static void writeFile(File file, InputStream content, long size) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            // Reserves size of file when it is known. Also cuts off the rest of existing file.
+            out.setLength(Math.max(size, 0));
+            final FileChannel channel = out.getChannel();
+            final byte[] buffer = new byte[size < 0 || size > COPY_BUFFER_SIZE ? COPY_BUFFER_SIZE : Math.max((int)size, 1)];
+            long written = 0;
+            int r;
+            while ((r = content.read(buffer)) != -1) {
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, r);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                written += r;
+            }
+            if (written != size) {
+                out.setLength(written);
+            }
+        }
+    }
+
+    private static byte[] readFully(InputStream in, int size) throws IOException {
+        final byte[] bytes = new byte[size];
+        int offset = 0;
+        while (offset < size) {
+            final int r = in.read(bytes, offset, size - offset);
+            if (r == -1) {
+                throw new IOException("Unexpected end of archive");
+            }
+            offset += r;
+        }
+        return bytes;
+    }
+
+    private static void awaitTasks(TaskGroup tasks) throws IOException {
+        try {
+            tasks.await();
+        } catch (Exception e) {
+            if (e instanceof IOException) {
+                throw (IOException)e;
+            }
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /** Task of {@link TaskGroup}. */
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs tasks with threads of {@link ParallelExtractor} and waits for their completion. Each task has weight and summary
+     * weight of tasks that are submitted but not completed is limited, so caller is blocked when it submits tasks faster than
+     * they are completed. After failure of any task new tasks are not run, failure is thrown from {@link #await()}.
+     */
+    public static final class TaskGroup {
+        private final ExecutorService            executor;
+        private final int                        capacity;
+        private final Semaphore                  permits;
+        private final AtomicReference<Exception> failure;
+
+        TaskGroup(ExecutorService executor, int capacity) {
+            this.executor = executor;
+            this.capacity = capacity;
+            permits = new Semaphore(capacity);
+            failure = new AtomicReference<>();
+        }
+
+        /**
+         * Submits task.
+         *
+         * @param weight
+         *         weight of task, e.g. number of bytes that task holds in memory, weight that exceeds capacity of group is
+         *         reduced to its capacity
+         * @param task
+         *         task
+         */
+        public void submit(int weight, Task task) throws InterruptedIOException {
+            final int permitCount = Math.max(1, Math.min(weight, capacity));
+            try {
+                permits.acquire(permitCount);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for completion of tasks");
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        if (failure.get() == null) {
+                            task.run();
+                        }
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release(permitCount);
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release(permitCount);
+                throw e;
+            }
+        }
+
+        /**
+         * Prevents start of tasks that are submitted but not started yet and waits for completion of running tasks. Used when
+         * caller fails and resources that tasks use are about to be released. Failures of tasks are not thrown.
+         */
+        public void abort() {
+            failure.compareAndSet(null, new CancellationException("Tasks are aborted"));
+            permits.acquireUninterruptibly(capacity);
+            permits.release(capacity);
+        }
+
+        /** Returns {@code true} if any task is failed, there is no reason to submit new tasks then. */
+        public boolean isFailed() {
+            return failure.get() != null;
+        }
+
+        /**
+         * Waits for completion of all submitted tasks.
+         *
+         * @throws Exception
+         *         failure of the first failed task
+         */
+        public void await() throws Exception {
+            try {
+                permits.acquire(capacity);
+                permits.release(capacity);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for completion of tasks");
+            }
+            final Exception e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Writes data in gzip format, data is compressed with multiple threads of {@link ParallelDeflater}. Output may be read with
+ * {@link java.util.zip.GZIPInputStream} or any other gzip decompressor.
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+    private static final byte[] HEADER = {0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final OutputStream                         output;
+    private final ParallelDeflater.DeflateOutputStream deflateStream;
+
+    private boolean finished;
+    private boolean closed;
+
+    public ParallelGZIPOutputStream(OutputStream output, ParallelDeflater deflater) throws IOException {
+        this(output, deflater, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public ParallelGZIPOutputStream(OutputStream output, ParallelDeflater deflater, int level) throws IOException {
+        this.output = output;
+        output.write(HEADER);
+        deflateStream = deflater.newDeflateStream(output, level);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        deflateStream.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        deflateStream.write(b, off, len);
+    }
+
+    /** Writes the rest of compressed data and gzip trailer without closing the underlying stream. */
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            deflateStream.finish();
+            final long crc = deflateStream.getCrc();
+            final long size = deflateStream.getBytesRead();
+            output.write(new byte[]{(byte)crc, (byte)(crc >> 8), (byte)(crc >> 16), (byte)(crc >> 24),
+                                    (byte)size, (byte)(size >> 8), (byte)(size >> 16), (byte)(size >> 24)});
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                finish();
+            } finally {
+                output.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes data in zip format, content of entries is compressed with multiple threads of {@link ParallelDeflater}. It may be used
+ * instead of {@link ZipOutputStream} by any code that writes zip archives.
+ * <p/>
+ * Entries are compressed in parallel too, next entry is started while data of previous entries is being compressed, so archive
+ * of many small files is created as fast as archive of few big files. Entries are written in order they are added. Size and
+ * checksum of DEFLATED entry are written in data descriptor after compressed data, so content isn't buffered. Zip64 extensions
+ * are used when archive has too many entries or entries or archive are too big. Extra data and comments of entries are not
+ * written.
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+    private static final int  LOCAL_HEADER_SIGNATURE      = 0x04034b50;
+    private static final int  DATA_DESCRIPTOR_SIGNATURE   = 0x08074b50;
+    private static final int  CENTRAL_HEADER_SIGNATURE    = 0x02014b50;
+    private static final int  ZIP64_END_SIGNATURE         = 0x06064b50;
+    private static final int  ZIP64_END_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int  END_SIGNATURE               = 0x06054b50;
+    private static final int  ZIP64_EXTRA_TAG             = 0x0001;
+    private static final int  DATA_DESCRIPTOR_FLAG        = 0x0008;
+    private static final int  UTF8_FLAG                   = 0x0800;
+    private static final int  VERSION                     = 20;
+    private static final int  ZIP64_VERSION               = 45;
+    private static final long ZIP64_MAGIC                 = 0xFFFFFFFFL;
+    private static final int  ZIP64_MAGIC_COUNT           = 0xFFFF;
+
+    private final ParallelDeflater               deflater;
+    private final ParallelDeflater.OrderedOutput output;
+    private final List<Entry>                    entries;
+    private final Set<String>                    names;
+
+    private Entry                                current;
+    private ParallelDeflater.DeflateOutputStream currentStream;
+    private CRC32                                storedCrc;
+    private int                                  method;
+    private int                                  level;
+    private byte[]                               comment;
+    private boolean                              finished;
+    private boolean                              closed;
+
+    public ParallelZipOutputStream(OutputStream output, ParallelDeflater deflater) {
+        super(output);
+        this.deflater = deflater;
+        this.output = deflater.newOrderedOutput(output);
+        entries = new ArrayList<>();
+        names = new HashSet<>();
+        method = DEFLATED;
+        level = Deflater.DEFAULT_COMPRESSION;
+    }
+
+    @Override
+    public void setComment(String comment) {
+        if (comment != null) {
+            final byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("ZIP file comment too long.");
+            }
+            this.comment = bytes;
+        }
+    }
+
+    @Override
+    public void setMethod(int method) {
+        if (method != DEFLATED && method != STORED) {
+            throw new IllegalArgumentException("invalid compression method");
+        }
+        this.method = method;
+    }
+
+    /** Sets compression level of subsequent entries. */
+    @Override
+    public void setLevel(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        this.level = level;
+    }
+
+    @Override
+    public void putNextEntry(ZipEntry zipEntry) throws IOException {
+        ensureOpen();
+        if (current != null) {
+            closeEntry();
+        }
+        if (!names.add(zipEntry.getName())) {
+            throw new ZipException("duplicate entry: " + zipEntry.getName());
+        }
+        final Entry entry = new Entry(zipEntry.getName().getBytes(StandardCharsets.UTF_8),
+                                      zipEntry.getMethod() == -1 ? method : zipEntry.getMethod(),
+                                      toDosTime(zipEntry.getTime() == -1 ? System.currentTimeMillis() : zipEntry.getTime()));
+        if (entry.name.length > 0xFFFF) {
+            throw new IllegalArgumentException("name too long");
+        }
+        if (entry.method == STORED) {
+            if (zipEntry.getSize() == -1 || zipEntry.getCrc() == -1) {
+                throw new ZipException("STORED entry missing size, compressed size, or crc-32");
+            }
+            entry.size = entry.compressedSize = zipEntry.getSize();
+            entry.crc = zipEntry.getCrc();
+            storedCrc = new CRC32();
+        } else {
+            currentStream = deflater.newDeflateStream(output, level);
+        }
+        output.add(() -> {
+            entry.offset = output.getPosition();
+            output.write(localHeader(entry));
+        });
+        current = entry;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (current == null) {
+            throw new ZipException("no current ZIP entry");
+        }
+        if (current.method == STORED) {
+            if (off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+            storedCrc.update(b, off, len);
+            current.written += len;
+            if (current.written > current.size) {
+                throw new ZipException("attempt to write past end of STORED entry");
+            }
+            final byte[] copy = Arrays.copyOfRange(b, off, off + len);
+            output.addBlock(() -> output.write(copy));
+        } else {
+            currentStream.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        ensureOpen();
+        if (current == null) {
+            return;
+        }
+        final Entry entry = current;
+        current = null;
+        if (entry.method == STORED) {
+            if (entry.written != entry.size) {
+                throw new ZipException("invalid entry size (expected " + entry.size + " but got " + entry.written + " bytes)");
+            }
+            if (storedCrc.getValue() != entry.crc) {
+                throw new ZipException("invalid entry crc-32 (expected 0x" + Long.toHexString(entry.crc) + " but got 0x" +
+                                       Long.toHexString(storedCrc.getValue()) + ")");
+            }
+        } else {
+            final ParallelDeflater.DeflateOutputStream stream = currentStream;
+            currentStream = null;
+            // Compressed data isn't written yet, only size of input and its checksum are known here.
+            stream.end();
+            entry.crc = stream.getCrc();
+            entry.size = stream.getBytesRead();
+            output.add(() -> {
+                entry.compressedSize = stream.getBytesWritten();
+                output.write(dataDescriptor(entry));
+            });
+        }
+        entries.add(entry);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        ensureOpen();
+        if (finished) {
+            return;
+        }
+        if (current != null) {
+            closeEntry();
+        }
+        output.add(this::writeCentralDirectory);
+        output.drain();
+        finished = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.getOutput().flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                finish();
+            } finally {
+                closed = true;
+                // deflater of ZipOutputStream isn't used
+                def.end();
+                output.getOutput().close();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        final long centralDirectoryOffset = output.getPosition();
+        for (Entry entry : entries) {
+            output.write(centralHeader(entry));
+        }
+        final long centralDirectorySize = output.getPosition() - centralDirectoryOffset;
+        final int count = entries.size();
+        if (count >= ZIP64_MAGIC_COUNT || centralDirectoryOffset >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC) {
+            final long zip64EndOffset = output.getPosition();
+            output.write(newBuffer(56 + 20).putInt(ZIP64_END_SIGNATURE)
+                                           .putLong(44)
+                                           .putShort((short)ZIP64_VERSION)
+                                           .putShort((short)ZIP64_VERSION)
+                                           .putInt(0)
+                                           .putInt(0)
+                                           .putLong(count)
+                                           .putLong(count)
+                                           .putLong(centralDirectorySize)
+                                           .putLong(centralDirectoryOffset)
+                                           .putInt(ZIP64_END_LOCATOR_SIGNATURE)
+                                           .putInt(0)
+                                           .putLong(zip64EndOffset)
+                                           .putInt(1)
+                                           .array());
+        }
+        final byte[] archiveComment = comment == null ? new byte[0] : comment;
+        output.write(newBuffer(22 + archiveComment.length).putInt(END_SIGNATURE)
+                                                          .putShort((short)0)
+                                                          .putShort((short)0)
+                                                          .putShort((short)Math.min(count, ZIP64_MAGIC_COUNT))
+                                                          .putShort((short)Math.min(count, ZIP64_MAGIC_COUNT))
+                                                          .putInt((int)Math.min(centralDirectorySize, ZIP64_MAGIC))
+                                                          .putInt((int)Math.min(centralDirectoryOffset, ZIP64_MAGIC))
+                                                          .putShort((short)archiveComment.length)
+                                                          .put(archiveComment)
+                                                          .array());
+    }
+
+    private static byte[] localHeader(Entry entry) {
+        if (entry.method == STORED) {
+            final boolean zip64 = entry.size >= ZIP64_MAGIC;
+            final ByteBuffer buffer = newBuffer(30 + entry.name.length + (zip64 ? 20 : 0));
+            buffer.putInt(LOCAL_HEADER_SIGNATURE)
+                  .putShort((short)(zip64 ? ZIP64_VERSION : VERSION))
+                  .putShort((short)UTF8_FLAG)
+                  .putShort((short)STORED)
+                  .putInt((int)entry.dosTime)
+                  .putInt((int)entry.crc)
+                  .putInt((int)(zip64 ? ZIP64_MAGIC : entry.size))
+                  .putInt((int)(zip64 ? ZIP64_MAGIC : entry.size))
+                  .putShort((short)entry.name.length)
+                  .putShort((short)(zip64 ? 20 : 0))
+                  .put(entry.name);
+            if (zip64) {
+                buffer.putShort((short)ZIP64_EXTRA_TAG).putShort((short)16).putLong(entry.size).putLong(entry.size);
+            }
+            return buffer.array();
+        }
+        // size and checksum are written in data descriptor
+        return newBuffer(30 + entry.name.length).putInt(LOCAL_HEADER_SIGNATURE)
+                                                .putShort((short)VERSION)
+                                                .putShort((short)(UTF8_FLAG | DATA_DESCRIPTOR_FLAG))
+                                                .putShort((short)DEFLATED)
+                                                .putInt((int)entry.dosTime)
+                                                .putInt(0)
+                                                .putInt(0)
+                                                .putInt(0)
+                                                .putShort((short)entry.name.length)
+                                                .putShort((short)0)
+                                                .put(entry.name)
+                                                .array();
+    }
+
+    private static byte[] dataDescriptor(Entry entry) {
+        if (entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC) {
+            return newBuffer(24).putInt(DATA_DESCRIPTOR_SIGNATURE)
+                                .putInt((int)entry.crc)
+                                .putLong(entry.compressedSize)
+                                .putLong(entry.size)
+                                .array();
+        }
+        return newBuffer(16).putInt(DATA_DESCRIPTOR_SIGNATURE)
+                            .putInt((int)entry.crc)
+                            .putInt((int)entry.compressedSize)
+                            .putInt((int)entry.size)
+                            .array();
+    }
+
+    private static byte[] centralHeader(Entry entry) {
+        final boolean zip64Size = entry.size >= ZIP64_MAGIC;
+        final boolean zip64CompressedSize = entry.compressedSize >= ZIP64_MAGIC;
+        final boolean zip64Offset = entry.offset >= ZIP64_MAGIC;
+        final int zip64DataSize = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+        final int extraSize = zip64DataSize == 0 ? 0 : 4 + zip64DataSize;
+        final int version = zip64DataSize == 0 ? VERSION : ZIP64_VERSION;
+        final int flags = entry.method == STORED ? UTF8_FLAG : (UTF8_FLAG | DATA_DESCRIPTOR_FLAG);
+        final ByteBuffer buffer = newBuffer(46 + entry.name.length + extraSize);
+        buffer.putInt(CENTRAL_HEADER_SIGNATURE)
+              .putShort((short)version)
+              .putShort((short)version)
+              .putShort((short)flags)
+              .putShort((short)entry.method)
+              .putInt((int)entry.dosTime)
+              .putInt((int)entry.crc)
+              .putInt((int)(zip64CompressedSize ? ZIP64_MAGIC : entry.compressedSize))
+              .putInt((int)(zip64Size ? ZIP64_MAGIC : entry.size))
+              .putShort((short)entry.name.length)
+              .putShort((short)extraSize)
+              .putShort((short)0)
+              .putShort((short)0)
+              .putShort((short)0)
+              .putInt(0)
+              .putInt((int)(zip64Offset ? ZIP64_MAGIC : entry.offset))
+              .put(entry.name);
+        if (extraSize > 0) {
+            buffer.putShort((short)ZIP64_EXTRA_TAG).putShort((short)zip64DataSize);
+            if (zip64Size) {
+                buffer.putLong(entry.size);
+            }
+            if (zip64CompressedSize) {
+                buffer.putLong(entry.compressedSize);
+            }
+            if (zip64Offset) {
+                buffer.putLong(entry.offset);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Converts time to MS-DOS date and time, times before 1980 are written as 1980-01-01. */
+    private static long toDosTime(long time) {
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        if (dateTime.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long)(dateTime.getYear() - 1980) << 25)
+               | (dateTime.getMonthValue() << 21)
+               | (dateTime.getDayOfMonth() << 16)
+               | (dateTime.getHour() << 11)
+               | (dateTime.getMinute() << 5)
+               | (dateTime.getSecond() >> 1);
+    }
+
+    private static final class Entry {
+        final byte[] name;
+        final int    method;
+        final long   dosTime;
+
+        long crc;
+        long size;
+        long compressedSize;
+        long offset;
+        long written;
+
+        Entry(byte[] name, int method, long dosTime) {
+            this.name = name;
+            this.method = method;
+            this.dosTime = dosTime;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.ByteOrder;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -37,21 +38,50 @@ import java.util.zip.ZipOutputStream;
 public class ZipUtils {
     private static final int BUF_SIZE = 4096;
 
+    /** Same as {@link #zipDir(String, File, File, FilenameFilter, int)} but content of files is stored without compression. */
     public static void zipDir(String parentPath, File dir, File zip, FilenameFilter filter) throws IOException {
+        zipDir(parentPath, dir, zip, filter, Deflater.NO_COMPRESSION);
+    }
+
+    /**
+     * Adds content of directory {@code dir} to the zip file {@code zip}, names of entries are relative to {@code parentPath}.
+     *
+     * @param level
+     *         compression level, see {@link Deflater}
+     */
+    public static void zipDir(String parentPath, File dir, File zip, FilenameFilter filter, int level) throws IOException {
+        checkZipDirArguments(parentPath, dir);
+        try (ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zip)))) {
+            zipOut.setLevel(level);
+            addDirectoryRecursively(zipOut, parentPath, dir, filter == null ? IoUtil.ANY_FILTER : filter);
+            zipOut.finish();
+        }
+    }
+
+    /**
+     * Same as {@link #zipDir(String, File, File, FilenameFilter, int)} but content of files is compressed by multiple threads of
+     * {@code deflater}.
+     *
+     * @param level
+     *         compression level, see {@link Deflater}
+     */
+    public static void zipDir(String parentPath, File dir, File zip, FilenameFilter filter, ParallelDeflater deflater, int level)
+            throws IOException {
+        checkZipDirArguments(parentPath, dir);
+        try (ZipOutputStream zipOut = new ParallelZipOutputStream(new BufferedOutputStream(new FileOutputStream(zip)), deflater)) {
+            zipOut.setLevel(level);
+            addDirectoryRecursively(zipOut, parentPath, dir, filter == null ? IoUtil.ANY_FILTER : filter);
+            zipOut.finish();
+        }
+    }
+
+    private static void checkZipDirArguments(String parentPath, File dir) {
         if (!dir.isDirectory()) {
             throw new IllegalArgumentException("Not a directory.");
         }
         if (!dir.getAbsolutePath().startsWith(parentPath)) {
             throw new IllegalArgumentException("Invalid parent directory path " + parentPath);
         }
-        if (filter == null) {
-            filter = IoUtil.ANY_FILTER;
-        }
-        try (ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zip)))) {
-            zipOut.setLevel(0); // TODO: move in parameters of method
-            addDirectoryRecursively(zipOut, parentPath, dir, filter);
-            zipOut.finish();
-        }
     }
 
     /**
@@ -81,7 +111,18 @@ public class ZipUtils {
      * @throws IOException
      */
     public static void zipFiles(OutputStream output, File... files) throws IOException {
-        try (ZipOutputStream zipOut = new ZipOutputStream(output)) {
+        zipFiles(new ZipOutputStream(output), files);
+    }
+
+    /**
+     * Same as {@link #zipFiles(OutputStream, File...)} but content of files is compressed by multiple threads of {@code deflater}.
+     */
+    public static void zipFiles(OutputStream output, ParallelDeflater deflater, File... files) throws IOException {
+        zipFiles(new ParallelZipOutputStream(output, deflater), files);
+    }
+
+    private static void zipFiles(ZipOutputStream zipOutput, File... files) throws IOException {
+        try (ZipOutputStream zipOut = zipOutput) {
             for (File f : files) {
                 if (f.isDirectory()) {
                     addDirectoryEntry(zipOut, f.getName());
@@ -156,42 +197,22 @@ public class ZipUtils {
         return list;
     }
 
+    /**
+     * Extracts zip file. Files are written in multiple threads, existing files are overwritten.
+     *
+     * @see ParallelExtractor#unzip(File, File, boolean, int)
+     */
     public static void unzip(File zip, File targetDir) throws IOException {
-        try (InputStream in = new FileInputStream(zip)) {
-            unzip(in, targetDir);
-        }
+        ParallelExtractor.getDefault().unzip(zip, targetDir, true, 0);
     }
 
+    /**
+     * Extracts zip stream. Files are written in multiple threads, existing files are overwritten.
+     *
+     * @see ParallelExtractor#unzip(InputStream, File, boolean, int)
+     */
     public static void unzip(InputStream in, File targetDir) throws IOException {
-        final ZipInputStream zipIn = new ZipInputStream(in);
-        final byte[] b = new byte[BUF_SIZE];
-        ZipEntry zipEntry;
-        while ((zipEntry = zipIn.getNextEntry()) != null) {
-            final File file = new File(targetDir, zipEntry.getName());
-            if (!zipEntry.isDirectory()) {
-                final File parent = file.getParentFile();
-                if (!parent.exists()) {
-                    if (!parent.mkdirs()) {
-                        throw new IOException("Unable to create parent folder " + parent.getAbsolutePath());
-                    }
-
-                }
-                try (FileOutputStream fos = new FileOutputStream(file)) {
-                    int r;
-                    while ((r = zipIn.read(b)) != -1) {
-                        fos.write(b, 0, r);
-                    }
-                }
-            } else {
-                if (!file.exists()) {
-                    if (!file.mkdirs()) {
-                        throw new IOException("Unable to create folder " + file.getAbsolutePath());
-                    }
-                }
-
-            }
-            zipIn.closeEntry();
-        }
+        ParallelExtractor.getDefault().unzip(in, targetDir, true, 0);
     }
 
 
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class IoUtilTest {
+    private ExecutorService executor;
+    private File            source;
+    private File            target;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(3);
+        source = Files.createTempDirectory("source").toFile();
+        target = Files.createTempDirectory("target").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+        IoUtil.deleteRecursive(source);
+        IoUtil.deleteRecursive(target);
+    }
+
+    @Test
+    public void copiesTreeInParallel() throws Exception {
+        // more files than single copy task takes
+        for (int i = 0; i < 100; i++) {
+            writeFile(new File(source, "dir" + (i % 3) + "/sub/file" + i), "content" + i);
+        }
+        new File(source, "empty").mkdir();
+
+        IoUtil.copy(source, target, null, executor);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(readFile(new File(target, "dir" + (i % 3) + "/sub/file" + i)), "content" + i);
+        }
+        assertTrue(new File(target, "empty").isDirectory());
+    }
+
+    @Test
+    public void copiesTreeInCallingThreadWhenExecutorIsNotSet() throws Exception {
+        writeFile(new File(source, "dir/file"), "content");
+
+        IoUtil.copy(source, target, null, null);
+
+        assertEquals(readFile(new File(target, "dir/file")), "content");
+    }
+
+    @Test
+    public void overwritesExistedFilesAndSkipsFilteredItems() throws Exception {
+        writeFile(new File(source, "dir/file"), "new");
+        writeFile(new File(source, ".vfs/props"), "props");
+        writeFile(new File(target, "dir/file"), "old");
+
+        IoUtil.copy(source, target, (dir, name) -> !".vfs".equals(name), executor);
+
+        assertEquals(readFile(new File(target, "dir/file")), "new");
+        assertFalse(new File(target, ".vfs").exists());
+    }
+
+    @Test
+    public void doesNotCopyTargetWhenItIsInsideOfSource() throws Exception {
+        writeFile(new File(source, "dir/file"), "content");
+        File nested = new File(source, "copy");
+
+        IoUtil.copy(source, nested, null, executor);
+
+        assertEquals(readFile(new File(nested, "dir/file")), "content");
+        assertFalse(new File(nested, "copy").exists());
+    }
+
+    @Test
+    public void copiesSingleFile() throws Exception {
+        File file = new File(source, "file");
+        writeFile(file, "content");
+
+        IoUtil.copy(file, new File(target, "file"), null, executor);
+
+        assertEquals(readFile(new File(target, "file")), "content");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void failsWhenFileCanNotBeCopied() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            writeFile(new File(source, "dir/file" + i), "content");
+        }
+        // directory in place of file can't be replaced with file
+        writeFile(new File(target, "dir/file50/nested"), "content");
+
+        IoUtil.copy(source, target, null, executor);
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes());
+    }
+
+    private static String readFile(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()));
+    }
+}
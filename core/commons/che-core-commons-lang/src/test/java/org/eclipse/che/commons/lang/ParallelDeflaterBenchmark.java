@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compares throughput of {@link ParallelZipOutputStream} and {@link ParallelGZIPOutputStream} with throughput of single threaded
+ * {@link ZipOutputStream} and {@link GZIPOutputStream}. It isn't run with tests, run it with {@code main} method, optional
+ * arguments are number of threads, size of block in kilobytes and size of data in megabytes.
+ * <p/>
+ * Data looks like source code: words from small dictionary separated with spaces and line breaks. It is written as single big
+ * entry and as many small entries of 4K, like in {@code node_modules} folder.
+ */
+public class ParallelDeflaterBenchmark {
+    private static final String[] WORDS = {"public", "class", "return", "if", "else", "for", "new", "import", "static", "final",
+                                           "void", "int", "String", "null", "this", "{", "}", "(", ")", ";", "=", "function",
+                                           "var", "require", "module", "exports", "value", "index", "length", "name"};
+
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int blockSize = args.length > 1 ? Integer.parseInt(args[1]) * 1024 : ParallelDeflater.DEFAULT_BLOCK_SIZE;
+        final int size = (args.length > 2 ? Integer.parseInt(args[2]) : 256) * 1024 * 1024;
+        final byte[] data = generate(size);
+
+        System.out.printf("threads: %d, block size: %dK, data: %dM%n", threads, blockSize / 1024, size / 1024 / 1024);
+        try (ParallelDeflater deflater = new ParallelDeflater(threads, blockSize)) {
+            for (int round = 0; round < 2; round++) {
+                // first round warms up
+                final boolean print = round == 1;
+                compare(print, "gzip", size,
+                        out -> gzip(new GZIPOutputStream(out, 64 * 1024), data),
+                        out -> gzip(new ParallelGZIPOutputStream(out, deflater), data));
+                compare(print, "zip, one entry", size,
+                        out -> zip(new ZipOutputStream(out), data, size),
+                        out -> zip(new ParallelZipOutputStream(out, deflater), data, size));
+                compare(print, "zip, 4K entries", size,
+                        out -> zip(new ZipOutputStream(out), data, 4096),
+                        out -> zip(new ParallelZipOutputStream(out, deflater), data, 4096));
+            }
+        }
+    }
+
+    private interface Compression {
+        void compress(OutputStream out) throws IOException;
+    }
+
+    private static void compare(boolean print, String name, int size, Compression single, Compression parallel) throws IOException {
+        final CountingOutputStream singleOut = new CountingOutputStream();
+        final long singleTime = measure(single, singleOut);
+        final CountingOutputStream parallelOut = new CountingOutputStream();
+        final long parallelTime = measure(parallel, parallelOut);
+        if (print) {
+            System.out.printf("%-16s single: %7.1f MB/s, ratio %.3f; parallel: %7.1f MB/s, ratio %.3f; x%.2f%n",
+                              name,
+                              throughput(size, singleTime), (double)singleOut.count / size,
+                              throughput(size, parallelTime), (double)parallelOut.count / size,
+                              (double)singleTime / parallelTime);
+        }
+    }
+
+    private static long measure(Compression compression, OutputStream out) throws IOException {
+        final long start = System.nanoTime();
+        compression.compress(out);
+        return System.nanoTime() - start;
+    }
+
+    private static double throughput(int size, long nanos) {
+        return size / 1024.0 / 1024.0 / (nanos / 1e9);
+    }
+
+    private static void gzip(OutputStream gzipOut, byte[] data) throws IOException {
+        try (OutputStream out = gzipOut) {
+            out.write(data);
+        }
+    }
+
+    private static void zip(ZipOutputStream zipOut, byte[] data, int entrySize) throws IOException {
+        try (ZipOutputStream out = zipOut) {
+            for (int offset = 0, i = 0; offset < data.length; offset += entrySize, i++) {
+                out.putNextEntry(new ZipEntry("file" + i));
+                out.write(data, offset, Math.min(entrySize, data.length - offset));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] generate(int size) {
+        final Random random = new Random(0);
+        final byte[] data = new byte[size];
+        int position = 0;
+        while (position < size) {
+            final String word = random.nextInt(10) == 0 ? "\n" : WORDS[random.nextInt(WORDS.length)] + ' ';
+            for (int i = 0; i < word.length() && position < size; i++) {
+                data[position++] = (byte)word.charAt(i);
+            }
+        }
+        return data;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
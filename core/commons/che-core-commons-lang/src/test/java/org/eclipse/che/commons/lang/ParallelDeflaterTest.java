@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.testng.Assert.assertEquals;
+
+public class ParallelDeflaterTest {
+    private ParallelDeflater deflater;
+    private byte[]           content;
+    private File             zipFile;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        // small blocks for splitting content in many blocks
+        deflater = new ParallelDeflater(3, 32 * 1024);
+        // compressible content, a few hundreds of blocks
+        content = new byte[1000000];
+        Random random = new Random();
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte)('a' + random.nextInt(8));
+        }
+        zipFile = File.createTempFile("parallel", ".zip");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deflater.close();
+        zipFile.delete();
+    }
+
+    @Test
+    public void compressesContentToGzip() throws Exception {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream gzipOut = new ParallelGZIPOutputStream(gzipped, deflater)) {
+            gzipOut.write(content, 0, 10);
+            gzipOut.write(content, 10, content.length - 10);
+        }
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+            assertEquals(readAll(in), content);
+        }
+    }
+
+    @Test
+    public void compressesEntriesToZip() throws Exception {
+        try (ZipOutputStream zipOut = new ParallelZipOutputStream(new FileOutputStream(zipFile), deflater)) {
+            zipOut.putNextEntry(new ZipEntry("folder/"));
+            zipOut.putNextEntry(new ZipEntry("folder/big"));
+            zipOut.write(content);
+            zipOut.putNextEntry(new ZipEntry("folder/empty"));
+            zipOut.setLevel(0);
+            zipOut.putNextEntry(new ZipEntry("folder/small"));
+            zipOut.write("small".getBytes());
+            zipOut.closeEntry();
+        }
+
+        Map<String, byte[]> entries = readEntries(zipFile);
+        assertEquals(entries.keySet().size(), 4);
+        assertEquals(entries.get("folder/").length, 0);
+        assertEquals(entries.get("folder/big"), content);
+        assertEquals(entries.get("folder/empty").length, 0);
+        assertEquals(entries.get("folder/small"), "small".getBytes());
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(readAll(zip.getInputStream(zip.getEntry("folder/big"))), content);
+            assertEquals(zip.getEntry("folder/big").getSize(), content.length);
+        }
+    }
+
+    @Test
+    public void writesStoredEntries() throws Exception {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry storedEntry = new ZipEntry("stored");
+        storedEntry.setMethod(ZipEntry.STORED);
+        storedEntry.setSize(content.length);
+        storedEntry.setCrc(crc.getValue());
+        try (ZipOutputStream zipOut = new ParallelZipOutputStream(new FileOutputStream(zipFile), deflater)) {
+            zipOut.putNextEntry(storedEntry);
+            zipOut.write(content);
+            zipOut.closeEntry();
+        }
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(zip.getEntry("stored").getMethod(), ZipEntry.STORED);
+            assertEquals(zip.getEntry("stored").getCompressedSize(), content.length);
+            assertEquals(readAll(zip.getInputStream(zip.getEntry("stored"))), content);
+        }
+    }
+
+    @Test(expectedExceptions = ZipException.class)
+    public void failsWhenSizeOfStoredEntryDoesNotMatchWrittenContent() throws Exception {
+        ZipEntry storedEntry = new ZipEntry("stored");
+        storedEntry.setMethod(ZipEntry.STORED);
+        storedEntry.setSize(10);
+        storedEntry.setCrc(0);
+        try (ZipOutputStream zipOut = new ParallelZipOutputStream(new ByteArrayOutputStream(), deflater)) {
+            zipOut.putNextEntry(storedEntry);
+            zipOut.write(new byte[5]);
+            zipOut.closeEntry();
+        }
+    }
+
+    @Test
+    public void writesZip64EndOfCentralDirectoryWhenArchiveHasTooManyEntries() throws Exception {
+        final int count = 0xFFFF + 10;
+        try (ZipOutputStream zipOut = new ParallelZipOutputStream(new FileOutputStream(zipFile), deflater)) {
+            for (int i = 0; i < count; i++) {
+                zipOut.putNextEntry(new ZipEntry("file" + i));
+                zipOut.write(Integer.toString(i).getBytes());
+            }
+        }
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(zip.size(), count);
+            assertEquals(readAll(zip.getInputStream(zip.getEntry("file" + (count - 1)))), Integer.toString(count - 1).getBytes());
+        }
+    }
+
+    @Test
+    public void zipsDirectory() throws Exception {
+        File dir = Files.createTempDirectory("parallel").toFile();
+        try {
+            File folder = new File(dir, "folder");
+            folder.mkdir();
+            Files.write(new File(folder, "big").toPath(), content);
+            Files.write(new File(dir, "small").toPath(), "small".getBytes());
+
+            ZipUtils.zipDir(dir.getAbsolutePath(), dir, zipFile, null, deflater, 6);
+
+            Map<String, byte[]> entries = readEntries(zipFile);
+            assertEquals(entries.keySet().size(), 3);
+            assertEquals(entries.get("folder/big"), content);
+            assertEquals(entries.get("small"), "small".getBytes());
+        } finally {
+            IoUtil.deleteRecursive(dir);
+        }
+    }
+
+    private Map<String, byte[]> readEntries(File zip) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zipIn = new ZipInputStream(Files.newInputStream(zip.toPath()))) {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null) {
+                entries.put(entry.getName(), readAll(zipIn));
+            }
+        }
+        return entries;
+    }
+
+    private byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int r;
+        while ((r = in.read(buffer)) != -1) {
+            out.write(buffer, 0, r);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ParallelExtractorTest {
+    private ParallelExtractor extractor;
+    private byte[]            content;
+    private File              zipFile;
+    private File              targetDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        extractor = new ParallelExtractor(3);
+        // bigger than files that are read in memory
+        content = new byte[3 * 1024 * 1024];
+        new Random().nextBytes(content);
+        zipFile = File.createTempFile("extractor", ".zip");
+        targetDir = Files.createTempDirectory("extractor").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        extractor.close();
+        zipFile.delete();
+        IoUtil.deleteRecursive(targetDir);
+    }
+
+    @Test
+    public void extractsZipFile() throws Exception {
+        writeZip("project/", "project/src/big", "project/src/small", "project/empty");
+
+        extractor.unzip(zipFile, targetDir, false, 0);
+
+        assertExtracted(new File(targetDir, "project"));
+    }
+
+    @Test
+    public void extractsZipStream() throws Exception {
+        writeZip("project/", "project/src/big", "project/src/small", "project/empty");
+
+        try (InputStream in = new FileInputStream(zipFile)) {
+            extractor.unzip(in, targetDir, false, 0);
+        }
+
+        assertExtracted(new File(targetDir, "project"));
+    }
+
+    @Test
+    public void extractsTarStream() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(tar)) {
+            tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tarOut.putArchiveEntry(new TarArchiveEntry("project/"));
+            tarOut.closeArchiveEntry();
+            writeTarEntry(tarOut, "project/src/big", content);
+            writeTarEntry(tarOut, "project/src/small", "small".getBytes());
+            writeTarEntry(tarOut, "project/empty", new byte[0]);
+        }
+
+        extractor.untar(new ByteArrayInputStream(tar.toByteArray()), targetDir, false, 0);
+
+        assertExtracted(new File(targetDir, "project"));
+    }
+
+    @Test
+    public void stripsFirstLevelOfEntries() throws Exception {
+        writeZip("project/", "project/src/big", "project/src/small", "project/empty");
+
+        extractor.unzip(zipFile, targetDir, false, 1);
+
+        assertExtracted(targetDir);
+        assertFalse(new File(targetDir, "project").exists());
+    }
+
+    @Test
+    public void overwritesExistingFiles() throws Exception {
+        writeZip("src/big", "src/small", "empty");
+        new File(targetDir, "src").mkdir();
+        Files.write(new File(targetDir, "src/small").toPath(), new byte[100]);
+
+        extractor.unzip(zipFile, targetDir, true, 0);
+
+        assertExtracted(targetDir);
+    }
+
+    @Test
+    public void doesNotExtractAnythingWhenFileExistsAndOverwritingIsDisabled() throws Exception {
+        writeZip("src/big", "src/small", "empty");
+        Files.write(new File(targetDir, "empty").toPath(), "existed".getBytes());
+
+        try {
+            extractor.unzip(zipFile, targetDir, false, 0);
+        } catch (FileAlreadyExistsException expected) {
+            assertFalse(new File(targetDir, "src").exists());
+            assertEquals(Files.readAllBytes(new File(targetDir, "empty").toPath()), "existed".getBytes());
+            return;
+        }
+        throw new AssertionError("FileAlreadyExistsException expected");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void rejectsZipEntryOutsideOfTargetDirectory() throws Exception {
+        writeZip("src/small", "src/../../evil");
+
+        extractor.unzip(zipFile, targetDir, false, 0);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void rejectsZipStreamEntryWithAbsolutePath() throws Exception {
+        writeZip("/tmp/evil");
+
+        try (InputStream in = new FileInputStream(zipFile)) {
+            extractor.unzip(in, targetDir, false, 0);
+        }
+    }
+
+    @Test
+    public void skipsEntryOfTargetDirectoryItself() throws Exception {
+        writeZip("./", "src/big", "src/small", "empty");
+
+        extractor.unzip(zipFile, targetDir, false, 0);
+        assertExtracted(targetDir);
+
+        IoUtil.deleteRecursive(targetDir);
+        try (InputStream in = new FileInputStream(zipFile)) {
+            extractor.unzip(in, targetDir, false, 0);
+        }
+        assertExtracted(targetDir);
+    }
+
+    @Test
+    public void writesLastOfEntriesWithTheSameName() throws Exception {
+        // zip output stream rejects duplicated names, but names that differ only before normalization are accepted
+        try (ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            String[] names = {"src/small", "./src/small", "src/./small", "src/../src/small"};
+            for (int i = 0; i < names.length; i++) {
+                zipOut.putNextEntry(new ZipEntry(names[i]));
+                zipOut.write(("small" + i).getBytes());
+                zipOut.closeEntry();
+            }
+        }
+
+        extractor.unzip(zipFile, targetDir, true, 0);
+
+        assertEquals(Files.readAllBytes(new File(targetDir, "src/small").toPath()), "small3".getBytes());
+    }
+
+    @Test
+    public void waitsForRunningTasksAndDoesNotRunPendingTasksWhenTaskGroupIsAborted() throws Exception {
+        ParallelExtractor singleThreadExtractor = new ParallelExtractor(1);
+        try {
+            ParallelExtractor.TaskGroup tasks = singleThreadExtractor.newTaskGroup();
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicBoolean completed = new AtomicBoolean();
+            AtomicBoolean pendingRun = new AtomicBoolean();
+            tasks.submit(1, () -> {
+                started.countDown();
+                Thread.sleep(200);
+                completed.set(true);
+            });
+            tasks.submit(1, () -> pendingRun.set(true));
+            started.await();
+
+            tasks.abort();
+
+            assertTrue(completed.get());
+            assertFalse(pendingRun.get());
+            assertTrue(tasks.isFailed());
+        } finally {
+            singleThreadExtractor.close();
+        }
+    }
+
+    @Test
+    public void failsWhenZipStreamIsBrokenAfterFilesAreSubmitted() throws Exception {
+        writeZip("src/small", "src/big", "empty");
+        byte[] zip = Files.readAllBytes(zipFile.toPath());
+
+        try {
+            // cut in the middle of big file, small file is already submitted
+            extractor.unzip(new ByteArrayInputStream(zip, 0, zip.length / 2), targetDir, false, 0);
+        } catch (IOException expected) {
+            assertEquals(Files.readAllBytes(new File(targetDir, "src/small").toPath()), "small".getBytes());
+            return;
+        }
+        throw new AssertionError("IOException expected");
+    }
+
+    private void writeZip(String... names) throws IOException {
+        try (ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            for (String name : names) {
+                zipOut.putNextEntry(new ZipEntry(name));
+                if (name.endsWith("big")) {
+                    zipOut.write(content);
+                } else if (!name.endsWith("/") && !name.endsWith("empty")) {
+                    zipOut.write("small".getBytes());
+                }
+                zipOut.closeEntry();
+            }
+        }
+    }
+
+    private void writeTarEntry(TarArchiveOutputStream tarOut, String name, byte[] bytes) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(bytes.length);
+        tarOut.putArchiveEntry(entry);
+        tarOut.write(bytes);
+        tarOut.closeArchiveEntry();
+    }
+
+    private void assertExtracted(File dir) throws IOException {
+        assertTrue(new File(dir, "src").isDirectory());
+        assertEquals(Files.readAllBytes(new File(dir, "src/big").toPath()), content);
+        assertEquals(Files.readAllBytes(new File(dir, "src/small").toPath()), "small".getBytes());
+        assertEquals(new File(dir, "empty").length(), 0);
+    }
+}
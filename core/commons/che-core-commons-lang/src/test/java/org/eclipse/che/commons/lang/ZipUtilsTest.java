@@ -17,8 +17,12 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 public class ZipUtilsTest {
@@ -49,4 +53,30 @@ public class ZipUtilsTest {
     public void shouldBeAbleToDetectZipFile() throws IOException {
         Assert.assertTrue(ZipUtils.isZipFile(zipFile));
     }
+
+    @Test
+    public void shouldZipDirectoryWithSpecifiedCompressionLevel() throws IOException {
+        File dir = Files.createTempDirectory("zip-utils").toFile();
+        File stored = File.createTempFile("stored", "zip");
+        File compressed = File.createTempFile("compressed", "zip");
+        try {
+            byte[] content = new byte[64 * 1024];
+            Arrays.fill(content, (byte)'a');
+            Files.write(new File(dir, "file").toPath(), content);
+
+            ZipUtils.zipDir(dir.getAbsolutePath(), dir, stored, null);
+            ZipUtils.zipDir(dir.getAbsolutePath(), dir, compressed, null, Deflater.BEST_SPEED);
+
+            Assert.assertTrue(compressed.length() < stored.length());
+            try (ZipFile zip = new ZipFile(compressed)) {
+                ZipEntry entry = zip.getEntry("file");
+                Assert.assertEquals(entry.getSize(), content.length);
+                Assert.assertTrue(entry.getCompressedSize() < content.length);
+            }
+        } finally {
+            IoUtil.deleteRecursive(dir);
+            stored.delete();
+            compressed.delete();
+        }
+    }
 }
\ No newline at end of file
@@ -17,7 +17,7 @@ import org.eclipse.che.ide.websocket.Message;
 import org.eclipse.che.ide.websocket.rest.Unmarshallable;
 
 /**
- * Unmarshaller for websocket messages from machine.
+ * Unmarshaller for websocket messages from machine. Message may contain several lines separated with line feed.
  *
  * @author Artem Zatsarynnyi
  */
@@ -33,13 +33,24 @@ public class CommandOutputMessageUnmarshaller implements Unmarshallable<String>
     @Override
     public void unmarshal(Message message) {
         final JSONString jsonString = JSONParser.parseStrict(message.getBody()).isString();
-        payload = jsonString.stringValue();
+        final String[] lines = jsonString.stringValue().split("\n", -1);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                builder.append('\n');
+            }
+            builder.append(processLine(lines[i]));
+        }
+        payload = builder.toString();
+    }
 
-        if (payload.startsWith("[STDOUT]")) {
-            payload = payload.substring(9);
-        } else if (payload.startsWith("[STDERR]")) {
-            payload = payload.replace("[STDERR]", "[" + machineName + "]");
+    private String processLine(String line) {
+        if (line.startsWith("[STDOUT]")) {
+            return line.substring(9);
+        } else if (line.startsWith("[STDERR]")) {
+            return line.replace("[STDERR]", "[" + machineName + "]");
         }
+        return line;
     }
 
     @Override
@@ -35,5 +35,6 @@ public class JavaProjectType extends ProjectTypeDef {
         addVariableDefinition(CONTAINS_JAVA_FILES, "contains java files", true, jpFactory);
         addVariableDefinition(SOURCE_FOLDER, "java source folder", true, jpFactory);
         addVariableDefinition(OUTPUT_FOLDER, "java output folder", false, jpFactory);
+        addExcludePatterns("*.class");
     }
 }
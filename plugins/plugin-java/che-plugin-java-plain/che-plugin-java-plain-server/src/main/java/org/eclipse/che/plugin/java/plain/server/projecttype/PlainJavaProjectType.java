@@ -19,6 +19,7 @@ import static org.eclipse.che.ide.ext.java.shared.Constants.JAVAC;
 import static org.eclipse.che.ide.ext.java.shared.Constants.JAVA_ID;
 import static org.eclipse.che.ide.ext.java.shared.Constants.OUTPUT_FOLDER;
 import static org.eclipse.che.ide.ext.java.shared.Constants.SOURCE_FOLDER;
+import static org.eclipse.che.plugin.java.plain.shared.PlainJavaProjectConstants.DEFAULT_OUTPUT_FOLDER_VALUE;
 import static org.eclipse.che.plugin.java.plain.shared.PlainJavaProjectConstants.LIBRARY_FOLDER;
 import static org.eclipse.che.plugin.java.plain.shared.PlainJavaProjectConstants.JAVAC_PROJECT_NAME;
 
@@ -38,6 +39,8 @@ public class PlainJavaProjectType extends ProjectTypeDef {
 
         addVariableDefinition(LIBRARY_FOLDER, "java library folder", false);
 
+        addExcludePatterns('/' + DEFAULT_OUTPUT_FOLDER_VALUE + '/');
+
         addParent(JAVA_ID);
     }
 }
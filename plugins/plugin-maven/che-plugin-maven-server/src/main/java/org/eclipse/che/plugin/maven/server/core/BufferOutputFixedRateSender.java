@@ -10,87 +10,48 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.maven.server.core;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-
-import org.eclipse.che.api.core.util.ListLineConsumer;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.eclipse.che.api.core.util.BatchingWebsocketPublisher;
+import org.eclipse.che.api.core.util.LineConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
-
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import java.io.IOException;
 
 /**
  * The class contains business logic which allows send messages via web socket after defined period of time. To create the consumer
  * we have to know channel to connect to web socket and define period of time after which messages will be sent via web socket.
+ * Messages are sent with shared {@link BatchingWebsocketPublisher} so no thread is created per instance.
  *
  * @author Dmitry Shnurenko
  */
-public class BufferOutputFixedRateSender extends ListLineConsumer {
+public class BufferOutputFixedRateSender implements LineConsumer {
     private static final Logger LOG = LoggerFactory.getLogger(BufferOutputFixedRateSender.class);
 
-    private final ScheduledExecutorService executor;
-
-    private final String channel;
+    private final LineConsumer delegate;
 
     public BufferOutputFixedRateSender(String channel, long delay) {
-        this.channel = channel;
-        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(BufferOutputFixedRateSender.class.getSimpleName() + "-%d")
-                                                                .setDaemon(true)
-                                                                .build();
-
-        executor = Executors.newScheduledThreadPool(1, threadFactory);
-
-        executor.scheduleAtFixedRate(this::sendMessage, 1_000, delay, MILLISECONDS);
+        this(channel, delay, BatchingWebsocketPublisher.getInstance());
     }
 
-    private synchronized void sendMessage() {
-        final ChannelBroadcastMessage message = new ChannelBroadcastMessage();
-        message.setChannel(channel);
-
-        String text = getText();
-
-        if (text.isEmpty()) {
-            return;
-        }
-
-        message.setBody(text);
-        sendMessageToWS(message);
-
-        lines.clear();
+    public BufferOutputFixedRateSender(String channel, long delay, BatchingWebsocketPublisher publisher) {
+        delegate = publisher.newLineConsumer(channel, delay, lines -> String.join("\n", lines));
     }
 
-    private void sendMessageToWS(final ChannelBroadcastMessage message) {
+    @Override
+    public void writeLine(String line) {
         try {
-            WSConnectionContext.sendMessage(message);
-        } catch (Exception exception) {
-            LOG.error(getClass() + " A problem occurred while sending websocket message", exception);
+            delegate.writeLine(line);
+        } catch (IOException exception) {
+            LOG.error(getClass() + " A problem occurred while sending message", exception);
         }
     }
 
     @Override
-    public synchronized void writeLine(String line) {
-        lines.add(line);
-    }
-
-    @Override
-    public synchronized void close() {
-        while (!getText().isEmpty()) {
-            sendMessage();
-
-            try {
-                Thread.sleep(1_000);
-            } catch (InterruptedException exception) {
-                executor.shutdown();
-
-                LOG.error(getClass() + " A problem occurred while closing sender", exception);
-            }
+    public void close() {
+        try {
+            delegate.close();
+        } catch (IOException exception) {
+            LOG.error(getClass() + " A problem occurred while closing sender", exception);
         }
-
-        executor.shutdown();
     }
 }
@@ -46,6 +46,8 @@ public class MavenProjectType extends ProjectTypeDef {
         setValueProviderFactory(SOURCE_FOLDER, mavenValueProviderFactory);
         setValueProviderFactory(OUTPUT_FOLDER, mavenValueProviderFactory);
 
+        addExcludePatterns("target/");
+
         addParent(JAVA_ID);
     }
 }
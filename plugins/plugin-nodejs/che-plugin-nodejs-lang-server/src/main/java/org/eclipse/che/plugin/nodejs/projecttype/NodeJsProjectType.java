@@ -23,5 +23,6 @@ public class NodeJsProjectType extends ProjectTypeDef {
     public NodeJsProjectType() {
         super(NODE_JS_PROJECT_TYPE_ID, "Node JS", true, false, true);
         addConstantDefinition(LANGUAGE, LANGUAGE, NODE_JS_PROJECT_TYPE_ID);
+        addExcludePatterns("node_modules/");
     }
 }
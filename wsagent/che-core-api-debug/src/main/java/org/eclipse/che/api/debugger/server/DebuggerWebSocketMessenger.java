@@ -12,9 +12,7 @@ package org.eclipse.che.api.debugger.server;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
-import org.eclipse.che.dto.server.DtoFactory;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.eclipse.che.everrest.ChannelDtoBroadcaster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,11 +51,7 @@ public class DebuggerWebSocketMessenger implements EventSubscriber<DebuggerMessa
     @Override
     public void onEvent(DebuggerMessage msg) {
         try {
-            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-            final String channel = String.format(CHANNEL, msg.getDebuggerType());
-            bm.setChannel(channel);
-            bm.setBody(DtoFactory.getInstance().toJson(asDto(msg.getDebuggerEvent())));
-            WSConnectionContext.sendMessage(bm);
+            ChannelDtoBroadcaster.broadcast(String.format(CHANNEL, msg.getDebuggerType()), asDto(msg.getDebuggerEvent()));
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
@@ -12,6 +12,7 @@ package org.eclipse.che.api.git.shared;
 
 import org.eclipse.che.api.core.notification.EventOrigin;
 import org.eclipse.che.dto.shared.DTO;
+import org.eclipse.che.dto.shared.SerializationIndex;
 
 /**
  * @author Anton Korneta.
@@ -20,24 +21,28 @@ import org.eclipse.che.dto.shared.DTO;
 @DTO
 public interface GitCheckoutEvent {
 
+    @SerializationIndex(1)
     boolean isCheckoutOnly();
 
     void setCheckoutOnly(boolean checkoutOnly);
 
     GitCheckoutEvent withCheckoutOnly(boolean checkoutOnly);
 
+    @SerializationIndex(2)
     String getBranchRef();
 
     void setBranchRef(String branchRef);
 
     GitCheckoutEvent withBranchRef(String branchRef);
 
+    @SerializationIndex(3)
     String getWorkspaceId();
 
     void setWorkspaceId(String workspaceId);
 
     GitCheckoutEvent withWorkspaceId(String workspaceId);
 
+    @SerializationIndex(4)
     String getProjectName();
 
     void setProjectName(String projectName);
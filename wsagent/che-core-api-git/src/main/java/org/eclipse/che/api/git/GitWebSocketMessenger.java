@@ -13,10 +13,8 @@ package org.eclipse.che.api.git;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.git.shared.GitCheckoutEvent;
-import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.everrest.ChannelDtoBroadcaster;
 import org.eclipse.che.inject.StringArrayConverter;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,11 +51,7 @@ public class GitWebSocketMessenger implements EventSubscriber<GitCheckoutEvent>
     @Override
     public void onEvent(GitCheckoutEvent event) {
         try {
-            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-            final String channel = String.format(CHANNEL, event.getWorkspaceId(), event.getProjectName());
-            bm.setChannel(channel);
-            bm.setBody(DtoFactory.getInstance().toJson(event));
-            WSConnectionContext.sendMessage(bm);
+            ChannelDtoBroadcaster.broadcast(String.format(CHANNEL, event.getWorkspaceId(), event.getProjectName()), event);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
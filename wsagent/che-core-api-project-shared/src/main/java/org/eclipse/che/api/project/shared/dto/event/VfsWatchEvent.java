@@ -12,6 +12,7 @@ package org.eclipse.che.api.project.shared.dto.event;
 
 import org.eclipse.che.api.core.notification.EventOrigin;
 import org.eclipse.che.dto.shared.DTO;
+import org.eclipse.che.dto.shared.SerializationIndex;
 
 /**
  * @author gazarenkov
@@ -22,16 +23,19 @@ public interface VfsWatchEvent {
 
     String VFS_CHANNEL = "vfs";
 
+    @SerializationIndex(1)
     String getPath();
 
     VfsWatchEvent withPath(String path);
 
 
+    @SerializationIndex(2)
     FileWatcherEventType getType();
 
     VfsWatchEvent withType(FileWatcherEventType type);
 
 
+    @SerializationIndex(3)
     boolean isFile();
 
     VfsWatchEvent withFile(boolean isFile);
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto.event;
+
+import org.eclipse.che.dto.shared.DTO;
+import org.eclipse.che.dto.shared.SerializationIndex;
+
+import java.util.List;
+
+/**
+ * Coalesced VFS watcher events that are sent to a single client at once.
+ * Contains at most one event per path, events of paths the client isn't subscribed to are never included.
+ *
+ * @since 4.6
+ */
+@DTO
+public interface VfsWatchEventBatch {
+
+    /** Prefix of the channel that receives batches of a client, full channel name is prefix followed by client id. */
+    String VFS_CHANNEL_PREFIX = VfsWatchEvent.VFS_CHANNEL + ':';
+
+    @SerializationIndex(1)
+    List<VfsWatchEvent> getEvents();
+
+    VfsWatchEventBatch withEvents(List<VfsWatchEvent> events);
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFile;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Builds responses with content of file.
+ * <p/>
+ * Content of file that is backed by local file is transferred from file channel to response, it isn't copied to temporary
+ * file or to memory first. Content may be changed while it is being sent, client detects that by length of response or by
+ * entity tag if it requests the rest of content later.
+ * <p/>
+ * Single range of bytes that is requested with header {@code Range} is sent with status 206, also when it is requested
+ * conditionally with header {@code If-Range}. Whole content is sent for request of multiple ranges. Entity tag of file is strong
+ * and is built from length and modification time of file.
+ */
+final class FileContentResponse {
+    static final String ACCEPT_RANGES = "Accept-Ranges";
+    static final String CONTENT_RANGE = "Content-Range";
+    static final String RANGE         = "Range";
+    static final String IF_RANGE      = "If-Range";
+
+    private static final int  PARTIAL_CONTENT                 = 206;
+    private static final int  REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+    private static final long MAX_TRANSFER_SIZE               = 8 * 1024 * 1024;
+
+    private FileContentResponse() {
+    }
+
+    /**
+     * Creates response with content of file.
+     *
+     * @param file
+     *         file
+     * @param mediaType
+     *         media type of content
+     * @param request
+     *         request, used for evaluation of conditional headers {@code If-None-Match}, {@code If-Modified-Since} etc
+     * @param range
+     *         value of header {@code Range}, may be {@code null}
+     * @param ifRange
+     *         value of header {@code If-Range}, may be {@code null}
+     * @return builder of response that may be completed by caller, e.g. with additional headers
+     */
+    static Response.ResponseBuilder of(VirtualFile file, String mediaType, Request request, String range, String ifRange)
+            throws ForbiddenException, ServerException {
+        final long length = file.getLength();
+        final Date lastModified = new Date(file.getLastModificationDate());
+        final EntityTag entityTag = entityTag(length, lastModified.getTime());
+
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(lastModified, entityTag);
+        if (notModified != null) {
+            return notModified.tag(entityTag).lastModified(lastModified);
+        }
+
+        long offset = 0;
+        long count = length;
+        Response.ResponseBuilder builder = Response.ok();
+        if (range != null && isRangeApplicable(ifRange, entityTag, lastModified)) {
+            final long[] requested = parseRange(range, length);
+            if (requested == null) {
+                return Response.status(REQUESTED_RANGE_NOT_SATISFIABLE)
+                               .header(CONTENT_RANGE, "bytes */" + length)
+                               .header(ACCEPT_RANGES, "bytes");
+            }
+            if (requested.length == 2) {
+                offset = requested[0];
+                count = requested[1] - requested[0] + 1;
+                builder = Response.status(PARTIAL_CONTENT)
+                                  .header(CONTENT_RANGE, "bytes " + requested[0] + '-' + requested[1] + '/' + length);
+            }
+        }
+
+        return builder.entity(content(file, offset, count))
+                      .type(mediaType)
+                      .tag(entityTag)
+                      .lastModified(lastModified)
+                      .header(ACCEPT_RANGES, "bytes")
+                      .header(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+    }
+
+    static EntityTag entityTag(long length, long lastModified) {
+        return new EntityTag(Long.toHexString(length) + '-' + Long.toHexString(lastModified));
+    }
+
+    /**
+     * Range is applicable if there is no {@code If-Range} condition or if condition is entity tag or date that matches current
+     * state of file. Date matches only if it is the same as modification time of file, with accuracy up to one second that is
+     * accuracy of HTTP dates.
+     */
+    private static boolean isRangeApplicable(String ifRange, EntityTag entityTag, Date lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        final String condition = ifRange.trim();
+        if (condition.startsWith("\"")) {
+            return condition.equals(entityTag.toString());
+        }
+        if (condition.startsWith("W/")) {
+            // Weak entity tag is never matched in If-Range.
+            return false;
+        }
+        final SimpleDateFormat httpDate = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return httpDate.parse(condition).getTime() == lastModified.getTime() / 1000 * 1000;
+        } catch (java.text.ParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses value of header {@code Range}.
+     *
+     * @return two items array with first and last position of range, empty array if range can't be served and whole content must
+     * be sent, e.g. if range is not in bytes, is malformed or contains multiple ranges, or {@code null} if range isn't satisfiable
+     */
+    static long[] parseRange(String range, long length) {
+        final String value = range.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        final String spec = value.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            final long first;
+            final long last;
+            if (dash == 0) {
+                // suffix range, e.g. 'bytes=-500' is the last 500 bytes
+                final long suffix = Long.parseLong(spec.substring(1).trim());
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                first = Math.max(length - suffix, 0);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash).trim());
+                final String lastSpec = spec.substring(dash + 1).trim();
+                final long requestedLast = lastSpec.isEmpty() ? Long.MAX_VALUE : Long.parseLong(lastSpec);
+                if (requestedLast < first) {
+                    // invalid range is ignored
+                    return new long[0];
+                }
+                last = Math.min(requestedLast, length - 1);
+            }
+            if (first >= length || first < 0) {
+                return null;
+            }
+            return new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static StreamingOutput content(VirtualFile file, long offset, long count) throws ForbiddenException, ServerException {
+        final File ioFile = file.toIoFile();
+        if (ioFile != null) {
+            return output -> {
+                try (FileChannel channel = FileChannel.open(ioFile.toPath(), StandardOpenOption.READ)) {
+                    final WritableByteChannel target = Channels.newChannel(output);
+                    long position = offset;
+                    long remaining = count;
+                    while (remaining > 0) {
+                        final long transferred = channel.transferTo(position, Math.min(remaining, MAX_TRANSFER_SIZE), target);
+                        if (transferred <= 0) {
+                            // file is truncated while it is being sent
+                            break;
+                        }
+                        position += transferred;
+                        remaining -= transferred;
+                    }
+                }
+            };
+        }
+        final InputStream content = file.getContent();
+        return output -> {
+            try (InputStream input = content) {
+                ByteStreams.skipFully(input, offset);
+                ByteStreams.copy(ByteStreams.limit(input, count), output);
+            }
+        };
+    }
+}
@@ -19,6 +19,8 @@ import org.eclipse.che.api.project.server.handlers.CreateBaseProjectTypeHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandler;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.api.project.server.importer.ProjectImportersService;
+import org.eclipse.che.api.project.server.notification.VfsWatchBroadcaster;
+import org.eclipse.che.api.project.server.notification.VfsWatchService;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
 import org.eclipse.che.api.project.server.type.InitBaseProjectTypeHandler;
 import org.eclipse.che.api.project.server.type.ProjectTypeDef;
@@ -75,10 +77,19 @@ public class ProjectApiModule extends AbstractModule {
                                                                                    PathMatcher.class,
                                                                                    Names.named("vfs.index_filter_matcher"));
 
+        // content of git repositories isn't watched nor indexed, except HEAD that is needed to detect checkout
+        Multibinder<String> excludePatternsMultibinder = Multibinder.newSetBinder(binder(),
+                                                                                  String.class,
+                                                                                  Names.named("vfs.exclude_patterns"));
+        excludePatternsMultibinder.addBinding().toInstance("**/.git/*");
+        excludePatternsMultibinder.addBinding().toInstance("!**/.git/HEAD");
+
         bind(SearcherProvider.class).to(FSLuceneSearcherProvider.class);
         bind(VirtualFileSystemProvider.class).to(LocalVirtualFileSystemProvider.class);
 
         bind(FileWatcherNotificationHandler.class).to(DefaultFileWatcherNotificationHandler.class);
+        bind(VfsWatchBroadcaster.class);
+        bind(VfsWatchService.class);
 
         bind(LoEventListener.class);
         bind(LoEventService.class);
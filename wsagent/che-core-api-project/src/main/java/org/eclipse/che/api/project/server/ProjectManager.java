@@ -33,7 +33,7 @@ import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
-import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
@@ -41,6 +41,7 @@ import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherPathListener;
 import org.eclipse.che.api.vfs.impl.file.event.LoEvent;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
@@ -107,28 +108,28 @@ public final class ProjectManager {
 
     @PostConstruct
     void initWatcher() throws IOException {
-        FileWatcherNotificationListener defaultListener =
-                new FileWatcherNotificationListener(file -> !(file.getPath().toString().contains(".codenvy")
-                                                              || file.getPath().toString().contains(".#"))) {
-                    @Override
-                    public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
-                        LOG.debug("FS event detected: " + eventType + " " + virtualFile.getPath().toString() + " " + virtualFile.isFile());
-                        eventService.publish(LoEvent.newInstance()
-                                                    .withPath(virtualFile.getPath().toString())
-                                                    .withName(virtualFile.getName())
-                                                    .withItemType(virtualFile.isFile()
-                                                                           ? LoEvent.ItemType.FILE
-                                                                           : LoEvent.ItemType.DIR)
-                                                    .withTime(System.currentTimeMillis())
-                                                    .withEventType(eventType));
-                    }
-                };
-        fileWatchNotifier.addNotificationListener(defaultListener);
+        FileWatcherPathListener defaultListener = (path, isDir, eventType) -> {
+            final String pathString = path.toString();
+            if (pathString.contains(".codenvy") || pathString.contains(".#")) {
+                return;
+            }
+            if (!isDir && ExcludeRegistry.EXCLUDES_FILE.equals(path.getName())) {
+                projectRegistry.refreshExcludeRules(path.getParent().toString());
+            }
+            LOG.debug("FS event detected: " + eventType + " " + pathString + " " + !isDir);
+            eventService.publish(LoEvent.newInstance()
+                                        .withPath(pathString)
+                                        .withName(path.getName())
+                                        .withItemType(isDir ? LoEvent.ItemType.DIR : LoEvent.ItemType.FILE)
+                                        .withTime(System.currentTimeMillis())
+                                        .withEventType(eventType));
+        };
+        fileWatchNotifier.addPathListener(defaultListener);
         try {
             fileWatcher.startup();
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
-            fileWatchNotifier.removeNotificationListener(defaultListener);
+            fileWatchNotifier.removePathListener(defaultListener);
         }
     }
 
@@ -21,8 +21,10 @@ import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.handlers.ProjectInitHandler;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
 import org.eclipse.che.api.project.server.type.ProjectTypeConstraintException;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
@@ -34,12 +36,15 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Stores internal representation of Projects registered in the Workspace Agent.
  *
@@ -56,16 +61,27 @@ public class ProjectRegistry {
     private final ProjectHandlerRegistry         handlers;
     private final FolderEntry                    root;
     private final EventService eventService;
+    private final ExcludeRegistry                excludeRegistry;
 
     private boolean initialized;
 
-    @Inject
     public ProjectRegistry(WorkspaceProjectsSyncer workspaceHolder,
                            VirtualFileSystemProvider vfsProvider,
                            ProjectTypeRegistry projectTypeRegistry,
                            ProjectHandlerRegistry handlers,
                            EventService eventService) throws ServerException {
+        this(workspaceHolder, vfsProvider, projectTypeRegistry, handlers, eventService, new ExcludeRegistry());
+    }
+
+    @Inject
+    public ProjectRegistry(WorkspaceProjectsSyncer workspaceHolder,
+                           VirtualFileSystemProvider vfsProvider,
+                           ProjectTypeRegistry projectTypeRegistry,
+                           ProjectHandlerRegistry handlers,
+                           EventService eventService,
+                           ExcludeRegistry excludeRegistry) throws ServerException {
         this.eventService = eventService;
+        this.excludeRegistry = excludeRegistry;
         this.projects = new ConcurrentHashMap<>();
         this.workspaceHolder = workspaceHolder;
         this.vfs = vfsProvider.getVirtualFileSystem();
@@ -207,10 +223,45 @@ public class ProjectRegistry {
 
         final RegisteredProject project = new RegisteredProject(folder, config, updated, detected, this.projectTypeRegistry);
         projects.put(project.getPath(), project);
+        updateExcludeRules(project);
 
         return project;
     }
 
+    /**
+     * Re-reads exclude rules of project, e.g. after file {@link ExcludeRegistry#EXCLUDES_FILE} in project folder is changed.
+     *
+     * @param projectPath
+     *         project path
+     */
+    void refreshExcludeRules(String projectPath) {
+        final RegisteredProject project = projects.get(absolutizePath(projectPath));
+        if (project != null) {
+            updateExcludeRules(project);
+        }
+    }
+
+    /** Sets exclude rules of project: defaults of its project types followed by rules defined by user. */
+    private void updateExcludeRules(RegisteredProject project) {
+        final List<String> patterns = new ArrayList<>();
+        for (ProjectTypeDef type : project.getTypes().values()) {
+            patterns.addAll(type.getExcludePatterns());
+        }
+        final FolderEntry folder = project.getBaseFolder();
+        if (folder != null) {
+            try {
+                final VirtualFileEntry excludesFile = folder.getChild(ExcludeRegistry.EXCLUDES_FILE);
+                if (excludesFile != null && excludesFile.isFile()) {
+                    final String content = new String(((FileEntry)excludesFile).contentAsBytes(), UTF_8);
+                    Collections.addAll(patterns, content.split("\\r?\\n"));
+                }
+            } catch (ServerException e) {
+                LOG.warn("Unable read exclude rules of project {}: {}", project.getPath(), e.getMessage());
+            }
+        }
+        excludeRegistry.setRules(project.getPath(), patterns);
+    }
+
 
 
     /**
@@ -227,6 +278,7 @@ public class ProjectRegistry {
         getProjects(path).forEach(p -> Optional.ofNullable(projects.remove(p))
                                                .ifPresent(removed::add));
 
+        removed.forEach(registeredProject -> excludeRegistry.removeRules(registeredProject.getPath()));
         removed.forEach(registeredProject -> eventService.publish(new ProjectDeletedEvent(registeredProject.getPath())));
     }
 
@@ -10,9 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server.importer;
 
+import org.eclipse.che.api.core.util.BatchingWebsocketPublisher;
 import org.eclipse.che.api.core.util.LineConsumer;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-
 import org.everrest.core.impl.provider.json.JsonUtils;
 import org.everrest.websockets.WSConnectionContext;
 import org.everrest.websockets.message.ChannelBroadcastMessage;
@@ -20,59 +19,42 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Send project import output to WS by skipping output messages written below the delay specified.
+ * Lines are collected with shared {@link BatchingWebsocketPublisher}, only the last line of each batch is sent.
  */
 public class ProjectImportOutputWSLineConsumer implements LineConsumer {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectImportOutputWSLineConsumer.class);
 
-    protected final AtomicInteger            lineCounter;
-    protected final String                   projectName;
-    protected final String                   workspaceId;
-    protected final BlockingQueue<String>    lineToSendQueue;
-    protected final ScheduledExecutorService executor;
+    protected final AtomicInteger lineCounter;
+    protected final String        projectName;
+    protected final String        workspaceId;
+    protected final LineConsumer  batchingConsumer;
 
     public ProjectImportOutputWSLineConsumer(String projectName, String workspaceId, int delayBetweenMessages) {
+        this(projectName, workspaceId, delayBetweenMessages, BatchingWebsocketPublisher.getInstance());
+    }
+
+    public ProjectImportOutputWSLineConsumer(String projectName,
+                                             String workspaceId,
+                                             int delayBetweenMessages,
+                                             BatchingWebsocketPublisher publisher) {
         this.projectName = projectName;
         this.workspaceId = workspaceId;
-        lineToSendQueue = new ArrayBlockingQueue<>(1024);
-        executor = Executors.newSingleThreadScheduledExecutor(
-                new ThreadFactoryBuilder().setNameFormat(ProjectImportOutputWSLineConsumer.class.getSimpleName()+"-%d").setDaemon(true).build());
-        executor.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                String lineToSend = null;
-                while (!lineToSendQueue.isEmpty()) {
-                    lineToSend = lineToSendQueue.poll();
-                }
-                if (lineToSend == null) {
-                    return;
-                }
-                sendMessage(lineToSend);
-            }
-        }, 0, delayBetweenMessages, TimeUnit.MILLISECONDS);
         lineCounter = new AtomicInteger(1);
+        batchingConsumer = publisher.newLineConsumer(delayBetweenMessages, lines -> sendMessage(lines.get(lines.size() - 1)));
     }
 
     @Override
     public void close() throws IOException {
-        executor.shutdown();
+        batchingConsumer.close();
     }
 
     @Override
     public void writeLine(String line) throws IOException {
-        try {
-            lineToSendQueue.put(line);
-        } catch (InterruptedException ignored) {
-            // ignore if interrupted
-        }
+        batchingConsumer.writeLine(line);
     }
 
     protected void sendMessage(String line) {
@@ -10,55 +10,336 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server.notification;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.project.shared.dto.event.VfsWatchEvent;
-import org.eclipse.che.dto.server.DtoFactory;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.eclipse.che.api.project.shared.dto.event.VfsWatchEventBatch;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherPathListener;
+import org.eclipse.che.everrest.ChannelDtoBroadcaster;
+import org.eclipse.che.everrest.CheWSConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
+ * Subscribes on VFS Watcher events and broadcasts them with websockets.
+ * <p>
+ * Events are delivered only to clients that subscribed to them, see {@link #subscribe(String, Collection)}. Client gets
+ * events of the paths it subscribed to and of direct children of such paths, so it is enough to subscribe to the folders
+ * expanded in project explorer and to the opened files. Events of a client are coalesced, e.g. file that was created and
+ * then modified is reported as created, and sent as one {@link VfsWatchEventBatch} per {@code vfs.watch.broadcast_period_ms}
+ * to the channel {@link VfsWatchEventBatch#VFS_CHANNEL_PREFIX} followed by client id.
+ * Events nobody is interested in are dropped right away, without resolving changed item.
+ * <p>
+ * Subscription of client expires when no websocket connection listens to the channel of client for
+ * {@code vfs.watch.subscription_expire_ms}, e.g. when browser tab is closed without unsubscribing.
  *
- * Subscribes on VFS Watcher events and broadcasts them with websockets
  * @author gazarenkov
  */
+@Singleton
 public class VfsWatchBroadcaster implements EventSubscriber<VfsWatchEvent> {
 
     private static final Logger LOG = LoggerFactory.getLogger(VfsWatchBroadcaster.class);
 
-    private final EventService eventService;
+    private static final long EXPIRATION_CHECK_PERIOD_MS = 10000;
+
+    private final EventService                   eventService;
+    private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
+    private final FileWatcherPathListener        pathListener;
+    private final Map<String, Subscription>      subscriptions;
+    private final Map<Path, Set<Subscription>>   subscriptionsByPath;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.watch.broadcast_period_ms")
+    private long broadcastPeriod = 200;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.watch.subscription_expire_ms")
+    private long subscriptionExpirePeriod = 60000;
+
+    private long lastExpirationCheck;
+
+    private ScheduledExecutorService executor;
 
     @Inject
-    public VfsWatchBroadcaster(EventService eventService) {
+    public VfsWatchBroadcaster(EventService eventService, FileWatcherNotificationHandler fileWatcherNotificationHandler) {
         this.eventService = eventService;
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.pathListener = (path, isDir, eventType) -> enqueue(path, eventType, !isDir);
+        this.subscriptions = new ConcurrentHashMap<>();
+        this.subscriptionsByPath = new ConcurrentHashMap<>();
     }
 
     @Override
     public void onEvent(VfsWatchEvent event) {
+        enqueue(Path.ROOT.newPath(event.getPath()), event.getType(), event.isFile());
+    }
+
+    /**
+     * Adds paths to subscription of client. Client is notified about changes of these paths and their direct children.
+     *
+     * @param clientId
+     *         id of client
+     * @param paths
+     *         paths of expanded folders or opened files
+     */
+    public void subscribe(String clientId, Collection<String> paths) {
+        // paths are added under lock of client's entry, so subscription can't expire at the same time
+        subscriptions.compute(clientId, (id, subscription) -> {
+            if (subscription == null) {
+                subscription = new Subscription(id);
+            }
+            subscription.lastConnected = System.currentTimeMillis();
+            for (String path : paths) {
+                final Path vfsPath = Path.ROOT.newPath(path);
+                if (subscription.addPath(vfsPath)) {
+                    addToIndex(vfsPath, subscription);
+                }
+            }
+            return subscription;
+        });
+    }
+
+    /**
+     * Removes paths from subscription of client, e.g. when folder is collapsed or file is closed.
+     *
+     * @param clientId
+     *         id of client
+     * @param paths
+     *         paths that client isn't interested in anymore
+     */
+    public void unsubscribe(String clientId, Collection<String> paths) {
+        subscriptions.computeIfPresent(clientId, (id, subscription) -> {
+            for (String path : paths) {
+                final Path vfsPath = Path.ROOT.newPath(path);
+                if (subscription.removePath(vfsPath)) {
+                    removeFromIndex(vfsPath, subscription);
+                }
+            }
+            return subscription;
+        });
+    }
+
+    /** Removes all subscriptions of client, pending events of client are discarded. */
+    public void unsubscribe(String clientId) {
+        subscriptions.computeIfPresent(clientId, (id, subscription) -> {
+            removeAll(subscription);
+            return null;
+        });
+    }
+
+    /** Gets paths client is subscribed to. */
+    public Set<String> getSubscribedPaths(String clientId) {
+        final Subscription subscription = subscriptions.get(clientId);
+        return subscription == null ? new HashSet<>() : subscription.getPaths();
+    }
+
+    /** Sends events accumulated since previous call to subscribed clients. Called periodically. */
+    void broadcastPendingEvents() {
+        final long now = System.currentTimeMillis();
+        if (now - lastExpirationCheck >= Math.min(subscriptionExpirePeriod, EXPIRATION_CHECK_PERIOD_MS)) {
+            lastExpirationCheck = now;
+            expireSubscriptions(getConnectedChannels(), now);
+        }
+        for (Subscription subscription : subscriptions.values()) {
+            final List<VfsWatchEvent> events = subscription.drainEvents();
+            if (events.isEmpty()) {
+                continue;
+            }
+            try {
+                broadcast(subscription.channel, newDto(VfsWatchEventBatch.class).withEvents(events));
+            } catch (Exception e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    void broadcast(String channel, VfsWatchEventBatch batch) throws Exception {
+        ChannelDtoBroadcaster.broadcast(channel, batch);
+    }
+
+    /**
+     * Removes subscriptions of clients whose channels have been missing from {@code connectedChannels} for longer than
+     * {@code vfs.watch.subscription_expire_ms}.
+     */
+    void expireSubscriptions(Set<String> connectedChannels, long now) {
+        for (String clientId : subscriptions.keySet()) {
+            subscriptions.computeIfPresent(clientId, (id, subscription) -> {
+                if (connectedChannels.contains(subscription.channel)) {
+                    subscription.lastConnected = now;
+                } else if (now - subscription.lastConnected > subscriptionExpirePeriod) {
+                    LOG.debug("Subscription of client {} is expired", id);
+                    removeAll(subscription);
+                    return null;
+                }
+                return subscription;
+            });
+        }
+    }
+
+    private static Set<String> getConnectedChannels() {
+        final Set<String> channels = new HashSet<>();
+        for (CheWSConnection connection : CheWSConnection.getOpenConnections()) {
+            channels.addAll(connection.getChannels());
+        }
+        return channels;
+    }
 
-        try {
-            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-            bm.setChannel(VfsWatchEvent.VFS_CHANNEL);
-            bm.setBody(DtoFactory.getInstance().toJson(event));
-            WSConnectionContext.sendMessage(bm);
-        } catch (Exception e) {
-            LOG.error(e.getLocalizedMessage(), e);
+    private void enqueue(Path path, FileWatcherEventType type, boolean isFile) {
+        if (subscriptionsByPath.isEmpty()) {
+            return;
+        }
+        final Set<Subscription> itemSubscriptions = subscriptionsByPath.get(path);
+        if (itemSubscriptions != null) {
+            for (Subscription subscription : itemSubscriptions) {
+                subscription.addEvent(path, type, isFile);
+            }
+        }
+        final Path parent = path.getParent();
+        final Set<Subscription> parentSubscriptions = parent == null ? null : subscriptionsByPath.get(parent);
+        if (parentSubscriptions != null) {
+            for (Subscription subscription : parentSubscriptions) {
+                if (itemSubscriptions == null || !itemSubscriptions.contains(subscription)) {
+                    subscription.addEvent(path, type, isFile);
+                }
+            }
+        }
+    }
+
+    private void addToIndex(Path path, Subscription subscription) {
+        subscriptionsByPath.compute(path, (p, pathSubscriptions) -> {
+            if (pathSubscriptions == null) {
+                pathSubscriptions = ConcurrentHashMap.newKeySet();
+            }
+            pathSubscriptions.add(subscription);
+            return pathSubscriptions;
+        });
+    }
+
+    private void removeAll(Subscription subscription) {
+        for (Path path : subscription.clear()) {
+            removeFromIndex(path, subscription);
         }
     }
 
+    private void removeFromIndex(Path path, Subscription subscription) {
+        subscriptionsByPath.computeIfPresent(path, (p, pathSubscriptions) -> {
+            pathSubscriptions.remove(subscription);
+            return pathSubscriptions.isEmpty() ? null : pathSubscriptions;
+        });
+    }
+
     @PostConstruct
     private void subscribe() {
         eventService.subscribe(this);
+        fileWatcherNotificationHandler.addPathListener(pathListener);
+        executor = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("VfsWatchBroadcaster-%d")
+                                                                               .setDaemon(true)
+                                                                               .build());
+        executor.scheduleWithFixedDelay(this::broadcastPendingEvents, broadcastPeriod, broadcastPeriod, TimeUnit.MILLISECONDS);
     }
 
     @PreDestroy
     private void unsubscribe() {
         eventService.unsubscribe(this);
+        fileWatcherNotificationHandler.removePathListener(pathListener);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Subscribed paths and not yet sent events of a single client. */
+    private static class Subscription {
+        final String channel;
+
+        /** Time when client was known to be connected for the last time. */
+        volatile long lastConnected;
+
+        private final Set<Path>                paths;
+        private       Map<Path, VfsWatchEvent> pending;
+
+        Subscription(String clientId) {
+            this.channel = VfsWatchEventBatch.VFS_CHANNEL_PREFIX + clientId;
+            this.paths = new HashSet<>();
+            this.pending = new LinkedHashMap<>();
+            this.lastConnected = System.currentTimeMillis();
+        }
+
+        synchronized boolean addPath(Path path) {
+            return paths.add(path);
+        }
+
+        synchronized boolean removePath(Path path) {
+            return paths.remove(path);
+        }
+
+        synchronized Set<String> getPaths() {
+            final Set<String> result = new HashSet<>(paths.size());
+            for (Path path : paths) {
+                result.add(path.toString());
+            }
+            return result;
+        }
+
+        synchronized Set<Path> clear() {
+            final Set<Path> removed = new HashSet<>(paths);
+            paths.clear();
+            pending.clear();
+            return removed;
+        }
+
+        /**
+         * Merges event with pending event of the same path. Creation followed by modification is still creation, item that is
+         * created and deleted between two broadcasts is never reported, item deleted and then created again is modified.
+         */
+        synchronized void addEvent(Path path, FileWatcherEventType type, boolean isFile) {
+            final VfsWatchEvent previous = pending.get(path);
+            if (previous == null) {
+                pending.put(path, newDto(VfsWatchEvent.class).withPath(path.toString()).withType(type).withFile(isFile));
+            } else if (previous.getType() == CREATED) {
+                if (type == DELETED) {
+                    pending.remove(path);
+                } else {
+                    previous.withFile(isFile);
+                }
+            } else {
+                previous.withType(previous.getType() == DELETED && type == CREATED ? MODIFIED : type).withFile(isFile);
+            }
+        }
+
+        synchronized List<VfsWatchEvent> drainEvents() {
+            if (pending.isEmpty()) {
+                return new ArrayList<>(0);
+            }
+            final List<VfsWatchEvent> events = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+            return events;
+        }
     }
 }
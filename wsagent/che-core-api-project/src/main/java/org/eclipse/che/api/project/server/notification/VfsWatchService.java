@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+import org.eclipse.che.api.core.rest.Service;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Manages paths clients want to get VFS watcher events for, see {@link VfsWatchBroadcaster}.
+ *
+ * @since 4.6
+ */
+@Api(value = "/vfs/watch", description = "VFS watcher subscriptions REST API")
+@Path("/vfs/watch")
+@Singleton
+public class VfsWatchService extends Service {
+    private final VfsWatchBroadcaster broadcaster;
+
+    @Inject
+    public VfsWatchService(VfsWatchBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GET
+    @Path("/{client-id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Gets paths client is subscribed to",
+                  response = String.class,
+                  responseContainer = "Set")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK")})
+    public Set<String> getSubscribedPaths(@ApiParam(value = "Client id", required = true)
+                                          @PathParam("client-id") String clientId) {
+        return broadcaster.getSubscribedPaths(clientId);
+    }
+
+    @POST
+    @Path("/{client-id}")
+    @ApiOperation(value = "Subscribes client to events of paths and their direct children",
+                  notes = "Events are sent to channel 'vfs:{client-id}'")
+    @ApiResponses({@ApiResponse(code = 204, message = "")})
+    public void subscribe(@ApiParam(value = "Client id", required = true)
+                          @PathParam("client-id") String clientId,
+                          @ApiParam(value = "Paths of expanded folders or opened files")
+                          @QueryParam("path") List<String> paths) {
+        broadcaster.subscribe(clientId, paths);
+    }
+
+    @DELETE
+    @Path("/{client-id}")
+    @ApiOperation(value = "Unsubscribes client from events of paths",
+                  notes = "Removes all subscriptions of client if no path is specified")
+    @ApiResponses({@ApiResponse(code = 204, message = "")})
+    public void unsubscribe(@ApiParam(value = "Client id", required = true)
+                            @PathParam("client-id") String clientId,
+                            @ApiParam(value = "Paths of collapsed folders or closed files")
+                            @QueryParam("path") List<String> paths) {
+        if (paths == null || paths.isEmpty()) {
+            broadcaster.unsubscribe(clientId);
+        } else {
+            broadcaster.unsubscribe(clientId, paths);
+        }
+    }
+}
@@ -29,6 +29,7 @@ public abstract class ProjectTypeDef implements ProjectType {
     protected final List<String>                      parents;
     protected final List<String>                      ancestors;
     protected final Map<String, ValueProviderFactory> factoriesToOverride;
+    protected final List<String>                      excludePatterns;
 
     protected final String  id;
     protected final String  displayName;
@@ -41,6 +42,7 @@ public abstract class ProjectTypeDef implements ProjectType {
         attributes = new HashMap<>();
         parents = new ArrayList<>();
         factoriesToOverride = new HashMap<>();
+        excludePatterns = new ArrayList<>();
 
         this.id = id;
         this.displayName = displayName;
@@ -121,6 +123,15 @@ public abstract class ProjectTypeDef implements ProjectType {
         return attributes.get(name);
     }
 
+    /**
+     * @return patterns of items that are excluded from watching, indexing and searching in projects of this type by default,
+     * e.g. build output folder. Patterns use syntax of .gitignore files and are relative to project folder.
+     * @see org.eclipse.che.api.vfs.ExcludeRegistry
+     */
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+
     protected void addConstantDefinition(String name, String description, AttributeValue value) {
         attributes.put(name, new Constant(id, name, description, value));
     }
@@ -157,6 +168,14 @@ public abstract class ProjectTypeDef implements ProjectType {
         attributes.put(attr.getName(), attr);
     }
 
+    protected void addExcludePatterns(String... patterns) {
+        for (String pattern : patterns) {
+            if (!excludePatterns.contains(pattern)) {
+                excludePatterns.add(pattern);
+            }
+        }
+    }
+
     protected void addParent(String parentId) {
         for (String pid : parents) {
             if (pid.equals(parentId))
@@ -255,6 +255,9 @@ public class ProjectTypeRegistry {
                 }
                 myType.addAttributeDefinition(attr);
             }
+            for (String pattern : supertype.getExcludePatterns()) {
+                myType.addExcludePatterns(pattern);
+            }
             initRecursively(myType, superTypeId);
         }
     }
@@ -10,13 +10,45 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import org.eclipse.che.commons.lang.ParallelDeflater;
+import org.eclipse.che.commons.lang.ParallelExtractor;
+
 public class ArchiverFactory {
+    private final boolean           storeCompressedFiles;
+    private final ParallelDeflater  deflater;
+    private final ParallelExtractor extractor;
+
+    public ArchiverFactory() {
+        this(ZipArchiver.DEFAULT_STORE_COMPRESSED_FILES, ParallelDeflater.getDefault());
+    }
+
+    public ArchiverFactory(boolean storeCompressedFiles, ParallelDeflater deflater) {
+        this(storeCompressedFiles, deflater, null);
+    }
+
+    /**
+     * @param storeCompressedFiles
+     *         store already compressed files, e.g. jar or png, in zip archives without compression
+     * @param deflater
+     *         compresses content of zip archives in multiple threads, may be {@code null} if content must be compressed in
+     *         thread that creates archive
+     * @param extractor
+     *         writes files extracted from zip archives in multiple threads, may be {@code null} if files must be written in
+     *         thread that extracts archive, e.g. if virtual filesystem doesn't support concurrent creation of files
+     * @see ZipArchiver#COMPRESSED_FILE_EXTENSIONS
+     */
+    public ArchiverFactory(boolean storeCompressedFiles, ParallelDeflater deflater, ParallelExtractor extractor) {
+        this.storeCompressedFiles = storeCompressedFiles;
+        this.deflater = deflater;
+        this.extractor = extractor;
+    }
+
     public Archiver createArchiver(VirtualFile folder, String archiveType) {
         if (archiveType == null) {
             throw new IllegalArgumentException("Archive type might not be null");
         }
         if ("zip".equals(archiveType.toLowerCase())) {
-            return new ZipArchiver(folder);
+            return new ZipArchiver(folder, storeCompressedFiles, deflater, extractor);
         } else if ("tar".equals(archiveType.toLowerCase())) {
             return new TarArchiver(folder);
         }
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single place that decides which items of virtual file system are excluded from watching, indexing, searching and walking
+ * of trees, e.g. {@code node_modules} or {@code target} folders. Rules use syntax of {@code .gitignore} files, see
+ * {@link ExcludeRules}.
+ * <p>
+ * Default rules are bound with name {@code vfs.exclude_patterns} and are relative to the root of virtual file system, negated
+ * patterns among them are applied after all others. Rules of project are set for project folder, usually these are defaults
+ * of project types of project and rules from file {@link #EXCLUDES_FILE} in project folder. As in git item is excluded if
+ * any of its parent folders is excluded and rules of nested folder take precedence over rules of its parents.
+ */
+@Singleton
+public class ExcludeRegistry {
+    /** Name of file in project folder that contains exclude rules added by user. */
+    public static final String EXCLUDES_FILE = ".cheignore";
+
+    private final ExcludeRules            defaultRules;
+    private final Map<Path, ExcludeRules> rulesByBase;
+    private final List<Runnable>          changeListeners;
+
+    /** Creates registry without default rules. */
+    public ExcludeRegistry() {
+        this(Collections.emptySet());
+    }
+
+    @Inject
+    public ExcludeRegistry(@Named("vfs.exclude_patterns") Set<String> defaultPatterns) {
+        final List<String> patterns = new ArrayList<>(defaultPatterns.size());
+        final List<String> negated = new ArrayList<>();
+        for (String pattern : defaultPatterns) {
+            (pattern.startsWith("!") ? negated : patterns).add(pattern);
+        }
+        patterns.addAll(negated);
+        this.defaultRules = ExcludeRules.parse(Path.ROOT, patterns);
+        this.rulesByBase = new ConcurrentHashMap<>();
+        this.changeListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Sets rules of folder, replaces rules previously set for the same folder.
+     *
+     * @param basePath
+     *         path of folder, usually project folder, patterns are relative to
+     * @param patterns
+     *         patterns or lines of {@code .gitignore} like file, if there is no pattern rules of folder are removed
+     */
+    public void setRules(String basePath, Collection<String> patterns) {
+        final Path base = Path.ROOT.newPath(basePath);
+        final ExcludeRules rules = ExcludeRules.parse(base, patterns);
+        final ExcludeRules previous = rules.isEmpty() ? rulesByBase.remove(base) : rulesByBase.put(base, rules);
+        if (previous == null ? !rules.isEmpty() : !previous.getPatterns().equals(rules.getPatterns())) {
+            fireChanged();
+        }
+    }
+
+    /** Removes rules of folder. */
+    public void removeRules(String basePath) {
+        if (rulesByBase.remove(Path.ROOT.newPath(basePath)) != null) {
+            fireChanged();
+        }
+    }
+
+    /** Gets rules of folder or {@code null} if there are no rules for the folder. */
+    public ExcludeRules getRules(String basePath) {
+        return rulesByBase.get(Path.ROOT.newPath(basePath));
+    }
+
+    /**
+     * Checks whether item is excluded.
+     *
+     * @param path
+     *         path of item, relative paths are resolved against root of virtual file system
+     * @param isDir
+     *         whether item is folder
+     */
+    public boolean isExcluded(String path, boolean isDir) {
+        return isExcluded(Path.ROOT.newPath(path), isDir);
+    }
+
+    /**
+     * Checks whether item is excluded.
+     *
+     * @param path
+     *         path of item
+     * @param isDir
+     *         whether item is folder
+     */
+    public boolean isExcluded(Path path, boolean isDir) {
+        if (path.isRoot() || (defaultRules.isEmpty() && rulesByBase.isEmpty())) {
+            return false;
+        }
+        final String[] elements = path.elements();
+        // rules that may be applied to the path, rules of nested folders go last
+        final List<ExcludeRules> applicable = new ArrayList<>();
+        if (!defaultRules.isEmpty()) {
+            applicable.add(defaultRules);
+        }
+        for (int i = 0; i < elements.length; i++) {
+            final ExcludeRules rules = rulesByBase.get(i == 0 ? Path.ROOT : path.subPath(0, i));
+            if (rules != null) {
+                applicable.add(rules);
+            }
+        }
+        if (applicable.isEmpty()) {
+            return false;
+        }
+        // item is excluded when it or any of its parents is excluded
+        for (int length = 1; length <= elements.length; length++) {
+            final boolean dir = length < elements.length || isDir;
+            Boolean excluded = null;
+            for (ExcludeRules rules : applicable) {
+                final int baseLength = rules.getBase().length();
+                if (baseLength < length) {
+                    final Boolean match = rules.match(join(elements, baseLength, length), dir);
+                    if (match != null) {
+                        excluded = match;
+                    }
+                }
+            }
+            if (excluded == Boolean.TRUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Gets filter that accepts items that are not excluded. */
+    public VirtualFileFilter asFilter() {
+        return file -> !isExcluded(file.getPath(), file.isFolder());
+    }
+
+    /** Adds listener that is called each time when rules are changed. */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    private static String join(String[] elements, int begin, int end) {
+        if (end - begin == 1) {
+            return elements[begin];
+        }
+        final StringBuilder builder = new StringBuilder();
+        for (int i = begin; i < end; i++) {
+            if (i > begin) {
+                builder.append('/');
+            }
+            builder.append(elements[i]);
+        }
+        return builder.toString();
+    }
+}
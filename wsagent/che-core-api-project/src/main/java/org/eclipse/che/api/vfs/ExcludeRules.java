@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Ordered list of exclude patterns written with syntax of {@code .gitignore} files, patterns are relative to a base folder.
+ * <ul>
+ * <li>blank lines and lines that start with {@code #} are ignored</li>
+ * <li>pattern that starts with {@code !} includes again items excluded by previous patterns</li>
+ * <li>pattern that ends with {@code /} matches only folders</li>
+ * <li>pattern without {@code /} (except trailing one) matches name of item on any level under the base folder, otherwise
+ * pattern is matched against path relative to the base folder</li>
+ * <li>{@code *} matches anything except {@code /}, {@code ?} matches any single character except {@code /}, {@code [a-z]}
+ * matches one character in range, {@code **} matches any number of folders</li>
+ * </ul>
+ * The last pattern that matches item decides whether item is excluded. Unlike git, these rules don't check whether parent
+ * folder of item is excluded, see {@link ExcludeRegistry}.
+ */
+public final class ExcludeRules {
+    private final Path       base;
+    private final List<Rule> rules;
+
+    private ExcludeRules(Path base, List<Rule> rules) {
+        this.base = base;
+        this.rules = rules;
+    }
+
+    /**
+     * Parses patterns.
+     *
+     * @param base
+     *         folder patterns are relative to
+     * @param patterns
+     *         patterns or lines of {@code .gitignore} like file
+     */
+    public static ExcludeRules parse(Path base, Iterable<String> patterns) {
+        final List<Rule> rules = new ArrayList<>();
+        for (String pattern : patterns) {
+            final Rule rule = Rule.parse(pattern);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return new ExcludeRules(base, rules);
+    }
+
+    /** Gets folder patterns are relative to. */
+    public Path getBase() {
+        return base;
+    }
+
+    /** Gets patterns in order they are applied, without blank lines and comments. */
+    public List<String> getPatterns() {
+        final List<String> patterns = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            patterns.add(rule.pattern);
+        }
+        return Collections.unmodifiableList(patterns);
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Matches item against patterns.
+     *
+     * @param relativePath
+     *         path of item relative to the base folder, elements are separated by {@code /}
+     * @param isDir
+     *         whether item is folder
+     * @return {@code Boolean.TRUE} if item is excluded, {@code Boolean.FALSE} if item is included with negated pattern and
+     * {@code null} if none of patterns matches item
+     */
+    public Boolean match(String relativePath, boolean isDir) {
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            final Rule rule = rules.get(i);
+            if (rule.matches(relativePath, isDir)) {
+                return !rule.negated;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ExcludeRules{" +
+               "base=" + base +
+               ", patterns=" + getPatterns() +
+               '}';
+    }
+
+    private static class Rule {
+        final String  pattern;
+        final Pattern regex;
+        final boolean negated;
+        final boolean dirOnly;
+
+        Rule(String pattern, Pattern regex, boolean negated, boolean dirOnly) {
+            this.pattern = pattern;
+            this.regex = regex;
+            this.negated = negated;
+            this.dirOnly = dirOnly;
+        }
+
+        static Rule parse(String pattern) {
+            String glob = trimTrailingSpaces(pattern);
+            if (glob.isEmpty() || glob.charAt(0) == '#') {
+                return null;
+            }
+            boolean negated = false;
+            if (glob.charAt(0) == '!') {
+                negated = true;
+                glob = glob.substring(1);
+            } else if (glob.startsWith("\\!") || glob.startsWith("\\#")) {
+                glob = glob.substring(1);
+            }
+            boolean dirOnly = false;
+            while (glob.endsWith("/")) {
+                dirOnly = true;
+                glob = glob.substring(0, glob.length() - 1);
+            }
+            if (glob.isEmpty()) {
+                return null;
+            }
+            final boolean anchored = glob.indexOf('/') >= 0;
+            if (glob.charAt(0) == '/') {
+                glob = glob.substring(1);
+            }
+            final StringBuilder regex = new StringBuilder();
+            if (!anchored) {
+                regex.append("(?:.*/)?");
+            }
+            appendGlob(glob, regex);
+            return new Rule(pattern, Pattern.compile(regex.toString()), negated, dirOnly);
+        }
+
+        boolean matches(String relativePath, boolean isDir) {
+            return (isDir || !dirOnly) && regex.matcher(relativePath).matches();
+        }
+
+        private static String trimTrailingSpaces(String pattern) {
+            int end = pattern.length();
+            while (end > 0 && Character.isWhitespace(pattern.charAt(end - 1)) && !(end > 1 && pattern.charAt(end - 2) == '\\')) {
+                end--;
+            }
+            return pattern.substring(0, end);
+        }
+
+        private static void appendGlob(String glob, StringBuilder regex) {
+            final int length = glob.length();
+            for (int i = 0; i < length; i++) {
+                final char c = glob.charAt(i);
+                switch (c) {
+                    case '*':
+                        if (i + 1 < length && glob.charAt(i + 1) == '*'
+                            && (i == 0 || glob.charAt(i - 1) == '/')
+                            && (i + 2 == length || glob.charAt(i + 2) == '/')) {
+                            if (i + 2 == length) {
+                                // trailing "**" matches everything inside
+                                regex.append(".*");
+                            } else {
+                                // leading or middle "**/" matches zero or more folders
+                                regex.append("(?:.*/)?");
+                                i++;
+                            }
+                            i++;
+                        } else {
+                            regex.append("[^/]*");
+                        }
+                        break;
+                    case '?':
+                        regex.append("[^/]");
+                        break;
+                    case '[':
+                        final int end = glob.indexOf(']', i + 2);
+                        if (end < 0) {
+                            regex.append("\\[");
+                        } else {
+                            String range = glob.substring(i + 1, end);
+                            if (range.charAt(0) == '!') {
+                                range = '^' + range.substring(1);
+                            }
+                            regex.append('[').append(range.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                            i = end;
+                        }
+                        break;
+                    case '\\':
+                        if (i + 1 < length) {
+                            regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                        }
+                        break;
+                    default:
+                        if (".(){}+|^$".indexOf(c) >= 0) {
+                            regex.append('\\');
+                        }
+                        regex.append(c);
+                }
+            }
+        }
+    }
+}
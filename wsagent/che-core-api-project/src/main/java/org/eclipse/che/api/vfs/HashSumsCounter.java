@@ -21,23 +21,54 @@ import org.eclipse.che.commons.lang.Pair;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.hash.Funnels.asOutputStream;
 
 /**
  * Traverses recursively all files in folder given in constructor and calculates hash sum for each file.
  * Algorithm specified by {@code hashFunction} is used for calculating hash sum.
+ * <p/>
+ * Subclasses may keep hash sums of files that are not changed, see {@link #getCachedHashSum(VirtualFile)} and
+ * {@link #cacheHashSums(Map)}. Hash sums that are not cached are calculated in multiple threads if executor is given in
+ * constructor.
  */
 public class HashSumsCounter implements VirtualFileVisitor {
+    /** Number of files which hash sums are calculated by one task of executor. */
+    private static final int FILES_PER_TASK = 64;
+
     private final VirtualFile                folder;
     private final HashFunction               hashFunction;
+    private final ExecutorService            executor;
+    private final List<VirtualFile>          files;
     private final List<Pair<String, String>> hashSums;
 
 
     public HashSumsCounter(VirtualFile folder, HashFunction hashFunction) {
+        this(folder, hashFunction, null);
+    }
+
+    /**
+     * @param folder
+     *         folder which files are hashed
+     * @param hashFunction
+     *         algorithm of hash sum
+     * @param executor
+     *         calculates hash sums in multiple threads, may be {@code null}, then hash sums are calculated in thread that calls
+     *         {@link #countHashSums()}
+     */
+    public HashSumsCounter(VirtualFile folder, HashFunction hashFunction, ExecutorService executor) {
         this.folder = folder;
         this.hashFunction = hashFunction;
+        this.executor = executor;
+        files = newArrayList();
         hashSums = newArrayList();
     }
 
@@ -51,26 +82,106 @@ public class HashSumsCounter implements VirtualFileVisitor {
      */
     public List<Pair<String, String>> countHashSums() throws ServerException {
         folder.accept(this);
+        final String[] fileHashSums = new String[files.size()];
+        final List<Integer> notCached = newArrayList();
+        for (int i = 0; i < fileHashSums.length; i++) {
+            fileHashSums[i] = getCachedHashSum(files.get(i));
+            if (fileHashSums[i] == null) {
+                notCached.add(i);
+            }
+        }
+        if (!notCached.isEmpty()) {
+            if (executor == null || notCached.size() <= FILES_PER_TASK) {
+                countHashSums(notCached, fileHashSums);
+            } else {
+                countHashSumsInParallel(notCached, fileHashSums);
+            }
+            final Map<VirtualFile, String> counted = newHashMap();
+            for (int i : notCached) {
+                counted.put(files.get(i), fileHashSums[i]);
+            }
+            cacheHashSums(counted);
+        }
+        for (int i = 0; i < fileHashSums.length; i++) {
+            hashSums.add(Pair.of(fileHashSums[i], files.get(i).getPath().subPath(folder.getPath()).toString()));
+        }
         return hashSums;
     }
 
     @Override
     public void visit(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.isFile()) {
-            try (InputStream in = virtualFile.getContent()) {
-                final Hasher hasher = hashFunction.newHasher();
-                ByteStreams.copy(in, asOutputStream(hasher));
-                final String hexHash = hasher.hash().toString();
-                hashSums.add(Pair.of(hexHash, virtualFile.getPath().subPath(folder.getPath()).toString()));
-            } catch (IOException e) {
-                throw new ServerException(e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
-            }
+            files.add(virtualFile);
         } else {
             for (VirtualFile child : virtualFile.getChildren()) {
                 child.accept(this);
             }
         }
     }
+
+    protected HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
+    /** Gets hash sum of file that is not changed since its hash sum was calculated. By default nothing is cached. */
+    protected String getCachedHashSum(VirtualFile file) throws ServerException {
+        return null;
+    }
+
+    /**
+     * Keeps calculated hash sums to reuse them next time. By default does nothing.
+     *
+     * @param counted
+     *         files and their hash sums represented as HEX strings
+     */
+    protected void cacheHashSums(Map<VirtualFile, String> counted) throws ServerException {
+    }
+
+    /**
+     * Calculates hash sum of file. May be called from multiple threads at the same time.
+     *
+     * @return hash sum represented as HEX String
+     */
+    protected String countHashSum(VirtualFile file) throws ServerException {
+        try (InputStream in = file.getContent()) {
+            final Hasher hasher = hashFunction.newHasher();
+            ByteStreams.copy(in, asOutputStream(hasher));
+            return hasher.hash().toString();
+        } catch (IOException e) {
+            throw new ServerException(e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    private void countHashSums(List<Integer> indexes, String[] fileHashSums) throws ServerException {
+        for (int i : indexes) {
+            fileHashSums[i] = countHashSum(files.get(i));
+        }
+    }
+
+    private void countHashSumsInParallel(List<Integer> indexes, String[] fileHashSums) throws ServerException {
+        final List<Callable<Void>> tasks = newArrayListWithCapacity(indexes.size() / FILES_PER_TASK + 1);
+        for (int from = 0; from < indexes.size(); from += FILES_PER_TASK) {
+            final List<Integer> taskIndexes = indexes.subList(from, Math.min(from + FILES_PER_TASK, indexes.size()));
+            tasks.add(() -> {
+                countHashSums(taskIndexes, fileHashSums);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while counting hash sums");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause);
+        }
+    }
 }
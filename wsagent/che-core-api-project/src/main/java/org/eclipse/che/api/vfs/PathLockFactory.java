@@ -10,6 +10,12 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  * <p/>
@@ -30,15 +36,38 @@ package org.eclipse.che.api.vfs;
  *         }
  *      }
  * </pre>
+ * Lock of path also protects all its descendants. Exclusive lock of path can't be obtained while other thread keeps any lock
+ * of the same path, of its ancestor or of its descendant, not exclusive locks of the same path or of paths in the same branch
+ * are compatible. Locks which are kept by the current thread never block it.
+ * <p/>
+ * Locks are hierarchical: each path has own lock node and lock of path puts intention lock on all its ancestors, so a
+ * conflict with lock of ancestor or of descendant is found in nodes of ancestors without scanning of all existing locks.
+ * Threads that lock unrelated paths touch only common ancestors for a short time and don't wait for each other. Lock is
+ * obtained for path and all its ancestors at once or not obtained at all, thread doesn't keep any lock while it waits.
  *
  * @author andrew00x>
  */
 public final class PathLockFactory {
     private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+
+    // Lock modes. Intention modes are set on ancestors of locked path.
+    private static final int INTENTION_SHARED    = 0;
+    private static final int INTENTION_EXCLUSIVE = 1;
+    private static final int SHARED              = 2;
+    private static final int EXCLUSIVE           = 3;
+
+    private static final boolean[][] COMPATIBLE = {
+            //   IS     IX     S      X
+            {true, true, true, false},   // IS
+            {true, true, false, false},  // IX
+            {true, false, true, false},  // S
+            {false, false, false, false} // X
+    };
+
     /** Max number of threads allowed to access file. */
-    private final int maxThreads;
-    // Tail of the "lock table".
-    private final Node tail = new Node(null, 0, null);
+    private final int                       maxThreads;
+    /** Lock nodes of paths which are locked or which some thread tries to lock. */
+    private final ConcurrentMap<Path, Node> nodes;
 
     /**
      * @param maxThreads
@@ -50,145 +79,278 @@ public final class PathLockFactory {
             throw new IllegalArgumentException();
         }
         this.maxThreads = maxThreads;
+        nodes = new ConcurrentHashMap<>();
     }
 
     public PathLock getLock(Path path, boolean exclusive) {
-        return new PathLock(path, exclusive ? maxThreads : 1);
+        return new PathLock(path, exclusive);
     }
 
-    private synchronized void acquire(Path path, int permits) {
-        while (!tryAcquire(path, permits)) {
+    /**
+     * @param timeoutMilliseconds
+     *         max time to wait for lock, or negative number to wait until lock is obtained
+     */
+    private void acquire(Path[] branch, boolean exclusive, long timeoutMilliseconds) {
+        final long endTime = timeoutMilliseconds < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMilliseconds;
+        final Thread current = Thread.currentThread();
+        while (true) {
+            Node conflict = null;
+            int depth = 0;
+            for (; depth < branch.length; depth++) {
+                final int mode = modeAt(branch, depth, exclusive);
+                Node node;
+                int result;
+                do {
+                    node = getNode(branch[depth]);
+                    // Node might be removed from table meanwhile, the next attempt gets new one.
+                } while ((result = node.referenceAndTryAcquire(mode, current, maxThreads)) == Node.REMOVED);
+                if (result == Node.CONFLICT) {
+                    conflict = node;
+                    break;
+                }
+            }
+            if (conflict == null) {
+                return;
+            }
+            // Lock is obtained all or nothing. Give back what is already obtained and wait until conflicting node is changed.
+            final int conflictMode = modeAt(branch, depth, exclusive);
+            for (int i = depth - 1; i >= 0; i--) {
+                releaseNode(nodes.get(branch[i]), modeAt(branch, i, exclusive), current);
+            }
             try {
-                wait();
+                conflict.awaitCompatible(conflictMode, current, maxThreads, endTime);
             } catch (InterruptedException e) {
-                notifyAll();
                 throw new RuntimeException(e);
+            } finally {
+                dereference(conflict);
+            }
+            if (System.currentTimeMillis() >= endTime) {
+                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", branch[branch.length - 1]));
             }
         }
     }
 
-    private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
-        final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-        long waitTime = timeoutMilliseconds;
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait(waitTime);
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
-            }
-            long now = System.currentTimeMillis();
-            if (now >= endTime) {
-                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+    private void release(Path[] branch, boolean exclusive) {
+        final Thread current = Thread.currentThread();
+        for (int depth = branch.length - 1; depth >= 0; depth--) {
+            final Node node = nodes.get(branch[depth]);
+            // Nothing to do if lock isn't obtained by the current thread.
+            if (node != null) {
+                releaseNode(node, modeAt(branch, depth, exclusive), current);
             }
-            waitTime = endTime - now;
         }
     }
 
-    private synchronized void release(Path path, int permits) {
-        Node node = tail;
-        while (node != null) {
-            Node prev = node.prev;
-            if (prev == null) {
-                break;
-            }
-            if (prev.path.equals(path)) {
-                if (prev.threadDeep == 1) {
-                    // If last recursive lock.
-                    prev.permits += permits;
-                    if (prev.permits >= maxThreads) {
-                        // remove
-                        node.prev = prev.prev;
-                        prev.prev = null;
-                    }
-                } else {
-                    --prev.threadDeep;
-                }
-            }
-            node = node.prev;
+    private static int modeAt(Path[] branch, int depth, boolean exclusive) {
+        if (depth == branch.length - 1) {
+            return exclusive ? EXCLUSIVE : SHARED;
         }
-        notifyAll();
-        //System.err.printf(">>>>> release: %s : %d%n", path, permits);
+        return exclusive ? INTENTION_EXCLUSIVE : INTENTION_SHARED;
     }
 
-    private boolean tryAcquire(Path path, int permits) {
-        //System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-        Node node = tail.prev;
-        final Thread current = Thread.currentThread();
-        while (node != null) {
-            if (node.path.equals(path)) {
-                if (node.threadId == current.getId()) {
-                    // Current thread already has direct lock for this path
-                    if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-                        throw new Error("Max number of recursive locks exceeded. ");
-                    }
-                    ++node.threadDeep;
-                    return true;
-                }
-                if (node.permits > permits) {
-                    // Lock already exists and current thread is not owner of this lock,
-                    // but lock is not exclusive and we can "share" it for other thread.
-                    node.permits -= permits; // decrement number of allowed concurrent threads
-                    return true;
-                }
-                // Lock is exclusive or max number of allowed concurrent thread is reached.
-                return false;
-            } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-                // Found some path which already has lock that prevents us to get required permits.
-                // There is two possibilities:
-                // 1. Parent of the path we try to lock already locked
-                // 2. Child of the path we try to lock already locked
-                // Need to check is such lock obtained by current thread or not.
-                // If such lock obtained by other thread stop here immediately there is no reasons to continue.
-                if (node.threadId != current.getId()) {
-                    return false;
-                }
+    /** Gets path and all its ancestors starting from the root. */
+    private static Path[] branchOf(Path path) {
+        final Path[] branch = new Path[path.length() + 1];
+        Path current = path;
+        for (int depth = branch.length - 1; depth > 0; depth--) {
+            branch[depth] = current;
+            current = current.getParent();
+        }
+        branch[0] = current;
+        return branch;
+    }
+
+    /** Gets existing node or creates new one. Node stays in table until all references to it are released. */
+    private Node getNode(Path path) {
+        Node node = nodes.get(path);
+        if (node == null) {
+            final Node newNode = new Node(path);
+            node = nodes.putIfAbsent(path, newNode);
+            if (node == null) {
+                node = newNode;
             }
-            node = node.prev;
         }
-        // If we are here there is no lock for path yet.
-        tail.prev = new Node(path, maxThreads - permits, tail.prev);
-        return true;
+        return node;
+    }
+
+    private void releaseNode(Node node, int mode, Thread thread) {
+        if (node.releaseAndDereference(mode, thread)) {
+            nodes.remove(node.path, node);
+        }
     }
 
-    public synchronized void checkClean() {
-        assert tail.prev == null;
+    private void dereference(Node node) {
+        if (node.dereference()) {
+            nodes.remove(node.path, node);
+        }
+    }
+
+    public void checkClean() {
+        assert nodes.isEmpty() : nodes.values();
     }
 
    /* =============================================== */
 
     private static class Node {
         final Path path;
-        final long threadId = Thread.currentThread().getId();
-        int  permits;
-        int  threadDeep;
-        Node prev;
+        /** Number of threads which keep or are obtaining lock of this node. */
+        int     references;
+        /** Node is removed from table when it is not referenced anymore and can't be used after that. */
+        boolean removed;
+
+        /** Number of holds of each mode by all threads. */
+        private final int[]              holds  = new int[4];
+        /**
+         * Number of holds of each mode by each thread. The first owner is kept apart from others, commonly node has a single owner
+         * and map isn't needed.
+         */
+        private       Thread             firstOwner;
+        private       int[]              firstOwnerHolds;
+        private       Map<Thread, int[]> otherOwners;
+        /** Number of threads which keep shared lock. */
+        private       int                sharedOwners;
 
-        Node(Path path, int permits, Node prev) {
+        Node(Path path) {
             this.path = path;
-            this.permits = permits;
-            this.prev = prev;
-            threadDeep = 1;
+        }
+
+        static final int ACQUIRED = 0;
+        static final int CONFLICT = 1;
+        static final int REMOVED  = 2;
+
+        /**
+         * References node and tries to obtain its lock. Node is referenced even if lock isn't obtained, so thread may wait on it.
+         *
+         * @return {@link #ACQUIRED}, {@link #CONFLICT} if lock isn't compatible with locks of other threads or {@link #REMOVED} if
+         * node is removed from table and can't be used
+         */
+        synchronized int referenceAndTryAcquire(int mode, Thread thread, int maxThreads) {
+            if (removed) {
+                return REMOVED;
+            }
+            references++;
+            return tryAcquire(mode, thread, maxThreads) ? ACQUIRED : CONFLICT;
+        }
+
+        /**
+         * Releases lock of the current thread and dereferences node.
+         *
+         * @return {@code true} if node isn't referenced anymore and must be removed from table
+         */
+        synchronized boolean releaseAndDereference(int mode, Thread thread) {
+            return release(mode, thread) && dereference();
+        }
+
+        /** @return {@code true} if node isn't referenced anymore and must be removed from table */
+        synchronized boolean dereference() {
+            if (--references == 0) {
+                removed = true;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean tryAcquire(int mode, Thread thread, int maxThreads) {
+            final int[] own = holdsOf(thread);
+            if (!isCompatible(mode, own, maxThreads)) {
+                return false;
+            }
+            if (own == null) {
+                addOwner(thread)[mode] = 1;
+            } else {
+                if (own[mode] >= MAX_RECURSIVE_LOCKS) {
+                    throw new Error("Max number of recursive locks exceeded. ");
+                }
+                own[mode]++;
+            }
+            if (mode == SHARED && (own == null || own[SHARED] == 1)) {
+                sharedOwners++;
+            }
+            holds[mode]++;
+            return true;
+        }
+
+        private boolean release(int mode, Thread thread) {
+            final int[] own = holdsOf(thread);
+            if (own == null || own[mode] == 0) {
+                return false;
+            }
+            own[mode]--;
+            holds[mode]--;
+            if (mode == SHARED && own[SHARED] == 0) {
+                sharedOwners--;
+            }
+            if (own[INTENTION_SHARED] + own[INTENTION_EXCLUSIVE] + own[SHARED] + own[EXCLUSIVE] == 0) {
+                removeOwner(thread);
+            }
+            notifyAll();
+            return true;
+        }
+
+        private int[] holdsOf(Thread thread) {
+            if (thread == firstOwner) {
+                return firstOwnerHolds;
+            }
+            return otherOwners == null ? null : otherOwners.get(thread);
+        }
+
+        private int[] addOwner(Thread thread) {
+            final int[] own = new int[4];
+            if (firstOwner == null) {
+                firstOwner = thread;
+                firstOwnerHolds = own;
+            } else {
+                if (otherOwners == null) {
+                    otherOwners = new HashMap<>(4);
+                }
+                otherOwners.put(thread, own);
+            }
+            return own;
+        }
+
+        private void removeOwner(Thread thread) {
+            if (thread == firstOwner) {
+                firstOwner = null;
+                firstOwnerHolds = null;
+            } else {
+                otherOwners.remove(thread);
+            }
+        }
+
+        synchronized void awaitCompatible(int mode, Thread thread, int maxThreads, long endTime) throws InterruptedException {
+            long waitTime;
+            while (!isCompatible(mode, holdsOf(thread), maxThreads) && (waitTime = endTime - System.currentTimeMillis()) > 0) {
+                wait(waitTime);
+            }
+        }
+
+        /** Checks whether mode is compatible with modes of other threads, modes of the current thread are never conflicting. */
+        private boolean isCompatible(int mode, int[] own, int maxThreads) {
+            for (int other = 0; other < holds.length; other++) {
+                if (holds[other] - (own == null ? 0 : own[other]) > 0 && !COMPATIBLE[mode][other]) {
+                    return false;
+                }
+            }
+            return mode != SHARED || sharedOwners < maxThreads || (own != null && own[SHARED] > 0);
         }
 
         @Override
-        public String toString() {
+        public synchronized String toString() {
             return "Node{" +
                    "path=" + path +
-                   ", threadId=" + threadId +
-                   ", permits=" + permits +
-                   ", prev=" + prev +
+                   ", holds=" + Arrays.toString(holds) +
+                   ", owners=" + ((firstOwner == null ? 0 : 1) + (otherOwners == null ? 0 : otherOwners.size())) +
                    '}';
         }
     }
 
     public final class PathLock {
-        private final Path path;
-        private final int  permits;
+        private final Path[]  branch;
+        private final boolean exclusive;
 
-        private PathLock(Path path, int permits) {
-            this.path = path;
-            this.permits = permits;
+        private PathLock(Path path, boolean exclusive) {
+            this.branch = branchOf(path);
+            this.exclusive = exclusive;
         }
 
         /**
@@ -197,7 +359,7 @@ public final class PathLockFactory {
          * @return this PathLock instance
          */
         public PathLock acquire() {
-            PathLockFactory.this.acquire(path, permits);
+            PathLockFactory.this.acquire(branch, exclusive, -1);
             return this;
         }
 
@@ -212,18 +374,18 @@ public final class PathLockFactory {
          *         if waiting timeout reached
          */
         public PathLock acquire(long timeoutMilliseconds) {
-            PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+            PathLockFactory.this.acquire(branch, exclusive, Math.max(timeoutMilliseconds, 0));
             return this;
         }
 
         /** Release file permit. */
         public void release() {
-            PathLockFactory.this.release(path, permits);
+            PathLockFactory.this.release(branch, exclusive);
         }
 
         /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
         public boolean isExclusive() {
-            return permits == PathLockFactory.this.maxThreads;
+            return exclusive;
         }
     }
 }
@@ -18,6 +18,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -504,6 +505,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream zip() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as zip archive to specified output. Unlike {@link #zip()} archive
+     * isn't prepared before it is returned to caller, each entry is written to {@code output} as soon as it is compressed.
+     *
+     * @param output
+     *         output for zipped content of folder, it is closed when archive is written
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs, e.g. if {@code output} can't be written
+     */
+    void zip(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts zip archive to the folder denoted by this VirtualFile.
      *
@@ -537,6 +551,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream tar() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as TAR archive to specified output. Unlike {@link #tar()} archive
+     * isn't prepared before it is returned to caller, each entry is written to {@code output} as soon as it is read.
+     *
+     * @param output
+     *         output for content of folder as TAR archive, it is closed when archive is written
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs, e.g. if {@code output} can't be written
+     */
+    void tar(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts tar archive to the folder denoted by this VirtualFile.
      *
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 
 import org.eclipse.che.api.core.ConflictException;
@@ -17,17 +18,73 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.util.NotClosableInputStream;
 import org.eclipse.che.api.vfs.util.ZipContent;
+import org.eclipse.che.commons.lang.ParallelDeflater;
+import org.eclipse.che.commons.lang.ParallelExtractor;
+import org.eclipse.che.commons.lang.ParallelZipOutputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 public class ZipArchiver extends Archiver {
+    /** Extensions of files which content is already compressed, compressing of such files takes time but saves nothing. */
+    public static final Set<String> COMPRESSED_FILE_EXTENSIONS = ImmutableSet.of("zip", "jar", "war", "ear", "apk", "gz", "tgz",
+                                                                                 "bz2", "xz", "7z", "rar", "png", "jpg", "jpeg",
+                                                                                 "gif", "webp", "mp3", "mp4", "ogg", "avi", "mkv",
+                                                                                 "pdf", "woff", "woff2");
+
+    /** By default files with extensions from {@link #COMPRESSED_FILE_EXTENSIONS} are written to archive without compression. */
+    public static final boolean DEFAULT_STORE_COMPRESSED_FILES = true;
+
+    private final boolean           storeCompressedFiles;
+    private final ParallelDeflater  deflater;
+    private final ParallelExtractor extractor;
+
     public ZipArchiver(VirtualFile folder) {
+        this(folder, DEFAULT_STORE_COMPRESSED_FILES);
+    }
+
+    public ZipArchiver(VirtualFile folder, boolean storeCompressedFiles) {
+        this(folder, storeCompressedFiles, null);
+    }
+
+    public ZipArchiver(VirtualFile folder, boolean storeCompressedFiles, ParallelDeflater deflater) {
+        this(folder, storeCompressedFiles, deflater, null);
+    }
+
+    /**
+     * @param folder
+     *         folder to compress or to extract archive to
+     * @param storeCompressedFiles
+     *         if {@code true} files with extensions from {@link #COMPRESSED_FILE_EXTENSIONS} are written to archive without
+     *         compression
+     * @param deflater
+     *         compresses content of files in multiple threads, may be {@code null}, then files are compressed in thread that
+     *         calls {@link #compress(OutputStream, VirtualFileFilter)}
+     * @param extractor
+     *         writes extracted files in multiple threads, may be {@code null}, then files are written in thread that calls
+     *         {@link #extract(InputStream, boolean, int)}
+     */
+    public ZipArchiver(VirtualFile folder, boolean storeCompressedFiles, ParallelDeflater deflater, ParallelExtractor extractor) {
         super(folder);
+        this.storeCompressedFiles = storeCompressedFiles;
+        this.deflater = deflater;
+        this.extractor = extractor;
     }
 
     @Override
@@ -37,7 +94,8 @@ public class ZipArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
+        try (ZipOutputStream zipOutputStream = deflater == null ? new ZipOutputStream(zipOutput)
+                                                                : new ParallelZipOutputStream(zipOutput, deflater)) {
             folder.accept(new VirtualFileVisitor() {
                 @Override
                 public void visit(VirtualFile visitedVirtualFile) throws ServerException {
@@ -64,17 +122,30 @@ public class ZipArchiver extends Archiver {
         return zipPath.toString();
     }
 
+    private boolean isCompressedFile(VirtualFile virtualFile) {
+        if (!storeCompressedFiles) {
+            return false;
+        }
+        final String name = virtualFile.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSED_FILE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
     private void addZipEntry(VirtualFile virtualFile, ZipOutputStream zipOutputStream) throws ServerException {
         try {
             ZipEntry zipEntry = new ZipEntry(getZipEntryName(virtualFile));
-            zipOutputStream.putNextEntry(zipEntry);
             if (virtualFile.isFolder()) {
                 zipEntry.setTime(0);
+                zipOutputStream.putNextEntry(zipEntry);
             } else {
+                zipEntry.setTime(virtualFile.getLastModificationDate());
+                // Level is applied to the next entry only. Deflate without compression writes content as is and, unlike
+                // STORED entries, doesn't need CRC and size of content before it is written, so content is read once.
+                zipOutputStream.setLevel(isCompressedFile(virtualFile) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+                zipOutputStream.putNextEntry(zipEntry);
                 try (InputStream content = virtualFile.getContent()) {
                     ByteStreams.copy(content, zipOutputStream);
                 }
-                zipEntry.setTime(virtualFile.getLastModificationDate());
             }
             zipOutputStream.closeEntry();
         } catch (ForbiddenException e) {
@@ -87,50 +158,157 @@ public class ZipArchiver extends Archiver {
     @Override
     public void extract(InputStream zipInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (ZipInputStream zip = new ZipInputStream(ZipContent.of(zipInput).getContent())) {
-            InputStream notClosableInputStream = new NotClosableInputStream(zip);
-            ZipEntry zipEntry;
-            while ((zipEntry = zip.getNextEntry()) != null) {
-                VirtualFile extractFolder = folder;
+        final ZipContent zipContent = ZipContent.of(zipInput);
+        try (InputStream content = zipContent.getContent()) {
+            if (extractor != null && zipContent.getFile() != null) {
+                try (ZipFile zip = new ZipFile(zipContent.getFile())) {
+                    extract(zip, overwrite, stripNumber);
+                }
+            } else {
+                extract(new ZipInputStream(content), overwrite, stripNumber);
+            }
+        }
+    }
 
-                Path relativePath = Path.of(zipEntry.getName());
+    private void extract(ZipInputStream zip, boolean overwrite, int stripNumber)
+            throws IOException, ForbiddenException, ConflictException, ServerException {
+        InputStream notClosableInputStream = new NotClosableInputStream(zip);
+        ZipEntry zipEntry;
+        while ((zipEntry = zip.getNextEntry()) != null) {
+            VirtualFile extractFolder = folder;
 
-                if (stripNumber > 0) {
-                    if (relativePath.length() <= stripNumber) {
-                        continue;
-                    }
-                    relativePath = relativePath.subPath(stripNumber);
-                }
+            Path relativePath = getRelativePath(zipEntry, stripNumber);
+            if (relativePath == null) {
+                continue;
+            }
 
-                if (zipEntry.isDirectory()) {
-                    if (!extractFolder.hasChild(relativePath)) {
-                        extractFolder.createFolder(relativePath.toString());
-                    }
-                    continue;
+            if (zipEntry.isDirectory()) {
+                if (!extractFolder.hasChild(relativePath)) {
+                    extractFolder.createFolder(relativePath.toString());
                 }
+                continue;
+            }
 
-                if (relativePath.length() > 1) {
-                    Path neededParentPath = relativePath.getParent();
-                    VirtualFile neededParent = extractFolder.getChild(neededParentPath);
-                    if (neededParent == null) {
-                        neededParent = extractFolder.createFolder(neededParentPath.toString());
-                    }
-                    extractFolder = neededParent;
+            if (relativePath.length() > 1) {
+                Path neededParentPath = relativePath.getParent();
+                VirtualFile neededParent = extractFolder.getChild(neededParentPath);
+                if (neededParent == null) {
+                    neededParent = extractFolder.createFolder(neededParentPath.toString());
                 }
+                extractFolder = neededParent;
+            }
 
-                String fileName = relativePath.getName();
-                VirtualFile file = extractFolder.getChild(Path.of(fileName));
-                if (file == null) {
-                    extractFolder.createFile(fileName, notClosableInputStream);
+            String fileName = relativePath.getName();
+            VirtualFile file = extractFolder.getChild(Path.of(fileName));
+            if (file == null) {
+                extractFolder.createFile(fileName, notClosableInputStream);
+            } else {
+                if (overwrite) {
+                    file.updateContent(notClosableInputStream);
                 } else {
-                    if (overwrite) {
-                        file.updateContent(notClosableInputStream);
-                    } else {
+                    throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
+                }
+            }
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * Extracts zip file with random access to its entries. Existed files are checked before anything is extracted, then all
+     * folders are created and then files are written in multiple threads. If few entries point to the same file only the last one
+     * is extracted, as it happens when entries are extracted one after another, so the same file is never written by two threads.
+     */
+    private void extract(ZipFile zip, boolean overwrite, int stripNumber)
+            throws IOException, ForbiddenException, ConflictException, ServerException {
+        final Map<Path, ZipEntry> fileEntries = new LinkedHashMap<>();
+        final Set<Path> folderPaths = new HashSet<>();
+        for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+            final ZipEntry zipEntry = entries.nextElement();
+            final Path relativePath = getRelativePath(zipEntry, stripNumber);
+            if (relativePath == null) {
+                continue;
+            }
+            if (zipEntry.isDirectory()) {
+                folderPaths.add(relativePath);
+            } else {
+                if (!overwrite) {
+                    final VirtualFile file = folder.getChild(relativePath);
+                    if (file != null) {
                         throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
                     }
                 }
-                zip.closeEntry();
+                if (fileEntries.put(relativePath, zipEntry) != null && !overwrite) {
+                    final Path path = folder.getPath().newPath(relativePath);
+                    throw new ConflictException(String.format("File '%s' already exists", path));
+                }
+                if (relativePath.length() > 1) {
+                    folderPaths.add(relativePath.getParent());
+                }
+            }
+        }
+
+        // Parents go before their children, so most of folders already exist when their turn comes.
+        final List<Path> sortedFolderPaths = new ArrayList<>(folderPaths);
+        sortedFolderPaths.sort(Comparator.comparingInt(Path::length));
+        final Map<Path, VirtualFile> folders = new HashMap<>();
+        for (Path folderPath : sortedFolderPaths) {
+            VirtualFile extractFolder = folder.getChild(folderPath);
+            if (extractFolder == null) {
+                extractFolder = folder.createFolder(folderPath.toString());
+            }
+            folders.put(folderPath, extractFolder);
+        }
+
+        final ParallelExtractor.TaskGroup tasks = extractor.newTaskGroup();
+        boolean submitted = false;
+        try {
+            for (Iterator<Map.Entry<Path, ZipEntry>> i = fileEntries.entrySet().iterator(); i.hasNext() && !tasks.isFailed(); ) {
+                final Map.Entry<Path, ZipEntry> fileEntry = i.next();
+                final ZipEntry zipEntry = fileEntry.getValue();
+                final Path relativePath = fileEntry.getKey();
+                final VirtualFile extractFolder = relativePath.length() > 1 ? folders.get(relativePath.getParent()) : folder;
+                tasks.submit(1, () -> {
+                    try (InputStream content = zip.getInputStream(zipEntry)) {
+                        final String fileName = relativePath.getName();
+                        final VirtualFile file = extractFolder.getChild(Path.of(fileName));
+                        if (file == null) {
+                            extractFolder.createFile(fileName, content);
+                        } else {
+                            file.updateContent(content);
+                        }
+                    }
+                });
+            }
+            submitted = true;
+        } finally {
+            if (!submitted) {
+                // zip file is closed by caller, running tasks must not read it after that
+                tasks.abort();
+            }
+        }
+        try {
+            tasks.await();
+        } catch (IOException | ForbiddenException | ConflictException | ServerException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets path of zip entry relative to extraction folder. {@link Path} doesn't allow {@code ..} to go above the root, so entry
+     * can't point outside of folder.
+     *
+     * @return relative path or {@code null} if entry must be skipped because its path has less than {@code stripNumber} elements
+     */
+    private Path getRelativePath(ZipEntry zipEntry, int stripNumber) {
+        Path relativePath = Path.of(zipEntry.getName());
+        if (stripNumber > 0) {
+            if (relativePath.length() <= stripNumber) {
+                return null;
             }
+            relativePath = relativePath.subPath(stripNumber);
         }
+        return relativePath;
     }
 }
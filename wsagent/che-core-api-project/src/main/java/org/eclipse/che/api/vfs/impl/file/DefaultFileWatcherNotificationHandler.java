@@ -24,22 +24,40 @@ import java.io.File;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+
 @Singleton
 public class DefaultFileWatcherNotificationHandler implements FileWatcherNotificationHandler {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultFileWatcherNotificationHandler.class);
 
     private final VirtualFileSystemProvider             virtualFileSystemProvider;
     private final List<FileWatcherNotificationListener> fileWatcherNotificationListeners;
+    private final List<FileWatcherPathListener>         fileWatcherPathListeners;
 
     @Inject
     public DefaultFileWatcherNotificationHandler(VirtualFileSystemProvider virtualFileSystemProvider) {
         this.virtualFileSystemProvider = virtualFileSystemProvider;
         fileWatcherNotificationListeners = new CopyOnWriteArrayList<>();
+        fileWatcherPathListeners = new CopyOnWriteArrayList<>();
     }
 
     @Override
     public void handleFileWatcherEvent(FileWatcherEventType eventType, File watchRoot, String subPath, boolean isDir) {
-        VirtualFile virtualFile = convertToVirtualFile(watchRoot, subPath, isDir);
+        final LocalVirtualFileSystem virtualFileSystem = getVirtualFileSystem();
+        if (virtualFileSystem == null) {
+            return;
+        }
+        final Path vfsPath = Path.ROOT.newPath(subPath);
+        // item is changed bypassing virtual file system, cached attributes of removed folder and its items are not valid anymore
+        virtualFileSystem.invalidateCachedAttributes(vfsPath, isDir && eventType == DELETED);
+        for (FileWatcherPathListener pathListener : fileWatcherPathListeners) {
+            pathListener.onFileWatcherEvent(vfsPath, isDir, eventType);
+        }
+        if (fileWatcherNotificationListeners.isEmpty()) {
+            return;
+        }
+        // resolve virtual file only when there is somebody interested in it
+        VirtualFile virtualFile = convertToVirtualFile(virtualFileSystem, watchRoot, vfsPath, isDir);
         if (virtualFile == null) {
             return;
         }
@@ -68,13 +86,30 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
         return fileWatcherNotificationListeners.remove(fileWatcherNotificationListener);
     }
 
-    private VirtualFile convertToVirtualFile(File root, String subPath, boolean isDir) {
+    @Override
+    public boolean addPathListener(FileWatcherPathListener fileWatcherPathListener) {
+        return fileWatcherPathListeners.add(fileWatcherPathListener);
+    }
+
+    @Override
+    public boolean removePathListener(FileWatcherPathListener fileWatcherPathListener) {
+        return fileWatcherPathListeners.remove(fileWatcherPathListener);
+    }
+
+    private LocalVirtualFileSystem getVirtualFileSystem() {
+        try {
+            return (LocalVirtualFileSystem)virtualFileSystemProvider.getVirtualFileSystem(true);
+        } catch (ServerException e) {
+            LOG.warn(e.getMessage());
+        }
+        return null;
+    }
+
+    private VirtualFile convertToVirtualFile(LocalVirtualFileSystem virtualFileSystem, File root, Path vfsPath, boolean isDir) {
         try {
-            LocalVirtualFileSystem virtualFileSystem = (LocalVirtualFileSystem)virtualFileSystemProvider.getVirtualFileSystem(true);
-            Path vfsPath = Path.of(subPath);
             VirtualFile virtualFile = virtualFileSystem.getRoot().getChild(vfsPath);
             if (virtualFile == null) {
-                virtualFile = new DeletedLocalVirtualFile(new File(root, subPath), vfsPath, virtualFileSystem, isDir);
+                virtualFile = new DeletedLocalVirtualFile(new File(root, vfsPath.toString()), vfsPath, virtualFileSystem, isDir);
             }
             return virtualFile;
         } catch (ServerException e) {
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifies {@link FileTreeWatcher} about directories content of which is changed. Service doesn't say what is changed in directory,
+ * {@link FileTreeWatcher} compares content of directory with previous state itself.
+ */
+interface DirectoryWatchService extends Closeable {
+    /** Starts watching of directory. May be called from multiple threads. */
+    void register(Path directory) throws IOException;
+
+    /** Stops watching of directory. Does nothing if directory isn't watched. */
+    void cancel(Path directory);
+
+    /**
+     * Waits for changes in watched directories and adds changed directories to specified collection. All changes that are available
+     * at the moment are taken at once. If events are lost because of overflow of events queue then all directories that might be
+     * affected by lost events are added to collection.
+     *
+     * @param changedDirectories
+     *         collection to add changed directories to
+     * @param timeout
+     *         time to wait for changes, negative value means wait until any change
+     * @param unit
+     *         unit of {@code timeout}
+     * @return {@code false} if service is closed and there are no more changes
+     * @throws InterruptedException
+     *         if thread is interrupted while waiting
+     * @throws IOException
+     *         if i/o error occurs while reading changes
+     */
+    boolean poll(Collection<Path> changedDirectories, long timeout, TimeUnit unit) throws InterruptedException, IOException;
+
+    /** Gets number of watched directories. */
+    int getWatchCount();
+
+    /** Gets number of events received from file system since service was started. */
+    long getEventCount();
+
+    /** Gets number of overflows of events queue since service was started. */
+    long getOverflowCount();
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.che.api.vfs.Path;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Bounded in-memory cache of attributes of items and listings of folders of {@link LocalVirtualFileSystem}.
+ * <p/>
+ * Cache is kept up to date by mutations that are done by virtual file system itself and by events of {@link FileTreeWatcher}.
+ * Changes done directly on file system in paths that aren't watched are picked up after expiration of cached data. Listing of
+ * folder is also re-read when modification time of folder is changed, so items created or removed bypassing virtual file
+ * system are visible in listing immediately.
+ * <p/>
+ * Disabled cache reads everything from file system.
+ */
+class FileAttributesCache {
+    private static final CacheStats NO_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+    /** Number of versions of paths, paths share versions by hash, so invalidation of path may drop loads of few other paths. */
+    private static final int        VERSIONS = 1024;
+
+    /** Attributes of item of local file system. */
+    static final class FileAttributes {
+        static final FileAttributes MISSING = new FileAttributes(false, false, false, 0, 0);
+
+        final boolean exists;
+        final boolean directory;
+        final boolean regularFile;
+        final long    length;
+        final long    lastModified;
+
+        private FileAttributes(boolean exists, boolean directory, boolean regularFile, long length, long lastModified) {
+            this.exists = exists;
+            this.directory = directory;
+            this.regularFile = regularFile;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        private FileAttributes(BasicFileAttributes attributes) {
+            this(true, attributes.isDirectory(), attributes.isRegularFile(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+
+        static FileAttributes read(File ioFile) {
+            try {
+                return new FileAttributes(Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class));
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+    }
+
+    private static final class Listing {
+        final FileTime     modified;
+        final List<String> names;
+
+        Listing(FileTime modified, List<String> names) {
+            this.modified = modified;
+            this.names = names;
+        }
+    }
+
+    private final Cache<Path, FileAttributes> attributes;
+    private final Cache<Path, Listing>        listings;
+    /**
+     * Versions of paths, versions of path and of its parent are incremented when path is invalidated. Data that is read from
+     * file system is not put in cache if the path it belongs to was invalidated while data was being read, otherwise stale data
+     * might overwrite result of invalidation. Loads of other paths are not affected.
+     */
+    private final AtomicLongArray             versions;
+    /** Versions of subtrees, version of path is incremented when its subtree is invalidated, whole cache is subtree of root. */
+    private final AtomicLongArray             treeVersions;
+
+    /** Creates disabled cache. */
+    FileAttributesCache() {
+        attributes = null;
+        listings = null;
+        versions = null;
+        treeVersions = null;
+    }
+
+    /**
+     * @param maxSize
+     *         max number of items, attributes of which are cached, and max total number of items in cached listings of folders
+     * @param expireAfterWriteSeconds
+     *         time after which cached data is re-read from file system
+     */
+    FileAttributesCache(long maxSize, long expireAfterWriteSeconds) {
+        attributes = CacheBuilder.newBuilder()
+                                 .concurrencyLevel(8)
+                                 .maximumSize(maxSize)
+                                 .expireAfterWrite(expireAfterWriteSeconds, SECONDS)
+                                 .recordStats()
+                                 .build();
+        listings = CacheBuilder.newBuilder()
+                               .concurrencyLevel(8)
+                               .maximumWeight(maxSize)
+                               .weigher((Path path, Listing listing) -> listing.names.size() + 1)
+                               .expireAfterWrite(expireAfterWriteSeconds, SECONDS)
+                               .recordStats()
+                               .build();
+        versions = new AtomicLongArray(VERSIONS);
+        treeVersions = new AtomicLongArray(VERSIONS);
+    }
+
+    boolean isEnabled() {
+        return attributes != null;
+    }
+
+    FileAttributes getAttributes(Path path, File ioFile) {
+        if (!isEnabled()) {
+            return FileAttributes.read(ioFile);
+        }
+        FileAttributes cached = attributes.getIfPresent(path);
+        if (cached == null) {
+            final long version = version(path);
+            cached = FileAttributes.read(ioFile);
+            putAttributes(path, cached, path, version);
+        }
+        return cached;
+    }
+
+    /**
+     * Gets names of items of folder accepted by {@code filter}. Names of folders go first then names of files, both sorted
+     * alphabetically. Attributes of items are cached while folder is being read. Filter must be the same for the same folder.
+     *
+     * @throws IOException
+     *         if folder doesn't exist or can't be read
+     */
+    List<String> getChildNames(Path path, File ioDirectory, FilenameFilter filter) throws IOException {
+        if (!isEnabled()) {
+            return readChildNames(path, ioDirectory, filter, -1);
+        }
+        final FileTime modified = Files.getLastModifiedTime(ioDirectory.toPath());
+        Listing listing = listings.getIfPresent(path);
+        if (listing == null || !listing.modified.equals(modified)) {
+            final long version = version(path);
+            listing = new Listing(modified, readChildNames(path, ioDirectory, filter, version));
+            synchronized (this) {
+                if (version == version(path)) {
+                    listings.put(path, listing);
+                }
+            }
+        }
+        return listing.names;
+    }
+
+    /**
+     * Reads names of items of folder. If {@code version} is not negative attributes of items are cached unless folder is
+     * invalidated while it is being read, invalidation of item invalidates its parent as well.
+     */
+    private List<String> readChildNames(Path path, File ioDirectory, FilenameFilter filter, long version) throws IOException {
+        final List<String> folders = newArrayList();
+        final List<String> files = newArrayList();
+        try (DirectoryStream<java.nio.file.Path> entries = Files.newDirectoryStream(ioDirectory.toPath())) {
+            for (java.nio.file.Path entry : entries) {
+                final String name = entry.getFileName().toString();
+                if (!filter.accept(ioDirectory, name)) {
+                    continue;
+                }
+                final FileAttributes childAttributes;
+                try {
+                    childAttributes = new FileAttributes(Files.readAttributes(entry, BasicFileAttributes.class));
+                } catch (NoSuchFileException e) {
+                    // removed after it was listed
+                    continue;
+                }
+                if (version >= 0) {
+                    putAttributes(path.newPath(name), childAttributes, path, version);
+                }
+                (childAttributes.directory ? folders : files).add(name);
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        folders.sort(null);
+        files.sort(null);
+        return ImmutableList.<String>builder().addAll(folders).addAll(files).build();
+    }
+
+    /** Invalidates cached attributes and listing of item and listing of its parent, e.g. when item is created or updated. */
+    synchronized void invalidate(Path path) {
+        if (isEnabled()) {
+            versions.incrementAndGet(versionIndex(path));
+            attributes.invalidate(path);
+            listings.invalidate(path);
+            if (!path.isRoot()) {
+                versions.incrementAndGet(versionIndex(path.getParent()));
+                listings.invalidate(path.getParent());
+            }
+        }
+    }
+
+    /** Invalidates cached data of item and all its descendants and listing of its parent, e.g. when folder is removed. */
+    synchronized void invalidateTree(Path path) {
+        if (isEnabled()) {
+            invalidate(path);
+            treeVersions.incrementAndGet(versionIndex(path));
+            attributes.asMap().keySet().removeIf(cached -> cached.isChild(path));
+            listings.asMap().keySet().removeIf(cached -> cached.isChild(path));
+        }
+    }
+
+    synchronized void invalidateAll() {
+        if (isEnabled()) {
+            treeVersions.incrementAndGet(versionIndex(Path.ROOT));
+            attributes.invalidateAll();
+            listings.invalidateAll();
+        }
+    }
+
+    CacheStats getAttributesStats() {
+        return isEnabled() ? attributes.stats() : NO_STATS;
+    }
+
+    CacheStats getListingsStats() {
+        return isEnabled() ? listings.stats() : NO_STATS;
+    }
+
+    /**
+     * Puts attributes of item in cache if {@code versionPath}, which is either item itself or its parent, wasn't invalidated
+     * since {@code version} was taken.
+     */
+    private synchronized void putAttributes(Path path, FileAttributes fileAttributes, Path versionPath, long version) {
+        if (version == version(versionPath)) {
+            attributes.put(path, fileAttributes);
+        }
+    }
+
+    /** Counters only grow, so their sum changes whenever path or subtree of path or of any of its ancestors is invalidated. */
+    private long version(Path path) {
+        long version = versions.get(versionIndex(path));
+        for (Path current = path; ; current = current.getParent()) {
+            version += treeVersions.get(versionIndex(current));
+            if (current.isRoot()) {
+                return version;
+            }
+        }
+    }
+
+    private static int versionIndex(Path path) {
+        return (path.hashCode() & Integer.MAX_VALUE) % VERSIONS;
+    }
+}
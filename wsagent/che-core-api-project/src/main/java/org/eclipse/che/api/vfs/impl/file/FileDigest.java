@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+/**
+ * Hash sum of content of file. Hash sum is valid while length and modification time of file are the same as they were when hash
+ * sum was counted.
+ */
+class FileDigest {
+    private final long   length;
+    private final long   lastModified;
+    private final String hashSum;
+
+    FileDigest(long length, long lastModified, String hashSum) {
+        this.length = length;
+        this.lastModified = lastModified;
+        this.hashSum = hashSum;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    /** Gets hash sum represented as HEX string. */
+    String getHashSum() {
+        return hashSum;
+    }
+
+    /** Checks whether hash sum is counted for file with specified length and modification time. */
+    boolean matches(long length, long lastModified) {
+        return this.length == length && this.lastModified == lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return "FileDigest{" +
+               "length=" + length +
+               ", lastModified=" + lastModified +
+               ", hashSum='" + hashSum + '\'' +
+               '}';
+    }
+}
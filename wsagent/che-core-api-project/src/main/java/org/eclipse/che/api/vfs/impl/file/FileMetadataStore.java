@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Persistent store of locks and properties of items of {@link LocalVirtualFileSystem}. All locks and properties of one file
+ * system are kept in single append-only log file {@code .vfs/metadata} under the root folder. Each change is appended to the log
+ * as one record, change of whole subtree, e.g. when folder is moved or removed, is one record too, so it is atomic.
+ * <p/>
+ * Store keeps also MD5 sums of content of files. Hash sum is valid while size and modification time of file are the same as
+ * they were when hash sum was counted, so stale hash sums are not removed from log, they are just dropped from memory.
+ * <p/>
+ * Current state is kept in memory, it is restored from memory-mapped log when store is opened. Record that is not written
+ * completely, e.g. if process is killed, is dropped from the end of log. Log is rewritten with live entries only when it contains
+ * much more records than entries.
+ * <p/>
+ * Store replaces files {@code .vfs/locks/<name>_lock} and {@code .vfs/props/<name>_props} that were created next to each locked
+ * item or item with properties. Such files are imported and removed when log is created.
+ */
+class FileMetadataStore implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(FileMetadataStore.class);
+
+    static final String METADATA_FILE = "metadata";
+
+    private static final String LOCKS_DIR              = "locks";
+    private static final String LOCK_FILE_SUFFIX       = "_lock";
+    private static final String PROPERTIES_DIR         = "props";
+    private static final String PROPERTIES_FILE_SUFFIX = "_props";
+
+    private static final int MAGIC              = 0x5646534D; // 'VFSM'
+    private static final int VERSION            = 1;
+    private static final int HEADER_SIZE        = 8;
+    /** Length of record's body and its checksum. */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int COMPACTION_MIN_RECORDS = 1000;
+
+    /** Keys of descendants of item {@code /a} are between {@code /a/} and {@code /a0}. */
+    private static final char AFTER_SEPARATOR = '/' + 1;
+
+    // Types of records.
+    private static final byte LOCK        = 1;
+    private static final byte UNLOCK      = 2;
+    private static final byte PROPERTIES  = 3;
+    private static final byte DELETE_TREE = 4;
+    private static final byte MOVE_TREE   = 5;
+    private static final byte COPY_TREE   = 6;
+    private static final byte DIGEST      = 7;
+
+    private interface RecordBody {
+        void write(DataOutput output) throws IOException;
+    }
+
+    private final File                                                 ioRoot;
+    private final java.nio.file.Path                                   logFile;
+    private final FileLockSerializer                                   lockSerializer;
+    private final FileMetadataSerializer                               propertiesSerializer;
+    private final ConcurrentNavigableMap<String, FileLock>             locks;
+    private final ConcurrentNavigableMap<String, Map<String, String>> properties;
+    private final ConcurrentNavigableMap<String, FileDigest>          digests;
+
+    private FileChannel channel;
+    /** Number of records in log. */
+    private int         records;
+    /** Number of records in log after which compaction that failed is tried again. */
+    private int         compactionRetryRecords;
+
+    FileMetadataStore(File ioRoot) {
+        this.ioRoot = ioRoot;
+        logFile = new File(new File(ioRoot, LocalVirtualFileSystem.VFS_SERVICE_DIR), METADATA_FILE).toPath();
+        lockSerializer = new FileLockSerializer();
+        propertiesSerializer = new FileMetadataSerializer();
+        locks = new ConcurrentSkipListMap<>();
+        properties = new ConcurrentSkipListMap<>();
+        digests = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Reads log or creates it, in the last case locks and properties that are kept in files of previous version of virtual file
+     * system are imported in the new log.
+     */
+    synchronized void open() throws IOException {
+        if (!Files.exists(logFile)) {
+            Files.createDirectories(logFile.getParent());
+            final List<java.nio.file.Path> serviceDirs = importSidecarFiles();
+            writeSnapshot();
+            for (java.nio.file.Path serviceDir : serviceDirs) {
+                IoUtil.deleteRecursive(serviceDir.resolve(LOCKS_DIR).toFile());
+                IoUtil.deleteRecursive(serviceDir.resolve(PROPERTIES_DIR).toFile());
+                if (!serviceDir.equals(logFile.getParent())) {
+                    // Leave folder if it isn't empty, it may be user's folder with the same name.
+                    serviceDir.toFile().delete();
+                }
+            }
+            locks.clear();
+            properties.clear();
+        }
+        channel = FileChannel.open(logFile, READ, WRITE);
+        final long end = replay();
+        if (end < channel.size()) {
+            LOG.warn("Incomplete record at the end of {} is dropped", logFile);
+            channel.truncate(end);
+        }
+        channel.position(end);
+    }
+
+    /** Gets lock of item or {@code null} if item isn't locked. Lock may be expired. */
+    FileLock getLock(Path path) {
+        return locks.get(path.toString());
+    }
+
+    /**
+     * Gets paths of locked files in folder and all its sub folders, expired locks are skipped. Only sorted map of locks is looked
+     * up, so tree of folder isn't traversed.
+     */
+    List<Path> getLockedFiles(Path folder) {
+        final Map<String, FileLock> descendants = Path.ROOT.equals(folder)
+                                                  ? locks
+                                                  : locks.subMap(folder.toString() + '/', folder.toString() + AFTER_SEPARATOR);
+        if (descendants.isEmpty()) {
+            return emptyList();
+        }
+        final long now = System.currentTimeMillis();
+        final List<Path> lockedFiles = newArrayList();
+        for (Map.Entry<String, FileLock> entry : descendants.entrySet()) {
+            if (entry.getValue().getExpired() >= now) {
+                lockedFiles.add(Path.of(entry.getKey()));
+            }
+        }
+        return lockedFiles;
+    }
+
+    void putLock(Path path, FileLock lock) throws IOException {
+        append(LOCK, output -> {
+            output.writeUTF(path.toString());
+            lockSerializer.write(output, lock);
+        });
+    }
+
+    void removeLock(Path path) throws IOException {
+        if (locks.containsKey(path.toString())) {
+            append(UNLOCK, output -> output.writeUTF(path.toString()));
+        }
+    }
+
+    /** Gets unmodifiable properties of item, map is empty if item doesn't have properties. */
+    Map<String, String> getProperties(Path path) {
+        final Map<String, String> itemProperties = properties.get(path.toString());
+        return itemProperties == null ? ImmutableMap.of() : itemProperties;
+    }
+
+    /** Replaces all properties of item. Properties of item are removed if map is empty. */
+    void putProperties(Path path, Map<String, String> itemProperties) throws IOException {
+        if (itemProperties.isEmpty() && !properties.containsKey(path.toString())) {
+            return;
+        }
+        append(PROPERTIES, output -> {
+            output.writeUTF(path.toString());
+            propertiesSerializer.write(output, itemProperties);
+        });
+    }
+
+    /**
+     * Gets MD5 sum of content of file or {@code null} if it isn't known. Hash sum may be stale, check size and modification time
+     * of file.
+     */
+    FileDigest getDigest(Path path) {
+        return digests.get(path.toString());
+    }
+
+    /** Saves MD5 sums of content of files. All hash sums are appended to log with single write. */
+    void putDigests(Map<Path, FileDigest> fileDigests) throws IOException {
+        if (fileDigests.isEmpty()) {
+            return;
+        }
+        final List<RecordBody> bodies = newArrayListWithCapacity(fileDigests.size());
+        for (Map.Entry<Path, FileDigest> entry : fileDigests.entrySet()) {
+            bodies.add(output -> writeDigest(output, entry.getKey().toString(), entry.getValue()));
+        }
+        append(DIGEST, bodies);
+    }
+
+    /**
+     * Drops MD5 sums of item and, if {@code recursive} is {@code true}, of all its descendants, e.g. when item is changed
+     * bypassing virtual file system. Nothing is written to log, hash sums from log are rejected on the next reading since size
+     * or modification time of file doesn't match.
+     */
+    void invalidateDigests(Path path, boolean recursive) {
+        if (recursive) {
+            removeTree(digests, path.toString());
+        } else {
+            digests.remove(path.toString());
+        }
+    }
+
+    /** Removes locks, properties and MD5 sums of item and all its descendants. */
+    void deleteTree(Path path) throws IOException {
+        append(DELETE_TREE, output -> output.writeUTF(path.toString()));
+    }
+
+    /**
+     * Moves properties and MD5 sums of item and all its descendants to new location, properties that exist in new location are
+     * replaced. Locks are not moved, moved items are not locked.
+     */
+    void moveTree(Path from, Path to) throws IOException {
+        append(MOVE_TREE, output -> {
+            output.writeUTF(from.toString());
+            output.writeUTF(to.toString());
+        });
+    }
+
+    /** Copies properties of item and all its descendants to new location. Locks are not copied. */
+    void copyTree(Path from, Path to) throws IOException {
+        append(COPY_TREE, output -> {
+            output.writeUTF(from.toString());
+            output.writeUTF(to.toString());
+        });
+    }
+
+    /**
+     * Rewrites log with live entries only. Current log is replaced only when new log is written completely, if it fails current
+     * log stays open and records are still appended to it.
+     */
+    synchronized void compact() throws IOException {
+        writeSnapshot();
+        final FileChannel compacted = FileChannel.open(logFile, READ, WRITE);
+        compacted.position(compacted.size());
+        final FileChannel replaced = channel;
+        channel = compacted;
+        compactionRetryRecords = 0;
+        try {
+            replaced.close();
+        } catch (IOException e) {
+            LOG.warn("Unable close replaced log {}: {}", logFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private synchronized void append(byte type, RecordBody body) throws IOException {
+        append(type, singletonList(body));
+    }
+
+    /** Appends records of the same type with single write. */
+    private synchronized void append(byte type, List<RecordBody> bodies) throws IOException {
+        final List<ByteBuffer> encoded = newArrayListWithCapacity(bodies.size());
+        int size = 0;
+        for (RecordBody body : bodies) {
+            final ByteBuffer record = encode(type, body);
+            encoded.add(record);
+            size += record.limit();
+        }
+        final ByteBuffer batch = ByteBuffer.allocate(size);
+        for (ByteBuffer record : encoded) {
+            batch.put(record.array(), 0, record.limit());
+        }
+        batch.flip();
+        final long end = channel.position();
+        try {
+            writeRecords(channel, batch);
+        } catch (IOException | RuntimeException e) {
+            // drop partially written records, otherwise records appended later would be lost on replay
+            try {
+                channel.truncate(end);
+                channel.position(end);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+            throw e;
+        }
+        for (ByteBuffer record : encoded) {
+            records++;
+            apply(new DataInputStream(new ByteArrayInputStream(record.array(), RECORD_HEADER_SIZE, record.limit() - RECORD_HEADER_SIZE)));
+        }
+        if (records > Math.max(COMPACTION_MIN_RECORDS, compactionRetryRecords)
+            && records > 2 * (locks.size() + properties.size() + digests.size())) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // Records are written and applied already, so change is saved anyway. Try to compact log later.
+                LOG.error(String.format("Unable compact %s: %s", logFile, e.getMessage()), e);
+                compactionRetryRecords = records + COMPACTION_MIN_RECORDS;
+            }
+        }
+    }
+
+    private static ByteBuffer encode(byte type, RecordBody body) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(0); // length, set below
+        output.writeInt(0); // checksum, set below
+        output.writeByte(type);
+        body.write(output);
+        output.flush();
+        final ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        final int length = record.limit() - RECORD_HEADER_SIZE;
+        record.putInt(0, length);
+        record.putInt(4, checksum(record.array(), RECORD_HEADER_SIZE, length));
+        return record;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int)crc.getValue();
+    }
+
+    /** Applies all complete records of log and returns position after the last of them. */
+    private long replay() throws IOException {
+        final long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Log %s is too big", logFile));
+        }
+        final MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (size < HEADER_SIZE || log.getInt() != MAGIC || log.getInt() != VERSION) {
+            throw new IOException(String.format("Unsupported format of %s", logFile));
+        }
+        records = 0;
+        int end = log.position();
+        while (log.remaining() >= RECORD_HEADER_SIZE) {
+            final int length = log.getInt();
+            final int checksum = log.getInt();
+            if (length <= 0 || length > log.remaining()) {
+                break;
+            }
+            final byte[] body = new byte[length];
+            log.get(body);
+            if (checksum(body, 0, length) != checksum) {
+                break;
+            }
+            apply(new DataInputStream(new ByteArrayInputStream(body)));
+            records++;
+            end = log.position();
+        }
+        return end;
+    }
+
+    private void apply(DataInput input) throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+            case LOCK:
+                locks.put(input.readUTF(), lockSerializer.read(input));
+                break;
+            case UNLOCK:
+                locks.remove(input.readUTF());
+                break;
+            case PROPERTIES:
+                final String path = input.readUTF();
+                final Map<String, String> itemProperties = propertiesSerializer.read(input);
+                if (itemProperties.isEmpty()) {
+                    properties.remove(path);
+                } else {
+                    properties.put(path, ImmutableMap.copyOf(itemProperties));
+                }
+                break;
+            case DELETE_TREE: {
+                final String root = input.readUTF();
+                removeTree(locks, root);
+                removeTree(properties, root);
+                removeTree(digests, root);
+                break;
+            }
+            case MOVE_TREE: {
+                final String from = input.readUTF();
+                final String to = input.readUTF();
+                final Map<String, Map<String, String>> moved = newHashMap(subtree(properties, from));
+                // Modification time of file isn't changed when file is moved, so its hash sum is still valid.
+                final Map<String, FileDigest> movedDigests = newHashMap(subtree(digests, from));
+                removeTree(locks, from);
+                removeTree(properties, from);
+                removeTree(digests, from);
+                removeTree(locks, to);
+                removeTree(properties, to);
+                removeTree(digests, to);
+                moved.forEach((key, value) -> properties.put(rebase(key, from, to), value));
+                movedDigests.forEach((key, value) -> digests.put(rebase(key, from, to), value));
+                break;
+            }
+            case COPY_TREE: {
+                final String from = input.readUTF();
+                final String to = input.readUTF();
+                newHashMap(subtree(properties, from)).forEach((key, value) -> properties.put(rebase(key, from, to), value));
+                break;
+            }
+            case DIGEST:
+                digests.put(input.readUTF(), new FileDigest(input.readLong(), input.readLong(), input.readUTF()));
+                break;
+            default:
+                throw new IOException(String.format("Unknown record type %d in %s", type, logFile));
+        }
+    }
+
+    /** Gets entries of item and all its descendants. */
+    private static <V> Map<String, V> subtree(ConcurrentNavigableMap<String, V> entries, String root) {
+        if (Path.ROOT.toString().equals(root)) {
+            return entries;
+        }
+        final Map<String, V> subtree = newHashMap(entries.subMap(root + '/', root + AFTER_SEPARATOR));
+        final V value = entries.get(root);
+        if (value != null) {
+            subtree.put(root, value);
+        }
+        return subtree;
+    }
+
+    private static void removeTree(ConcurrentNavigableMap<String, ?> entries, String root) {
+        if (Path.ROOT.toString().equals(root)) {
+            entries.clear();
+        } else {
+            entries.remove(root);
+            entries.subMap(root + '/', root + AFTER_SEPARATOR).clear();
+        }
+    }
+
+    private static String rebase(String path, String from, String to) {
+        if (path.equals(from)) {
+            return to;
+        }
+        return Path.ROOT.toString().equals(from) ? to + path : to + path.substring(from.length());
+    }
+
+    /** Writes live entries to new log and replaces current log with it. Current log isn't changed if new log can't be written. */
+    void writeSnapshot() throws IOException {
+        final java.nio.file.Path snapshot = logFile.resolveSibling(METADATA_FILE + ".tmp");
+        Files.deleteIfExists(snapshot);
+        final int written;
+        try {
+            written = writeSnapshot(snapshot);
+            Files.move(snapshot, logFile, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(snapshot);
+            } catch (IOException deleteError) {
+                e.addSuppressed(deleteError);
+            }
+            throw e;
+        }
+        records = written;
+    }
+
+    /** Writes live entries to file and returns number of written records. */
+    private int writeSnapshot(java.nio.file.Path snapshot) throws IOException {
+        int written = 0;
+        try (FileChannel output = FileChannel.open(snapshot, CREATE_NEW, WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            write(output, header);
+            final long now = System.currentTimeMillis();
+            for (Map.Entry<String, FileLock> entry : locks.entrySet()) {
+                if (entry.getValue().getExpired() >= now) {
+                    write(output, encode(LOCK, body -> {
+                        body.writeUTF(entry.getKey());
+                        lockSerializer.write(body, entry.getValue());
+                    }));
+                    written++;
+                }
+            }
+            for (Map.Entry<String, Map<String, String>> entry : properties.entrySet()) {
+                write(output, encode(PROPERTIES, body -> {
+                    body.writeUTF(entry.getKey());
+                    propertiesSerializer.write(body, entry.getValue());
+                }));
+                written++;
+            }
+            for (Map.Entry<String, FileDigest> entry : digests.entrySet()) {
+                write(output, encode(DIGEST, body -> writeDigest(body, entry.getKey(), entry.getValue())));
+                written++;
+            }
+            output.force(true);
+        }
+        return written;
+    }
+
+    private static void writeDigest(DataOutput output, String path, FileDigest digest) throws IOException {
+        output.writeUTF(path);
+        output.writeLong(digest.getLength());
+        output.writeLong(digest.getLastModified());
+        output.writeUTF(digest.getHashSum());
+    }
+
+    /** Writes encoded records at the current position of log. */
+    void writeRecords(FileChannel log, ByteBuffer records) throws IOException {
+        write(log, records);
+    }
+
+    private static void write(FileChannel output, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+
+    /** Finds all folders {@code .vfs} and reads locks and properties from them. Returns found folders. */
+    private List<java.nio.file.Path> importSidecarFiles() throws IOException {
+        final java.nio.file.Path rootDir = ioRoot.toPath();
+        final List<java.nio.file.Path> serviceDirs = newArrayList();
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<java.nio.file.Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!LocalVirtualFileSystem.VFS_SERVICE_DIR.equals(dir.getFileName().toString())) {
+                    return FileVisitResult.CONTINUE;
+                }
+                final Path parent = toVfsPath(rootDir.relativize(dir.getParent()));
+                importFiles(dir.resolve(LOCKS_DIR), LOCK_FILE_SUFFIX, parent, (path, input) -> locks.put(path, lockSerializer.read(input)));
+                importFiles(dir.resolve(PROPERTIES_DIR), PROPERTIES_FILE_SUFFIX, parent,
+                            (path, input) -> properties.put(path, ImmutableMap.copyOf(propertiesSerializer.read(input))));
+                serviceDirs.add(dir);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(java.nio.file.Path file, IOException e) {
+                LOG.warn("Unable read {}: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!locks.isEmpty() || !properties.isEmpty()) {
+            LOG.info("Imported {} locks and properties of {} items to {}", locks.size(), properties.size(), logFile);
+        }
+        return serviceDirs;
+    }
+
+    private interface SidecarFileReader {
+        void read(String path, DataInput input) throws IOException;
+    }
+
+    private void importFiles(java.nio.file.Path dir, String suffix, Path parent, SidecarFileReader reader) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<java.nio.file.Path> files = Files.newDirectoryStream(dir, "*" + suffix)) {
+            for (java.nio.file.Path file : files) {
+                final String name = file.getFileName().toString();
+                final String itemName = name.substring(0, name.length() - suffix.length());
+                // Name is empty for root folder.
+                final Path path = itemName.isEmpty() ? parent : parent.newPath(itemName);
+                try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+                    reader.read(path.toString(), new DataInputStream(input));
+                } catch (IOException e) {
+                    LOG.warn("Unable import {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable import files from {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static Path toVfsPath(java.nio.file.Path relative) {
+        Path path = Path.ROOT;
+        for (java.nio.file.Path element : relative) {
+            if (!element.toString().isEmpty()) {
+                path = path.newPath(element.toString());
+            }
+        }
+        return path;
+    }
+}
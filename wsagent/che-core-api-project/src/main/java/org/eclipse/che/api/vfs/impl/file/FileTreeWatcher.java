@@ -13,6 +13,7 @@ package org.eclipse.che.api.vfs.impl.file;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,17 +22,13 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.ClosedWatchServiceException;
+import java.io.InterruptedIOException;
 import java.nio.file.DirectoryStream;
-import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
 import java.util.Iterator;
@@ -39,21 +36,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Lists.partition;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.getLastModifiedTime;
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
-import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
@@ -64,31 +64,58 @@ public class FileTreeWatcher {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcher.class);
 
     private static final long EVENT_PROCESS_TIMEOUT_SEC = 2;
+    private static final int  DIRECTORIES_PER_TASK      = 64;
 
     private final File                           watchRoot;
     private final Path                           watchRootPath;
     private final Map<Path, WatchedDirectory>    watchedDirectories;
     private final List<PathMatcher>              excludePatterns;
+    private final ExcludeRegistry                excludeRegistry;
+    private final Runnable                       excludeRulesListener;
+    private final AtomicBoolean                  excludeRulesChanged;
     private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
     private final ExecutorService                executor;
     private final AtomicBoolean                  running;
-    private       WatchService                   watchService;
-    private       WatchEvent.Modifier[]          watchEventModifiers;
+    private final EventRateMeter                 eventRateMeter;
+    private       DirectoryWatchService          watchService;
+    private       ExecutorService                registrationExecutor;
+
+    /** Whether to use Linux inotify API directly instead of {@link java.nio.file.WatchService} when it is available. */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.watcher.native_enabled")
+    private boolean nativeWatcherEnabled = true;
+
+    /** Number of threads that set up watching of directories, if {@code 1} or less directories are set up in single thread. */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.watcher.registration_threads")
+    private int registrationThreads = Runtime.getRuntime().availableProcessors();
+
+    public FileTreeWatcher(File watchRoot,
+                           Set<PathMatcher> excludePatterns,
+                           FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this(watchRoot, excludePatterns, new ExcludeRegistry(), fileWatcherNotificationHandler);
+    }
 
     @Inject
     public FileTreeWatcher(@Named("che.user.workspaces.storage") File watchRoot,
                            @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
+                           ExcludeRegistry excludeRegistry,
                            FileWatcherNotificationHandler fileWatcherNotificationHandler) {
-        watchEventModifiers = new WatchEvent.Modifier[0];
         this.watchRoot = toCanonicalFile(watchRoot);
         this.watchRootPath = this.watchRoot.toPath();
         this.excludePatterns = newArrayList(excludePatterns);
+        this.excludeRegistry = excludeRegistry;
+        // Rules are applied by the thread that processes events, so directories aren't walked in thread that changes rules and
+        // changes made one after another, e.g. when many projects are imported, are applied at once.
+        this.excludeRulesChanged = new AtomicBoolean();
+        this.excludeRulesListener = () -> excludeRulesChanged.set(true);
         this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
 
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("FileTreeWatcher-%d").build();
         executor = Executors.newSingleThreadExecutor(threadFactory);
         running = new AtomicBoolean();
-        watchedDirectories = newHashMap();
+        watchedDirectories = new ConcurrentHashMap<>();
+        eventRateMeter = new EventRateMeter();
     }
 
     private static File toCanonicalFile(File file) {
@@ -100,33 +127,37 @@ public class FileTreeWatcher {
     }
 
     public void startup() throws IOException {
-        watchService = FileSystems.getDefault().newWatchService();
-        if (isPollingWatchService(watchService)) {
-            watchEventModifiers = new WatchEvent.Modifier[]{createSensitivityWatchEventModifier()};
+        watchService = createWatchService();
+        if (registrationThreads > 1) {
+            ThreadFactory threadFactory =
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("FileTreeWatcherRegistration-%d").build();
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(registrationThreads, registrationThreads, 60, SECONDS,
+                                                                   new LinkedBlockingQueue<>(), threadFactory);
+            threadPool.allowCoreThreadTimeOut(true);
+            registrationExecutor = threadPool;
         }
         running.set(true);
+        excludeRegistry.addChangeListener(excludeRulesListener);
         walkTreeAndSetupWatches(watchRootPath);
+        LOG.debug("Started watching of {} directories in {}", watchService.getWatchCount(), watchRoot);
         executor.execute(new WatchEventTask());
         fileWatcherNotificationHandler.started(watchRoot);
     }
 
-    private boolean isPollingWatchService(WatchService watchService) {
-        return "sun.nio.fs.PollingWatchService".equals(watchService.getClass().getName());
-    }
-
-    private WatchEvent.Modifier createSensitivityWatchEventModifier() {
-        try {
-            Class<?> aModifierEnum = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
-            Object[] sensitivityEnumConstants = aModifierEnum.getEnumConstants();
-            return (WatchEvent.Modifier)sensitivityEnumConstants[0];
-        } catch (Exception e) {
-            LOG.warn("Can't create 'com.sun.nio.file.SensitivityWatchEventModifier'", e);
+    private DirectoryWatchService createWatchService() throws IOException {
+        if (nativeWatcherEnabled && InotifyDirectoryWatchService.isAvailable()) {
+            try {
+                return new InotifyDirectoryWatchService();
+            } catch (IOException e) {
+                LOG.warn("Unable use inotify, default watch service is used instead. {}", e.getMessage());
+            }
         }
-        return null;
+        return new JdkDirectoryWatchService();
     }
 
     public void shutdown() {
         boolean interrupted = false;
+        excludeRegistry.removeChangeListener(excludeRulesListener);
         executor.shutdown();
         try {
             if (!executor.awaitTermination(3, SECONDS)) {
@@ -139,6 +170,9 @@ public class FileTreeWatcher {
             interrupted = true;
             executor.shutdownNow();
         }
+        if (registrationExecutor != null) {
+            registrationExecutor.shutdownNow();
+        }
 
         try {
             walkTreeAndRemoveWatches(watchRootPath);
@@ -165,26 +199,123 @@ public class FileTreeWatcher {
         this.excludePatterns.remove(exclude);
     }
 
+    /** Gets number of watched directories. */
+    public int getWatchCount() {
+        return watchService == null ? 0 : watchService.getWatchCount();
+    }
+
+    /** Gets number of events received from file system since watcher is started. */
+    public long getEventCount() {
+        return watchService == null ? 0 : watchService.getEventCount();
+    }
+
+    /** Gets average number of events per second received from file system within last minute. */
+    public double getEventRate() {
+        return eventRateMeter.getRate(System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Gets number of overflows of events queue since watcher is started. Changes lost because of overflow are found by comparing
+     * content of affected directories with its previous state.
+     */
+    public long getOverflowCount() {
+        return watchService == null ? 0 : watchService.getOverflowCount();
+    }
+
     private void walkTreeAndSetupWatches(Path root) throws IOException {
+        final List<Path> directories = newArrayList();
         Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
                 Path relativePath = watchRootPath.relativize(dir);
-                if (shouldNotify(relativePath)) {
-                    setupDirectoryWatcher(dir);
+                if (isExcluded(relativePath, true)) {
+                    // nothing is watched inside of excluded directory
+                    return SKIP_SUBTREE;
+                }
+                if (!matchesExcludePatterns(relativePath)) {
+                    directories.add(dir);
                 }
                 return CONTINUE;
             }
         });
+        setupDirectoryWatchers(directories);
+    }
+
+    private void setupDirectoryWatchers(List<Path> directories) throws IOException {
+        if (registrationExecutor == null || directories.size() <= DIRECTORIES_PER_TASK) {
+            for (Path directory : directories) {
+                setupDirectoryWatcher(directory);
+            }
+            return;
+        }
+        final List<Future<Void>> futures = newArrayList();
+        for (List<Path> chunk : partition(directories, DIRECTORIES_PER_TASK)) {
+            futures.add(registrationExecutor.submit(() -> {
+                for (Path directory : chunk) {
+                    setupDirectoryWatcher(directory);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while setting up watching of directories");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private boolean shouldNotify(Path subPath, boolean isDirectory) {
+        return !matchesExcludePatterns(subPath) && !isExcluded(subPath, isDirectory);
     }
 
-    private boolean shouldNotify(Path subPath) {
+    /** Checks legacy exclude patterns. Matched directory itself isn't watched, but its sub-directories are. */
+    private boolean matchesExcludePatterns(Path subPath) {
         for (PathMatcher excludePattern : excludePatterns) {
             if (excludePattern.matches(subPath)) {
-                return false;
+                return true;
             }
         }
-        return true;
+        return false;
+    }
+
+    /** Checks exclude rules. Nothing is watched inside of excluded directory. */
+    private boolean isExcluded(Path subPath, boolean isDirectory) {
+        return excludeRegistry.isExcluded(subPath.toString(), isDirectory);
+    }
+
+    /**
+     * Stops watching directories that become excluded after exclude rules are changed and starts watching directories that are
+     * not excluded any more. Directories that are already watched are not registered again. Called by thread that processes
+     * events only.
+     */
+    private void applyExcludeRules() {
+        for (Path directory : watchedDirectories.keySet()) {
+            if (!directory.equals(watchRootPath) && isExcluded(watchRootPath.relativize(directory), true)) {
+                cancelDirectoryWatcher(directory);
+            }
+        }
+        try {
+            walkTreeAndSetupWatches(watchRootPath);
+        } catch (IOException e) {
+            LOG.warn("Unable set up watching of directories after exclude rules are changed. {}", e.getMessage());
+        }
     }
 
     private void walkTreeAndRemoveWatches(Path root) throws IOException {
@@ -202,6 +333,9 @@ public class FileTreeWatcher {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
                 if (!dir.equals(root)) {
+                    if (isExcluded(watchRootPath.relativize(dir), true)) {
+                        return SKIP_SUBTREE;
+                    }
                     fireWatchEvent(CREATED, dir, true);
                 }
                 return CONTINUE;
@@ -217,25 +351,22 @@ public class FileTreeWatcher {
 
     private void setupDirectoryWatcher(Path directory) throws IOException {
         if (watchedDirectories.get(directory) == null) {
-            WatchKey watchKey = directory.register(watchService,
-                                                   new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
-                                                   watchEventModifiers);
-            WatchedDirectory watchedDirectory = new WatchedDirectory(directory, watchKey);
+            watchService.register(directory);
+            WatchedDirectory watchedDirectory = new WatchedDirectory(directory);
             try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
                 for (Path entry : entries) {
                     watchedDirectory
                             .addItem(new DirectoryItem(entry.getFileName(), Files.isDirectory(entry), getLastModifiedInMillis(entry)));
                 }
             }
-            watchedDirectories.put(directory, watchedDirectory);
+            // keep state of directory that is registered concurrently, replacing it would produce spurious events
+            watchedDirectories.putIfAbsent(directory, watchedDirectory);
         }
     }
 
     private void cancelDirectoryWatcher(Path path) {
-        WatchedDirectory watchedDirectory = watchedDirectories.remove(path);
-        if (watchedDirectory != null) {
-            watchedDirectory.getWatchKey().cancel();
-        }
+        watchedDirectories.remove(path);
+        watchService.cancel(path);
     }
 
     private class WatchEventTask implements Runnable {
@@ -243,24 +374,27 @@ public class FileTreeWatcher {
 
         @Override
         public void run() {
+            final Set<Path> changedDirectories = newLinkedHashSet();
             while (running.get()) {
                 try {
-                    WatchKey watchKey;
-                    if (pendingEvents.isEmpty()) {
-                        watchKey = watchService.take();
+                    if (excludeRulesChanged.getAndSet(false)) {
+                        applyExcludeRules();
+                    }
+                    final long eventCount = watchService.getEventCount();
+                    // wait with timeout even if there are no pending events, so changes of exclude rules are not delayed for long
+                    if (!watchService.poll(changedDirectories, EVENT_PROCESS_TIMEOUT_SEC, SECONDS)) {
+                        running.set(false);
+                    } else if (changedDirectories.isEmpty()) {
+                        processPendingEvents(pendingEvents);
+                        pendingEvents.clear();
                     } else {
-                        watchKey = watchService.poll(EVENT_PROCESS_TIMEOUT_SEC, SECONDS);
-                        if (watchKey == null) {
-                            processPendingEvents(pendingEvents);
-                            pendingEvents.clear();
+                        for (Path changedDirectory : changedDirectories) {
+                            pendingEvents.add(new PendingEvent(changedDirectory));
                         }
+                        changedDirectories.clear();
                     }
-                    if (watchKey != null) {
-                        pendingEvents.add(new PendingEvent((Path)watchKey.watchable()));
-                        watchKey.pollEvents();
-                        watchKey.reset();
-                    }
-                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    eventRateMeter.add(watchService.getEventCount() - eventCount, System.currentTimeMillis() / 1000);
+                } catch (InterruptedException e) {
                     running.set(false);
                 } catch (Throwable e) {
                     running.set(false);
@@ -274,6 +408,10 @@ public class FileTreeWatcher {
         for (PendingEvent pendingEvent : pendingEvents) {
             Path eventDirectoryPath = pendingEvent.getPath();
             WatchedDirectory watchedDirectory = watchedDirectories.get(eventDirectoryPath);
+            if (watchedDirectory == null) {
+                // excluded or already removed directory
+                continue;
+            }
             if (Files.exists(eventDirectoryPath)) {
                 final int hitCounter = watchedDirectory.incrementHitCounter();
                 try (DirectoryStream<Path> entries = Files.newDirectoryStream(eventDirectoryPath)) {
@@ -287,7 +425,7 @@ public class FileTreeWatcher {
                                 fireWatchEvent(CREATED, fsItem, directoryItem.isDirectory());
                                 if (directory) {
                                     walkTreeAndFireCreatedEvents(fsItem);
-                                    setupDirectoryWatcher(fsItem);
+                                    walkTreeAndSetupWatches(fsItem);
                                 }
                             } catch (IOException ignored) {
                             }
@@ -318,14 +456,14 @@ public class FileTreeWatcher {
                 for (DirectoryItem directoryItem : watchedDirectory.getItems()) {
                     fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
                 }
-                watchedDirectories.remove(eventDirectoryPath);
+                cancelDirectoryWatcher(eventDirectoryPath);
             }
         }
     }
 
     private void fireWatchEvent(FileWatcherEventType eventType, Path eventPath, boolean isDirectory) {
         Path relativePath = watchRootPath.relativize(eventPath);
-        if (shouldNotify(relativePath)) {
+        if (shouldNotify(relativePath, isDirectory)) {
             fileWatcherNotificationHandler.handleFileWatcherEvent(eventType, watchRoot, relativePath.toString(), isDirectory);
         }
     }
@@ -365,20 +503,14 @@ public class FileTreeWatcher {
 
     static class WatchedDirectory {
         final Path                path;
-        final WatchKey            watchKey;
         final List<DirectoryItem> items;
         int hitCounter;
 
-        WatchedDirectory(Path path, WatchKey watchKey) {
+        WatchedDirectory(Path path) {
             this.path = path;
-            this.watchKey = watchKey;
             items = newArrayList();
         }
 
-        WatchKey getWatchKey() {
-            return watchKey;
-        }
-
         Path getPath() {
             return path;
         }
@@ -442,4 +574,40 @@ public class FileTreeWatcher {
             this.hitCounter = hitCounter;
         }
     }
+
+    /** Counts events received within last minute. Updated by single thread, may be read by any thread. */
+    static class EventRateMeter {
+        private static final int SLOTS = 60;
+
+        /** Number of events per second, second is used as index in cyclic array. */
+        final AtomicLongArray counts;
+        final AtomicLongArray seconds;
+
+        EventRateMeter() {
+            counts = new AtomicLongArray(SLOTS);
+            seconds = new AtomicLongArray(SLOTS);
+        }
+
+        void add(long events, long second) {
+            if (events > 0) {
+                final int slot = (int)(second % SLOTS);
+                if (seconds.get(slot) == second) {
+                    counts.addAndGet(slot, events);
+                } else {
+                    counts.set(slot, events);
+                    seconds.set(slot, second);
+                }
+            }
+        }
+
+        double getRate(long second) {
+            long events = 0;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (second - seconds.get(slot) < SLOTS) {
+                    events += counts.get(slot);
+                }
+            }
+            return (double)events / SLOTS;
+        }
+    }
 }
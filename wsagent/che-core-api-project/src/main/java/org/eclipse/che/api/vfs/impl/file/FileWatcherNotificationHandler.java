@@ -24,4 +24,8 @@ public interface FileWatcherNotificationHandler {
     boolean addNotificationListener(FileWatcherNotificationListener fileWatcherNotificationListener);
 
     boolean removeNotificationListener(FileWatcherNotificationListener fileWatcherNotificationListener);
+
+    boolean addPathListener(FileWatcherPathListener fileWatcherPathListener);
+
+    boolean removePathListener(FileWatcherPathListener fileWatcherPathListener);
 }
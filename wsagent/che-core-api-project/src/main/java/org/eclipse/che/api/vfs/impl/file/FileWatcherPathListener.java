@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+
+/**
+ * Listener of file watcher events that needs only path of changed item. Unlike {@link FileWatcherNotificationListener}
+ * it is notified before item is resolved to {@link org.eclipse.che.api.vfs.VirtualFile}, so cheap enough to be called for
+ * each event, even under heavy load, e.g. while project is being built.
+ */
+@FunctionalInterface
+public interface FileWatcherPathListener {
+    /**
+     * Called for each file watcher event.
+     *
+     * @param path
+     *         path of changed item relative to root of virtual file system
+     * @param isDir
+     *         {@code true} if changed item is a folder
+     * @param eventType
+     *         type of event
+     */
+    void onFileWatcherEvent(Path path, boolean isDir, FileWatcherEventType eventType);
+}
@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.sun.jna.Library;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+
+import org.eclipse.che.api.core.util.SystemInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementation of {@link DirectoryWatchService} that uses Linux inotify API directly. Unlike {@link JdkDirectoryWatchService} it
+ * doesn't register directories through single thread and reads all available events with single system call.
+ *
+ * @see <a href="http://man7.org/linux/man-pages/man7/inotify.7.html">inotify</a>
+ */
+class InotifyDirectoryWatchService implements DirectoryWatchService {
+    private static final Logger LOG = LoggerFactory.getLogger(InotifyDirectoryWatchService.class);
+
+    // Defined in 'sys/inotify.h'
+    private static final int IN_MODIFY      = 0x00000002;
+    private static final int IN_ATTRIB      = 0x00000004;
+    private static final int IN_MOVED_FROM  = 0x00000040;
+    private static final int IN_MOVED_TO    = 0x00000080;
+    private static final int IN_CREATE      = 0x00000100;
+    private static final int IN_DELETE      = 0x00000200;
+    private static final int IN_Q_OVERFLOW  = 0x00004000;
+    private static final int IN_IGNORED     = 0x00008000;
+    private static final int IN_ONLYDIR     = 0x01000000;
+    private static final int IN_DONT_FOLLOW = 0x02000000;
+    private static final int IN_NONBLOCK    = 0x00000800;
+    private static final int IN_CLOEXEC     = 0x00080000;
+    // Defined in 'poll.h'
+    private static final short POLLIN = 0x0001;
+    // Defined in 'errno.h'
+    private static final int EINTR  = 4;
+    private static final int EAGAIN = 11;
+    private static final int ENOSPC = 28;
+
+    private static final int WATCH_MASK =
+            IN_CREATE | IN_MOVED_TO | IN_DELETE | IN_MOVED_FROM | IN_MODIFY | IN_ATTRIB | IN_ONLYDIR | IN_DONT_FOLLOW;
+
+    /** Size of fixed part of structure 'inotify_event', name of file follows it. */
+    private static final int EVENT_HEADER_SIZE    = 16;
+    private static final int READ_BUFFER_SIZE     = 64 * 1024;
+    /** Max time of single waiting for events, after that service checks whether it is closed or thread is interrupted. */
+    private static final int POLL_INTERVAL_MILLIS = 500;
+
+    public interface LibC extends Library {
+        int inotify_init1(int flags);
+
+        int inotify_add_watch(int fd, String path, int mask);
+
+        int inotify_rm_watch(int fd, int wd);
+
+        int poll(Pointer fds, NativeLong nfds, int timeout);
+
+        NativeLong read(int fd, Pointer buf, NativeLong count);
+
+        int close(int fd);
+
+        String strerror(int errno);
+    }
+
+    private static final LibC LIB_C;
+
+    static {
+        LibC libC = null;
+        if (SystemInfo.isLinux()) {
+            try {
+                libC = (LibC)Native.loadLibrary("c", LibC.class);
+            } catch (Throwable e) {
+                LOG.warn("Unable load native library, inotify can't be used. {}", e.getMessage());
+            }
+        }
+        LIB_C = libC;
+    }
+
+    /** Checks whether inotify may be used on current system. */
+    static boolean isAvailable() {
+        return LIB_C != null;
+    }
+
+    private final int                          fd;
+    private final Memory                       pollFd;
+    private final Memory                       buffer;
+    private final ConcurrentMap<Integer, Path> wdToPath;
+    private final ConcurrentMap<Path, Integer> pathToWd;
+    private final AtomicLong                   eventCount;
+    private final AtomicLong                   overflowCount;
+    /** Read lock guards usage of inotify descriptor, write lock guards closing of it. */
+    private final ReadWriteLock                fdLock;
+    private       boolean                      closed;
+
+    InotifyDirectoryWatchService() throws IOException {
+        if (!isAvailable()) {
+            throw new IOException("inotify isn't available");
+        }
+        fd = LIB_C.inotify_init1(IN_NONBLOCK | IN_CLOEXEC);
+        if (fd < 0) {
+            throw new IOException(String.format("Unable initialize inotify. %s", LIB_C.strerror(Native.getLastError())));
+        }
+        // structure 'pollfd': int fd; short events; short revents;
+        pollFd = new Memory(8);
+        pollFd.setInt(0, fd);
+        pollFd.setShort(4, POLLIN);
+        pollFd.setShort(6, (short)0);
+        buffer = new Memory(READ_BUFFER_SIZE);
+        wdToPath = new ConcurrentHashMap<>();
+        pathToWd = new ConcurrentHashMap<>();
+        eventCount = new AtomicLong();
+        overflowCount = new AtomicLong();
+        fdLock = new ReentrantReadWriteLock();
+    }
+
+    @Override
+    public void register(Path directory) throws IOException {
+        fdLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IOException("Watch service is closed");
+            }
+            final int wd = LIB_C.inotify_add_watch(fd, directory.toString(), WATCH_MASK);
+            if (wd < 0) {
+                final int errno = Native.getLastError();
+                if (errno == ENOSPC) {
+                    throw new IOException(String.format(
+                            "Unable watch directory '%s'. Limit of inotify watches is reached, see /proc/sys/fs/inotify/max_user_watches",
+                            directory));
+                }
+                throw new IOException(String.format("Unable watch directory '%s'. %s", directory, LIB_C.strerror(errno)));
+            }
+            // The same watch descriptor is returned for moved directory since it is the same inode
+            final Path previous = wdToPath.put(wd, directory);
+            if (previous != null && !previous.equals(directory)) {
+                pathToWd.remove(previous, wd);
+            }
+            pathToWd.put(directory, wd);
+        } finally {
+            fdLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void cancel(Path directory) {
+        final Integer wd = pathToWd.remove(directory);
+        if (wd != null && wdToPath.remove(wd, directory)) {
+            fdLock.readLock().lock();
+            try {
+                if (!closed) {
+                    LIB_C.inotify_rm_watch(fd, wd);
+                }
+            } finally {
+                fdLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean poll(Collection<Path> changedDirectories, long timeout, TimeUnit unit) throws InterruptedException, IOException {
+        final long deadline = timeout < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + unit.toMillis(timeout);
+        while (true) {
+            fdLock.readLock().lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                if (readEvents(changedDirectories)) {
+                    return true;
+                }
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return true;
+                }
+                if (LIB_C.poll(pollFd, new NativeLong(1), (int)Math.min(remaining, POLL_INTERVAL_MILLIS)) < 0) {
+                    final int errno = Native.getLastError();
+                    if (errno != EINTR) {
+                        throw new IOException(String.format("Unable wait for inotify events. %s", LIB_C.strerror(errno)));
+                    }
+                }
+            } finally {
+                fdLock.readLock().unlock();
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /** Reads all available events without blocking. Returns {@code true} if any watched directory is changed. */
+    private boolean readEvents(Collection<Path> changedDirectories) throws IOException {
+        boolean changed = false;
+        while (true) {
+            final int read = LIB_C.read(fd, buffer, new NativeLong(READ_BUFFER_SIZE)).intValue();
+            if (read < 0) {
+                final int errno = Native.getLastError();
+                if (errno == EAGAIN) {
+                    return changed;
+                } else if (errno != EINTR) {
+                    throw new IOException(String.format("Unable read inotify events. %s", LIB_C.strerror(errno)));
+                }
+                continue;
+            }
+            if (read == 0) {
+                return changed;
+            }
+            int offset = 0;
+            while (offset < read) {
+                final int wd = buffer.getInt(offset);
+                final int mask = buffer.getInt(offset + 4);
+                final int nameLength = buffer.getInt(offset + 12);
+                offset += EVENT_HEADER_SIZE + nameLength;
+                eventCount.incrementAndGet();
+                if ((mask & IN_Q_OVERFLOW) != 0) {
+                    // Kernel doesn't say which directories lost events, re-check all of them
+                    overflowCount.incrementAndGet();
+                    LOG.debug("Queue of inotify events is overflowed, re-check {} watched directories", pathToWd.size());
+                    changedDirectories.addAll(pathToWd.keySet());
+                    changed = true;
+                    continue;
+                }
+                final Path directory = wdToPath.get(wd);
+                if (directory != null) {
+                    changedDirectories.add(directory);
+                    changed = true;
+                    if ((mask & IN_IGNORED) != 0) {
+                        // directory is removed or unmounted, watch is removed by kernel
+                        wdToPath.remove(wd, directory);
+                        pathToWd.remove(directory, wd);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getWatchCount() {
+        return pathToWd.size();
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        fdLock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                wdToPath.clear();
+                pathToWd.clear();
+                if (LIB_C.close(fd) < 0) {
+                    throw new IOException(String.format("Unable close inotify. %s", LIB_C.strerror(Native.getLastError())));
+                }
+            }
+        } finally {
+            fdLock.writeLock().unlock();
+        }
+    }
+}
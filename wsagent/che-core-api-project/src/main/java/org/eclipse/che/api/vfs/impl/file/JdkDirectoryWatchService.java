@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/** Implementation of {@link DirectoryWatchService} on top of {@link WatchService} of default file system. */
+class JdkDirectoryWatchService implements DirectoryWatchService {
+    private static final Logger LOG = LoggerFactory.getLogger(JdkDirectoryWatchService.class);
+
+    private final WatchService                  watchService;
+    private final WatchEvent.Modifier[]         watchEventModifiers;
+    private final ConcurrentMap<Path, WatchKey> watchKeys;
+    private final AtomicLong                    eventCount;
+    private final AtomicLong                    overflowCount;
+
+    JdkDirectoryWatchService() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        if (isPollingWatchService(watchService)) {
+            watchEventModifiers = new WatchEvent.Modifier[]{createSensitivityWatchEventModifier()};
+        } else {
+            watchEventModifiers = new WatchEvent.Modifier[0];
+        }
+        watchKeys = new ConcurrentHashMap<>();
+        eventCount = new AtomicLong();
+        overflowCount = new AtomicLong();
+    }
+
+    private boolean isPollingWatchService(WatchService watchService) {
+        return "sun.nio.fs.PollingWatchService".equals(watchService.getClass().getName());
+    }
+
+    private WatchEvent.Modifier createSensitivityWatchEventModifier() {
+        try {
+            Class<?> aModifierEnum = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
+            Object[] sensitivityEnumConstants = aModifierEnum.getEnumConstants();
+            return (WatchEvent.Modifier)sensitivityEnumConstants[0];
+        } catch (Exception e) {
+            LOG.warn("Can't create 'com.sun.nio.file.SensitivityWatchEventModifier'", e);
+        }
+        return null;
+    }
+
+    @Override
+    public void register(Path directory) throws IOException {
+        WatchKey watchKey = directory.register(watchService,
+                                               new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
+                                               watchEventModifiers);
+        watchKeys.put(directory, watchKey);
+    }
+
+    @Override
+    public void cancel(Path directory) {
+        WatchKey watchKey = watchKeys.remove(directory);
+        if (watchKey != null) {
+            watchKey.cancel();
+        }
+    }
+
+    @Override
+    public boolean poll(Collection<Path> changedDirectories, long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            WatchKey watchKey = timeout < 0 ? watchService.take() : watchService.poll(timeout, unit);
+            while (watchKey != null) {
+                Path directory = (Path)watchKey.watchable();
+                changedDirectories.add(directory);
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        overflowCount.incrementAndGet();
+                    }
+                    eventCount.addAndGet(event.count());
+                }
+                if (!watchKey.reset()) {
+                    watchKeys.remove(directory, watchKey);
+                }
+                watchKey = watchService.poll();
+            }
+            return true;
+        } catch (ClosedWatchServiceException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int getWatchCount() {
+        return watchKeys.size();
+    }
+
+    @Override
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watchKeys.clear();
+    }
+}
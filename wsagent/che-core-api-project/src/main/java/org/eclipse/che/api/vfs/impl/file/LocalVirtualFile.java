@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -59,7 +60,7 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public boolean exists() {
-        return toIoFile().exists();
+        return fileSystem.getAttributes(this).exists;
     }
 
     @Override
@@ -69,12 +70,12 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public boolean isFile() {
-        return toIoFile().isFile();
+        return fileSystem.getAttributes(this).regularFile;
     }
 
     @Override
     public boolean isFolder() {
-        return toIoFile().isDirectory();
+        return fileSystem.getAttributes(this).directory;
     }
 
     @Override
@@ -157,7 +158,7 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public long getLastModificationDate() {
-        return toIoFile().lastModified();
+        return fileSystem.getAttributes(this).lastModified;
     }
 
     @Override
@@ -165,7 +166,7 @@ public class LocalVirtualFile implements VirtualFile {
         if (isFolder()) {
             return 0;
         }
-        return toIoFile().length();
+        return fileSystem.getAttributes(this).length;
     }
 
     @Override
@@ -246,6 +247,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.zip(this);
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        fileSystem.zip(this, output);
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
@@ -257,6 +263,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.tar(this);
     }
 
+    @Override
+    public void tar(OutputStream output) throws ForbiddenException, ServerException {
+        fileSystem.tar(this, output);
+    }
+
     @Override
     public void untar(InputStream tarArchive, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
@@ -10,13 +10,12 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -26,7 +25,6 @@ import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.HashSumsCounter;
-import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.PathLockFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -41,31 +39,32 @@ import org.eclipse.che.commons.lang.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
-import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
@@ -82,44 +81,11 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
     private static final int  FILE_LOCK_MAX_THREADS      = 1024;
 
-    private static final String   VFS_SERVICE_DIR        = ".vfs";
-    private static final String   FILE_LOCKS_DIR         = VFS_SERVICE_DIR + File.separatorChar + "locks";
-    private static final String   LOCK_FILE_SUFFIX       = "_lock";
-    private static final FileLock NO_LOCK                = new FileLock("no_lock", 0);
-    private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
-    private static final String   PROPERTIES_FILE_SUFFIX = "_props";
+    static final         String   VFS_SERVICE_DIR = ".vfs";
+    private static final FileLock NO_LOCK         = new FileLock("no_lock", 0);
 
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
-    private static final FilenameFilter VFS_LOCK_FILTER =
-            (dir, name) -> !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
-
-    private class LockTokenCacheLoader extends CacheLoader<Path, FileLock> {
-        @Override
-        public FileLock load(Path path) throws Exception {
-            final File lockIoFile = getFileLockIoFile(path);
-            if (lockIoFile.exists()) {
-                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(lockIoFile)))) {
-                    return locksSerializer.read(dis);
-                }
-            }
-            return NO_LOCK;
-        }
-    }
-
-    private class FilePropertiesCacheLoader extends CacheLoader<Path, Map<String, String>> {
-        @Override
-        public Map<String, String> load(Path path) throws Exception {
-            final File metadataIoFile = getMetadataIoFile(path);
-            if (metadataIoFile.exists()) {
-                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataIoFile)))) {
-                    return ImmutableMap.copyOf(metadataSerializer.read(dis));
-                }
-            }
-            return emptyMap();
-        }
-    }
-
     private final File                                            ioRoot;
     private final ArchiverFactory                                 archiverFactory;
     private final SearcherProvider                                searcherProvider;
@@ -130,38 +96,34 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private final LocalVirtualFile root;
 
-    private final FileLockSerializer           locksSerializer;
-    private final LoadingCache<Path, FileLock> lockTokensCache;
+    /** Locks and properties of items. Opened on first use. */
+    private FileMetadataStore metadataStore;
+
+    private final FileAttributesCache attributesCache;
 
-    private final FileMetadataSerializer                  metadataSerializer;
-    private final LoadingCache<Path, Map<String, String>> metadataCache;
+    /** Runs i/o tasks in multiple threads, e.g. counts hash sums of files or copies files. Started on first use. */
+    private ExecutorService ioExecutor;
 
-    @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
                                   SearcherProvider searcherProvider,
                                   AbstractVirtualFileSystemProvider.CloseCallback closeCallback) {
+        this(ioRoot, archiverFactory, searcherProvider, closeCallback, new FileAttributesCache());
+    }
+
+    LocalVirtualFileSystem(File ioRoot,
+                           ArchiverFactory archiverFactory,
+                           SearcherProvider searcherProvider,
+                           AbstractVirtualFileSystemProvider.CloseCallback closeCallback,
+                           FileAttributesCache attributesCache) {
         this.ioRoot = ioRoot;
         this.archiverFactory = archiverFactory;
         this.searcherProvider = searcherProvider;
         this.closeCallback = closeCallback;
+        this.attributesCache = attributesCache;
 
         root = new LocalVirtualFile(ioRoot, Path.ROOT, this);
         pathLockFactory = new PathLockFactory(FILE_LOCK_MAX_THREADS);
-
-        locksSerializer = new FileLockSerializer();
-        lockTokensCache = CacheBuilder.newBuilder()
-                                      .concurrencyLevel(8)
-                                      .maximumSize(256)
-                                      .expireAfterAccess(10, MINUTES)
-                                      .build(new LockTokenCacheLoader());
-
-        metadataSerializer = new FileMetadataSerializer();
-        metadataCache = CacheBuilder.newBuilder()
-                                    .concurrencyLevel(8)
-                                    .maximumSize(256)
-                                    .expireAfterAccess(10, MINUTES)
-                                    .build(new FilePropertiesCacheLoader());
     }
 
     @Override
@@ -176,7 +138,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     @Override
     public void close() throws ServerException {
-        cleanUpCaches();
+        closeMetadataStore();
+        shutdownIoExecutor();
+        attributesCache.invalidateAll();
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -205,9 +169,88 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return Objects.hashCode(ioRoot);
     }
 
-    private void cleanUpCaches() {
-        lockTokensCache.invalidateAll();
-        metadataCache.invalidateAll();
+    /** Used in tests. Gets store of locks and properties of items, opens it if need. */
+    synchronized FileMetadataStore getMetadataStore() throws ServerException {
+        if (metadataStore == null) {
+            final FileMetadataStore store = new FileMetadataStore(ioRoot);
+            try {
+                store.open();
+            } catch (IOException e) {
+                String errorMessage = "Unable open store of locks and properties of files";
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            }
+            metadataStore = store;
+        }
+        return metadataStore;
+    }
+
+    private synchronized void closeMetadataStore() {
+        if (metadataStore != null) {
+            try {
+                metadataStore.close();
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
+            }
+            metadataStore = null;
+        }
+    }
+
+    private synchronized ExecutorService getIoExecutor() {
+        if (ioExecutor == null) {
+            final int threads = Runtime.getRuntime().availableProcessors();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                                                       new LinkedBlockingQueue<>(),
+                                                                       new ThreadFactoryBuilder().setNameFormat("VFS-IO-%d")
+                                                                                                 .setDaemon(true)
+                                                                                                 .build());
+            executor.allowCoreThreadTimeOut(true);
+            ioExecutor = executor;
+        }
+        return ioExecutor;
+    }
+
+    private synchronized void shutdownIoExecutor() {
+        if (ioExecutor != null) {
+            ioExecutor.shutdownNow();
+            ioExecutor = null;
+        }
+    }
+
+    /** Drops known hash sums of item, store isn't opened if it isn't opened yet. */
+    private synchronized void invalidateHashSums(Path path, boolean recursive) {
+        if (metadataStore != null) {
+            metadataStore.invalidateDigests(path, recursive);
+        }
+    }
+
+    /** Gets statistics of cache of attributes of items. All counters are zero if cache is disabled. */
+    public CacheStats getAttributesCacheStats() {
+        return attributesCache.getAttributesStats();
+    }
+
+    /** Gets statistics of cache of listings of folders. All counters are zero if cache is disabled. */
+    public CacheStats getListingsCacheStats() {
+        return attributesCache.getListingsStats();
+    }
+
+    /**
+     * Drops cached attributes and known hash sum of item, e.g. when item is changed bypassing this virtual file system.
+     *
+     * @param recursive
+     *         if {@code true} cached attributes and hash sums of all descendants of item are dropped too
+     */
+    void invalidateCachedAttributes(Path path, boolean recursive) {
+        if (recursive) {
+            attributesCache.invalidateTree(path);
+        } else {
+            attributesCache.invalidate(path);
+        }
+        invalidateHashSums(path, recursive);
+    }
+
+    FileAttributesCache.FileAttributes getAttributes(LocalVirtualFile virtualFile) {
+        return attributesCache.getAttributes(virtualFile.getPath(), virtualFile.toIoFile());
     }
 
     /** Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the end of request lifecycle. */
@@ -243,40 +286,44 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return newArrayList(path.elements()).contains(".vfs");
     }
 
-    synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
+    List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
-            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
-            Collections.sort(children);
-            return children;
+            // No path lock here, lock of folder conflicts with locks of all its descendants, so listing would wait for e.g. upload
+            // of any file under the folder. Directory stream is weakly consistent, concurrently added or removed items may or may
+            // not be listed.
+            return doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
         }
         return emptyList();
     }
 
-
+    /**
+     * Gets items of folder in the same order as {@link LocalVirtualFile#compareTo(VirtualFile)} does: folders first, then files,
+     * by name. Names and attributes of items are read with single pass over directory stream and may be served from cache.
+     */
     private List<VirtualFile> doGetChildren(LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
             throws ServerException {
         if (ioFileFilter == null) {
             ioFileFilter = IoUtil.ANY_FILTER;
         }
-
-        final String[] names = parent.toIoFile().list(ioFileFilter);
-        if (names == null) {
-            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
-        }
-
         if (vfsFilter == null) {
             vfsFilter = VirtualFileFilter.ACCEPT_ALL;
         }
 
-        final List<VirtualFile> children = newArrayListWithCapacity(names.length);
+        final File ioParent = parent.toIoFile();
+        final List<String> names;
+        try {
+            names = attributesCache.getChildNames(parent.getPath(), ioParent, ioFileFilter);
+        } catch (IOException e) {
+            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()), e);
+        }
+
+        final List<VirtualFile> children = newArrayListWithCapacity(names.size());
         for (String name : names) {
-            final Path childPath = parent.getPath().newPath(name);
-            final LocalVirtualFile child = new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this);
+            final LocalVirtualFile child = new LocalVirtualFile(new File(ioParent, name), parent.getPath().newPath(name), this);
             if (vfsFilter.accept(child)) {
                 children.add(child);
             }
         }
-
         return children;
     }
 
@@ -297,6 +344,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 if (!newIoFile.createNewFile()) {
                     throw new ConflictException(String.format("Item '%s' already exists", newPath));
                 }
+                attributesCache.invalidate(newPath);
             } catch (IOException e) {
                 String errorMessage = String.format("Unable create new file '%s'", newPath);
                 LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -325,7 +373,12 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         if (parent.isFolder()) {
             final Path newPath = parent.getPath().newPath(name);
             final File newIoFile = new File(ioRoot, toIoPath(newPath));
-            if (!newIoFile.mkdirs()) {
+            final boolean created = newIoFile.mkdirs();
+            // name may contain few segments, all missed folders are created
+            for (Path createdPath = newPath; !createdPath.equals(parent.getPath()); createdPath = createdPath.getParent()) {
+                attributesCache.invalidate(createdPath);
+            }
+            if (!created) {
                 if (newIoFile.exists()) {
                     throw new ConflictException(String.format("Item '%s' already exists", newPath));
                 }
@@ -375,17 +428,15 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             // will see error and may try to copy again. But if we successfully copy tree (or single file) and then fail to copy
             // metadata client may not try to copy again because copy destination already exists.
 
-            final File fromMetadataFile = getMetadataIoFile(from.getPath());
-            final File toMetadataFile = getMetadataIoFile(to.getPath());
-            if (fromMetadataFile.exists()) {
-                IoUtil.copy(fromMetadataFile, toMetadataFile, null);
-            }
+            getMetadataStore().copyTree(from.getPath(), to.getPath());
 
-            IoUtil.copy(from.toIoFile(), to.toIoFile(), VFS_LOCK_FILTER);
+            IoUtil.copy(from.toIoFile(), to.toIoFile(), DOT_VFS_DIR_FILTER, getIoExecutor());
         } catch (IOException e) {
             String errorMessage = String.format("Unable copy '%s' to '%s'", from, to);
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            attributesCache.invalidateTree(to.getPath());
         }
     }
 
@@ -403,7 +454,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ForbiddenException(String.format("Unable rename file '%s'. File is locked", virtualFile.getPath()));
             }
         } else {
-            final List<VirtualFile> lockedFiles = new LockedFileFinder(virtualFile).findLockedFiles();
+            final List<VirtualFile> lockedFiles = findLockedFiles(virtualFile);
             if (!lockedFiles.isEmpty()) {
                 throw new ForbiddenException(
                         String.format("Unable rename folder '%s'. Child items '%s' are locked", virtualFile.getPath(), lockedFiles));
@@ -420,13 +471,10 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ConflictException(String.format("Item '%s' already exists", newVirtualFile.getName()));
             }
 
-            doCopy(virtualFile, newVirtualFile);
-            addInSearcher(newVirtualFile);
-
-            final Path path = virtualFile.getPath();
             final boolean isFile = virtualFile.isFile();
-            doDelete(virtualFile, lockToken);
-            deleteInSearcher(path, isFile);
+            doMove(virtualFile, newVirtualFile);
+            addInSearcher(newVirtualFile);
+            deleteInSearcher(virtualFile.getPath(), isFile);
 
             return newVirtualFile;
         }
@@ -457,7 +505,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ForbiddenException(String.format("Unable move file '%s'. File is locked", sourcePath));
             }
         } else {
-            final List<VirtualFile> lockedFiles = new LockedFileFinder(virtualFile).findLockedFiles();
+            final List<VirtualFile> lockedFiles = findLockedFiles(virtualFile);
             if (!lockedFiles.isEmpty()) {
                 throw new ForbiddenException(
                         String.format("Unable move folder '%s'. Child items '%s' are locked", virtualFile, lockedFiles));
@@ -476,18 +524,78 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
         }
 
-        doCopy(virtualFile, newVirtualFile);
-        addInSearcher(newVirtualFile);
-
-        final Path path = virtualFile.getPath();
         final boolean isFile = virtualFile.isFile();
-        doDelete(virtualFile, lockToken);
-        deleteInSearcher(path, isFile);
+        doMove(virtualFile, newVirtualFile);
+        addInSearcher(newVirtualFile);
+        deleteInSearcher(virtualFile.getPath(), isFile);
 
         return newVirtualFile;
     }
 
 
+    /**
+     * Renames item in file system if new location is in the same file system, otherwise copies item to new location and then removes
+     * it. Properties are moved to new location with single change of metadata store, the moved item is not locked. Caller must check
+     * locks before.
+     * <p/>
+     * Properties are moved first, if item can't be moved then properties are moved back, so item and its properties stay together.
+     */
+    private void doMove(LocalVirtualFile from, LocalVirtualFile to) throws ServerException {
+        try {
+            getMetadataStore().moveTree(from.getPath(), to.getPath());
+        } catch (IOException e) {
+            throw moveFailed(from, to, e);
+        }
+
+        boolean renamed = false;
+        boolean copying = false;
+        try {
+            try {
+                // Renames item in the same file system, content of files isn't touched.
+                moveIoFile(from.toIoFile(), to.toIoFile());
+                renamed = true;
+            } catch (AtomicMoveNotSupportedException e) {
+                // Target is in other file system, e.g. mounted folder.
+                copying = true;
+                IoUtil.copy(from.toIoFile(), to.toIoFile(), DOT_VFS_DIR_FILTER, getIoExecutor());
+            }
+        } catch (IOException e) {
+            if (copying && !deleteRecursive(to.toIoFile())) {
+                LOG.error("Unable delete partial copy {}", to.toIoFile());
+            }
+            try {
+                getMetadataStore().moveTree(to.getPath(), from.getPath());
+            } catch (IOException rollbackError) {
+                LOG.error("Unable move properties of '{}' back to '{}'", to, from, rollbackError);
+            }
+            throw moveFailed(from, to, e);
+        } finally {
+            attributesCache.invalidateTree(from.getPath());
+            attributesCache.invalidateTree(to.getPath());
+        }
+
+        if (!renamed) {
+            final boolean deleted = deleteRecursive(from.toIoFile());
+            attributesCache.invalidateTree(from.getPath());
+            if (!deleted) {
+                LOG.error("Unable delete file {}", from.toIoFile());
+                throw new ServerException(String.format("Unable delete item '%s'", from.getPath()));
+            }
+        }
+    }
+
+    /** Moves file or folder in file system atomically, fails with {@link AtomicMoveNotSupportedException} if move needs copying. */
+    void moveIoFile(File from, File to) throws IOException {
+        java.nio.file.Files.move(from.toPath(), to.toPath(), ATOMIC_MOVE);
+    }
+
+    private ServerException moveFailed(LocalVirtualFile from, LocalVirtualFile to, IOException e) {
+        String errorMessage = String.format("Unable move '%s' to '%s'", from, to);
+        LOG.error(errorMessage + "\n" + e.getMessage(), e);
+        return new ServerException(errorMessage);
+    }
+
+
     InputStream getContent(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
         if (virtualFile.isFile()) {
             final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
@@ -544,6 +652,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             String errorMessage = String.format("Unable set content of '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            attributesCache.invalidate(virtualFile.getPath());
+            invalidateHashSums(virtualFile.getPath(), false);
         }
     }
 
@@ -562,7 +673,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private void doDelete(LocalVirtualFile virtualFile, String lockToken) throws ForbiddenException, ServerException {
         if (virtualFile.isFolder()) {
-            final List<VirtualFile> lockedFiles = new LockedFileFinder(virtualFile).findLockedFiles();
+            final List<VirtualFile> lockedFiles = findLockedFiles(virtualFile);
             if (!lockedFiles.isEmpty()) {
                 throw new ForbiddenException(
                         String.format("Unable delete folder '%s'. Child items '%s' are locked", virtualFile.getPath(), lockedFiles));
@@ -571,25 +682,16 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ForbiddenException(String.format("Unable delete file '%s'. File is locked", virtualFile.getPath()));
         }
 
-        cleanUpCaches();
-
-        final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-        if (fileLockIoFile.delete()) {
-            if (fileLockIoFile.exists()) {
-                LOG.error("Unable delete lock file {}", fileLockIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
-            }
-        }
-
-        final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
-        if (metadataIoFile.delete()) {
-            if (metadataIoFile.exists()) {
-                LOG.error("Unable delete metadata file {}", metadataIoFile);
-                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
-            }
+        try {
+            getMetadataStore().deleteTree(virtualFile.getPath());
+        } catch (IOException e) {
+            LOG.error("Unable delete locks and properties of {}\n{}", virtualFile.getPath(), e.getMessage(), e);
+            throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
         }
 
-        if (!deleteRecursive(virtualFile.toIoFile())) {
+        final boolean deleted = deleteRecursive(virtualFile.toIoFile());
+        attributesCache.invalidateTree(virtualFile.getPath());
+        if (!deleted) {
             LOG.error("Unable delete file {}", virtualFile.toIoFile());
             throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
         }
@@ -608,6 +710,18 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    void zip(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            compress(archiverFactory.createArchiver(folder, "zip"), output);
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
+
     void unzip(LocalVirtualFile parent, InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
@@ -633,6 +747,17 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    void tar(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create tar archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            compress(archiverFactory.createArchiver(folder, "tar"), output);
+        } else {
+            throw new ForbiddenException(String.format("Unable export to tar archive. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
     void untar(LocalVirtualFile parent, InputStream tarArchive, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
@@ -662,6 +787,14 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    private void compress(Archiver archiver, OutputStream output) throws ServerException {
+        try {
+            archiver.compress(output, dotGitFilter());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
     private void extract(Archiver archiver, InputStream compressed, boolean overwrite, int stripNumber)
             throws ConflictException, ServerException, ForbiddenException {
         try {
@@ -686,24 +819,15 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private String doLock(LocalVirtualFile virtualFile, long timeout) throws ConflictException, ServerException {
         try {
-            if (NO_LOCK == lockTokensCache.get(virtualFile.getPath())) {
+            if (NO_LOCK == getFileLock(virtualFile)) {
                 final FileLock lock = createLock(timeout);
-                final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-                fileLockIoFile.getParentFile().mkdirs();
-                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileLockIoFile)))) {
-                    locksSerializer.write(dos, lock);
-                }
-                lockTokensCache.put(virtualFile.getPath(), lock);
+                getMetadataStore().putLock(virtualFile.getPath(), lock);
                 return lock.getLockToken();
             }
             throw new ConflictException(String.format("Unable lock file '%s'. File already locked", virtualFile.getPath()));
-        } catch (IOException | ExecutionException e) {
+        } catch (IOException e) {
             String errorMessage = String.format("Unable lock file '%s'", virtualFile.getPath());
-            if (e instanceof ExecutionException) {
-                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-            } else {
-                LOG.error(errorMessage + "\n" + e.getMessage(), e);
-            }
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
         }
     }
@@ -743,13 +867,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private void doUnlock(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
         try {
-            final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-            if (!fileLockIoFile.delete()) {
-                if (fileLockIoFile.exists()) {
-                    throw new IOException(String.format("Unable delete lock file %s", fileLockIoFile));
-                }
-            }
-            lockTokensCache.put(virtualFile.getPath(), NO_LOCK);
+            getMetadataStore().removeLock(virtualFile.getPath());
         } catch (IOException e) {
             String errorMessage = String.format("Unable unlock file '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -763,6 +881,22 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    /**
+     * Finds locked files in folder and all its sub folders. Locks are looked up in {@link FileMetadataStore} by path prefix, tree
+     * of folder isn't traversed.
+     */
+    private List<VirtualFile> findLockedFiles(LocalVirtualFile folder) throws ServerException {
+        final List<VirtualFile> lockedFiles = newArrayList();
+        for (Path path : getMetadataStore().getLockedFiles(folder.getPath())) {
+            final File ioFile = new File(ioRoot, toIoPath(path));
+            // file may be removed bypassing virtual file system
+            if (ioFile.isFile()) {
+                lockedFiles.add(new LocalVirtualFile(ioFile, path, this));
+            }
+        }
+        return lockedFiles;
+    }
+
     private boolean fileIsLockedAndLockTokenIsInvalid(LocalVirtualFile virtualFile, String checkLockToken)
             throws ServerException {
         final FileLock lock = getFileLock(virtualFile);
@@ -773,26 +907,17 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         final PathLockFactory.PathLock lockFilePathLock =
                 pathLockFactory.getLock(virtualFile.getPath(), true).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
         try {
-            final FileLock lock;
-            try {
-                lock = lockTokensCache.get(virtualFile.getPath());
-            } catch (ExecutionException e) {
-                String errorMessage = String.format("Unable get lock of file '%s'", virtualFile.getPath());
-                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-                throw new ServerException(errorMessage);
-            }
-            if (NO_LOCK == lock) {
-                return lock;
+            final FileMetadataStore store = getMetadataStore();
+            final FileLock lock = store.getLock(virtualFile.getPath());
+            if (lock == null) {
+                return NO_LOCK;
             }
             if (lock.getExpired() < System.currentTimeMillis()) {
-                final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
-                if (!fileLockIoFile.delete()) {
-                    if (fileLockIoFile.exists()) {
-                        FileCleaner.addFile(fileLockIoFile);
-                        LOG.warn("Unable delete lock file %s", fileLockIoFile);
-                    }
+                try {
+                    store.removeLock(virtualFile.getPath());
+                } catch (IOException e) {
+                    LOG.warn("Unable remove expired lock of file {}: {}", virtualFile.getPath(), e.getMessage());
                 }
-                lockTokensCache.put(virtualFile.getPath(), NO_LOCK);
                 return NO_LOCK;
             }
             return lock;
@@ -801,27 +926,11 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
-    private File getFileLockIoFile(Path virtualFilePath) {
-        final String fileLockFileName = virtualFilePath.getName() + LOCK_FILE_SUFFIX;
-        final Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(FILE_LOCKS_DIR, fileLockFileName);
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(FILE_LOCKS_DIR, fileLockFileName);
-        }
-        return new File(ioRoot, toIoPath(metadataFilePath));
-    }
-
-
     Map<String, String> getProperties(LocalVirtualFile virtualFile) throws ServerException {
         final PathLockFactory.PathLock metadataFilePathLock =
                 pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
         try {
-            return newLinkedHashMap(metadataCache.get(virtualFile.getPath()));
-        } catch (ExecutionException e) {
-            String errorMessage = String.format("Unable read properties of file '%s'", virtualFile.getPath());
-            LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
-            throw new ServerException(errorMessage);
+            return newLinkedHashMap(getMetadataStore().getProperties(virtualFile.getPath()));
         } finally {
             metadataFilePathLock.release();
         }
@@ -858,22 +967,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 }
             }
 
-            final File metadataIoFile = getMetadataIoFile(virtualFile.getPath());
-            if (properties.isEmpty()) {
-                if (!metadataIoFile.delete()) {
-                    if (metadataIoFile.exists()) {
-                        LOG.error("Unable delete metadata file {}", metadataIoFile);
-                        throw new IOException(String.format("Unable update properties of item '%s'", virtualFile.getPath()));
-                    }
-                }
-            } else {
-                metadataIoFile.getParentFile().mkdirs();
-                try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metadataIoFile)))) {
-                    metadataSerializer.write(dos, properties);
-                }
-            }
-
-            metadataCache.put(virtualFile.getPath(), properties);
+            getMetadataStore().putProperties(virtualFile.getPath(), properties);
 
             if (!virtualFile.toIoFile().setLastModified(System.currentTimeMillis())) {
                 LOG.warn("Unable to set timestamp to '{}'", virtualFile.toIoFile());
@@ -892,23 +986,89 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private File getMetadataIoFile(Path virtualFilePath) {
-        final String metadataFileName = virtualFilePath.getName() + PROPERTIES_FILE_SUFFIX;
-        final Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(FILE_PROPERTIES_DIR, metadataFileName);
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(FILE_PROPERTIES_DIR, metadataFileName);
+    List<Pair<String, String>> countMd5Sums(LocalVirtualFile virtualFile) throws ServerException {
+        if (virtualFile.isFile()) {
+            return emptyList();
         }
-        return new File(ioRoot, toIoPath(metadataFilePath));
+        return new Md5SumsCounter(virtualFile, getMetadataStore()).countHashSums();
     }
 
 
-    List<Pair<String, String>> countMd5Sums(LocalVirtualFile virtualFile) throws ServerException {
-        if (virtualFile.isFile()) {
-            return emptyList();
+    /**
+     * Counts MD5 sums of files and keeps them in {@link FileMetadataStore}. Hash sum of file is counted again only if size or
+     * modification time of file is changed. Files are read with {@link FileChannel} directly, bypassing
+     * {@link #getContent(LocalVirtualFile)} that copies content of big files.
+     */
+    private class Md5SumsCounter extends HashSumsCounter {
+        private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+        private final FileMetadataStore     store;
+        private final Map<Path, FileDigest> digests;
+
+        Md5SumsCounter(LocalVirtualFile folder, FileMetadataStore store) {
+            super(folder, Hashing.md5(), getIoExecutor());
+            this.store = store;
+            digests = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        protected String getCachedHashSum(VirtualFile file) {
+            final FileDigest digest = store.getDigest(file.getPath());
+            if (digest != null) {
+                // Cached attributes may be stale, stale hash sum must not be returned for file that was just changed.
+                final FileAttributesCache.FileAttributes attributes =
+                        FileAttributesCache.FileAttributes.read(((LocalVirtualFile)file).toIoFile());
+                if (digest.matches(attributes.length, attributes.lastModified)) {
+                    return digest.getHashSum();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        protected String countHashSum(VirtualFile file) throws ServerException {
+            final PathLockFactory.PathLock lock = pathLockFactory.getLock(file.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+            try {
+                final File ioFile = ((LocalVirtualFile)file).toIoFile();
+                // Attributes are read before content, so if file is changed while it is read, hash sum is not matched next time.
+                final FileAttributesCache.FileAttributes attributes = FileAttributesCache.FileAttributes.read(ioFile);
+                final Hasher hasher = getHashFunction().newHasher();
+                try (FileChannel channel = FileChannel.open(ioFile.toPath())) {
+                    final int bufferSize = (int)Math.min(READ_BUFFER_SIZE, Math.max(attributes.length, 1));
+                    final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+                    while (channel.read(buffer) != -1) {
+                        hasher.putBytes(buffer.array(), 0, buffer.position());
+                        buffer.clear();
+                    }
+                }
+                final String hashSum = hasher.hash().toString();
+                digests.put(file.getPath(), new FileDigest(attributes.length, attributes.lastModified, hashSum));
+                return hashSum;
+            } catch (IOException e) {
+                String errorMessage = String.format("Unable count hash sum of '%s'", file.getPath());
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            } finally {
+                lock.release();
+            }
+        }
+
+        @Override
+        protected void cacheHashSums(Map<VirtualFile, String> counted) {
+            final Map<Path, FileDigest> countedDigests = newLinkedHashMap();
+            for (VirtualFile file : counted.keySet()) {
+                final FileDigest digest = digests.get(file.getPath());
+                if (digest != null) {
+                    countedDigests.put(file.getPath(), digest);
+                }
+            }
+            try {
+                store.putDigests(countedDigests);
+            } catch (IOException e) {
+                // Hash sums are counted, only next counting is slower.
+                LOG.warn("Unable save hash sums of files: {}", e.getMessage());
+            }
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
     }
 
 
@@ -14,7 +14,10 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.ZipArchiver;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.commons.lang.ParallelDeflater;
+import org.eclipse.che.commons.lang.ParallelExtractor;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -25,9 +28,45 @@ import java.nio.file.Files;
 
 @Singleton
 public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemProvider {
+    private static final long DEFAULT_CACHE_MAX_SIZE               = 10000;
+    private static final long DEFAULT_CACHE_EXPIRE_AFTER_WRITE_SEC = 10;
+
     private final File             rootDirectory;
     private final SearcherProvider searcherProvider;
 
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.cache.enabled")
+    private boolean cacheEnabled;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.cache.max_size")
+    private long cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.cache.expire_after_write_sec")
+    private long cacheExpireAfterWriteSec = DEFAULT_CACHE_EXPIRE_AFTER_WRITE_SEC;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.zip.store_compressed_files")
+    private boolean storeCompressedFiles = ZipArchiver.DEFAULT_STORE_COMPRESSED_FILES;
+
+    /** Number of threads that compress content of zip archives, {@code 0} to compress in thread that creates archive. */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.zip.compression_threads")
+    private int compressionThreads = Runtime.getRuntime().availableProcessors();
+
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.zip.compression_block_size")
+    private int compressionBlockSize = ParallelDeflater.DEFAULT_BLOCK_SIZE;
+
+    /** Number of threads that write files extracted from zip archives, {@code 0} to write them in thread that reads archive. */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.zip.extraction_threads")
+    private int extractionThreads = Runtime.getRuntime().availableProcessors();
+
+    private ParallelDeflater  deflater;
+    private ParallelExtractor extractor;
+
     @Inject
     public LocalVirtualFileSystemProvider(@Named("che.user.workspaces.storage") File rootDirectory,
                                           SearcherProvider searcherProvider) throws IOException {
@@ -38,6 +77,26 @@ public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemPro
 
     @Override
     protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback) throws ServerException {
-        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+        final FileAttributesCache attributesCache = cacheEnabled ? new FileAttributesCache(cacheMaxSize, cacheExpireAfterWriteSec)
+                                                                 : new FileAttributesCache();
+        return new LocalVirtualFileSystem(rootDirectory,
+                                          new ArchiverFactory(storeCompressedFiles, getDeflater(), getExtractor()),
+                                          searcherProvider,
+                                          closeCallback,
+                                          attributesCache);
+    }
+
+    private synchronized ParallelDeflater getDeflater() {
+        if (deflater == null && compressionThreads > 0) {
+            deflater = new ParallelDeflater(compressionThreads, compressionBlockSize);
+        }
+        return deflater;
+    }
+
+    private synchronized ParallelExtractor getExtractor() {
+        if (extractor == null && extractionThreads > 0) {
+            extractor = new ParallelExtractor(extractionThreads);
+        }
+        return extractor;
     }
 }
@@ -14,9 +14,15 @@ import com.google.common.annotations.Beta;
 
 import org.eclipse.che.api.vfs.Path;
 
+import java.util.IdentityHashMap;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.io.File.separator;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.newSetFromMap;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.DIR;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeNode.newInstance;
 
 /**
@@ -38,13 +44,17 @@ public class EventTreeHelper {
      *     with default values and no events. For tree nodes created in such way call
      *     of {@link EventTreeNode#modificationOccurred()} method always return false.
      * </p>
+     * <p>
+     *     Event is merged with previous events of the same item, see
+     *     {@link EventTreeNode#withMergedEvent(LoEvent)}.
+     * </p>
      * @param root root node of the tree, node where event's absolute path starts
      *
      * @param loEvent event to be added
      */
     public static void addEventAndCreatePrecedingNodes(EventTreeNode root, LoEvent loEvent) {
         traverseAndCreate(root, Path.of(loEvent.getPath()))
-                .withEvent(loEvent)
+                .withMergedEvent(loEvent)
                 .withPath(loEvent.getPath())
                 .withType(loEvent.getItemType());
     }
@@ -77,6 +87,74 @@ public class EventTreeHelper {
         return current;
     }
 
+    /**
+     * Collapses subtrees that contain more than specified number of nodes.
+     * <p>
+     *     Tree is processed from leaves to root, subtree that is already collapsed
+     *     is counted as a single node. Collapsed node gets no children and is marked
+     *     with {@link EventTreeNode#withSubtreeChanged()}, if there are no own events
+     *     of node it gets modification event with time of the latest event in its subtree.
+     *     Root node and its direct children (projects) are never collapsed.
+     * </p>
+     * @param root root node of the tree
+     *
+     * @param threshold max number of nodes in subtree
+     *
+     * @return number of nodes in the tree after collapsing
+     */
+    public static int collapseSubtrees(EventTreeNode root, int threshold) {
+        return collapseSubtrees(root, threshold, emptySet());
+    }
+
+    /**
+     * Collapses subtrees that contain more than specified number of nodes, like
+     * {@link #collapseSubtrees(EventTreeNode, int)} does, but keeps specified nodes,
+     * e.g. nodes matched by patterns of event detectors. Subtree that contains any
+     * of kept nodes is never collapsed, so such subtree may contain more nodes than
+     * {@code threshold}, though its other subtrees are still collapsed.
+     *
+     * @param root root node of the tree
+     *
+     * @param threshold max number of nodes in subtree
+     *
+     * @param keptNodes nodes that must stay in the tree
+     *
+     * @return number of nodes in the tree after collapsing
+     */
+    public static int collapseSubtrees(EventTreeNode root, int threshold, Set<EventTreeNode> keptNodes) {
+        final Set<EventTreeNode> kept = newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(keptNodes);
+        return collapseSubtrees(root, "", 0, threshold, kept);
+    }
+
+    private static int collapseSubtrees(EventTreeNode node, String path, int depth, int threshold, Set<EventTreeNode> kept) {
+        int size = 1;
+        for (EventTreeNode child : node.getChildren()) {
+            size += collapseSubtrees(child, path + separator + child.getName(), depth + 1, threshold, kept);
+            if (kept.contains(child)) {
+                kept.add(node);
+            }
+        }
+
+        if (depth < 2 || size <= threshold || kept.contains(node)) {
+            return size;
+        }
+
+        if (!node.modificationOccurred()) {
+            final long lastEventTime = node.stream()
+                                           .flatMap(o -> o.getEvents().keySet().stream())
+                                           .max(Long::compare)
+                                           .orElse(0L);
+            node.withEvent(LoEvent.newInstance().withTime(lastEventTime).withEventType(MODIFIED));
+        }
+        if (node.getPath() == null) {
+            node.withPath(path);
+        }
+        node.withType(DIR).withSubtreeChanged();
+
+        return 1;
+    }
+
     private static EventTreeNode traverseAndCreate(EventTreeNode root, Path path) {
         EventTreeNode current = root;
 
@@ -15,7 +15,7 @@ import com.google.common.annotations.Beta;
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,6 +25,8 @@ import java.util.stream.Stream;
 
 import static java.util.Optional.empty;
 import static java.util.stream.Stream.concat;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.DIR;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.UNDEFINED;
@@ -64,9 +66,19 @@ public class EventTreeNode {
     private static final String ROOT_NODE_NAME = "/";
 
     private List<EventTreeNode>             children;
+    /**
+     * Index of children by name to avoid scanning of all children when
+     * many items are changed in the same directory.
+     */
+    private Map<String, EventTreeNode>      childrenByName;
     private String                          name;
     private String                          path;
     private ItemType                        type;
+    /**
+     * Shows that children of this node are dropped because too many items
+     * are changed in subtree, see {@link #withSubtreeChanged()}.
+     */
+    private boolean                         subtreeChanged;
     /**
      * Event chain to store all events occurred within a single time
      * segment with this event tree node instance.
@@ -77,6 +89,7 @@ public class EventTreeNode {
     private EventTreeNode() {
         this.events = new LinkedHashMap<>();
         this.children = new LinkedList<>();
+        this.childrenByName = new HashMap<>();
         this.type = UNDEFINED;
     }
 
@@ -101,6 +114,7 @@ public class EventTreeNode {
 
     public EventTreeNode withChild(EventTreeNode child) {
         this.children.add(child);
+        this.childrenByName.putIfAbsent(child.getName(), child);
         return this;
     }
 
@@ -109,6 +123,47 @@ public class EventTreeNode {
         return this;
     }
 
+    /**
+     * Adds event and merges it with events occurred before, so the event chain
+     * keeps the same final state of an item with minimal number of events:
+     * <ul>
+     *     <li>repeated event of the same type replaces previous one</li>
+     *     <li>deletion of just created item cancels all its events</li>
+     *     <li>deletion of existed item replaces all its previous events</li>
+     * </ul>
+     */
+    public EventTreeNode withMergedEvent(LoEvent loEvent) {
+        final Map.Entry<Long, FileWatcherEventType> lastEntry = getLastEntry();
+        if (lastEntry != null) {
+            final FileWatcherEventType type = loEvent.getEventType();
+
+            if (type == DELETED) {
+                final boolean created = events.values().iterator().next() == CREATED;
+                events.clear();
+                if (created) {
+                    return this;
+                }
+            } else if (lastEntry.getValue() == type) {
+                events.remove(lastEntry.getKey());
+            }
+        }
+
+        return withEvent(loEvent);
+    }
+
+    /**
+     * Drops all children of this node and marks it as a node with changed
+     * subtree. It is used instead of keeping each changed item when too many
+     * items are changed at once, e.g. during checkout of git branch or
+     * installation of dependencies.
+     */
+    public EventTreeNode withSubtreeChanged() {
+        this.children.clear();
+        this.childrenByName.clear();
+        this.subtreeChanged = true;
+        return this;
+    }
+
     public EventTreeNode withPath(String path) {
         this.path = path;
         return this;
@@ -136,13 +191,7 @@ public class EventTreeNode {
     }
 
     public Optional<EventTreeNode> getChild(String name) {
-        for (EventTreeNode node : children) {
-            if (node.getName().equals(name)) {
-                return Optional.of(node);
-            }
-        }
-
-        return empty();
+        return Optional.ofNullable(childrenByName.get(name));
     }
 
     public Optional<EventTreeNode> getFirstChild() {
@@ -158,12 +207,23 @@ public class EventTreeNode {
     }
 
     public FileWatcherEventType getLastEventType() {
-        final List<Map.Entry<Long, FileWatcherEventType>> entryList = new ArrayList<>(events.entrySet());
-        final Map.Entry<Long, FileWatcherEventType> lastEntry = entryList.get(entryList.size() - 1);
+        final Map.Entry<Long, FileWatcherEventType> lastEntry = getLastEntry();
+        if (lastEntry == null) {
+            throw new IndexOutOfBoundsException("No events occurred");
+        }
 
         return lastEntry.getValue();
     }
 
+    private Map.Entry<Long, FileWatcherEventType> getLastEntry() {
+        Map.Entry<Long, FileWatcherEventType> lastEntry = null;
+        for (Map.Entry<Long, FileWatcherEventType> entry : events.entrySet()) {
+            lastEntry = entry;
+        }
+
+        return lastEntry;
+    }
+
     public boolean modificationOccurred() {
         return !events.isEmpty();
     }
@@ -180,6 +240,15 @@ public class EventTreeNode {
         return ROOT_NODE_NAME.equals(name);
     }
 
+    /**
+     * Shows that children of this node are dropped and anything below this node
+     * may be changed, e.g. detector that looks for changed files of some kind has
+     * to consider that such files may be among dropped children.
+     */
+    public boolean isSubtreeChanged() {
+        return subtreeChanged;
+    }
+
     public Stream<EventTreeNode> stream() {
         return concat(Stream.of(this), this.children.stream().flatMap(EventTreeNode::stream));
     }
@@ -21,9 +21,11 @@ import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import static java.io.File.separator;
+import static java.util.Collections.singleton;
 import static java.util.Optional.empty;
 import static java.util.regex.Pattern.compile;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
@@ -72,6 +74,11 @@ public class GitCheckoutHiEventDetector implements HiEventDetector<GitBranchChec
         this.broadcaster = highLevelVfsEventClientBroadcaster;
     }
 
+    @Override
+    public Set<String> getPathPatterns() {
+        return singleton("*/" + GIT_DIR + "/" + HEAD_FILE);
+    }
+
     @Override
     public Optional<HiEvent<GitBranchCheckoutEventDto>> detect(EventTreeNode eventTreeNode) {
         if (!eventTreeNode.isRoot() || eventTreeNode.getChildren().isEmpty()) {
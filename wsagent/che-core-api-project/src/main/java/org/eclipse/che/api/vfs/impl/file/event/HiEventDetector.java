@@ -13,6 +13,9 @@ package org.eclipse.che.api.vfs.impl.file.event;
 import com.google.common.annotations.Beta;
 
 import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Collections.emptySet;
 
 /**
  * Event detectors are the key components of the whole VFS event handling subsystem.
@@ -48,4 +51,24 @@ import java.util.Optional;
 @FunctionalInterface
 public interface HiEventDetector<T> {
      Optional<HiEvent<T>> detect(EventTreeNode eventTreeNode);
+
+    /**
+     * Same as {@link #detect(EventTreeNode)}, but also gets nodes of the tree
+     * matched by {@link #getPathPatterns()}, so detector may check only them
+     * instead of walking the whole tree. Nodes are empty for detectors without
+     * path patterns. Default implementation ignores matched nodes.
+     */
+    default Optional<HiEvent<T>> detect(EventTreeNode eventTreeNode, Set<EventTreeNode> matchedNodes) {
+        return detect(eventTreeNode);
+    }
+
+    /**
+     * Patterns of paths of event tree nodes this detector is interested in,
+     * see {@link PathPatternTrie} for the syntax. Detector is invoked only
+     * for event trees that have modification of at least one matching node.
+     * Empty set means that detector is invoked for every event tree.
+     */
+    default Set<String> getPathPatterns() {
+        return emptySet();
+    }
 }
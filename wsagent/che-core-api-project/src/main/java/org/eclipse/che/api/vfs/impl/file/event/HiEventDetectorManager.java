@@ -11,16 +11,48 @@
 package org.eclipse.che.api.vfs.impl.file.event;
 
 import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import org.slf4j.Logger;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-import static java.util.stream.Collectors.toList;
+import static java.lang.Boolean.TRUE;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Runs event detectors against event trees.
+ * <p>
+ *     Path patterns of all detectors (see {@link HiEventDetector#getPathPatterns()})
+ *     are compiled into a single {@link PathPatternTrie}, so event tree is walked
+ *     once to find out which detectors are interested in it and which nodes they
+ *     are interested in, see {@link HiEventDetector#detect(EventTreeNode, Set)}.
+ *     Matched detectors are run in parallel on a bounded pool of threads, failure
+ *     of a detector doesn't affect others. Time spent by each detector is
+ *     collected and available with {@link #getLatencies()}.
+ * </p>
+ *
  * @author Dmitry Kuleshov
  *
  * @since 4.5
@@ -28,19 +60,145 @@ import static java.util.stream.Collectors.toList;
 @Beta
 @Singleton
 class HiEventDetectorManager {
-    private final Set<HiEventDetector<?>> hiEventDetectors;
+    private static final Logger LOG = getLogger(HiEventDetectorManager.class);
+
+    private final List<HiEventDetector<?>>                 unconditionalDetectors;
+    private final PathPatternTrie<HiEventDetector<?>>      detectorTrie;
+    private final Map<HiEventDetector<?>, DetectorLatency> latencies;
+    private final ExecutorService                          executor;
 
     @Inject
     public HiEventDetectorManager(Set<HiEventDetector<?>> hiEventDetectors) {
-        this.hiEventDetectors = hiEventDetectors;
+        this(hiEventDetectors, Math.max(1, Math.min(hiEventDetectors.size(), Runtime.getRuntime().availableProcessors())));
+    }
+
+    HiEventDetectorManager(Set<HiEventDetector<?>> hiEventDetectors, int threads) {
+        this.unconditionalDetectors = new ArrayList<>();
+        this.detectorTrie = new PathPatternTrie<>();
+        this.latencies = new ConcurrentHashMap<>();
+
+        for (HiEventDetector<?> detector : hiEventDetectors) {
+            final Set<String> pathPatterns = detector.getPathPatterns();
+            if (pathPatterns.isEmpty()) {
+                unconditionalDetectors.add(detector);
+            } else {
+                pathPatterns.forEach(pattern -> detectorTrie.add(pattern, detector));
+            }
+            latencies.put(detector, new DetectorLatency());
+        }
+
+        final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, SECONDS, new LinkedBlockingQueue<>(),
+                                                                     new ThreadFactoryBuilder().setNameFormat("HiEventDetector-%d")
+                                                                                               .setDaemon(TRUE)
+                                                                                               .build());
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    @PreDestroy
+    void preDestroy() {
+        executor.shutdownNow();
     }
 
     List<HiEvent> getDetectedEvents(EventTreeNode root) {
-        return hiEventDetectors.stream()
-                               .map(o -> o.detect(root))
-                               .filter(Optional::isPresent)
-                               .map(Optional::get)
-                               .collect(toList());
+        final Map<HiEventDetector<?>, Set<EventTreeNode>> detectors = new LinkedHashMap<>();
+        unconditionalDetectors.forEach(detector -> detectors.put(detector, emptySet()));
+        detectors.putAll(detectorTrie.findMatchingNodesByValue(root));
+
+        if (detectors.size() == 1) {
+            final Map.Entry<HiEventDetector<?>, Set<EventTreeNode>> entry = detectors.entrySet().iterator().next();
+            try {
+                final Optional<? extends HiEvent<?>> detected = detect(entry.getKey(), root, entry.getValue());
+                return detected.isPresent() ? Collections.singletonList(detected.get()) : Collections.emptyList();
+            } catch (RuntimeException e) {
+                LOG.error("Error running event detector {}", entry.getKey().getClass().getName(), e);
+                return Collections.emptyList();
+            }
+        }
+
+        final List<HiEventDetector<?>> submitted = new ArrayList<>(detectors.size());
+        final List<Future<Optional<? extends HiEvent<?>>>> futures = new ArrayList<>(detectors.size());
+        detectors.forEach((detector, matchedNodes) -> {
+            submitted.add(detector);
+            futures.add(executor.submit((Callable<Optional<? extends HiEvent<?>>>)() -> detect(detector, root, matchedNodes)));
+        });
+
+        final List<HiEvent> events = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                final Optional<? extends HiEvent<?>> detected = futures.get(i).get();
+                if (detected.isPresent()) {
+                    events.add(detected.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                LOG.error("Error running event detector {}", submitted.get(i).getClass().getName(), e.getCause());
+            }
+        }
+
+        return events;
+    }
+
+    /**
+     * Returns latencies of detectors since this manager is started.
+     * Key - class name of detector, value - latency.
+     */
+    Map<String, DetectorLatency> getLatencies() {
+        final Map<String, DetectorLatency> result = new LinkedHashMap<>();
+        latencies.forEach((detector, latency) -> result.put(detector.getClass().getName(), latency));
+        return result;
     }
 
+    private Optional<? extends HiEvent<?>> detect(HiEventDetector<?> detector, EventTreeNode root, Set<EventTreeNode> matchedNodes) {
+        final long start = System.nanoTime();
+        try {
+            return detector.detect(root, matchedNodes);
+        } finally {
+            latencies.get(detector).add(System.nanoTime() - start);
+        }
+    }
+
+    /** Number of invocations and time spent by a single detector. */
+    static class DetectorLatency {
+        private final LongAdder  invocations;
+        private final LongAdder  totalNanos;
+        private final AtomicLong maxNanos;
+
+        DetectorLatency() {
+            this.invocations = new LongAdder();
+            this.totalNanos = new LongAdder();
+            this.maxNanos = new AtomicLong();
+        }
+
+        void add(long nanos) {
+            invocations.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        long getInvocations() {
+            return invocations.sum();
+        }
+
+        long getAverageMillis() {
+            final long count = invocations.sum();
+            return count == 0 ? 0 : NANOSECONDS.toMillis(totalNanos.sum() / count);
+        }
+
+        long getMaxMillis() {
+            return NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "DetectorLatency{" +
+                   "invocations=" + getInvocations() +
+                   ", averageMillis=" + getAverageMillis() +
+                   ", maxMillis=" + getMaxMillis() +
+                   '}';
+        }
+    }
 }
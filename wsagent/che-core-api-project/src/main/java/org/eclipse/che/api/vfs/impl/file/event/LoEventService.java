@@ -17,10 +17,12 @@ import org.slf4j.Logger;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.addEventAndCreatePrecedingNodes;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.collapseSubtrees;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeNode.newRootInstance;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -29,6 +31,20 @@ import static org.slf4j.LoggerFactory.getLogger;
  * them into event tree according to their locations in a file system. The event
  * tree is passed further to a event detectors and broadcasters managed by upper
  * {@link HiEventService}.
+ * <p>
+ *     Event segments are adaptive: if a segment gets too many events (e.g. git
+ *     checkout or installation of dependencies) the following segments are
+ *     stretched, so mass changes produce less event trees. When load goes down
+ *     segments shrink back. Repeated events of the same item are merged and too
+ *     big subtrees are collapsed before event tree is passed further.
+ * </p>
+ * <p>
+ *     Event tree is consumed by event detectors only. Nodes that match path patterns
+ *     of detectors (see {@link HiEventDetector#getPathPatterns()}) and their parents
+ *     are never collapsed, so detectors with patterns don't need to care about
+ *     collapsed nodes. Detectors without patterns get trees where any node may be
+ *     collapsed, see {@link EventTreeNode#isSubtreeChanged()}.
+ * </p>
  *
  * @author Dmitry Kuleshov
  *
@@ -51,6 +67,25 @@ public class LoEventService extends VfsEventService {
      */
     static final         long   MAX_TIME_SEGMENT_SIZE_MILLIS = 5 * MAX_EVENT_INTERVAL_MILLIS;
 
+    /**
+     * Number of events within a single event segment starting from which
+     * load is considered as a burst and the next segment is stretched.
+     */
+    static final         int    BURST_EVENTS_THRESHOLD       = 1000;
+
+    /**
+     * Maximal factor of stretching of event segment. Event interval is
+     * stretched as well but not more than {@link #MAX_INTERVAL_STRETCH_FACTOR}.
+     */
+    static final         int    MAX_SEGMENT_STRETCH_FACTOR   = 8;
+    static final         int    MAX_INTERVAL_STRETCH_FACTOR  = 4;
+
+    /**
+     * Maximal number of nodes in a subtree of event tree, bigger subtrees
+     * are collapsed into single node with "subtree changed" mark.
+     */
+    static final         int    SUBTREE_COLLAPSE_THRESHOLD   = 1000;
+
     /**
      * This constant is used to set undefined timestamp in case if a new event
      * segment is not started but the event interval is big enough to finish
@@ -61,8 +96,12 @@ public class LoEventService extends VfsEventService {
     private final LoEventQueueHolder   loEventQueueHolder;
     private final EventTreeQueueHolder eventTreeQueueHolder;
 
+    private PathPatternTrie<HiEventDetector<?>> detectorPatterns = new PathPatternTrie<>();
+
     private EventTreeNode vfsEventTreeRoot;
     private long          eventSegmentStartTime;
+    private int           eventSegmentEventCount;
+    private int           stretchFactor;
 
     @Inject
     public LoEventService(LoEventQueueHolder loEventQueueHolder,
@@ -72,38 +111,74 @@ public class LoEventService extends VfsEventService {
 
         this.vfsEventTreeRoot = newRootInstance();
         this.eventSegmentStartTime = UNDEFINED;
+        this.stretchFactor = 1;
+    }
 
+    /** Sets detectors which nodes must not be collapsed, see {@link HiEventDetector#getPathPatterns()}. */
+    @com.google.inject.Inject(optional = true)
+    void setHiEventDetectors(Set<HiEventDetector<?>> hiEventDetectors) {
+        final PathPatternTrie<HiEventDetector<?>> patterns = new PathPatternTrie<>();
+        for (HiEventDetector<?> detector : hiEventDetectors) {
+            detector.getPathPatterns().forEach(pattern -> patterns.add(pattern, detector));
+        }
+        this.detectorPatterns = patterns;
     }
 
     @Override
     protected void run() {
-        Optional<LoEvent> optional = loEventQueueHolder.poll(MAX_EVENT_INTERVAL_MILLIS);
+        Optional<LoEvent> optional = loEventQueueHolder.poll(getEventInterval());
 
         if (optional.isPresent()) {
             final LoEvent loEvent = optional.get();
             final long eventTime = loEvent.getTime();
 
-            if (eventSegmentStartTime == UNDEFINED || eventTime - eventSegmentStartTime >= MAX_TIME_SEGMENT_SIZE_MILLIS) {
+            if (eventSegmentStartTime == UNDEFINED) {
+                eventSegmentStartTime = eventTime;
+            } else if (eventTime - eventSegmentStartTime >= getTimeSegmentSize()) {
                 LOG.trace("Starting new event segment.");
                 LOG.trace("Old event segment start time: {} ", eventSegmentStartTime);
                 LOG.trace("New event segment start time: {} ", eventTime);
 
+                // segment is finished because of continuous events, stretch
+                // next one if segment was overloaded, otherwise shrink it
+                if (eventSegmentEventCount >= BURST_EVENTS_THRESHOLD) {
+                    stretchFactor = Math.min(stretchFactor * 2, MAX_SEGMENT_STRETCH_FACTOR);
+                } else {
+                    stretchFactor = Math.max(stretchFactor / 2, 1);
+                }
                 flushOldTreeAndStartNew();
                 eventSegmentStartTime = eventTime;
             }
 
             addEventAndCreatePrecedingNodes(vfsEventTreeRoot, loEvent);
+            eventSegmentEventCount++;
         } else {
+            // quiet period, shrink segments
+            stretchFactor = Math.max(stretchFactor / 2, 1);
             flushOldTreeAndStartNew();
             eventSegmentStartTime = UNDEFINED;
         }
     }
 
+    long getEventInterval() {
+        return MAX_EVENT_INTERVAL_MILLIS * Math.min(stretchFactor, MAX_INTERVAL_STRETCH_FACTOR);
+    }
+
+    long getTimeSegmentSize() {
+        return MAX_TIME_SEGMENT_SIZE_MILLIS * stretchFactor;
+    }
+
     private void flushOldTreeAndStartNew() {
+        eventSegmentEventCount = 0;
         if (vfsEventTreeRoot.getChildren().isEmpty()) {
             return;
         }
 
+        final int size = collapseSubtrees(vfsEventTreeRoot,
+                                          SUBTREE_COLLAPSE_THRESHOLD,
+                                          detectorPatterns.findMatchingNodes(vfsEventTreeRoot));
+        LOG.trace("Event tree contains {} nodes after collapsing of subtrees.", size);
+
         eventTreeQueueHolder.put(vfsEventTreeRoot);
         LOG.trace("Flushing old event tree {}.", vfsEventTreeRoot);
 
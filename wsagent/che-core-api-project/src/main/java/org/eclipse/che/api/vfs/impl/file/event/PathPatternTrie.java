@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import com.google.common.annotations.Beta;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.newSetFromMap;
+
+/**
+ * Trie of path patterns that matches all patterns at once in a single pass
+ * over an event tree.
+ * <p>
+ *     Pattern consists of segments separated with '/'. Segment {@code *}
+ *     matches any single path segment, segment {@code **} matches any number
+ *     of segments including none, any other segment matches only segment with
+ *     the same name. Pattern is matched against path of event tree node
+ *     relatively to the tree root, e.g. <code>*&#47;.git/HEAD</code> matches
+ *     {@code HEAD} file in {@code .git} folder of any project and
+ *     <code>**&#47;pom.xml</code> matches {@code pom.xml} at any level.
+ * </p>
+ * <p>
+ *     Only nodes with occurred modifications are matched, implicitly
+ *     created nodes are used only to get to their descendants.
+ * </p>
+ *
+ * @param <T>
+ *         type of values bound to patterns
+ *
+ * @since 4.6
+ */
+@Beta
+class PathPatternTrie<T> {
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_PATH    = "**";
+
+    private final TrieNode<T> root;
+    private final Set<T>      values;
+
+    PathPatternTrie() {
+        this.root = new TrieNode<>();
+        this.values = new LinkedHashSet<>();
+    }
+
+    /** Adds pattern and value that is returned by {@link #match(EventTreeNode)} if pattern matches any node. */
+    void add(String pattern, T value) {
+        TrieNode<T> current = root;
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (ANY_PATH.equals(segment)) {
+                if (current.anyPath == null) {
+                    current.anyPath = new TrieNode<>();
+                    current.anyPath.loop = true;
+                }
+                current = current.anyPath;
+            } else if (ANY_SEGMENT.equals(segment)) {
+                if (current.anySegment == null) {
+                    current.anySegment = new TrieNode<>();
+                }
+                current = current.anySegment;
+            } else {
+                current = current.children.computeIfAbsent(segment, name -> new TrieNode<>());
+            }
+        }
+        current.values.add(value);
+        values.add(value);
+    }
+
+    /** Returns values of all patterns that match at least one node of the tree. */
+    Set<T> match(EventTreeNode treeRoot) {
+        final Set<T> matched = new LinkedHashSet<>();
+        final Set<TrieNode<T>> states = new LinkedHashSet<>();
+        addWithClosure(states, root);
+        match(treeRoot, states, matched);
+        return matched;
+    }
+
+    /** Returns all nodes of the tree that match at least one pattern. */
+    Set<EventTreeNode> findMatchingNodes(EventTreeNode treeRoot) {
+        final Set<EventTreeNode> nodes = newSetFromMap(new IdentityHashMap<>());
+        findMatchingNodesByValue(treeRoot).values().forEach(nodes::addAll);
+        return nodes;
+    }
+
+    /**
+     * Returns nodes of the tree matched by patterns of each value,
+     * values that have no matching nodes are not included.
+     */
+    Map<T, Set<EventTreeNode>> findMatchingNodesByValue(EventTreeNode treeRoot) {
+        final Map<T, Set<EventTreeNode>> nodes = new LinkedHashMap<>();
+        final Set<TrieNode<T>> states = new LinkedHashSet<>();
+        addWithClosure(states, root);
+        findMatchingNodes(treeRoot, states, nodes);
+        return nodes;
+    }
+
+    private void findMatchingNodes(EventTreeNode node, Set<TrieNode<T>> states, Map<T, Set<EventTreeNode>> nodes) {
+        if (node.modificationOccurred()) {
+            for (TrieNode<T> state : states) {
+                for (T value : state.values) {
+                    nodes.computeIfAbsent(value, v -> newSetFromMap(new IdentityHashMap<>())).add(node);
+                }
+            }
+        }
+
+        for (EventTreeNode child : node.getChildren()) {
+            final Set<TrieNode<T>> childStates = nextStates(states, child);
+            if (!childStates.isEmpty()) {
+                findMatchingNodes(child, childStates, nodes);
+            }
+        }
+    }
+
+    private void match(EventTreeNode node, Set<TrieNode<T>> states, Set<T> matched) {
+        if (node.modificationOccurred()) {
+            for (TrieNode<T> state : states) {
+                matched.addAll(state.values);
+            }
+        }
+
+        for (EventTreeNode child : node.getChildren()) {
+            if (matched.size() == values.size()) {
+                return;
+            }
+            final Set<TrieNode<T>> childStates = nextStates(states, child);
+            if (!childStates.isEmpty()) {
+                match(child, childStates, matched);
+            }
+        }
+    }
+
+    /** Returns states that are reached from given states by consuming name of child node. */
+    private Set<TrieNode<T>> nextStates(Set<TrieNode<T>> states, EventTreeNode child) {
+        final Set<TrieNode<T>> childStates = new LinkedHashSet<>();
+        for (TrieNode<T> state : states) {
+            final TrieNode<T> next = state.children.get(child.getName());
+            if (next != null) {
+                addWithClosure(childStates, next);
+            }
+            if (state.anySegment != null) {
+                addWithClosure(childStates, state.anySegment);
+            }
+            if (state.loop) {
+                addWithClosure(childStates, state);
+            }
+        }
+        return childStates;
+    }
+
+    /** Adds state and all states reachable from it without consuming of path segment. */
+    private void addWithClosure(Set<TrieNode<T>> states, TrieNode<T> state) {
+        if (states.add(state) && state.anyPath != null) {
+            addWithClosure(states, state.anyPath);
+        }
+    }
+
+    private static class TrieNode<T> {
+        final Map<String, TrieNode<T>> children = new HashMap<>();
+        final Set<T>                   values   = new LinkedHashSet<>();
+        TrieNode<T> anySegment;
+        TrieNode<T> anyPath;
+        /** Node is reached through {@code **} and may consume any number of segments. */
+        boolean     loop;
+    }
+}
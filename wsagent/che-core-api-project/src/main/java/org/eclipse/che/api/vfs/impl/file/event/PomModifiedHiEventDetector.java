@@ -16,7 +16,10 @@ import com.google.inject.Inject;
 import org.eclipse.che.api.project.shared.dto.event.PomModifiedEventDto;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static java.util.Collections.singleton;
 import static java.util.Optional.empty;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.api.vfs.impl.file.event.HiEvent.Category.PROJECT_INFRASTRUCTURE;
@@ -49,20 +52,33 @@ public class PomModifiedHiEventDetector implements HiEventDetector<PomModifiedEv
         this.broadcaster = broadcaster;
     }
 
+    @Override
+    public Set<String> getPathPatterns() {
+        return singleton("**/" + POM_XML);
+    }
+
     @Override
     public Optional<HiEvent<PomModifiedEventDto>> detect(EventTreeNode eventTreeNode) {
+        return detectHighestPom(eventTreeNode, eventTreeNode.stream());
+    }
+
+    @Override
+    public Optional<HiEvent<PomModifiedEventDto>> detect(EventTreeNode eventTreeNode, Set<EventTreeNode> matchedNodes) {
+        return detectHighestPom(eventTreeNode, matchedNodes.stream());
+    }
+
+    private Optional<HiEvent<PomModifiedEventDto>> detectHighestPom(EventTreeNode eventTreeNode, Stream<EventTreeNode> nodes) {
         if (!eventTreeNode.isRoot() || eventTreeNode.getChildren().isEmpty()) {
             return empty();
         }
 
-        final Optional<EventTreeNode> highestPom = eventTreeNode.stream()
-                                                          .filter(EventTreeNode::modificationOccurred)
-                                                          .filter(EventTreeNode::isFile)
-                                                          .filter(event -> POM_XML.equals(event.getName()))
-                                                          .filter(event -> MODIFIED.equals(event.getLastEventType()))
-                                                          // note the revers order of o1 and o2
-                                                          .sorted((o1, o2) -> o2.getPath().compareTo(o1.getPath()))
-                                                          .findFirst();
+        final Optional<EventTreeNode> highestPom = nodes.filter(EventTreeNode::modificationOccurred)
+                                                        .filter(EventTreeNode::isFile)
+                                                        .filter(event -> POM_XML.equals(event.getName()))
+                                                        .filter(event -> MODIFIED.equals(event.getLastEventType()))
+                                                        // note the revers order of o1 and o2
+                                                        .sorted((o1, o2) -> o2.getPath().compareTo(o1.getPath()))
+                                                        .findFirst();
 
         if (!highestPom.isPresent()) {
             return empty();
@@ -34,6 +34,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -588,6 +589,17 @@ public class MemoryVirtualFile implements VirtualFile {
         }
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        checkExistence();
+
+        if (isFolder()) {
+            compress(fileSystem.getArchiverFactory().createArchiver(this, "zip"), output);
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", getPath()));
+        }
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ServerException, ConflictException {
@@ -612,6 +624,17 @@ public class MemoryVirtualFile implements VirtualFile {
         }
     }
 
+    @Override
+    public void tar(OutputStream output) throws ForbiddenException, ServerException {
+        checkExistence();
+
+        if (isFolder()) {
+            compress(fileSystem.getArchiverFactory().createArchiver(this, "tar"), output);
+        } else {
+            throw new ForbiddenException(String.format("Unable export to tar archive. Item '%s' is not a folder", getPath()));
+        }
+    }
+
     @Override
     public void untar(InputStream tarArchive, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
@@ -626,10 +649,14 @@ public class MemoryVirtualFile implements VirtualFile {
     }
 
     private InputStream compress(Archiver archiver) throws ForbiddenException, ServerException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        compress(archiver, byteOut);
+        return new ByteArrayInputStream(byteOut.toByteArray());
+    }
+
+    private void compress(Archiver archiver, OutputStream output) throws ServerException {
         try {
-            ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-            archiver.compress(byteOut);
-            return new ByteArrayInputStream(byteOut.toByteArray());
+            archiver.compress(output);
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         }
@@ -13,37 +13,58 @@ package org.eclipse.che.api.vfs.search.impl;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.PreDestroy;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public abstract class AbstractLuceneSearcherProvider implements SearcherProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractLuceneSearcherProvider.class);
+
     protected final VirtualFileFilter fileIndexFilter;
+    protected final ExcludeRegistry   excludeRegistry;
     protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
-    private final ExecutorService executor;
+    private final ScheduledExecutorService executor;
+
+    private volatile ScheduledFuture<?> commitTask;
 
     /**
      * @param fileIndexFilters
      *         set filter for files that should not be indexed
      */
     protected AbstractLuceneSearcherProvider(Set<VirtualFileFilter> fileIndexFilters) {
+        this(fileIndexFilters, new ExcludeRegistry());
+    }
+
+    /**
+     * @param fileIndexFilters
+     *         set filter for files that should not be indexed
+     * @param excludeRegistry
+     *         rules of items that are neither indexed nor found
+     */
+    protected AbstractLuceneSearcherProvider(Set<VirtualFileFilter> fileIndexFilters, ExcludeRegistry excludeRegistry) {
         this.fileIndexFilter = mergeFileIndexFilters(fileIndexFilters);
-        executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-                                                             .setDaemon(true)
-                                                             .setNameFormat("LuceneSearcherInitThread")
-                                                             .build());
+        this.excludeRegistry = excludeRegistry;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                                      .setDaemon(true)
+                                                                      .setNameFormat("LuceneSearcherInitThread")
+                                                                      .build());
     }
 
     private VirtualFileFilter mergeFileIndexFilters(Set<VirtualFileFilter> fileIndexFilters) {
@@ -62,15 +83,47 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
     public Searcher getSearcher(VirtualFileSystem virtualFileSystem, boolean create) throws ServerException {
         Searcher cachedSearcher = searcherReference.get();
         if (cachedSearcher == null && create) {
-            LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+            LuceneSearcher searcher = createLuceneSearcher(this::onSearcherClosed);
+            searcher.setExcludeRegistry(excludeRegistry);
+            final long commitPeriod = getCommitPeriod();
+            searcher.setCommitOnEachChange(commitPeriod == 0);
             if (searcherReference.compareAndSet(null, searcher)) {
                 searcher.initAsynchronously(executor, virtualFileSystem);
+                if (commitPeriod > 0 && !executor.isShutdown()) {
+                    commitTask = executor.scheduleWithFixedDelay(() -> commit(searcher), commitPeriod, commitPeriod, MILLISECONDS);
+                }
             }
             cachedSearcher = searcherReference.get();
         }
         return cachedSearcher;
     }
 
+    /**
+     * Gets period in milliseconds of committing changes of index. Zero means that changes are committed right after they are made
+     * and negative value means that changes are committed only after initialization of index and when searcher is closed. Changes
+     * that are not committed are lost if workspace agent is stopped abnormally, index of persistent searcher catches up with them
+     * on next start.
+     */
+    protected long getCommitPeriod() {
+        return -1;
+    }
+
+    private void commit(LuceneSearcher searcher) {
+        try {
+            searcher.commit();
+        } catch (ServerException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private void onSearcherClosed() {
+        final ScheduledFuture<?> commitTask = this.commitTask;
+        if (commitTask != null) {
+            commitTask.cancel(false);
+        }
+        searcherReference.set(null);
+    }
+
     @PreDestroy
     void stop() {
         executor.shutdownNow();
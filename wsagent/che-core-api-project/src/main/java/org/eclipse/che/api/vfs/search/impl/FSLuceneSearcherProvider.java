@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 
 import javax.inject.Inject;
@@ -28,6 +29,10 @@ import static com.google.common.collect.Sets.newHashSet;
 public class FSLuceneSearcherProvider extends AbstractLuceneSearcherProvider {
     private final File indexRootDirectory;
 
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.fs_index_commit_period_ms")
+    private long commitPeriod = 10_000;
+
     /**
      * @param indexRootDirectory
      *         root directory for creation index
@@ -35,14 +40,33 @@ public class FSLuceneSearcherProvider extends AbstractLuceneSearcherProvider {
      *         set filter for files that should not be indexed
      * @see LuceneSearcher
      */
+    public FSLuceneSearcherProvider(File indexRootDirectory, Set<PathMatcher> excludePatterns) throws IOException {
+        this(indexRootDirectory, excludePatterns, new ExcludeRegistry());
+    }
+
+    /**
+     * @param indexRootDirectory
+     *         root directory for creation index
+     * @param excludePatterns
+     *         set filter for files that should not be indexed
+     * @param excludeRegistry
+     *         rules of items that are neither indexed nor found
+     * @see LuceneSearcher
+     */
     @Inject
     public FSLuceneSearcherProvider(@Named("vfs.local.fs_index_root_dir") File indexRootDirectory,
-                                    @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns) throws IOException {
-        super(newHashSet(transform(excludePatterns, VirtualFileFilters::wrap)));
+                                    @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
+                                    ExcludeRegistry excludeRegistry) throws IOException {
+        super(newHashSet(transform(excludePatterns, VirtualFileFilters::wrap)), excludeRegistry);
         this.indexRootDirectory = indexRootDirectory;
         Files.createDirectories(indexRootDirectory.toPath());
     }
 
+    @Override
+    protected long getCommitPeriod() {
+        return commitPeriod;
+    }
+
     @Override
     protected LuceneSearcher createLuceneSearcher(CloseCallback closeCallback) {
         return new FSLuceneSearcher(indexRootDirectory, fileIndexFilter, closeCallback);
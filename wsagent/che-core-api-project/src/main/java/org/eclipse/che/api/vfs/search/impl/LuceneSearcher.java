@@ -17,10 +17,16 @@ import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFormatTooNewException;
+import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -34,10 +40,14 @@ import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.ExcludeRegistry;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
@@ -54,12 +64,21 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.apache.lucene.index.IndexWriterConfig.OpenMode.CREATE;
+import static org.apache.lucene.index.IndexWriterConfig.OpenMode.CREATE_OR_APPEND;
 
 /**
  * Lucene based searcher.
@@ -69,16 +88,23 @@ import static com.google.common.collect.Lists.newArrayList;
 public abstract class LuceneSearcher implements Searcher {
     private static final Logger LOG = LoggerFactory.getLogger(LuceneSearcher.class);
 
-    private static final int RESULT_LIMIT = 1000;
+    private static final int         RESULT_LIMIT = 1000;
+    /** Stored fields that are needed to check whether indexed documents are up to date. */
+    private static final Set<String> STAMP_FIELDS = newHashSet("path", "stamp");
 
     private final List<VirtualFileFilter>                      indexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+    private final AtomicBoolean                                reconcileRequested = new AtomicBoolean();
 
     private IndexWriter     luceneIndexWriter;
     private SearcherManager searcherManager;
+    private ExcludeRegistry excludeRegistry = new ExcludeRegistry();
+    private Runnable        excludeRulesListener;
 
     private boolean closed = true;
 
+    private volatile boolean commitOnEachChange;
+
     protected LuceneSearcher() {
         this(new MediaTypeFilter(), null);
     }
@@ -108,6 +134,24 @@ public abstract class LuceneSearcher implements Searcher {
         return indexFilters.remove(indexFilter);
     }
 
+    /**
+     * Sets rules of items that are neither indexed nor returned in search results. Should be set before searcher is
+     * initialized. Index is reconciled each time when rules are changed, see {@link #reconcile(VirtualFile)}, so documents of
+     * excluded files are deleted from index and files that are not excluded anymore are indexed.
+     */
+    public void setExcludeRegistry(ExcludeRegistry excludeRegistry) {
+        this.excludeRegistry = excludeRegistry;
+    }
+
+    /**
+     * Sets whether changes of index are committed right after each call of {@link #add}, {@link #update} and {@link #delete}.
+     * Otherwise changes are committed after initialization of index, on each call of {@link #commit()} and when searcher is
+     * closed.
+     */
+    public void setCommitOnEachChange(boolean commitOnEachChange) {
+        this.commitOnEachChange = commitOnEachChange;
+    }
+
     protected Analyzer makeAnalyzer() {
         return new Analyzer() {
             @Override
@@ -122,7 +166,8 @@ public abstract class LuceneSearcher implements Searcher {
     protected abstract Directory makeDirectory() throws ServerException;
 
     /**
-     * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Init lucene index. Scan all files in virtual filesystem and add to index files that are not indexed yet or were changed
+     * since they were indexed, files that do not exist anymore are removed from index. See {@link #reconcile(VirtualFile)}.
      *
      * @param virtualFileSystem
      *         VirtualFileSystem
@@ -131,15 +176,17 @@ public abstract class LuceneSearcher implements Searcher {
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        reconcile(virtualFileSystem.getRoot());
+        reconcileOnExcludeRulesChange(Runnable::run, virtualFileSystem);
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
         doInit();
+        reconcileOnExcludeRulesChange(executor, virtualFileSystem);
         if (!executor.isShutdown()) {
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.reconcile(virtualFileSystem.getRoot());
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -147,9 +194,43 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Search results are not filtered with exclude rules, otherwise number of hits and paging of results would be wrong, so
+     * index is brought in line with rules each time when they are changed. Changes that are made while reconciliation is waiting
+     * to be started are handled by that reconciliation.
+     */
+    private synchronized void reconcileOnExcludeRulesChange(Executor executor, VirtualFileSystem virtualFileSystem) {
+        excludeRulesListener = () -> {
+            if (reconcileRequested.compareAndSet(false, true)) {
+                try {
+                    executor.execute(() -> {
+                        reconcileRequested.set(false);
+                        if (isClosed()) {
+                            return;
+                        }
+                        try {
+                            reconcile(virtualFileSystem.getRoot());
+                        } catch (ServerException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    reconcileRequested.set(false);
+                }
+            }
+        };
+        excludeRegistry.addChangeListener(excludeRulesListener);
+    }
+
     protected final synchronized void doInit() throws ServerException {
         try {
-            luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
+            final Directory directory = makeDirectory();
+            try {
+                luceneIndexWriter = new IndexWriter(directory, new IndexWriterConfig(makeAnalyzer()).setOpenMode(CREATE_OR_APPEND));
+            } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
+                LOG.warn("Unable open existed index, it is going to be rebuilt. Error: {}", e.getMessage());
+                luceneIndexWriter = new IndexWriter(directory, new IndexWriterConfig(makeAnalyzer()).setOpenMode(CREATE));
+            }
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
             closed = false;
         } catch (IOException e) {
@@ -157,8 +238,32 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Commits pending changes of index. Index that is kept between restarts of searcher, e.g. {@link FSLuceneSearcher}, contains
+     * after restart only committed changes, all others are restored with {@link #reconcile(VirtualFile)}.
+     */
+    public void commit() throws ServerException {
+        if (isClosed()) {
+            return;
+        }
+        try {
+            getIndexWriter().commit();
+        } catch (AlreadyClosedException ignored) {
+            // searcher is closed concurrently, pending changes are committed on close
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
     public final synchronized void close() {
         if (!closed) {
+            if (excludeRulesListener != null) {
+                excludeRegistry.removeChangeListener(excludeRulesListener);
+                excludeRulesListener = null;
+            }
             try {
                 IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
                 afterClose();
@@ -290,9 +395,15 @@ public abstract class LuceneSearcher implements Searcher {
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
         doAdd(virtualFile);
+        if (commitOnEachChange) {
+            commit();
+        }
     }
 
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
+        if (excludeRegistry.isExcluded(virtualFile.getPath(), virtualFile.isFolder())) {
+            return;
+        }
         if (virtualFile.isFolder()) {
             addTree(virtualFile);
         } else {
@@ -309,6 +420,9 @@ public abstract class LuceneSearcher implements Searcher {
             final VirtualFile folder = q.pop();
             if (folder.exists()) {
                 for (VirtualFile child : folder.getChildren()) {
+                    if (excludeRegistry.isExcluded(child.getPath(), child.isFolder())) {
+                        continue;
+                    }
                     if (child.isFolder()) {
                         q.push(child);
                     } else {
@@ -322,6 +436,96 @@ public abstract class LuceneSearcher implements Searcher {
         LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
     }
 
+    /**
+     * Brings index in line with files of virtual file system. Stamp of each file, i.e. its length and modification time, is
+     * compared with stamp of indexed document, only files that are not indexed yet or whose stamps differ are (re)indexed.
+     * Documents of files that were removed or became excluded are deleted from index. Index is rebuilt from scratch if it is found
+     * to be corrupted. Changes are committed when reconciliation is done.
+     */
+    protected void reconcile(VirtualFile root) throws ServerException {
+        final long start = System.currentTimeMillis();
+        Map<String, String> indexedStamps;
+        try {
+            indexedStamps = readIndexedStamps();
+        } catch (CorruptIndexException e) {
+            LOG.warn("Index is corrupted, it is going to be rebuilt. Error: {}", e.getMessage());
+            indexedStamps = new HashMap<>();
+            try {
+                getIndexWriter().deleteAll();
+            } catch (IOException deleteError) {
+                throw new ServerException(deleteError.getMessage(), deleteError);
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(root);
+        int checkedFiles = 0;
+        int indexedFiles = 0;
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                for (VirtualFile child : folder.getChildren()) {
+                    if (excludeRegistry.isExcluded(child.getPath(), child.isFolder())) {
+                        continue;
+                    }
+                    if (child.isFolder()) {
+                        q.push(child);
+                    } else {
+                        checkedFiles++;
+                        final String indexedStamp = indexedStamps.remove(child.getPath().toString());
+                        if (indexedStamp == null || !indexedStamp.equals(stampOf(child))) {
+                            addFile(child);
+                            indexedFiles++;
+                        }
+                    }
+                }
+            }
+        }
+        int deletedFiles = 0;
+        try {
+            for (String path : indexedStamps.keySet()) {
+                // file might be created after its folder was visited
+                if (root.getChild(Path.of(path)) == null || excludeRegistry.isExcluded(path, false)) {
+                    getIndexWriter().deleteDocuments(new Term("path", path));
+                    deletedFiles++;
+                }
+            }
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        commit();
+        final long end = System.currentTimeMillis();
+        LOG.debug("Checked {} files from {}, indexed {} files, deleted {} files from index, time: {} ms",
+                  checkedFiles, root.getPath(), indexedFiles, deletedFiles, (end - start));
+    }
+
+    /** Reads paths and stamps of all indexed documents. */
+    private Map<String, String> readIndexedStamps() throws IOException {
+        final Map<String, String> stamps = new HashMap<>();
+        final IndexSearcher luceneSearcher = searcherManager.acquire();
+        try {
+            final IndexReader reader = luceneSearcher.getIndexReader();
+            final Bits liveDocs = MultiFields.getLiveDocs(reader);
+            for (int i = 0; i < reader.maxDoc(); i++) {
+                if (liveDocs == null || liveDocs.get(i)) {
+                    final Document doc = reader.document(i, STAMP_FIELDS);
+                    stamps.put(doc.get("path"), doc.get("stamp"));
+                }
+            }
+        } finally {
+            searcherManager.release(luceneSearcher);
+        }
+        return stamps;
+    }
+
+    private static String stampOf(VirtualFile virtualFile) throws ServerException {
+        return Long.toString(virtualFile.getLength()) + ':' + virtualFile.getLastModificationDate();
+    }
+
     protected void addFile(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.exists()) {
             try (Reader fContentReader = shouldIndexContent(virtualFile)
@@ -356,11 +560,20 @@ public abstract class LuceneSearcher implements Searcher {
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         }
+        if (commitOnEachChange) {
+            commit();
+        }
     }
 
     @Override
     public final void update(VirtualFile virtualFile) throws ServerException {
+        if (excludeRegistry.isExcluded(virtualFile.getPath(), virtualFile.isFolder())) {
+            return;
+        }
         doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
+        if (commitOnEachChange) {
+            commit();
+        }
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
@@ -382,6 +595,7 @@ public abstract class LuceneSearcher implements Searcher {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath().toString(), Field.Store.YES));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
+        doc.add(new StoredField("stamp", stampOf(virtualFile)));
         if (reader != null) {
             doc.add(new TextField("text", reader));
         }
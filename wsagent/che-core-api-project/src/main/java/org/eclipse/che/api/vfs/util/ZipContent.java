@@ -83,17 +83,28 @@ public final class ZipContent {
                 }
             }
 
-            return new ZipContent(inMemory == null ? new DeleteOnCloseFileInputStream(file) : new ByteArrayInputStream(inMemory));
+            return inMemory == null ? new ZipContent(new DeleteOnCloseFileInputStream(file), file)
+                                    : new ZipContent(new ByteArrayInputStream(inMemory), null);
         }
     }
 
-    private final InputStream zipContent;
+    private final InputStream  zipContent;
+    private final java.io.File file;
 
-    private ZipContent(InputStream zipContent) {
+    private ZipContent(InputStream zipContent, java.io.File file) {
         this.zipContent = zipContent;
+        this.file = file;
     }
 
     public InputStream getContent() {
         return zipContent;
     }
+
+    /**
+     * Gets file where zip content is spooled or {@code null} if content is small enough and is kept in memory. File is deleted
+     * after closing of stream returned by {@link #getContent()}.
+     */
+    public java.io.File getFile() {
+        return file;
+    }
 }
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.shared.dto.event.VfsWatchEvent;
+import org.eclipse.che.api.project.shared.dto.event.VfsWatchEventBatch;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.UbjsonReader;
+import org.eclipse.che.everrest.CheWSConnection;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.everrest.websockets.message.OutputMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.websocket.CloseReason;
+import javax.websocket.EndpointConfig;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static javax.websocket.CloseReason.CloseCodes.NORMAL_CLOSURE;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.project.shared.dto.event.VfsWatchEventBatch.VFS_CHANNEL_PREFIX;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.eclipse.che.everrest.CheWSConnection.ENCODING_PARAMETER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that VFS watch events are sent to websocket connections in the encoding negotiated by each connection.
+ */
+public class VfsWatchBroadcasterEncodingTest {
+    private static final String CLIENT_ID = "client1";
+    private static final String CHANNEL   = VFS_CHANNEL_PREFIX + CLIENT_ID;
+
+    private List<RecordingConnection> connections;
+    private VfsWatchBroadcaster       broadcaster;
+
+    @Before
+    public void setUp() throws Exception {
+        connections = new ArrayList<>();
+        broadcaster = new VfsWatchBroadcaster(mock(EventService.class), mock(FileWatcherNotificationHandler.class));
+        broadcaster.subscribe(CLIENT_ID, singletonList("/project"));
+        broadcaster.onEvent(newDto(VfsWatchEvent.class).withPath("/project/pom.xml").withType(MODIFIED).withFile(true));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (RecordingConnection connection : connections) {
+            connection.onClose(connection.session, new CloseReason(NORMAL_CLOSURE, null));
+        }
+    }
+
+    @Test
+    public void sendsCompactJsonToConnectionOpenedWithCompactEncoding() throws Exception {
+        final RecordingConnection connection = openConnection("compact");
+
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(1, connection.messages.size());
+        final ChannelBroadcastMessage message = (ChannelBroadcastMessage)connection.messages.get(0);
+        assertEquals(CHANNEL, message.getChannel());
+        assertTrue(message.getBody().startsWith("["));
+        assertBatch(DtoFactory.getInstance().createDtoFromCompactJson(message.getBody(), VfsWatchEventBatch.class));
+    }
+
+    @Test
+    public void sendsBinaryFrameToConnectionOpenedWithBinaryEncoding() throws Exception {
+        final RecordingConnection connection = openConnection("binary");
+
+        broadcaster.broadcastPendingEvents();
+
+        assertTrue(connection.messages.isEmpty());
+        final ArgumentCaptor<ByteBuffer> frame = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(connection.session.getBasicRemote()).sendBinary(frame.capture());
+        final ByteBuffer buffer = frame.getValue();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        final UbjsonReader reader = new UbjsonReader(new ByteArrayInputStream(bytes));
+        reader.beginObject();
+        assertEquals("channel", reader.nextName());
+        assertEquals(CHANNEL, reader.nextString());
+        assertEquals("body", reader.nextName());
+        assertBatch(DtoFactory.getInstance().createDtoFromCompactJson(reader, VfsWatchEventBatch.class));
+        reader.endObject();
+    }
+
+    @Test
+    public void sendsReadableJsonToConnectionOpenedWithoutEncoding() throws Exception {
+        final RecordingConnection compact = openConnection("compact");
+        final RecordingConnection readable = openConnection(null);
+
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(1, compact.messages.size());
+        assertEquals(1, readable.messages.size());
+        final ChannelBroadcastMessage message = (ChannelBroadcastMessage)readable.messages.get(0);
+        assertEquals(CHANNEL, message.getChannel());
+        assertTrue(message.getBody().startsWith("{"));
+        assertBatch(DtoFactory.getInstance().createDtoFromJson(message.getBody(), VfsWatchEventBatch.class));
+    }
+
+    private RecordingConnection openConnection(String encoding) {
+        final Map<String, List<String>> parameters = encoding == null ? emptyMap()
+                                                                      : singletonMap(ENCODING_PARAMETER, singletonList(encoding));
+        final RemoteEndpoint.Basic remote = mock(RemoteEndpoint.Basic.class);
+        final Session session = mock(Session.class);
+        when(session.getRequestParameterMap()).thenReturn(parameters);
+        when(session.getBasicRemote()).thenReturn(remote);
+        when(session.isOpen()).thenReturn(true);
+        final EndpointConfig config = mock(EndpointConfig.class);
+        when(config.getUserProperties()).thenReturn(new HashMap<>());
+
+        final RecordingConnection connection = new RecordingConnection(session);
+        connection.onOpen(session, config);
+        connection.subscribeToChannel(CHANNEL);
+        connections.add(connection);
+        return connection;
+    }
+
+    private static void assertBatch(VfsWatchEventBatch batch) {
+        assertEquals(1, batch.getEvents().size());
+        final VfsWatchEvent event = batch.getEvents().get(0);
+        assertEquals("/project/pom.xml", event.getPath());
+        assertEquals(MODIFIED, event.getType());
+        assertTrue(event.isFile());
+    }
+
+    /** Connection that keeps text messages instead of sending them, binary messages are sent to the session. */
+    private static class RecordingConnection extends CheWSConnection {
+        final List<OutputMessage> messages = new CopyOnWriteArrayList<>();
+        final Session             session;
+
+        RecordingConnection(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void sendMessage(OutputMessage output) {
+            messages.add(output);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server.notification;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.project.shared.dto.event.VfsWatchEvent;
+import org.eclipse.che.api.project.shared.dto.event.VfsWatchEventBatch;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.project.shared.dto.event.VfsWatchEventBatch.VFS_CHANNEL_PREFIX;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class VfsWatchBroadcasterTest {
+    private Map<String, List<VfsWatchEvent>> broadcasted;
+    private VfsWatchBroadcaster              broadcaster;
+
+    @Before
+    public void setUp() throws Exception {
+        broadcasted = new HashMap<>();
+        broadcaster = new VfsWatchBroadcaster(mock(EventService.class), mock(FileWatcherNotificationHandler.class)) {
+            @Override
+            void broadcast(String channel, VfsWatchEventBatch batch) {
+                broadcasted.computeIfAbsent(channel, c -> newArrayList()).addAll(batch.getEvents());
+            }
+        };
+    }
+
+    @Test
+    public void sendsEventsOfSubscribedPathsAndTheirDirectChildrenOnly() throws Exception {
+        broadcaster.subscribe("client1", singletonList("/project"));
+        broadcaster.subscribe("client2", newArrayList("/project/src/A.java", "/other"));
+
+        broadcaster.onEvent(anEvent("/project/pom.xml", MODIFIED));
+        broadcaster.onEvent(anEvent("/project/src/A.java", MODIFIED));
+        broadcaster.onEvent(anEvent("/other/file.txt", CREATED));
+        broadcaster.onEvent(anEvent("/unrelated/file.txt", CREATED));
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(newArrayList("MODIFIED /project/pom.xml"), eventsOf("client1"));
+        assertEquals(newArrayList("MODIFIED /project/src/A.java", "CREATED /other/file.txt"), eventsOf("client2"));
+    }
+
+    @Test
+    public void sendsSingleEventWhenClientIsSubscribedToItemAndToItsParent() throws Exception {
+        broadcaster.subscribe("client1", newArrayList("/project", "/project/pom.xml"));
+
+        broadcaster.onEvent(anEvent("/project/pom.xml", MODIFIED));
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(newArrayList("MODIFIED /project/pom.xml"), eventsOf("client1"));
+    }
+
+    @Test
+    public void coalescesEventsOfTheSamePathBetweenBroadcasts() throws Exception {
+        broadcaster.subscribe("client1", singletonList("/project"));
+
+        broadcaster.onEvent(anEvent("/project/created.txt", CREATED));
+        broadcaster.onEvent(anEvent("/project/created.txt", MODIFIED));
+        broadcaster.onEvent(anEvent("/project/temp.txt", CREATED));
+        broadcaster.onEvent(anEvent("/project/temp.txt", DELETED));
+        broadcaster.onEvent(anEvent("/project/replaced.txt", DELETED));
+        broadcaster.onEvent(anEvent("/project/replaced.txt", CREATED));
+        broadcaster.onEvent(anEvent("/project/modified.txt", MODIFIED));
+        broadcaster.onEvent(anEvent("/project/modified.txt", MODIFIED));
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(newArrayList("CREATED /project/created.txt", "MODIFIED /project/replaced.txt", "MODIFIED /project/modified.txt"),
+                     eventsOf("client1"));
+    }
+
+    @Test
+    public void doesNotSendEventsAfterClientIsUnsubscribed() throws Exception {
+        broadcaster.subscribe("client1", newArrayList("/project", "/other"));
+        broadcaster.onEvent(anEvent("/project/pom.xml", MODIFIED));
+        broadcaster.unsubscribe("client1", singletonList("/project"));
+        broadcaster.onEvent(anEvent("/project/pom.xml", MODIFIED));
+        broadcaster.onEvent(anEvent("/other/file.txt", MODIFIED));
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(newArrayList("MODIFIED /project/pom.xml", "MODIFIED /other/file.txt"), eventsOf("client1"));
+
+        broadcaster.unsubscribe("client1");
+        broadcaster.onEvent(anEvent("/other/file.txt", MODIFIED));
+        broadcaster.broadcastPendingEvents();
+
+        assertEquals(2, eventsOf("client1").size());
+        assertTrue(broadcaster.getSubscribedPaths("client1").isEmpty());
+    }
+
+    @Test
+    public void expiresSubscriptionsOfClientsThatAreNotConnected() throws Exception {
+        broadcaster.subscribe("client1", singletonList("/project"));
+        broadcaster.subscribe("client2", singletonList("/project"));
+        final long expired = System.currentTimeMillis() + 10 * 60 * 1000;
+
+        broadcaster.expireSubscriptions(newHashSet(VFS_CHANNEL_PREFIX + "client2"), expired);
+        broadcaster.onEvent(anEvent("/project/pom.xml", MODIFIED));
+        broadcaster.broadcastPendingEvents();
+
+        assertTrue(broadcaster.getSubscribedPaths("client1").isEmpty());
+        assertNull(eventsOf("client1"));
+        assertEquals(newHashSet("/project"), broadcaster.getSubscribedPaths("client2"));
+        assertEquals(newArrayList("MODIFIED /project/pom.xml"), eventsOf("client2"));
+
+        broadcaster.expireSubscriptions(emptySet(), expired + 1000);
+
+        assertEquals(newHashSet("/project"), broadcaster.getSubscribedPaths("client2"));
+    }
+
+    private List<String> eventsOf(String clientId) {
+        final List<VfsWatchEvent> events = broadcasted.get(VFS_CHANNEL_PREFIX + clientId);
+        return events == null ? null : events.stream().map(event -> event.getType() + " " + event.getPath()).collect(toList());
+    }
+
+    private static VfsWatchEvent anEvent(String path, FileWatcherEventType type) {
+        return newDto(VfsWatchEvent.class).withPath(path).withType(type).withFile(true);
+    }
+}
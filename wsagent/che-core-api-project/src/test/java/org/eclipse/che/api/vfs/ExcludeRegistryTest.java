@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExcludeRegistryTest {
+    private ExcludeRegistry excludeRegistry;
+
+    @Before
+    public void setUp() {
+        excludeRegistry = new ExcludeRegistry(ImmutableSet.of("!**/.git/HEAD", "**/.git/*"));
+    }
+
+    @Test
+    public void appliesDefaultRulesToAllFolders() {
+        assertTrue(excludeRegistry.isExcluded("/project/.git/objects", true));
+        assertTrue(excludeRegistry.isExcluded("/project/.git/objects/ab/cdef", false));
+        assertFalse(excludeRegistry.isExcluded("/project/.git/HEAD", false));
+        assertFalse(excludeRegistry.isExcluded("/project/.git", true));
+    }
+
+    @Test
+    public void excludesChildrenOfExcludedFolder() {
+        excludeRegistry.setRules("/project", asList("node_modules/", "*.class"));
+
+        assertTrue(excludeRegistry.isExcluded("/project/node_modules", true));
+        assertTrue(excludeRegistry.isExcluded("/project/web/node_modules/lib/index.js", false));
+        assertTrue(excludeRegistry.isExcluded("/project/bin/A.class", false));
+        assertFalse(excludeRegistry.isExcluded("/project/node_modules", false));
+        assertFalse(excludeRegistry.isExcluded("/project/src/A.java", false));
+        assertFalse(excludeRegistry.isExcluded("/other/node_modules", true));
+    }
+
+    @Test
+    public void anchorsPatternsWithSlashToBaseFolder() {
+        excludeRegistry.setRules("/project", asList("/bin/", "doc/*.html"));
+
+        assertTrue(excludeRegistry.isExcluded("/project/bin", true));
+        assertTrue(excludeRegistry.isExcluded("/project/doc/index.html", false));
+        assertFalse(excludeRegistry.isExcluded("/project/module/bin", true));
+        assertFalse(excludeRegistry.isExcluded("/project/doc/api/index.html", false));
+    }
+
+    @Test
+    public void matchesAnyNumberOfFoldersWithDoubleStar() {
+        excludeRegistry.setRules("/project", asList("**/generated/**/*.java"));
+
+        assertTrue(excludeRegistry.isExcluded("/project/generated/A.java", false));
+        assertTrue(excludeRegistry.isExcluded("/project/a/generated/b/c/A.java", false));
+        assertFalse(excludeRegistry.isExcluded("/project/a/generated/b/c/A.txt", false));
+    }
+
+    @Test
+    public void lastMatchingRuleWins() {
+        excludeRegistry.setRules("/project", asList("# comment", "*.log", "!important.log"));
+
+        assertTrue(excludeRegistry.isExcluded("/project/logs/server.log", false));
+        assertFalse(excludeRegistry.isExcluded("/project/logs/important.log", false));
+    }
+
+    @Test
+    public void rulesOfNestedFolderTakePrecedence() {
+        excludeRegistry.setRules("/project", asList("*.txt"));
+        excludeRegistry.setRules("/project/module", asList("!notes.txt"));
+
+        assertTrue(excludeRegistry.isExcluded("/project/module/readme.txt", false));
+        assertFalse(excludeRegistry.isExcluded("/project/module/notes.txt", false));
+        assertTrue(excludeRegistry.isExcluded("/project/notes.txt", false));
+    }
+
+    @Test
+    public void notifiesListenersOnlyWhenRulesAreChanged() {
+        AtomicInteger changes = new AtomicInteger();
+        excludeRegistry.addChangeListener(changes::incrementAndGet);
+
+        excludeRegistry.setRules("/project", asList("target/"));
+        excludeRegistry.setRules("/project", asList("target/"));
+        excludeRegistry.setRules("/project", Collections.emptyList());
+        excludeRegistry.removeRules("/project");
+
+        assertEquals(2, changes.get());
+        assertFalse(excludeRegistry.isExcluded("/project/target", true));
+    }
+}
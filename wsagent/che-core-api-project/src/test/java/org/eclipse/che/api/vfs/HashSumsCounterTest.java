@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 
@@ -19,14 +20,21 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HashSumsCounterTest {
@@ -45,6 +53,50 @@ public class HashSumsCounterTest {
         assertEquals(expected, hashSums);
     }
 
+    @Test
+    public void countsHashSumsInMultipleThreads() throws Exception {
+        List<VirtualFile> files = newArrayList();
+        Set<Pair<String, String>> expected = newHashSet();
+        for (int i = 0; i < 300; i++) {
+            byte[] content = ("file" + i).getBytes();
+            files.add(mockFile("/a/file" + i, content));
+            expected.add(Pair.of(countMd5Sum(content), "file" + i));
+        }
+        VirtualFile folderA = mockFolder("/a", files.toArray(new VirtualFile[files.size()]));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            Set<Pair<String, String>> hashSums = newHashSet(new HashSumsCounter(folderA, Hashing.md5(), executor).countHashSums());
+            assertEquals(expected, hashSums);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void usesCachedHashSumsAndCachesCountedHashSums() throws Exception {
+        VirtualFile cachedFile = mockFile("/a/cached", "file1".getBytes());
+        VirtualFile file = mockFile("/a/file", "file2".getBytes());
+        VirtualFile folderA = mockFolder("/a", cachedFile, file);
+        Map<VirtualFile, String> cached = newHashMap();
+
+        List<Pair<String, String>> hashSums = new HashSumsCounter(folderA, Hashing.md5()) {
+            @Override
+            protected String getCachedHashSum(VirtualFile virtualFile) {
+                return virtualFile == cachedFile ? "cached" : null;
+            }
+
+            @Override
+            protected void cacheHashSums(Map<VirtualFile, String> counted) {
+                cached.putAll(counted);
+            }
+        }.countHashSums();
+
+        assertEquals(newHashSet(Pair.of("cached", "cached"), Pair.of(countMd5Sum("file2".getBytes()), "file")), newHashSet(hashSums));
+        assertEquals(ImmutableMap.of(file, countMd5Sum("file2".getBytes())), cached);
+        verify(cachedFile, never()).getContent();
+    }
+
     private String countMd5Sum(byte[] bytes) throws Exception {
         return ByteSource.wrap(bytes).hash(Hashing.md5()).toString();
     }
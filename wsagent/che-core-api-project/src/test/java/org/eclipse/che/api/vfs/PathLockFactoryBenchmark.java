@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Contention benchmark of {@link PathLockFactory} and its previous implementation {@link MonitorPathLockFactory}. It isn't run
+ * with tests, run it with {@code main} method, optional arguments are number of threads and duration of each round in seconds.
+ * <p/>
+ * Each thread locks files and folders under its own project, 80% of locks are not exclusive, or locks files of the same
+ * project, 95% of locks are not exclusive. Lock is kept for a few microseconds to emulate short file operation.
+ */
+public class PathLockFactoryBenchmark {
+    private static final int  MAX_THREADS = 1024;
+    private static final long TIMEOUT     = 60000;
+
+    private interface LockManager {
+        /** Acquires lock and returns action that releases it. */
+        Runnable lock(Path path, boolean exclusive);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        final long durationMillis = args.length > 1 ? Long.parseLong(args[1]) * 1000 : 5000;
+
+        System.out.printf("threads: %d, duration of round: %d ms%n", threads, durationMillis);
+        for (boolean sameProject : new boolean[]{false, true}) {
+            final MonitorPathLockFactory monitor = new MonitorPathLockFactory(MAX_THREADS);
+            final long monitorOps = run(threads, durationMillis, sameProject, (path, exclusive) -> {
+                final MonitorPathLockFactory.PathLock lock = monitor.getLock(path, exclusive).acquire(TIMEOUT);
+                return lock::release;
+            });
+            final PathLockFactory hierarchical = new PathLockFactory(MAX_THREADS);
+            final long hierarchicalOps = run(threads, durationMillis, sameProject, (path, exclusive) -> {
+                final PathLockFactory.PathLock lock = hierarchical.getLock(path, exclusive).acquire(TIMEOUT);
+                return lock::release;
+            });
+            hierarchical.checkClean();
+
+            System.out.printf("%-16s monitor: %,12d ops/s, hierarchical: %,12d ops/s, x%.2f%n",
+                              sameProject ? "same project" : "own projects",
+                              monitorOps * 1000 / durationMillis,
+                              hierarchicalOps * 1000 / durationMillis,
+                              (double)hierarchicalOps / Math.max(monitorOps, 1));
+        }
+    }
+
+    private static long run(int threads, long durationMillis, boolean sameProject, LockManager lockManager) throws Exception {
+        final LongAdder operations = new LongAdder();
+        final CountDownLatch starter = new CountDownLatch(1);
+        final long endTime = System.nanoTime() + MILLISECONDS.toNanos(durationMillis);
+        final List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final Path project = Path.of(sameProject ? "/project" : "/project" + i);
+            final int exclusivePercent = sameProject ? 5 : 20;
+            final Thread worker = new Thread(() -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    starter.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < endTime) {
+                    final Path folder = project.newPath("src", "folder" + random.nextInt(16));
+                    final boolean isFile = random.nextInt(4) != 0;
+                    final Path path = isFile ? folder.newPath("File" + random.nextInt(64) + ".java") : folder;
+                    final Runnable release = lockManager.lock(path, random.nextInt(100) < exclusivePercent);
+                    try {
+                        work();
+                    } finally {
+                        release.run();
+                    }
+                    operations.increment();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        starter.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum();
+    }
+
+    private static void work() {
+        final long end = System.nanoTime() + MICROSECONDS.toNanos(2);
+        while (System.nanoTime() < end) {
+            // busy wait
+        }
+    }
+}
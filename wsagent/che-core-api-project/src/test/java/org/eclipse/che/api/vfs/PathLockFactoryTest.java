@@ -214,6 +214,71 @@ public class PathLockFactoryTest extends TestCase {
         }
     }
 
+    public void testLocksOfUnrelatedPathsDoNotBlockEachOther() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            PathLockFactory.PathLock sibling = pathLockFactory.getLock(Path.of("/a/b/d"), true).acquire(100);
+            sibling.release();
+            PathLockFactory.PathLock other = pathLockFactory.getLock(Path.of("/x/y"), false).acquire(100);
+            other.release();
+        } finally {
+            finisher.countDown();
+            t.join();
+        }
+        pathLockFactory.checkClean();
+    }
+
+    public void testLockOfDescendantBlocksExclusiveLockOfAncestor() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            // not exclusive locks in the same branch are compatible
+            pathLockFactory.getLock(Path.of("/a"), false).acquire(100).release();
+            pathLockFactory.getLock(Path.of("/a"), true).acquire(100);
+            fail();
+        } catch (RuntimeException e) {
+            // OK
+        } finally {
+            finisher.countDown();
+            t.join();
+        }
+        // Failed attempt to get lock must not leave anything
+        pathLockFactory.checkClean();
+        pathLockFactory.getLock(Path.of("/a"), true).acquire(100).release();
+        pathLockFactory.checkClean();
+    }
+
     public void testLockSameThread() throws Exception {
         final AtomicInteger acquired = new AtomicInteger(0);
         final CountDownLatch waiter = new CountDownLatch(1);
@@ -21,6 +21,8 @@ import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.commons.lang.ParallelDeflater;
+import org.eclipse.che.commons.lang.ParallelExtractor;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -32,8 +34,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -41,6 +45,7 @@ import java.util.zip.ZipOutputStream;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.util.stream.Collectors.toMap;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
@@ -105,6 +110,61 @@ public class ZipArchiverTest {
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void compressesFolderToArchiveInMultipleThreads() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        try (ParallelDeflater deflater = new ParallelDeflater(2, ParallelDeflater.DEFAULT_BLOCK_SIZE)) {
+            new ZipArchiver(folder, true, deflater).compress(compressedFolder);
+        }
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+    }
+
+    @Test
+    public void storesAlreadyCompressedFilesWithoutCompression() throws Exception {
+        VirtualFile folder = vfsRoot.createFolder("arc");
+        byte[] content = new byte[10000];
+        folder.createFile("image.png", content);
+        folder.createFile("text.txt", content);
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+        new ZipArchiver(folder, true).compress(compressedFolder);
+
+        Map<String, Long> compressedSizes = readCompressedSizes(new ByteArrayInputStream(compressedFolder.toByteArray()));
+        assertTrue(compressedSizes.get("image.png") >= content.length);
+        assertTrue(compressedSizes.get("text.txt") < content.length);
+    }
+
+    @Test
+    public void storesAlreadyCompressedFilesWithoutCompressionByDefault() throws Exception {
+        VirtualFile folder = vfsRoot.createFolder("arc");
+        byte[] content = new byte[10000];
+        folder.createFile("image.png", content);
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+        new ZipArchiver(folder).compress(compressedFolder);
+
+        Map<String, Long> compressedSizes = readCompressedSizes(new ByteArrayInputStream(compressedFolder.toByteArray()));
+        assertTrue(compressedSizes.get("image.png") >= content.length);
+    }
+
+    @Test
+    public void compressesAlreadyCompressedFilesWhenStoringIsDisabled() throws Exception {
+        VirtualFile folder = vfsRoot.createFolder("arc");
+        byte[] content = new byte[10000];
+        folder.createFile("image.png", content);
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+        new ZipArchiver(folder, false).compress(compressedFolder);
+
+        Map<String, Long> compressedSizes = readCompressedSizes(new ByteArrayInputStream(compressedFolder.toByteArray()));
+        assertTrue(compressedSizes.get("image.png") < content.length);
+    }
+
     @Test
     public void extractsArchiveToFolder() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -169,6 +229,77 @@ public class ZipArchiverTest {
         }
     }
 
+    @Test
+    public void extractsArchiveToFolderInMultipleThreads() throws Exception {
+        // big enough to be spooled in file and read with random access
+        Map<String, byte[]> files = newHashMap();
+        Random random = new Random();
+        for (int i = 0; i < 50; i++) {
+            byte[] content = new byte[8192];
+            random.nextBytes(content);
+            files.put("arc/" + (char)('a' + i % 5) + "/file" + i, content);
+        }
+        byte[] archive = createZipArchive(files);
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        try (ParallelExtractor extractor = new ParallelExtractor(2)) {
+            new ZipArchiver(folder, true, null, extractor).extract(new ByteArrayInputStream(archive), false, 1);
+        }
+
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            VirtualFile extracted = folder.getChild(Path.of(file.getKey()).subPath(1));
+            assertArrayEquals(file.getValue(), ByteStreams.toByteArray(extracted.getContent()));
+        }
+    }
+
+    @Test
+    public void doesNotExtractAnythingInMultipleThreadsWhenArchiveContainsExistedFileAndOverwritingIsDisabled() throws Exception {
+        Map<String, byte[]> files = newHashMap();
+        Random random = new Random();
+        for (int i = 0; i < 50; i++) {
+            byte[] content = new byte[8192];
+            random.nextBytes(content);
+            files.put("arc/file" + i, content);
+        }
+        byte[] archive = createZipArchive(files);
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        VirtualFile existedFile = folder.createFolder("arc").createFile("file49", "xxx");
+
+        try (ParallelExtractor extractor = new ParallelExtractor(2)) {
+            new ZipArchiver(folder, true, null, extractor).extract(new ByteArrayInputStream(archive), false, 0);
+            thrown.expect(ConflictException.class);
+        } catch (ConflictException expected) {
+            assertEquals("xxx", existedFile.getContentAsString());
+            assertEquals(1, folder.getChild(Path.of("arc")).getChildren().size());
+        }
+    }
+
+    @Test
+    public void extractsTheLastOfEntriesWithTheSameNameInMultipleThreads() throws Exception {
+        byte[] archive = createArchiveWithDuplicatedEntries();
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        try (ParallelExtractor extractor = new ParallelExtractor(4)) {
+            new ZipArchiver(folder, true, null, extractor).extract(new ByteArrayInputStream(archive), true, 0);
+        }
+
+        assertEquals("content 2", folder.getChild(Path.of("arc/file")).getContentAsString());
+        assertEquals(51, folder.getChild(Path.of("arc")).getChildren().size());
+    }
+
+    @Test
+    public void failsExtractArchiveWithEntriesWithTheSameNameInMultipleThreadsWhenOverwritingIsDisabled() throws Exception {
+        byte[] archive = createArchiveWithDuplicatedEntries();
+        VirtualFile folder = vfsRoot.createFolder("folder");
+
+        try (ParallelExtractor extractor = new ParallelExtractor(4)) {
+            new ZipArchiver(folder, true, null, extractor).extract(new ByteArrayInputStream(archive), false, 0);
+            thrown.expect(ConflictException.class);
+        } catch (ConflictException expected) {
+            assertTrue(folder.getChildren().isEmpty());
+        }
+    }
+
     @Test
     public void failsExtractArchiveToFolderWhenItContainsLockedFile() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -199,6 +330,19 @@ public class ZipArchiverTest {
         return entries;
     }
 
+    private Map<String, Long> readCompressedSizes(InputStream archive) throws Exception {
+        Map<String, Long> compressedSizes = newHashMap();
+        try (ZipInputStream zipIn = new ZipInputStream(archive)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zipIn.getNextEntry()) != null) {
+                // size of deflated entry is known when entry is read to the end
+                ByteStreams.toByteArray(zipIn);
+                compressedSizes.put(zipEntry.getName(), zipEntry.getCompressedSize());
+            }
+        }
+        return compressedSizes;
+    }
+
     private String readContentUnchecked(VirtualFile virtualFile) {
         if (virtualFile.isFolder()) {
             return "<none>";
@@ -247,6 +391,33 @@ public class ZipArchiverTest {
         return byteOut.toByteArray();
     }
 
+    /** Zip output stream rejects duplicated entries, but names that are the same after normalization are accepted. */
+    private byte[] createArchiveWithDuplicatedEntries() throws IOException {
+        // big enough to be spooled in file and read with random access
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("arc/file", "content 0".getBytes());
+        Random random = new Random();
+        for (int i = 0; i < 50; i++) {
+            byte[] content = new byte[8192];
+            random.nextBytes(content);
+            files.put("arc/file" + i, content);
+        }
+        files.put("./arc/file", "content 1".getBytes());
+        files.put("arc/./file", "content 2".getBytes());
+        return createZipArchive(files);
+    }
+
+    private byte[] createZipArchive(Map<String, byte[]> files) throws IOException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                zipOut.putNextEntry(new ZipEntry(file.getKey()));
+                zipOut.write(file.getValue());
+            }
+        }
+        return byteOut.toByteArray();
+    }
+
     private List<VirtualFile> getFileTreeAsList(VirtualFile rootOfTree) throws Exception {
         List<VirtualFile> list = newArrayList();
 
@@ -22,9 +22,11 @@ import java.io.File;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -91,4 +93,17 @@ public class DefaultFileWatcherNotificationHandlerTest {
         verify(notificationListener).shouldBeNotifiedFor(virtualFile);
         verify(notificationListener).onFileWatcherEvent(virtualFile, MODIFIED);
     }
+
+    @Test
+    public void notifiesPathListenersWithoutResolvingVirtualFile() throws Exception {
+        notificationHandler.removeNotificationListener(notificationListener);
+        FileWatcherPathListener pathListener = mock(FileWatcherPathListener.class);
+        notificationHandler.addPathListener(pathListener);
+
+        notificationHandler.handleFileWatcherEvent(MODIFIED, testDirectory, "a/b/c", false);
+
+        verify(pathListener).onFileWatcherEvent(virtualFilePath, false, MODIFIED);
+        verify(virtualFileSystem).invalidateCachedAttributes(virtualFilePath, false);
+        verify(virtualFileSystem.getRoot(), never()).getChild(any(Path.class));
+    }
 }
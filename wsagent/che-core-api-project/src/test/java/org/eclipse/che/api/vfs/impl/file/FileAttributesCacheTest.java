@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileAttributesCacheTest {
+    private FileAttributesCache cache;
+    private File                testDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new FileAttributesCache(100, 60);
+        testDirectory = Files.createTempDirectory("attributes-cache").toFile();
+        assertTrue(new File(testDirectory, "a.txt").createNewFile());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void cachesListingWhenOtherPathIsInvalidatedWhileFolderIsRead() throws Exception {
+        cache.getChildNames(Path.ROOT, testDirectory, invalidatingFilter(Path.of("/b/c.txt")));
+        cache.getChildNames(Path.ROOT, testDirectory, (dir, name) -> true);
+
+        assertEquals(1, cache.getListingsStats().hitCount());
+    }
+
+    @Test
+    public void cachesListingWhenOtherSubtreeIsInvalidatedWhileFolderIsRead() throws Exception {
+        cache.getChildNames(Path.of("/x"), testDirectory, (dir, name) -> {
+            cache.invalidateTree(Path.of("/y"));
+            return true;
+        });
+        cache.getAttributes(Path.of("/x/a.txt"), new File(testDirectory, "a.txt"));
+
+        assertEquals(1, cache.getAttributesStats().hitCount());
+    }
+
+    @Test
+    public void doesNotCacheListingWhenItemOfFolderIsInvalidatedWhileFolderIsRead() throws Exception {
+        cache.getChildNames(Path.ROOT, testDirectory, invalidatingFilter(Path.of("/a.txt")));
+        cache.getChildNames(Path.ROOT, testDirectory, (dir, name) -> true);
+
+        assertEquals(0, cache.getListingsStats().hitCount());
+    }
+
+    @Test
+    public void doesNotCacheAttributesOfItemsWhenAncestorIsInvalidatedWhileFolderIsRead() throws Exception {
+        cache.getChildNames(Path.of("/x/y"), testDirectory, (dir, name) -> {
+            cache.invalidateTree(Path.of("/x"));
+            return true;
+        });
+        cache.getAttributes(Path.of("/x/y/a.txt"), new File(testDirectory, "a.txt"));
+
+        assertEquals(0, cache.getAttributesStats().hitCount());
+    }
+
+    private FilenameFilter invalidatingFilter(Path path) {
+        return (dir, name) -> {
+            cache.invalidate(path);
+            return true;
+        };
+    }
+}
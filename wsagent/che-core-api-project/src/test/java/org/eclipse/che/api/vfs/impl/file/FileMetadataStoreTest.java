@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FileMetadataStoreTest {
+    private File              testDirectory;
+    private FileMetadataStore metadataStore;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(testDirectory.mkdir());
+        metadataStore = openStore();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        metadataStore.close();
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    @Test
+    public void restoresLocksAndPropertiesWhenStoreIsReopened() throws Exception {
+        metadataStore.putLock(Path.of("/a/b.txt"), new FileLock("token", Long.MAX_VALUE));
+        metadataStore.putLock(Path.of("/a/c.txt"), new FileLock("token2", Long.MAX_VALUE));
+        metadataStore.removeLock(Path.of("/a/c.txt"));
+        metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.putProperties(Path.of("/"), ImmutableMap.of("property2", "value2"));
+
+        reopenStore();
+
+        assertEquals("token", metadataStore.getLock(Path.of("/a/b.txt")).getLockToken());
+        assertNull(metadataStore.getLock(Path.of("/a/c.txt")));
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.ROOT));
+    }
+
+    @Test
+    public void findsLockedFilesOfFolderWithoutExpiredLocks() throws Exception {
+        metadataStore.putLock(Path.of("/a/b.txt"), new FileLock("token1", Long.MAX_VALUE));
+        metadataStore.putLock(Path.of("/a/c/d.txt"), new FileLock("token2", Long.MAX_VALUE));
+        metadataStore.putLock(Path.of("/a/e.txt"), new FileLock("token3", 0));
+        metadataStore.putLock(Path.of("/a.txt"), new FileLock("token4", Long.MAX_VALUE));
+        metadataStore.putLock(Path.of("/a-b/c.txt"), new FileLock("token5", Long.MAX_VALUE));
+
+        assertEquals(newHashSet(Path.of("/a/b.txt"), Path.of("/a/c/d.txt")), newHashSet(metadataStore.getLockedFiles(Path.of("/a"))));
+        assertTrue(metadataStore.getLockedFiles(Path.of("/x")).isEmpty());
+        assertEquals(4, metadataStore.getLockedFiles(Path.ROOT).size());
+    }
+
+    @Test
+    public void deletesAndMovesSubtrees() throws Exception {
+        metadataStore.putLock(Path.of("/a/b.txt"), new FileLock("token", Long.MAX_VALUE));
+        metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.putProperties(Path.of("/a/b.txt"), ImmutableMap.of("property2", "value2"));
+        metadataStore.putProperties(Path.of("/a.txt"), ImmutableMap.of("property3", "value3"));
+        metadataStore.putProperties(Path.of("/a-b/c.txt"), ImmutableMap.of("property4", "value4"));
+        metadataStore.putProperties(Path.of("/x/b.txt"), ImmutableMap.of("property5", "value5"));
+
+        metadataStore.moveTree(Path.of("/a"), Path.of("/x"));
+        metadataStore.copyTree(Path.of("/x"), Path.of("/y"));
+        metadataStore.deleteTree(Path.of("/x/b.txt"));
+
+        reopenStore();
+
+        assertTrue(metadataStore.getProperties(Path.of("/a")).isEmpty());
+        assertTrue(metadataStore.getProperties(Path.of("/a/b.txt")).isEmpty());
+        assertNull(metadataStore.getLock(Path.of("/a/b.txt")));
+        assertNull(metadataStore.getLock(Path.of("/x/b.txt")));
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/x")));
+        assertTrue(metadataStore.getProperties(Path.of("/x/b.txt")).isEmpty());
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/y")));
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.of("/y/b.txt")));
+        assertEquals(ImmutableMap.of("property3", "value3"), metadataStore.getProperties(Path.of("/a.txt")));
+        assertEquals(ImmutableMap.of("property4", "value4"), metadataStore.getProperties(Path.of("/a-b/c.txt")));
+    }
+
+    @Test
+    public void restoresHashSumsWhenStoreIsReopenedAndMovesThemWithSubtree() throws Exception {
+        metadataStore.putDigests(ImmutableMap.of(Path.of("/a/b.txt"), new FileDigest(3, 1000, "hash1"),
+                                                 Path.of("/a/c.txt"), new FileDigest(5, 2000, "hash2"),
+                                                 Path.of("/d.txt"), new FileDigest(7, 3000, "hash3")));
+
+        metadataStore.moveTree(Path.of("/a"), Path.of("/x"));
+        metadataStore.deleteTree(Path.of("/x/c.txt"));
+        reopenStore();
+
+        assertNull(metadataStore.getDigest(Path.of("/a/b.txt")));
+        assertNull(metadataStore.getDigest(Path.of("/x/c.txt")));
+        FileDigest digest = metadataStore.getDigest(Path.of("/x/b.txt"));
+        assertTrue(digest.matches(3, 1000));
+        assertEquals("hash1", digest.getHashSum());
+        assertEquals("hash3", metadataStore.getDigest(Path.of("/d.txt")).getHashSum());
+    }
+
+    @Test
+    public void invalidatesHashSumsOfSubtree() throws Exception {
+        metadataStore.putDigests(ImmutableMap.of(Path.of("/a/b.txt"), new FileDigest(3, 1000, "hash1"),
+                                                 Path.of("/a/c/d.txt"), new FileDigest(5, 2000, "hash2"),
+                                                 Path.of("/e.txt"), new FileDigest(7, 3000, "hash3")));
+
+        metadataStore.invalidateDigests(Path.of("/a"), true);
+        metadataStore.invalidateDigests(Path.of("/e.txt"), false);
+
+        assertNull(metadataStore.getDigest(Path.of("/a/b.txt")));
+        assertNull(metadataStore.getDigest(Path.of("/a/c/d.txt")));
+        assertNull(metadataStore.getDigest(Path.of("/e.txt")));
+    }
+
+    @Test
+    public void compactsLogAndDropsExpiredLocks() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property", "value" + i));
+        }
+        metadataStore.putLock(Path.of("/b"), new FileLock("token", 0));
+        final long size = logFile().length();
+
+        metadataStore.compact();
+
+        assertTrue(logFile().length() < size);
+        reopenStore();
+        assertEquals(ImmutableMap.of("property", "value499"), metadataStore.getProperties(Path.of("/a")));
+        assertNull(metadataStore.getLock(Path.of("/b")));
+    }
+
+    @Test
+    public void dropsIncompleteRecordAtEndOfLog() throws Exception {
+        metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        metadataStore.close();
+        Files.write(logFile().toPath(), new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        metadataStore = openStore();
+        metadataStore.putProperties(Path.of("/b"), ImmutableMap.of("property2", "value2"));
+        reopenStore();
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.of("/b")));
+    }
+
+    @Test
+    public void importsLockAndPropertiesFilesWhenLogIsCreated() throws Exception {
+        metadataStore.close();
+        IoUtil.deleteRecursive(testDirectory);
+        File folder = new File(testDirectory, "a");
+        assertTrue(folder.mkdirs());
+        writeLockFile(new File(folder, ".vfs/locks/b.txt_lock"), new FileLock("token", Long.MAX_VALUE));
+        writePropertiesFile(new File(folder, ".vfs/props/b.txt_props"), ImmutableMap.of("property1", "value1"));
+        writePropertiesFile(new File(testDirectory, ".vfs/props/_props"), ImmutableMap.of("property2", "value2"));
+
+        metadataStore = openStore();
+
+        assertEquals("token", metadataStore.getLock(Path.of("/a/b.txt")).getLockToken());
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a/b.txt")));
+        assertEquals(ImmutableMap.of("property2", "value2"), metadataStore.getProperties(Path.ROOT));
+        assertFalse(new File(folder, ".vfs").exists());
+        assertFalse(new File(testDirectory, ".vfs/props").exists());
+        assertTrue(logFile().exists());
+    }
+
+    @Test
+    public void dropsPartiallyWrittenRecordsWhenWriteFails() throws Exception {
+        metadataStore.close();
+        AtomicBoolean failWrite = new AtomicBoolean();
+        metadataStore = new FileMetadataStore(testDirectory) {
+            @Override
+            void writeRecords(FileChannel log, ByteBuffer records) throws IOException {
+                if (failWrite.get()) {
+                    records.limit(records.limit() / 2);
+                    super.writeRecords(log, records);
+                    throw new IOException("No space left on device");
+                }
+                super.writeRecords(log, records);
+            }
+        };
+        metadataStore.open();
+        metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property1", "value1"));
+        long logSize = logFile().length();
+
+        failWrite.set(true);
+        try {
+            metadataStore.putProperties(Path.of("/b"), ImmutableMap.of("property2", "value2"));
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+        failWrite.set(false);
+        metadataStore.putProperties(Path.of("/c"), ImmutableMap.of("property3", "value3"));
+
+        assertTrue(logFile().length() > logSize);
+        reopenStore();
+
+        assertEquals(ImmutableMap.of("property1", "value1"), metadataStore.getProperties(Path.of("/a")));
+        assertTrue(metadataStore.getProperties(Path.of("/b")).isEmpty());
+        assertEquals(ImmutableMap.of("property3", "value3"), metadataStore.getProperties(Path.of("/c")));
+    }
+
+    @Test
+    public void keepsAppendingRecordsWhenCompactionFails() throws Exception {
+        metadataStore.close();
+        AtomicBoolean failSnapshot = new AtomicBoolean();
+        metadataStore = new FileMetadataStore(testDirectory) {
+            @Override
+            void writeSnapshot() throws IOException {
+                if (failSnapshot.get()) {
+                    throw new IOException("No space left on device");
+                }
+                super.writeSnapshot();
+            }
+        };
+        metadataStore.open();
+
+        failSnapshot.set(true);
+        // log of single item with that many records is compacted automatically
+        for (int i = 0; i < 1100; i++) {
+            metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property", "value" + i));
+        }
+        try {
+            metadataStore.compact();
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+        metadataStore.putLock(Path.of("/b"), new FileLock("token", Long.MAX_VALUE));
+        long logSize = logFile().length();
+
+        failSnapshot.set(false);
+        for (int i = 0; i < 1000; i++) {
+            metadataStore.putProperties(Path.of("/a"), ImmutableMap.of("property", "new value" + i));
+        }
+
+        assertTrue(logFile().length() < logSize);
+        reopenStore();
+        assertEquals(ImmutableMap.of("property", "new value999"), metadataStore.getProperties(Path.of("/a")));
+        assertEquals("token", metadataStore.getLock(Path.of("/b")).getLockToken());
+    }
+
+    private FileMetadataStore openStore() throws IOException {
+        FileMetadataStore store = new FileMetadataStore(testDirectory);
+        store.open();
+        return store;
+    }
+
+    private void reopenStore() throws IOException {
+        metadataStore.close();
+        metadataStore = openStore();
+    }
+
+    private File logFile() {
+        return new File(testDirectory, ".vfs/" + FileMetadataStore.METADATA_FILE);
+    }
+
+    private void writeLockFile(File file, FileLock lock) throws IOException {
+        assertTrue(file.getParentFile().mkdirs());
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            new FileLockSerializer().write(output, lock);
+        }
+    }
+
+    private void writePropertiesFile(File file, ImmutableMap<String, String> properties) throws IOException {
+        assertTrue(file.getParentFile().mkdirs());
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            new FileMetadataSerializer().write(output, properties);
+        }
+    }
+}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.junit.After;
@@ -24,6 +25,8 @@ import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
@@ -215,6 +218,52 @@ public class FileTreeWatcherTest {
         assertEquals(newHashSet(created), newHashSet(createdEvents.getAllValues()));
     }
 
+    @Test
+    public void watchesSubdirectoriesOfDirectoriesMatchedByExcludePatterns() throws Exception {
+        fileWatcherTestTree.createDirectory("", "excluded");
+        fileWatcherTestTree.createDirectory("excluded", "nested");
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        PathMatcher excludeMatcher =  FileSystems.getDefault().getPathMatcher("glob:excluded");
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(excludeMatcher), notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        assertEquals(2, fileWatcher.getWatchCount());
+        String nestedFile = fileWatcherTestTree.createFile("excluded/nested");
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(1)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertEquals(newHashSet(nestedFile), newHashSet(createdEvents.getAllValues()));
+    }
+
+    @Test
+    public void appliesChangesOfExcludeRulesMadeOneAfterAnother() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            fileWatcherTestTree.createDirectory("", "project" + i);
+        }
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        ExcludeRegistry excludeRegistry = new ExcludeRegistry();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), excludeRegistry, notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        assertEquals(11, fileWatcher.getWatchCount());
+        for (int i = 0; i < 10; i++) {
+            excludeRegistry.setRules("/project" + i, singletonList("*"));
+            excludeRegistry.setRules("/", singletonList("project" + i + '/'));
+        }
+        assertWatchCountEventually(10);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+    }
+
     @Test
     public void doesNotNotifyAboutIgnoredFiles() throws Exception {
         FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
@@ -241,6 +290,66 @@ public class FileTreeWatcherTest {
         assertEquals(newHashSet(created), newHashSet(createdEvents.getAllValues()));
     }
 
+    @Test
+    public void stopsWatchingDirectoryWhenItIsExcludedByExcludeRules() throws Exception {
+        fileWatcherTestTree.createDirectory("", "excluded");
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        ExcludeRegistry excludeRegistry = new ExcludeRegistry();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), excludeRegistry, notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        assertEquals(2, fileWatcher.getWatchCount());
+        excludeRegistry.setRules("/", singletonList("excluded/"));
+        assertWatchCountEventually(1);
+
+        String file = fileWatcherTestTree.createFile("");
+        fileWatcherTestTree.createFile("excluded");
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(1)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertEquals(newHashSet(file), newHashSet(createdEvents.getAllValues()));
+    }
+
+    @Test
+    public void startsWatchingDirectoryWhenItIsNotExcludedByExcludeRulesAnyMore() throws Exception {
+        fileWatcherTestTree.createDirectory("", "excluded");
+        fileWatcherTestTree.createDirectory("excluded", "nested");
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        ExcludeRegistry excludeRegistry = new ExcludeRegistry();
+        excludeRegistry.setRules("/", singletonList("excluded/"));
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), excludeRegistry, notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        assertEquals(1, fileWatcher.getWatchCount());
+        excludeRegistry.setRules("/", emptyList());
+        assertWatchCountEventually(3);
+
+        String file = fileWatcherTestTree.createFile("excluded");
+        String nestedFile = fileWatcherTestTree.createFile("excluded/nested");
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(2)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertEquals(newHashSet(file, nestedFile), newHashSet(createdEvents.getAllValues()));
+    }
+
     @Test
     public void notifiesNotificationListenerWhenStarted() throws Exception {
         FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
@@ -268,6 +377,14 @@ public class FileTreeWatcherTest {
         verify(notificationHandler, timeout(10000)).errorOccurred(eq(testDirectory), eq(error));
     }
 
+    private void assertWatchCountEventually(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (fileWatcher.getWatchCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(expected, fileWatcher.getWatchCount());
+    }
+
     private FileWatcherNotificationHandler aNotificationHandler() {
         return mock(FileWatcherNotificationHandler.class);
     }
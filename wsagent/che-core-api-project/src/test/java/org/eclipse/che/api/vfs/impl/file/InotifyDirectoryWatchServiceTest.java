@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class InotifyDirectoryWatchServiceTest {
+    private Path                         testDirectory;
+    private InotifyDirectoryWatchService watchService;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(InotifyDirectoryWatchService.isAvailable());
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("inotify-", 4)).toPath();
+        Files.createDirectories(testDirectory.resolve("a"));
+        Files.createDirectories(testDirectory.resolve("b"));
+        watchService = new InotifyDirectoryWatchService();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (testDirectory != null) {
+            IoUtil.deleteRecursive(testDirectory.toFile());
+        }
+    }
+
+    @Test
+    public void reportsChangedDirectories() throws Exception {
+        watchService.register(testDirectory);
+        watchService.register(testDirectory.resolve("a"));
+        watchService.register(testDirectory.resolve("b"));
+
+        Files.write(testDirectory.resolve("a/file"), "content".getBytes());
+
+        Set<Path> changed = newLinkedHashSet();
+        assertTrue(watchService.poll(changed, 1000, MILLISECONDS));
+        assertEquals(newHashSet(testDirectory.resolve("a")), changed);
+        assertEquals(3, watchService.getWatchCount());
+    }
+
+    @Test
+    public void reportsAllWatchedDirectoriesWhenEventsQueueIsOverflowed() throws Exception {
+        Path maxQueuedEventsFile = new File("/proc/sys/fs/inotify/max_queued_events").toPath();
+        int maxQueuedEvents = Integer.parseInt(new String(Files.readAllBytes(maxQueuedEventsFile)).trim());
+        watchService.register(testDirectory.resolve("a"));
+        watchService.register(testDirectory.resolve("b"));
+
+        for (int i = 0; i <= maxQueuedEvents; i++) {
+            Files.createFile(testDirectory.resolve("a/file" + i));
+        }
+
+        Set<Path> changed = newLinkedHashSet();
+        assertTrue(watchService.poll(changed, 1000, MILLISECONDS));
+        assertEquals(newHashSet(testDirectory.resolve("a"), testDirectory.resolve("b")), changed);
+        assertEquals(1, watchService.getOverflowCount());
+    }
+
+    @Test
+    public void stopsWaitingForEventsWhenServiceIsClosed() throws Exception {
+        watchService.register(testDirectory);
+        watchService.close();
+
+        assertFalse(watchService.poll(newLinkedHashSet(), -1, MILLISECONDS));
+        assertEquals(0, watchService.getWatchCount());
+    }
+}
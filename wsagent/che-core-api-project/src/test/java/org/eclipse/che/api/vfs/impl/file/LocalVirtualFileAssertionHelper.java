@@ -12,20 +12,27 @@ package org.eclipse.che.api.vfs.impl.file;
 
 import com.google.common.io.Files;
 
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.Path;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class LocalVirtualFileAssertionHelper {
-    private final File testDirectory;
+    private final File                   testDirectory;
+    private final LocalVirtualFileSystem fileSystem;
 
-    public LocalVirtualFileAssertionHelper(File testDirectory) {
+    public LocalVirtualFileAssertionHelper(File testDirectory, LocalVirtualFileSystem fileSystem) {
         this.testDirectory = testDirectory;
+        this.fileSystem = fileSystem;
     }
 
     public void assertThatIoFileExists(Path virtualFilePath) {
@@ -48,29 +55,27 @@ public class LocalVirtualFileAssertionHelper {
     }
 
 
-    public void assertThatMetadataIoFileDoesNotExist(Path virtualFilePath) {
-        File metadataIoFile = getMetadataIoFile(virtualFilePath);
-        assertFalse(metadataIoFile.exists());
+    public void assertThatPropertiesDoNotExist(Path virtualFilePath) throws ServerException {
+        assertTrue(fileSystem.getMetadataStore().getProperties(virtualFilePath).isEmpty());
     }
 
-    public void assertThatMetadataIoFilesHaveSameContent(Path fileOne, Path fileTwo) throws IOException {
-        assertArrayEquals(String.format("Same content expected for files %s and %s", fileOne, fileTwo),
-                          Files.toByteArray(getMetadataIoFile(fileOne)), Files.toByteArray(getMetadataIoFile(fileTwo)));
+    public void assertThatPropertiesAreSame(Path fileOne, Path fileTwo) throws ServerException {
+        FileMetadataStore metadataStore = fileSystem.getMetadataStore();
+        assertEquals(String.format("Same properties expected for files %s and %s", fileOne, fileTwo),
+                     metadataStore.getProperties(fileOne), metadataStore.getProperties(fileTwo));
     }
 
-    public void assertThatMetadataIoFileHasContent(Path virtualFilePath, byte[] bytes) throws IOException {
-        assertArrayEquals(bytes, Files.toByteArray(getMetadataIoFile(virtualFilePath)));
+    public void assertThatPropertiesAre(Path virtualFilePath, Map<String, String> properties) throws ServerException {
+        assertEquals(properties, fileSystem.getMetadataStore().getProperties(virtualFilePath));
     }
 
 
-    public void assertThatLockIoFileExists(Path virtualFilePath) {
-        File ioFile = getLockIoFile(virtualFilePath);
-        assertTrue(ioFile.exists());
+    public void assertThatLockExists(Path virtualFilePath) throws ServerException {
+        assertNotNull(fileSystem.getMetadataStore().getLock(virtualFilePath));
     }
 
-    public void assertThatLockIoFileDoesNotExist(Path virtualFilePath) {
-        File lockIoFile = getLockIoFile(virtualFilePath);
-        assertFalse(lockIoFile.exists());
+    public void assertThatLockDoesNotExist(Path virtualFilePath) throws ServerException {
+        assertNull(fileSystem.getMetadataStore().getLock(virtualFilePath));
     }
 
 
@@ -78,26 +83,6 @@ public class LocalVirtualFileAssertionHelper {
         return new File(testDirectory, toIoPath(virtualFilePath));
     }
 
-    private File getMetadataIoFile(Path virtualFilePath) {
-        Path metadataFilePath;
-        if (virtualFilePath.isRoot()) {
-            metadataFilePath = virtualFilePath.newPath(".vfs", "props", virtualFilePath.getName() + "_props");
-        } else {
-            metadataFilePath = virtualFilePath.getParent().newPath(".vfs", "props", virtualFilePath.getName() + "_props");
-        }
-        return new File(testDirectory, toIoPath(metadataFilePath));
-    }
-
-    private File getLockIoFile(Path virtualFilePath) {
-        Path lockFilePath;
-        if (virtualFilePath.isRoot()) {
-            lockFilePath = virtualFilePath.newPath(".vfs", "locks", virtualFilePath.getName() + "_lock");
-        } else {
-            lockFilePath = virtualFilePath.getParent().newPath(".vfs", "locks", virtualFilePath.getName() + "_lock");
-        }
-        return new File(testDirectory, toIoPath(lockFilePath));
-    }
-
     private String toIoPath(Path vfsPath) {
         if (vfsPath.isRoot()) {
             return "";
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.hash.Hashing;
+
+import org.eclipse.che.api.core.util.FileCleaner;
+import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.commons.lang.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class LocalVirtualFileSystemCacheTest {
+    private LocalVirtualFileSystem fileSystem;
+    private File                   testDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(testDirectory.mkdir());
+        fileSystem = new LocalVirtualFileSystem(testDirectory,
+                                                mock(ArchiverFactory.class),
+                                                null,
+                                                mock(AbstractVirtualFileSystemProvider.CloseCallback.class),
+                                                new FileAttributesCache(100, 60));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(testDirectory);
+        FileCleaner.stop();
+    }
+
+    @Test
+    public void servesAttributesOfItemsFromCache() throws Exception {
+        VirtualFile file = fileSystem.getRoot().createFile("a.txt", "content");
+        assertTrue(file.exists());
+        long misses = fileSystem.getAttributesCacheStats().missCount();
+
+        assertTrue(file.isFile());
+        assertEquals(7, file.getLength());
+
+        assertEquals(misses, fileSystem.getAttributesCacheStats().missCount());
+        assertTrue(fileSystem.getAttributesCacheStats().hitCount() > 0);
+    }
+
+    @Test
+    public void updatesCacheWhenItemsAreChangedThroughFileSystem() throws Exception {
+        VirtualFile root = fileSystem.getRoot();
+        root.createFolder("b");
+        assertEquals(newArrayList("/b"), pathsOf(root.getChildren()));
+
+        VirtualFile file = root.createFile("a.txt", "content");
+        root.createFolder("c/d");
+        assertEquals(newArrayList("/b", "/c", "/a.txt"), pathsOf(root.getChildren()));
+
+        file.updateContent("new content");
+        assertEquals(11, file.getLength());
+
+        root.getChild(Path.of("c")).delete();
+        assertNull(root.getChild(Path.of("c")));
+        assertEquals(newArrayList("/b", "/a.txt"), pathsOf(root.getChildren()));
+    }
+
+    @Test
+    public void rereadsListingOfFolderWhenFolderIsModifiedBypassingFileSystem() throws Exception {
+        VirtualFile root = fileSystem.getRoot();
+        root.createFile("a.txt", "content");
+        assertEquals(newArrayList("/a.txt"), pathsOf(root.getChildren()));
+        long modified = testDirectory.lastModified();
+
+        assertTrue(new File(testDirectory, "b.txt").createNewFile());
+        // make sure modification time is changed even if file system has low resolution of timestamps
+        assertTrue(testDirectory.setLastModified(modified + 2000));
+
+        assertEquals(newArrayList("/a.txt", "/b.txt"), pathsOf(root.getChildren()));
+        assertTrue(root.getChild(Path.of("b.txt")).isFile());
+    }
+
+    @Test
+    public void dropsCachedAttributesOfRemovedFolderAndItsItems() throws Exception {
+        VirtualFile folder = fileSystem.getRoot().createFolder("a/b");
+        VirtualFile file = folder.createFile("c.txt", "content");
+        assertTrue(file.exists());
+
+        IoUtil.deleteRecursive(new File(testDirectory, "a"));
+        assertTrue(file.exists());
+
+        fileSystem.invalidateCachedAttributes(Path.of("/a"), true);
+        assertFalse(file.exists());
+        assertFalse(folder.exists());
+    }
+
+    @Test
+    public void countsMd5SumsOfFilesChangedBypassingFileSystem() throws Exception {
+        VirtualFile folder = fileSystem.getRoot().createFolder("a");
+        VirtualFile file = folder.createFile("b.txt", "content");
+        assertEquals(newArrayList(Pair.of(md5("content"), "b.txt")), folder.countMd5Sums());
+        assertEquals(7, file.getLength());
+
+        Files.write(new File(testDirectory, "a/b.txt").toPath(), "new content".getBytes());
+        // cached attributes are stale
+        assertEquals(7, file.getLength());
+
+        assertEquals(newArrayList(Pair.of(md5("new content"), "b.txt")), folder.countMd5Sums());
+    }
+
+    @Test
+    public void readsAttributesFromFileSystemWhenCacheIsDisabled() throws Exception {
+        fileSystem = new LocalVirtualFileSystem(testDirectory,
+                                                mock(ArchiverFactory.class),
+                                                null,
+                                                mock(AbstractVirtualFileSystemProvider.CloseCallback.class));
+        VirtualFile file = fileSystem.getRoot().createFile("a.txt", "content");
+        assertTrue(file.exists());
+
+        assertTrue(new File(testDirectory, "a.txt").delete());
+
+        assertFalse(file.exists());
+        assertEquals(0, fileSystem.getAttributesCacheStats().requestCount());
+    }
+
+    private static List<String> pathsOf(List<VirtualFile> files) {
+        return files.stream().map(file -> file.getPath().toString()).collect(toList());
+    }
+
+    private static String md5(String content) {
+        return Hashing.md5().hashString(content, UTF_8).toString();
+    }
+}
@@ -13,6 +13,8 @@ package org.eclipse.che.api.vfs.impl.file;
 import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.IoUtil;
@@ -22,7 +24,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -64,4 +73,23 @@ public class LocalVirtualFileSystemTest {
         fileSystem.close();
         verify(searcher).close();
     }
+
+    @Test(timeout = 10000)
+    public void listsFolderWhileItemOfFolderIsLockedForWriting() throws Exception {
+        VirtualFile folder = fileSystem.getRoot().createFolder("folder");
+        VirtualFile file = folder.createFile("file.txt", "content");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        PathLockFactory.PathLock lock = fileSystem.getPathLockFactory().getLock(file.getPath(), true).acquire(1000);
+        try {
+            // list in other thread, the same way as listing request is served while file is being uploaded
+            List<VirtualFile> rootChildren = executor.submit(() -> fileSystem.getRoot().getChildren()).get(5, SECONDS);
+            List<VirtualFile> folderChildren = executor.submit(() -> folder.getChildren()).get(5, SECONDS);
+
+            assertEquals(newArrayList(folder.getPath()), rootChildren.stream().map(VirtualFile::getPath).collect(toList()));
+            assertEquals(newArrayList(file.getPath()), folderChildren.stream().map(VirtualFile::getPath).collect(toList()));
+        } finally {
+            lock.release();
+            executor.shutdownNow();
+        }
+    }
 }
\ No newline at end of file
@@ -39,12 +39,11 @@ import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -85,7 +84,6 @@ public class LocalVirtualFileTest {
         File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
         testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
         assertTrue(testDirectory.mkdir());
-        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory);
 
         archiverFactory = mock(ArchiverFactory.class);
         SearcherProvider searcherProvider = mock(SearcherProvider.class);
@@ -93,6 +91,7 @@ public class LocalVirtualFileTest {
                                                 archiverFactory,
                                                 searcherProvider,
                                                 mock(AbstractVirtualFileSystemProvider.CloseCallback.class));
+        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory, fileSystem);
         searcher = mock(Searcher.class);
         when(searcherProvider.getSearcher(eq(fileSystem), eq(true))).thenReturn(searcher);
         when(searcherProvider.getSearcher(eq(fileSystem))).thenReturn(searcher);
@@ -216,7 +215,7 @@ public class LocalVirtualFileTest {
         VirtualFile root = getRoot();
         VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
 
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatPropertiesDoNotExist(file.getPath());
         assertTrue(file.getProperties().isEmpty());
     }
 
@@ -226,7 +225,7 @@ public class LocalVirtualFileTest {
         VirtualFile file = root.createFile(generateFileName(), "");
         Map<String, String> properties = ImmutableMap.of("property1", "value1", "property2", "value2");
         file.updateProperties(properties);
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
+        assertionHelper.assertThatPropertiesAre(file.getPath(), properties);
         assertEquals(properties, file.getProperties());
     }
 
@@ -237,7 +236,7 @@ public class LocalVirtualFileTest {
         Map<String, String> properties = ImmutableMap.of("property1", "value1");
         file.updateProperties(ImmutableMap.of("property1", "value1"));
 
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(properties));
+        assertionHelper.assertThatPropertiesAre(file.getPath(), properties);
         assertEquals("value1", file.getProperty("property1"));
     }
 
@@ -250,7 +249,7 @@ public class LocalVirtualFileTest {
 
         Map<String, String> expected = ImmutableMap.of("property1", "valueX",
                                                        "new property1", "value3");
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
+        assertionHelper.assertThatPropertiesAre(file.getPath(), expected);
         assertEquals(expected, file.getProperties());
     }
 
@@ -262,7 +261,7 @@ public class LocalVirtualFileTest {
         file.setProperty("property1", "value1");
 
         Map<String, String> expected = ImmutableMap.of("property1", "value1");
-        assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(), serializeVirtualFileMetadata(expected));
+        assertionHelper.assertThatPropertiesAre(file.getPath(), expected);
         assertEquals(expected, file.getProperties());
     }
 
@@ -276,7 +275,7 @@ public class LocalVirtualFileTest {
 
         file.setProperty("property1", null);
 
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatPropertiesDoNotExist(file.getPath());
         assertTrue(file.getProperties().isEmpty());
     }
 
@@ -628,7 +627,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatPropertiesAreSame(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -642,7 +641,7 @@ public class LocalVirtualFileTest {
 
         assertFalse(copy.isLocked());
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatLockIoFileDoesNotExist(copy.getPath());
+        assertionHelper.assertThatLockDoesNotExist(copy.getPath());
     }
 
     @Test
@@ -655,7 +654,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder, "new name", false);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatPropertiesAreSame(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -669,7 +668,7 @@ public class LocalVirtualFileTest {
         VirtualFile copy = file.copyTo(targetFolder, "existed_name", true);
 
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copy.getPath());
-        assertionHelper.assertThatMetadataIoFilesHaveSameContent(file.getPath(), copy.getPath());
+        assertionHelper.assertThatPropertiesAreSame(file.getPath(), copy.getPath());
     }
 
     @Test
@@ -709,7 +708,7 @@ public class LocalVirtualFileTest {
             VirtualFile original = originalIterator.next();
             VirtualFile copy = copiedIterator.next();
             assertionHelper.assertThatIoFileExists(copy.getPath());
-            assertionHelper.assertThatMetadataIoFilesHaveSameContent(original.getPath(), copy.getPath());
+            assertionHelper.assertThatPropertiesAreSame(original.getPath(), copy.getPath());
             if (original.isFile()) {
                 assertionHelper.assertThatIoFilesHaveSameContent(original.getPath(), copy.getPath());
             }
@@ -730,7 +729,7 @@ public class LocalVirtualFileTest {
         VirtualFile copiedFile = copiedFolder.getChild(Path.of(file.getName()));
         assertionHelper.assertThatIoFileExists(copiedFolder.getPath());
         assertionHelper.assertThatIoFilesHaveSameContent(file.getPath(), copiedFile.getPath());
-        assertionHelper.assertThatLockIoFileDoesNotExist(copiedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(copiedFile.getPath());
     }
 
     @Test
@@ -837,11 +836,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesAre(movedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -853,11 +852,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder, "new_name", false, null);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesAre(movedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -870,11 +869,11 @@ public class LocalVirtualFileTest {
 
         VirtualFile movedFile = file.moveTo(targetFolder, "new_name", true, null);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(movedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesAre(movedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -887,9 +886,9 @@ public class LocalVirtualFileTest {
         VirtualFile movedFile = file.moveTo(targetFolder, null, false, lockToken);
 
         assertionHelper.assertThatIoFileHasContent(movedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatLockIoFileDoesNotExist(movedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(movedFile.getPath());
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -906,13 +905,13 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(movedFilePath);
+            assertionHelper.assertThatLockDoesNotExist(movedFilePath);
+            assertionHelper.assertThatPropertiesDoNotExist(movedFilePath);
 
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesAre(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -930,13 +929,13 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(movedFilePath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(movedFilePath);
+            assertionHelper.assertThatLockDoesNotExist(movedFilePath);
+            assertionHelper.assertThatPropertiesDoNotExist(movedFilePath);
 
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesAre(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -980,10 +979,10 @@ public class LocalVirtualFileTest {
             if (moved.isFile()) {
                 assertionHelper.assertThatIoFileHasContent(moved.getPath(), DEFAULT_CONTENT_BYTES);
             }
-            assertionHelper.assertThatMetadataIoFileHasContent(moved.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property" + i, "value" + i)));
+            assertionHelper.assertThatPropertiesAre(moved.getPath(),
+                                                               ImmutableMap.of("property" + i, "value" + i));
             assertionHelper.assertThatIoFileDoesNotExist(originalPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(originalPath);
+            assertionHelper.assertThatPropertiesDoNotExist(originalPath);
             i++;
         }
         assertFalse(originalPathIterator.hasNext() || movedIterator.hasNext());
@@ -1055,7 +1054,7 @@ public class LocalVirtualFileTest {
 
             assertionHelper.assertThatIoFileExists(folder.getPath());
             assertionHelper.assertThatIoFileExists(lockedFile.getPath());
-            assertionHelper.assertThatLockIoFileExists(lockedFile.getPath());
+            assertionHelper.assertThatLockExists(lockedFile.getPath());
         }
     }
 
@@ -1116,6 +1115,46 @@ public class LocalVirtualFileTest {
         }
     }
 
+    @Test
+    public void movesFolderWithCopyingWhenAtomicMoveIsNotSupported() throws Exception {
+        failAtomicMovesWith(new AtomicMoveNotSupportedException("source", "target", "other file system"));
+        VirtualFile folder = getRoot().createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        file.setProperty("property1", "value1");
+        VirtualFile targetFolder = getRoot().createFolder(generateFolderName());
+
+        VirtualFile movedFolder = folder.moveTo(targetFolder);
+
+        Path movedFilePath = movedFolder.getPath().newPath(file.getName());
+        assertionHelper.assertThatIoFileHasContent(movedFilePath, DEFAULT_CONTENT_BYTES);
+        assertionHelper.assertThatPropertiesAre(movedFilePath, ImmutableMap.of("property1", "value1"));
+        assertionHelper.assertThatIoFileDoesNotExist(folder.getPath());
+        assertionHelper.assertThatPropertiesDoNotExist(file.getPath());
+        assertNull(getRoot().getChild(folder.getPath()));
+    }
+
+    @Test
+    public void keepsFolderAndItsPropertiesInPlaceWhenFolderCanNotBeMoved() throws Exception {
+        failAtomicMovesWith(new IOException("Unable move"));
+        VirtualFile folder = getRoot().createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        file.setProperty("property1", "value1");
+        VirtualFile targetFolder = getRoot().createFolder(generateFolderName());
+        Path movedFolderPath = targetFolder.getPath().newPath(folder.getName());
+
+        try {
+            folder.moveTo(targetFolder);
+            thrown.expect(ServerException.class);
+        } catch (ServerException expected) {
+            assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
+            assertionHelper.assertThatPropertiesAre(file.getPath(), ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatIoFileDoesNotExist(movedFolderPath);
+            assertionHelper.assertThatPropertiesDoNotExist(movedFolderPath.newPath(file.getName()));
+            assertNull(getRoot().getChild(movedFolderPath));
+            assertEquals(newArrayList(file.getPath()), folder.getChildren().stream().map(VirtualFile::getPath).collect(toList()));
+        }
+    }
+
     @Test
     public void renamesFile() throws Exception {
         VirtualFile folder = getRoot().createFolder(generateFolderName());
@@ -1126,10 +1165,10 @@ public class LocalVirtualFileTest {
         VirtualFile renamedFile = file.rename("new name");
 
         assertionHelper.assertThatIoFileHasContent(renamedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatMetadataIoFileHasContent(renamedFile.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesAre(renamedFile.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -1142,9 +1181,9 @@ public class LocalVirtualFileTest {
         VirtualFile renamedFile = file.rename("new name", lockToken);
 
         assertionHelper.assertThatIoFileHasContent(renamedFile.getPath(), DEFAULT_CONTENT_BYTES);
-        assertionHelper.assertThatLockIoFileDoesNotExist(renamedFile.getPath());
+        assertionHelper.assertThatLockDoesNotExist(renamedFile.getPath());
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -1162,12 +1201,12 @@ public class LocalVirtualFileTest {
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesAre(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
 
             assertionHelper.assertThatIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(newPath);
+            assertionHelper.assertThatLockDoesNotExist(newPath);
+            assertionHelper.assertThatPropertiesDoNotExist(newPath);
         }
     }
 
@@ -1186,12 +1225,12 @@ public class LocalVirtualFileTest {
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+                    .assertThatPropertiesAre(filePath, ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
 
             assertionHelper.assertThatIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatLockIoFileDoesNotExist(newPath);
-            assertionHelper.assertThatMetadataIoFileDoesNotExist(newPath);
+            assertionHelper.assertThatLockDoesNotExist(newPath);
+            assertionHelper.assertThatPropertiesDoNotExist(newPath);
         }
     }
 
@@ -1210,11 +1249,11 @@ public class LocalVirtualFileTest {
             thrown.expect(ConflictException.class);
         } catch (ConflictException e) {
             assertionHelper.assertThatIoFileHasContent(conflictFilePath, "xxx".getBytes());
-            assertionHelper.assertThatMetadataIoFileHasContent(conflictFilePath,
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+            assertionHelper.assertThatPropertiesAre(conflictFilePath,
+                                                               ImmutableMap.of("property2", "value2"));
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
             assertionHelper
-                    .assertThatMetadataIoFileHasContent(filePath, serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+                    .assertThatPropertiesAre(filePath, ImmutableMap.of("property1", "value1"));
         }
     }
 
@@ -1234,15 +1273,15 @@ public class LocalVirtualFileTest {
         assertionHelper.assertThatIoFileExists(renamed.getPath());
         assertionHelper.assertThatIoFileHasContent(newFilePath, DEFAULT_CONTENT_BYTES);
 
-        assertionHelper.assertThatMetadataIoFileHasContent(renamed.getPath(),
-                                                           serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+        assertionHelper.assertThatPropertiesAre(renamed.getPath(),
+                                                           ImmutableMap.of("property1", "value1"));
         assertionHelper
-                .assertThatMetadataIoFileHasContent(newFilePath, serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+                .assertThatPropertiesAre(newFilePath, ImmutableMap.of("property2", "value2"));
 
         assertionHelper.assertThatIoFileDoesNotExist(folderPath);
         assertionHelper.assertThatIoFileDoesNotExist(folderPath.newPath(fileName));
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath.newPath(fileName));
+        assertionHelper.assertThatPropertiesDoNotExist(folderPath);
+        assertionHelper.assertThatPropertiesDoNotExist(folderPath.newPath(fileName));
     }
 
     @Test
@@ -1260,7 +1299,7 @@ public class LocalVirtualFileTest {
 
             assertionHelper.assertThatIoFileExists(folder.getPath());
             assertionHelper.assertThatIoFileHasContent(lockedFile.getPath(), DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatLockIoFileExists(lockedFile.getPath());
+            assertionHelper.assertThatLockExists(lockedFile.getPath());
         }
     }
 
@@ -1291,7 +1330,7 @@ public class LocalVirtualFileTest {
         file.delete();
 
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -1305,8 +1344,8 @@ public class LocalVirtualFileTest {
         file.delete(lockToken);
 
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatLockIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
+        assertionHelper.assertThatLockDoesNotExist(filePath);
     }
 
     @Test
@@ -1323,9 +1362,9 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+            assertionHelper.assertThatPropertiesAre(file.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -1343,9 +1382,9 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
-            assertionHelper.assertThatLockIoFileExists(filePath);
+            assertionHelper.assertThatPropertiesAre(file.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
+            assertionHelper.assertThatLockExists(filePath);
         }
     }
 
@@ -1361,9 +1400,9 @@ public class LocalVirtualFileTest {
         folder.delete();
 
         assertionHelper.assertThatIoFileDoesNotExist(folderPath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(folderPath);
+        assertionHelper.assertThatPropertiesDoNotExist(folderPath);
         assertionHelper.assertThatIoFileDoesNotExist(filePath);
-        assertionHelper.assertThatMetadataIoFileDoesNotExist(filePath);
+        assertionHelper.assertThatPropertiesDoNotExist(filePath);
     }
 
     @Test
@@ -1381,11 +1420,11 @@ public class LocalVirtualFileTest {
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
             assertionHelper.assertThatIoFileExists(folderPath);
-            assertionHelper.assertThatMetadataIoFileHasContent(folder.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatPropertiesAre(folder.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
             assertionHelper.assertThatIoFileHasContent(filePath, DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property2", "value2")));
+            assertionHelper.assertThatPropertiesAre(file.getPath(),
+                                                               ImmutableMap.of("property2", "value2"));
         }
     }
 
@@ -1455,7 +1494,7 @@ public class LocalVirtualFileTest {
     public void locksFile() throws Exception {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         file.lock(0);
-        assertionHelper.assertThatLockIoFileExists(file.getPath());
+        assertionHelper.assertThatLockExists(file.getPath());
         assertTrue(file.isLocked());
     }
 
@@ -1463,11 +1502,11 @@ public class LocalVirtualFileTest {
     public void lockExpiredAfterTimeout() throws Exception {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         file.lock(500);
-        assertionHelper.assertThatLockIoFileExists(file.getPath());
+        assertionHelper.assertThatLockExists(file.getPath());
         assertTrue(file.isLocked());
         Thread.sleep(1000);
         assertFalse(file.isLocked());
-        assertionHelper.assertThatLockIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatLockDoesNotExist(file.getPath());
     }
 
     @Test
@@ -1477,7 +1516,7 @@ public class LocalVirtualFileTest {
             folder.lock(0);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileDoesNotExist(folder.getPath());
+            assertionHelper.assertThatLockDoesNotExist(folder.getPath());
             assertFalse(folder.isLocked());
         }
     }
@@ -1487,7 +1526,7 @@ public class LocalVirtualFileTest {
         VirtualFile file = getRoot().createFile(generateFileName(), DEFAULT_CONTENT);
         String lockToken = file.lock(0);
         file.unlock(lockToken);
-        assertionHelper.assertThatLockIoFileDoesNotExist(file.getPath());
+        assertionHelper.assertThatLockDoesNotExist(file.getPath());
         assertFalse(file.isLocked());
     }
 
@@ -1500,7 +1539,7 @@ public class LocalVirtualFileTest {
             file.unlock(null);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileExists(file.getPath());
+            assertionHelper.assertThatLockExists(file.getPath());
             assertTrue(file.isLocked());
         }
     }
@@ -1514,7 +1553,7 @@ public class LocalVirtualFileTest {
             file.unlock(invalidLockToken);
             thrown.expect(ForbiddenException.class);
         } catch (ForbiddenException e) {
-            assertionHelper.assertThatLockIoFileExists(file.getPath());
+            assertionHelper.assertThatLockExists(file.getPath());
             assertTrue(file.isLocked());
         }
     }
@@ -1574,8 +1613,8 @@ public class LocalVirtualFileTest {
             thrown.expect(ConflictException.class);
         } catch (ConflictException expected) {
             assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
-            assertionHelper.assertThatMetadataIoFileHasContent(file.getPath(),
-                                                               serializeVirtualFileMetadata(ImmutableMap.of("property1", "value1")));
+            assertionHelper.assertThatPropertiesAre(file.getPath(),
+                                                               ImmutableMap.of("property1", "value1"));
         }
     }
 
@@ -1768,6 +1807,23 @@ public class LocalVirtualFileTest {
         verify(searcher).add(folder);
     }
 
+    /** Replaces file system with one that fails to move items atomically with specified error. */
+    private void failAtomicMovesWith(IOException error) throws Exception {
+        SearcherProvider searcherProvider = mock(SearcherProvider.class);
+        fileSystem = new LocalVirtualFileSystem(testDirectory,
+                                                archiverFactory,
+                                                searcherProvider,
+                                                mock(AbstractVirtualFileSystemProvider.CloseCallback.class)) {
+            @Override
+            void moveIoFile(File from, File to) throws IOException {
+                throw error;
+            }
+        };
+        assertionHelper = new LocalVirtualFileAssertionHelper(testDirectory, fileSystem);
+        when(searcherProvider.getSearcher(eq(fileSystem), eq(true))).thenReturn(searcher);
+        when(searcherProvider.getSearcher(eq(fileSystem))).thenReturn(searcher);
+    }
+
     private VirtualFile getRoot() {
         return fileSystem.getRoot();
     }
@@ -1780,14 +1836,6 @@ public class LocalVirtualFileTest {
         return NameGenerator.generate("folder-", 8);
     }
 
-    private byte[] serializeVirtualFileMetadata(Map<String, String> properties) throws IOException {
-        ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
-        DataOutputStream dataOutput = new DataOutputStream(byteOutput);
-        new FileMetadataSerializer().write(dataOutput, properties);
-        dataOutput.flush();
-        return byteOutput.toByteArray();
-    }
-
     private String countMd5Sum(VirtualFile file) throws Exception {
         return ByteSource.wrap(file.getContentAsBytes()).hash(Hashing.md5()).toString();
     }
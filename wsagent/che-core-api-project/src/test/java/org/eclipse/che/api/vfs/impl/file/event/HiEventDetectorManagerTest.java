@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import org.eclipse.che.api.vfs.impl.file.event.HiEventDetectorManager.DetectorLatency;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.io.File.separator;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toSet;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link HiEventDetectorManager}
+ */
+public class HiEventDetectorManagerTest extends HiVfsEventDetectorTestHelper {
+    private static final String POM_PATH   = separator + "che" + separator + "module" + separator + "pom.xml";
+    private static final String OTHER_PATH = separator + "che" + separator + "README.md";
+
+    private HiEventDetectorManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        addEvent("pom.xml", POM_PATH, MODIFIED, FILE);
+        addEvent("README.md", OTHER_PATH, MODIFIED, FILE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (manager != null) {
+            manager.preDestroy();
+        }
+    }
+
+    @Test
+    public void shouldPassMatchedNodesToDetectors() throws Exception {
+        final List<Set<EventTreeNode>> pomNodes = new CopyOnWriteArrayList<>();
+        final List<Set<EventTreeNode>> unconditionalNodes = new CopyOnWriteArrayList<>();
+        manager = new HiEventDetectorManager(newHashSet(detector(singleton("**/pom.xml"), (root, nodes) -> {
+                                                            pomNodes.add(nodes);
+                                                            return Optional.empty();
+                                                        }),
+                                                        detector(emptySet(), (root, nodes) -> {
+                                                            unconditionalNodes.add(nodes);
+                                                            return Optional.empty();
+                                                        })));
+
+        manager.getDetectedEvents(root);
+
+        assertEquals(1, pomNodes.size());
+        assertEquals(singleton(POM_PATH), pomNodes.get(0).stream().map(EventTreeNode::getPath).collect(toSet()));
+        assertEquals(1, unconditionalNodes.size());
+        assertTrue(unconditionalNodes.get(0).isEmpty());
+    }
+
+    @Test
+    public void shouldNotRunDetectorsWithoutMatchingNodes() throws Exception {
+        final List<EventTreeNode> invocations = new CopyOnWriteArrayList<>();
+        manager = new HiEventDetectorManager(singleton(detector(singleton("*/.git/HEAD"), (root, nodes) -> {
+            invocations.add(root);
+            return Optional.empty();
+        })));
+
+        assertTrue(manager.getDetectedEvents(root).isEmpty());
+        assertTrue(invocations.isEmpty());
+    }
+
+    @Test
+    public void shouldRunDetectorsInParallel() throws Exception {
+        final CountDownLatch allStarted = new CountDownLatch(2);
+        final BiFunction<EventTreeNode, Set<EventTreeNode>, Optional<HiEvent<String>>> awaitOthers = (root, nodes) -> {
+            allStarted.countDown();
+            try {
+                return allStarted.await(10, SECONDS) ? Optional.of(HiEvent.newInstance(String.class)) : Optional.empty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        };
+        manager = new HiEventDetectorManager(newHashSet(detector(singleton("**/pom.xml"), awaitOthers),
+                                                        detector(singleton("*/README.md"), awaitOthers)), 2);
+
+        assertEquals(2, manager.getDetectedEvents(root).size());
+    }
+
+    @Test
+    public void shouldIsolateFailuresOfDetectors() throws Exception {
+        final HiEventDetector<String> failing = detector(singleton("**/pom.xml"), (root, nodes) -> {
+            throw new IllegalStateException("expected");
+        });
+        final HiEvent<String> event = HiEvent.newInstance(String.class);
+        manager = new HiEventDetectorManager(newHashSet(failing, detector(emptySet(), (root, nodes) -> Optional.of(event))));
+
+        final List<HiEvent> events = manager.getDetectedEvents(root);
+
+        assertEquals(1, events.size());
+        assertSame(event, events.get(0));
+    }
+
+    @Test
+    public void shouldIsolateFailureOfSingleDetector() throws Exception {
+        manager = new HiEventDetectorManager(singleton(detector(singleton("**/pom.xml"), (root, nodes) -> {
+            throw new IllegalStateException("expected");
+        })));
+
+        assertTrue(manager.getDetectedEvents(root).isEmpty());
+    }
+
+    @Test
+    public void shouldCollectLatenciesOfDetectors() throws Exception {
+        // latencies are reported by class name, so detectors must be of different classes
+        final HiEventDetector<String> slow = new HiEventDetector<String>() {
+            @Override
+            public Optional<HiEvent<String>> detect(EventTreeNode eventTreeNode) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.empty();
+            }
+
+            @Override
+            public Set<String> getPathPatterns() {
+                return singleton("**/pom.xml");
+            }
+        };
+        final HiEventDetector<String> notMatched = detector(singleton("*/.git/HEAD"), (root, nodes) -> Optional.empty());
+        manager = new HiEventDetectorManager(newHashSet(slow, notMatched));
+
+        manager.getDetectedEvents(root);
+        manager.getDetectedEvents(root);
+
+        final Map<String, DetectorLatency> latencies = manager.getLatencies();
+        assertEquals(2, latencies.size());
+        final DetectorLatency slowLatency = latencies.get(slow.getClass().getName());
+        assertEquals(2, slowLatency.getInvocations());
+        assertTrue(slowLatency.getMaxMillis() >= 20);
+        assertTrue(slowLatency.getAverageMillis() >= 20);
+        assertEquals(0, latencies.get(notMatched.getClass().getName()).getInvocations());
+    }
+
+    private static HiEventDetector<String> detector(Set<String> pathPatterns,
+                                                    BiFunction<EventTreeNode, Set<EventTreeNode>, Optional<HiEvent<String>>> detect) {
+        return new HiEventDetector<String>() {
+            @Override
+            public Optional<HiEvent<String>> detect(EventTreeNode eventTreeNode) {
+                throw new AssertionError("Matched nodes must be passed to detector");
+            }
+
+            @Override
+            public Optional<HiEvent<String>> detect(EventTreeNode eventTreeNode, Set<EventTreeNode> matchedNodes) {
+                return detect.apply(eventTreeNode, matchedNodes);
+            }
+
+            @Override
+            public Set<String> getPathPatterns() {
+                return pathPatterns;
+            }
+        };
+    }
+}
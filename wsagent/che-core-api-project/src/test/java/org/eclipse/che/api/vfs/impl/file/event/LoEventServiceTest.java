@@ -19,15 +19,21 @@ import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Optional;
+import java.util.Set;
 
 import static java.io.File.separator;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.Thread.sleep;
+import static java.util.Collections.singleton;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.newInstance;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEventService.BURST_EVENTS_THRESHOLD;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEventService.MAX_EVENT_INTERVAL_MILLIS;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEventService.MAX_TIME_SEGMENT_SIZE_MILLIS;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEventService.SUBTREE_COLLAPSE_THRESHOLD;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -181,6 +187,104 @@ public class LoEventServiceTest {
         assertEquals(totalCounter - firstSegmentCounter, folderII.get().getChildren().size());
     }
 
+    @Test
+    public void shouldMergeRepeatedEventsOfTheSameItem() throws Exception {
+        final long time = currentTimeMillis();
+        loEventQueueHolder.put(getLoEvent(PATH, FILE_NAME).withEventType(CREATED).withTime(time));
+        loEventQueueHolder.put(getLoEvent(PATH, FILE_NAME).withEventType(MODIFIED).withTime(time + 1));
+        loEventQueueHolder.put(getLoEvent(PATH, FILE_NAME).withEventType(MODIFIED).withTime(time + 2));
+        loEventQueueHolder.put(getLoEvent(PATH + 1, FILE_NAME + 1).withEventType(CREATED).withTime(time + 3));
+        loEventQueueHolder.put(getLoEvent(PATH + 1, FILE_NAME + 1).withEventType(DELETED).withTime(time + 4));
+
+        final Optional<EventTreeNode> rootOptional = eventTreeQueueHolder.take();
+        assertTrue(rootOptional.isPresent());
+
+        final EventTreeNode dir = rootOptional.get().getChild(FOLDER_NAME).get();
+        final EventTreeNode file = dir.getChild(FILE_NAME).get();
+        assertEquals(2, file.getEvents().size());
+        assertEquals(CREATED, file.getEvents().get(time));
+        assertEquals(MODIFIED, file.getLastEventType());
+
+        final EventTreeNode transientFile = dir.getChild(FILE_NAME + 1).get();
+        assertFalse(transientFile.modificationOccurred());
+    }
+
+    @Test
+    public void shouldCollapseTooBigSubtree() throws Exception {
+        final String gitHeadPath = separator + FOLDER_NAME + separator + ".git" + separator + "HEAD";
+        loEventQueueHolder.put(getLoEvent(gitHeadPath, "HEAD"));
+        final String bigDirPath = separator + FOLDER_NAME + separator + "node_modules";
+        for (int i = 0; i <= SUBTREE_COLLAPSE_THRESHOLD; i++) {
+            loEventQueueHolder.put(getLoEvent(bigDirPath + separator + FILE_NAME + i, FILE_NAME + i));
+        }
+
+        final Optional<EventTreeNode> rootOptional = eventTreeQueueHolder.take();
+        assertTrue(rootOptional.isPresent());
+
+        final EventTreeNode project = rootOptional.get().getChild(FOLDER_NAME).get();
+        final EventTreeNode bigDir = project.getChild("node_modules").get();
+        assertTrue(bigDir.isSubtreeChanged());
+        assertTrue(bigDir.getChildren().isEmpty());
+        assertTrue(bigDir.modificationOccurred());
+        assertTrue(bigDir.isDir());
+        assertEquals(bigDirPath, bigDir.getPath());
+
+        assertTrue(EventTreeHelper.getTreeNode(rootOptional.get(), gitHeadPath).isPresent());
+    }
+
+    @Test
+    public void shouldNotCollapseSubtreesWithNodesMatchedByDetectors() throws Exception {
+        loEventService.setHiEventDetectors(singleton(new HiEventDetector<Object>() {
+            @Override
+            public Optional<HiEvent<Object>> detect(EventTreeNode eventTreeNode) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Set<String> getPathPatterns() {
+                return singleton("**/pom.xml");
+            }
+        }));
+        final String modulePath = separator + FOLDER_NAME + separator + "module";
+        final String pomPath = modulePath + separator + "pom.xml";
+        loEventQueueHolder.put(getLoEvent(pomPath, "pom.xml"));
+        for (int i = 0; i <= SUBTREE_COLLAPSE_THRESHOLD; i++) {
+            loEventQueueHolder.put(getLoEvent(modulePath + separator + FILE_NAME + i, FILE_NAME + i));
+        }
+
+        final Optional<EventTreeNode> rootOptional = eventTreeQueueHolder.take();
+        assertTrue(rootOptional.isPresent());
+
+        final EventTreeNode module = EventTreeHelper.getTreeNode(rootOptional.get(), modulePath).get();
+        assertFalse(module.isSubtreeChanged());
+        assertEquals(SUBTREE_COLLAPSE_THRESHOLD + 2, module.getChildren().size());
+        assertTrue(EventTreeHelper.getTreeNode(rootOptional.get(), pomPath).isPresent());
+    }
+
+    @Test
+    public void shouldStretchEventSegmentsUnderBurstLoad() throws Exception {
+        // four segments of events if segment size is constant
+        final int eventsCount = 4 * BURST_EVENTS_THRESHOLD;
+        final double step = (double)(4 * MAX_TIME_SEGMENT_SIZE_MILLIS) / eventsCount;
+        final long start = currentTimeMillis();
+        for (int i = 0; i < eventsCount; i++) {
+            final String path = separator + FOLDER_NAME + separator + FOLDER_NAME + i % 10 + separator + FILE_NAME + i;
+            loEventQueueHolder.put(getLoEvent(path, FILE_NAME + i).withTime(start + (long)(i * step)));
+        }
+
+        long treesFilesCount = 0;
+        int treesCount = 0;
+        while (treesFilesCount < eventsCount) {
+            final Optional<EventTreeNode> rootOptional = eventTreeQueueHolder.take();
+            assertTrue(rootOptional.isPresent());
+            treesFilesCount += rootOptional.get().stream().filter(EventTreeNode::isFile).count();
+            treesCount++;
+        }
+
+        assertEquals(eventsCount, treesFilesCount);
+        assertEquals(3, treesCount);
+    }
+
     private LoEvent getLoEvent(String path, String name) {
         return newInstance().withName(name)
                             .withPath(path)
@@ -16,7 +16,10 @@ import org.junit.Test;
 import java.util.Optional;
 
 import static java.io.File.separator;
+import static java.util.Collections.singleton;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.addEventAndCreatePrecedingNodes;
+import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.collapseSubtrees;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeHelper.getTreeNode;
 import static org.eclipse.che.api.vfs.impl.file.event.EventTreeNode.newRootInstance;
 import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.newInstance;
@@ -73,6 +76,46 @@ public class LoEventTreeHelperTest {
         assertFalse(getTreeNode(root, CHE).isPresent());
     }
 
+    @Test
+    public void shouldCollapseTooBigSubtreesButKeepSubtreesWithKeptNodes() {
+        final String module = separator + CHE + separator + CHU;
+        final LoEvent pom = newInstance().withName("pom.xml").withPath(module + separator + "pom.xml").withEventType(MODIFIED);
+        addEventAndCreatePrecedingNodes(root, pom);
+        addModifiedFiles(module, 10);
+        addModifiedFiles(module + separator + CHA, 10);
+        final EventTreeNode pomNode = getTreeNode(root, pom.getPath()).get();
+
+        collapseSubtrees(root, 5, singleton(pomNode));
+
+        final EventTreeNode moduleNode = getTreeNode(root, module).get();
+        assertFalse(moduleNode.isSubtreeChanged());
+        assertTrue(getTreeNode(root, pom.getPath()).isPresent());
+        assertTrue(getTreeNode(root, module + separator + CHI + 0).isPresent());
+        final EventTreeNode collapsed = getTreeNode(root, module + separator + CHA).get();
+        assertTrue(collapsed.isSubtreeChanged());
+        assertTrue(collapsed.getChildren().isEmpty());
+    }
+
+    @Test
+    public void shouldCollapseSubtreesWithoutKeptNodes() {
+        final String module = separator + CHE + separator + CHU;
+        addEventAndCreatePrecedingNodes(root, newInstance().withPath(module + separator + "pom.xml").withEventType(MODIFIED));
+        addModifiedFiles(module, 10);
+        addModifiedFiles(module + separator + CHA, 10);
+
+        collapseSubtrees(root, 5);
+
+        final EventTreeNode moduleNode = getTreeNode(root, module).get();
+        assertTrue(moduleNode.isSubtreeChanged());
+        assertFalse(getTreeNode(root, module + separator + "pom.xml").isPresent());
+    }
+
+    private void addModifiedFiles(String parentPath, int count) {
+        for (int i = 0; i < count; i++) {
+            addEventAndCreatePrecedingNodes(root, newInstance().withPath(parentPath + separator + CHI + i).withEventType(MODIFIED));
+        }
+    }
+
     private EventTreeNode testNode(EventTreeNode parent, String name) {
         final Optional<EventTreeNode> nodeOptional = parent.getFirstChild();
         assertTrue(nodeOptional.isPresent());
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.io.File.separator;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toSet;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.impl.file.event.LoEvent.ItemType.FILE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for {@link PathPatternTrie}
+ */
+public class PathPatternTrieTest extends HiVfsEventDetectorTestHelper {
+    private static final String GIT_HEAD = "git-head";
+    private static final String POM      = "pom";
+    private static final String SOURCES  = "sources";
+
+    private PathPatternTrie<String> trie;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        trie = new PathPatternTrie<>();
+        trie.add("*/.git/HEAD", GIT_HEAD);
+        trie.add("**/pom.xml", POM);
+        trie.add("/che/src/**", SOURCES);
+    }
+
+    @Test
+    public void shouldMatchLiteralAndWildcardPatterns() {
+        addEvent("HEAD", separator + "che" + separator + ".git" + separator + "HEAD", MODIFIED, FILE);
+        addEvent("pom.xml", separator + "che" + separator + "module" + separator + "pom.xml", MODIFIED, FILE);
+
+        assertEquals(newHashSet(GIT_HEAD, POM), trie.match(root));
+    }
+
+    @Test
+    public void shouldMatchAnyPathPatternWithZeroSegments() {
+        addEvent("pom.xml", separator + "pom.xml", MODIFIED, FILE);
+        addEvent("src", separator + "che" + separator + "src", MODIFIED, FILE);
+
+        assertEquals(newHashSet(POM, SOURCES), trie.match(root));
+    }
+
+    @Test
+    public void shouldNotMatchImplicitlyCreatedNodes() {
+        addEvent("HEAD", separator + "che" + separator + "module" + separator + ".git" + separator + "HEAD", MODIFIED, FILE);
+        addEvent("Main.java", separator + "che" + separator + "src" + separator + "Main.java", MODIFIED, FILE);
+
+        // '/che/src' itself has no events, but '/che/src/**' matches its child
+        assertEquals(newHashSet(SOURCES), trie.match(root));
+    }
+
+    @Test
+    public void shouldFindAllMatchingNodes() {
+        addEvent("HEAD", separator + "che" + separator + ".git" + separator + "HEAD", MODIFIED, FILE);
+        addEvent("pom.xml", separator + "che" + separator + "pom.xml", MODIFIED, FILE);
+        addEvent("pom.xml", separator + "che" + separator + "module" + separator + "pom.xml", MODIFIED, FILE);
+        addEvent("config", separator + "che" + separator + ".git" + separator + "config", MODIFIED, FILE);
+
+        assertEquals(newHashSet(separator + "che" + separator + ".git" + separator + "HEAD",
+                                separator + "che" + separator + "pom.xml",
+                                separator + "che" + separator + "module" + separator + "pom.xml"),
+                     trie.findMatchingNodes(root).stream().map(EventTreeNode::getPath).collect(toSet()));
+    }
+
+    @Test
+    public void shouldFindMatchingNodesOfEachValue() {
+        addEvent("HEAD", separator + "che" + separator + ".git" + separator + "HEAD", MODIFIED, FILE);
+        addEvent("pom.xml", separator + "che" + separator + "src" + separator + "pom.xml", MODIFIED, FILE);
+
+        final Map<String, Set<EventTreeNode>> nodes = trie.findMatchingNodesByValue(root);
+
+        assertEquals(newHashSet(GIT_HEAD, POM, SOURCES), nodes.keySet());
+        assertEquals(newHashSet(separator + "che" + separator + ".git" + separator + "HEAD"),
+                     nodes.get(GIT_HEAD).stream().map(EventTreeNode::getPath).collect(toSet()));
+        assertEquals(newHashSet(separator + "che" + separator + "src" + separator + "pom.xml"),
+                     nodes.get(POM).stream().map(EventTreeNode::getPath).collect(toSet()));
+        assertEquals(nodes.get(POM), nodes.get(SOURCES));
+    }
+
+    @Test
+    public void shouldNotMatchEmptyTree() {
+        assertEquals(emptySet(), trie.match(root));
+    }
+}
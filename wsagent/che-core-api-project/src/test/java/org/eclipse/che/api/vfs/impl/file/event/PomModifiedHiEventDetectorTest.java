@@ -20,6 +20,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 import java.util.Optional;
 
 import static java.io.File.separator;
+import static java.util.Collections.singleton;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.api.vfs.impl.file.event.HiEvent.Category.PROJECT_INFRASTRUCTURE;
@@ -95,4 +96,17 @@ public class PomModifiedHiEventDetectorTest extends HiVfsEventDetectorTestHelper
         final HiEvent<PomModifiedEventDto> hiEvent = eventOptional.get();
         assertEquals(CHE_PATH + POM_XML, hiEvent.getDto().getPath());
     }
+
+    @Test
+    public void shouldCheckOnlyMatchedNodesIfTheyArePassed() {
+        addEvent(POM_XML, FOLDER_1 + POM_XML, MODIFIED, FILE);
+        addEvent(POM_XML, CHE_PATH + POM_XML, MODIFIED, FILE);
+        final EventTreeNode matched = EventTreeHelper.getTreeNode(root, FOLDER_1 + POM_XML).get();
+
+        final Optional<HiEvent<PomModifiedEventDto>> eventOptional = pomModifiedHiVfsEventDetector.detect(root, singleton(matched));
+        assertTrue(eventOptional.isPresent());
+
+        final HiEvent<PomModifiedEventDto> hiEvent = eventOptional.get();
+        assertEquals(FOLDER_1 + POM_XML, hiEvent.getDto().getPath());
+    }
 }
@@ -13,6 +13,7 @@ package org.eclipse.che.api.vfs.search.impl;
 import com.google.common.base.Optional;
 
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.ExcludeRegistry;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
@@ -27,16 +28,19 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -224,6 +228,50 @@ public class FSLuceneSearcherTest {
         verify(closeCallback).onClose();
     }
 
+    @Test
+    public void indexesOnlyChangedFilesWhenSearcherIsInitializedWithExistedIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        VirtualFile updated = folder.createFile("yyy.txt", TEST_CONTENT[2]);
+        VirtualFile deleted = folder.createFile("zzz.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+        searcher.close();
+
+        updated.updateContent(TEST_CONTENT[1]);
+        deleted.delete();
+        folder.createFile("aaa.txt", TEST_CONTENT[1]);
+        VirtualFileFilter newFilter = mock(VirtualFileFilter.class);
+        when(newFilter.accept(any(VirtualFile.class))).thenReturn(true);
+        searcher = new FSLuceneSearcher(indexDirectory, newFilter, closeCallback);
+        searcher.init(virtualFileSystem);
+
+        verify(newFilter, never()).accept(withName("xxx.txt"));
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+        paths = newArrayList(searcher.search(new QueryExpression().setText("should")).getFilePaths());
+        Collections.sort(paths);
+        assertEquals(newArrayList("/folder/aaa.txt", "/folder/yyy.txt"), paths);
+    }
+
+    @Test
+    public void rebuildsCorruptedIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+        searcher.close();
+
+        for (File indexFile : indexDirectory.listFiles()) {
+            Files.write(indexFile.toPath(), "corrupted".getBytes());
+        }
+        searcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
     @Test
     public void excludesFilesFromIndexWithFilter() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
@@ -239,6 +287,58 @@ public class FSLuceneSearcherTest {
         assertEquals(newArrayList("/folder/xxx.txt", "/folder/zzz.txt"), paths);
     }
 
+    @Test
+    public void deletesExcludedFilesFromIndexWhenExcludeRulesAreChanged() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("yyy.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[2]);
+        ExcludeRegistry excludeRegistry = new ExcludeRegistry();
+        searcher.setExcludeRegistry(excludeRegistry);
+        searcher.init(virtualFileSystem);
+
+        excludeRegistry.setRules("/folder", singletonList("yyy.txt"));
+
+        SearchResult result = searcher.search(new QueryExpression().setText("be"));
+        assertEquals(2, result.getTotalHits());
+        assertEquals(newArrayList("/folder/xxx.txt", "/folder/zzz.txt"), result.getFilePaths());
+
+        excludeRegistry.removeRules("/folder");
+
+        result = searcher.search(new QueryExpression().setText("be"));
+        assertEquals(3, result.getTotalHits());
+        List<String> paths = newArrayList(result.getFilePaths());
+        Collections.sort(paths);
+        assertEquals(newArrayList("/folder/xxx.txt", "/folder/yyy.txt", "/folder/zzz.txt"), paths);
+    }
+
+    @Test
+    public void retrievesSearchResultWithPagesWhenSomeFilesAreExcluded() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile excluded = virtualFileSystem.getRoot().createFolder("excluded");
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+            excluded.createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        ExcludeRegistry excludeRegistry = new ExcludeRegistry();
+        searcher.setExcludeRegistry(excludeRegistry);
+        searcher.init(virtualFileSystem);
+        excludeRegistry.setRules("/", singletonList("excluded/"));
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        assertEquals(25, firstPage.getTotalHits());
+        assertEquals(8, firstPage.getFilePaths().size());
+
+        QueryExpression nextPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+        nextPageQueryExpression.setMaxItems(100);
+
+        SearchResult lastPage = searcher.search(nextPageQueryExpression);
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertFalse(lastPage.getNextPageQueryExpression().isPresent());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
     @Test
     public void limitsNumberOfSearchResultsWhenMaxItemIsSet() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
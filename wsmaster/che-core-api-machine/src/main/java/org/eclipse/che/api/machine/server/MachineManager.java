@@ -25,8 +25,8 @@ import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.core.util.AsyncFileLineConsumer;
 import org.eclipse.che.api.core.util.CompositeLineConsumer;
-import org.eclipse.che.api.core.util.FileLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.WebsocketLineConsumer;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
@@ -36,6 +36,8 @@ import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.exception.SnapshotException;
 import org.eclipse.che.api.machine.server.exception.SourceNotFoundException;
 import org.eclipse.che.api.machine.server.exception.UnsupportedRecipeException;
+import org.eclipse.che.api.machine.server.log.LogRange;
+import org.eclipse.che.api.machine.server.log.SegmentedLogWriter;
 import org.eclipse.che.api.machine.server.model.impl.LimitsImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
@@ -64,10 +66,10 @@ import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -100,6 +102,18 @@ public class MachineManager {
     private final int                      defaultMachineMemorySizeMB;
     private final MachineCleaner           machineCleaner;
     private final WsAgentLauncher          wsAgentLauncher;
+    /* Log writers that are not closed yet, they are flushed before reading of logs. */
+    private final ConcurrentMap<File, AsyncFileLineConsumer> activeFileLoggers = new ConcurrentHashMap<>();
+
+    @com.google.inject.Inject(optional = true)
+    @Named("machine.logs.segment_size_bytes")
+    private long    logSegmentSize      = SegmentedLogWriter.DEFAULT_SEGMENT_SIZE;
+    @com.google.inject.Inject(optional = true)
+    @Named("machine.logs.compress_segments")
+    private boolean compressLogSegments = true;
+    @com.google.inject.Inject(optional = true)
+    @Named("machine.logs.max_segments")
+    private int     maxLogSegments      = SegmentedLogWriter.DEFAULT_MAX_SEGMENTS;
 
     @VisibleForTesting
     final ExecutorService executor;
@@ -777,10 +791,28 @@ public class MachineManager {
      *         if other error occur
      */
     public Reader getMachineLogReader(String machineId) throws NotFoundException, MachineException {
-        final File machineLogsFile = getMachineLogsFile(machineId);
-        if (machineLogsFile.isFile()) {
+        return getMachineLogReader(machineId, LogRange.all());
+    }
+
+    /**
+     * Gets part of machine logs.
+     *
+     * @param machineId
+     *         id of machine
+     * @param range
+     *         part of logs to read
+     * @return reader for the requested part of machine logs
+     * @throws NotFoundException
+     *         if logs of machine with specified id are not found
+     * @throws MachineException
+     *         if other error occur
+     */
+    public Reader getMachineLogReader(String machineId, LogRange range) throws NotFoundException, MachineException {
+        final File machineLogsDir = getMachineLogsDir(machineId);
+        if (machineLogsDir.isDirectory()) {
             try {
-                return Files.newBufferedReader(machineLogsFile.toPath(), Charset.defaultCharset());
+                flushFileLogger(machineLogsDir);
+                return range.open(machineLogsDir);
             } catch (IOException e) {
                 throw new MachineException(String.format("Unable read log file for machine '%s'. %s", machineId, e.getMessage()));
             }
@@ -802,10 +834,30 @@ public class MachineManager {
      *         if other error occur
      */
     public Reader getProcessLogReader(String machineId, int pid) throws NotFoundException, MachineException {
-        final File processLogsFile = getProcessLogsFile(machineId, pid);
-        if (processLogsFile.isFile()) {
+        return getProcessLogReader(machineId, pid, LogRange.all());
+    }
+
+    /**
+     * Gets part of process logs.
+     *
+     * @param machineId
+     *         machine id whose process reader will be returned
+     * @param pid
+     *         process id
+     * @param range
+     *         part of logs to read
+     * @return reader for the requested part of process logs
+     * @throws NotFoundException
+     *         if logs of process are not found
+     * @throws MachineException
+     *         if other error occur
+     */
+    public Reader getProcessLogReader(String machineId, int pid, LogRange range) throws NotFoundException, MachineException {
+        final File processLogsDir = getProcessLogsDir(machineId, pid);
+        if (processLogsDir.isDirectory()) {
             try {
-                return Files.newBufferedReader(processLogsFile.toPath(), Charset.defaultCharset());
+                flushFileLogger(processLogsDir);
+                return range.open(processLogsDir);
             } catch (IOException e) {
                 throw new MachineException(
                         String.format("Unable read log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
@@ -900,31 +952,53 @@ public class MachineManager {
         }
     }
 
-    private FileLineConsumer getMachineFileLogger(String machineId) throws MachineException {
+    private AsyncFileLineConsumer getMachineFileLogger(String machineId) throws MachineException {
         try {
-            return new FileLineConsumer(getMachineLogsFile(machineId));
+            return createFileLogger(getMachineLogsDir(machineId));
         } catch (IOException e) {
             throw new MachineException(String.format("Unable create log file for machine '%s'. %s", machineId, e.getMessage()));
         }
     }
 
-    private File getMachineLogsFile(String machineId) {
+    private File getMachineLogsDir(String machineId) {
         return new File(new File(machineLogsDir, machineId), "machineId.logs");
     }
 
-    private File getProcessLogsFile(String machineId, int pid) {
+    private File getProcessLogsDir(String machineId, int pid) {
         return new File(new File(machineLogsDir, machineId), Integer.toString(pid));
     }
 
-    private FileLineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
+    private AsyncFileLineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
         try {
-            return new FileLineConsumer(getProcessLogsFile(machineId, pid));
+            return createFileLogger(getProcessLogsDir(machineId, pid));
         } catch (IOException e) {
             throw new MachineException(
                     String.format("Unable create log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
         }
     }
 
+    private AsyncFileLineConsumer createFileLogger(File logDir) throws IOException {
+        final AsyncFileLineConsumer fileLogger = new SegmentedLogWriter(logDir, logSegmentSize, compressLogSegments, maxLogSegments) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    activeFileLoggers.remove(getFile(), this);
+                }
+            }
+        };
+        activeFileLoggers.put(logDir, fileLogger);
+        return fileLogger;
+    }
+
+    private void flushFileLogger(File file) throws IOException {
+        final AsyncFileLineConsumer fileLogger = activeFileLoggers.get(file);
+        if (fileLogger != null) {
+            fileLogger.flush();
+        }
+    }
+
     String generateMachineId() {
         return NameGenerator.generate("machine", 16);
     }
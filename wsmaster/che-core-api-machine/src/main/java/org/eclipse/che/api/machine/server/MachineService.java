@@ -25,6 +25,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.api.machine.server.log.LogRange;
 import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.machine.shared.dto.CommandDto;
@@ -275,19 +276,34 @@ public class MachineService extends Service {
     @Produces(MediaType.TEXT_PLAIN)
     @ApiOperation(value = "Get logs of machine")
     @ApiResponses({@ApiResponse(code = 200, message = "The response contains logs"),
+                   @ApiResponse(code = 400, message = "More than one of tail, since and offset/length is specified"),
                    @ApiResponse(code = 404, message = "Machine with specified ID does not exist"),
                    @ApiResponse(code = 500, message = "Internal server error occurred")})
     public void getMachineLogs(@ApiParam(value = "Machine ID")
                                @PathParam("machineId")
                                String machineId,
+                               @ApiParam(value = "Number of the last lines of log to return")
+                               @QueryParam("tail")
+                               Long tail,
+                               @ApiParam(value = "Return lines written since this time (milliseconds since epoch)")
+                               @QueryParam("since")
+                               Long since,
+                               @ApiParam(value = "Offset of the first byte of log to return")
+                               @QueryParam("offset")
+                               Long offset,
+                               @ApiParam(value = "Max number of bytes of log to return")
+                               @QueryParam("length")
+                               Long length,
                                @Context
                                HttpServletResponse httpServletResponse)
             throws NotFoundException,
                    ForbiddenException,
                    ServerException,
+                   BadRequestException,
                    IOException {
 
-        addLogsToResponse(machineManager.getMachineLogReader(machineId), httpServletResponse);
+        addLogsToResponse(machineManager.getMachineLogReader(machineId, toLogRange(tail, since, offset, length)),
+                          httpServletResponse);
     }
 
     @GET
@@ -295,6 +311,7 @@ public class MachineService extends Service {
     @Produces(MediaType.TEXT_PLAIN)
     @ApiOperation(value = "Get logs of machine process")
     @ApiResponses({@ApiResponse(code = 200, message = "The response contains logs"),
+                   @ApiResponse(code = 400, message = "More than one of tail, since and offset/length is specified"),
                    @ApiResponse(code = 404, message = "Machine or process with specified ID does not exist"),
                    @ApiResponse(code = 500, message = "Internal server error occurred")})
     public void getProcessLogs(@ApiParam(value = "Machine ID")
@@ -303,14 +320,28 @@ public class MachineService extends Service {
                                @ApiParam(value = "Process ID")
                                @PathParam("pid")
                                int pid,
+                               @ApiParam(value = "Number of the last lines of log to return")
+                               @QueryParam("tail")
+                               Long tail,
+                               @ApiParam(value = "Return lines written since this time (milliseconds since epoch)")
+                               @QueryParam("since")
+                               Long since,
+                               @ApiParam(value = "Offset of the first byte of log to return")
+                               @QueryParam("offset")
+                               Long offset,
+                               @ApiParam(value = "Max number of bytes of log to return")
+                               @QueryParam("length")
+                               Long length,
                                @Context
                                HttpServletResponse httpServletResponse)
             throws NotFoundException,
                    ForbiddenException,
                    ServerException,
+                   BadRequestException,
                    IOException {
 
-        addLogsToResponse(machineManager.getProcessLogReader(machineId, pid), httpServletResponse);
+        addLogsToResponse(machineManager.getProcessLogReader(machineId, pid, toLogRange(tail, since, offset, length)),
+                          httpServletResponse);
     }
 
     /**
@@ -420,6 +451,31 @@ public class MachineService extends Service {
         httpServletResponse.getWriter().flush();
     }
 
+    /**
+     * Converts query parameters of logs request to {@link LogRange}. Only one of {@code tail}, {@code since} and
+     * {@code offset}/{@code length} may be specified, the whole log is returned if none of them is specified.
+     */
+    private LogRange toLogRange(Long tail, Long since, Long offset, Long length) throws BadRequestException {
+        final boolean bytes = offset != null || length != null;
+        if ((tail != null ? 1 : 0) + (since != null ? 1 : 0) + (bytes ? 1 : 0) > 1) {
+            throw new BadRequestException("Only one of parameters tail, since and offset/length may be specified");
+        }
+        try {
+            if (tail != null) {
+                return LogRange.tail(tail);
+            }
+            if (since != null) {
+                return LogRange.since(since);
+            }
+            if (bytes) {
+                return LogRange.bytes(offset == null ? 0 : offset, length == null ? Long.MAX_VALUE : length);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return LogRange.all();
+    }
+
     /**
      * Checks object reference is not {@code null}
      *
@@ -13,9 +13,7 @@ package org.eclipse.che.api.machine.server.event;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
-import org.eclipse.che.dto.server.DtoFactory;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.eclipse.che.everrest.ChannelDtoBroadcaster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,10 +41,7 @@ public class MachineStateMessenger implements EventSubscriber<MachineStatusEvent
     @Override
     public void onEvent(MachineStatusEvent event) {
         try {
-            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-            bm.setChannel("machine:status:" + event.getWorkspaceId() + ':' + event.getMachineName());
-            bm.setBody(DtoFactory.getInstance().toJson(event));
-            WSConnectionContext.sendMessage(bm);
+            ChannelDtoBroadcaster.broadcast("machine:status:" + event.getWorkspaceId() + ':' + event.getMachineName(), event);
         } catch (Exception e) {
             LOG.error(e.getLocalizedMessage(), e);
         }
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * Describes part of the log that is written with {@link SegmentedLogWriter} and should be read. Cost of reading depends on
+ * the size of requested part but not on the size of the whole log.
+ */
+public final class LogRange {
+    private enum Type {
+        ALL, TAIL, SINCE, BYTES
+    }
+
+    private static final LogRange ALL = new LogRange(Type.ALL, 0, 0);
+
+    /** The whole log that is still kept according to retention policy. */
+    public static LogRange all() {
+        return ALL;
+    }
+
+    /** The last {@code lines} lines of log. */
+    public static LogRange tail(long lines) {
+        if (lines < 0) {
+            throw new IllegalArgumentException("Number of lines can't be negative.");
+        }
+        return new LogRange(Type.TAIL, lines, 0);
+    }
+
+    /**
+     * Lines written since {@code timestamp} (in milliseconds). Lines written up to one second before the timestamp may
+     * also be included.
+     */
+    public static LogRange since(long timestamp) {
+        return new LogRange(Type.SINCE, timestamp, 0);
+    }
+
+    /** At most {@code length} bytes of log starting from {@code offset}. */
+    public static LogRange bytes(long offset, long length) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset and length can't be negative.");
+        }
+        return new LogRange(Type.BYTES, offset, length);
+    }
+
+    private final Type type;
+    private final long first;
+    private final long second;
+
+    private LogRange(Type type, long first, long second) {
+        this.type = type;
+        this.first = first;
+        this.second = second;
+    }
+
+    /** Opens reader of this part of log that is stored in directory {@code logDir}. */
+    public Reader open(File logDir) throws IOException {
+        switch (type) {
+            case TAIL:
+                return reader(SegmentedLog.openTail(logDir, first));
+            case SINCE:
+                return reader(SegmentedLog.openSince(logDir, first));
+            case BYTES:
+                return reader(SegmentedLog.openRange(logDir, first, second));
+            default:
+                return reader(SegmentedLog.openAll(logDir));
+        }
+    }
+
+    private static Reader reader(InputStream in) {
+        return new InputStreamReader(in, Charset.defaultCharset());
+    }
+
+    @Override
+    public String toString() {
+        return "LogRange{type=" + type + ", first=" + first + ", second=" + second + '}';
+    }
+}
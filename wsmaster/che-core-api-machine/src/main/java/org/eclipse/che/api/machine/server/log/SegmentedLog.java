@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Layout of the log that is split in segments and helpers for reading of such logs.
+ * <p/>
+ * Log is stored in directory. Lines are appended to the segment files {@code 00000000.log}, {@code 00000001.log}, etc,
+ * segments that reached size limit may be compressed ({@code 00000000.log.gz}) and the oldest segments may be removed.
+ * File {@code index} contains entries of fixed size {@link #INDEX_ENTRY_SIZE}, each entry is:
+ * <pre>
+ * int segment, long firstLine, long segmentOffset, long logOffset, long timestamp
+ * </pre>
+ * (big-endian, as written by {@link java.io.DataOutput}) where {@code segment} is number of segment, {@code firstLine} is
+ * number of the first line of block of lines (starting from 0 for the whole log), {@code segmentOffset} is offset of the
+ * block in uncompressed segment, {@code logOffset} is offset of the block in the whole log and {@code timestamp} is time
+ * when the first line of block was written. New entry is added at start of each segment and then after every
+ * {@link #INDEX_INTERVAL_LINES} lines or {@link #INDEX_INTERVAL_MILLIS} milliseconds, so any read needs to scan at most one
+ * block before it gets to the requested data. All fields grow from entry to entry, so entries are found with binary search
+ * and reading doesn't get slower as log grows.
+ *
+ * @see SegmentedLogWriter
+ * @see LogRange
+ */
+public final class SegmentedLog {
+    /** Max number of lines between two index entries. */
+    static final int  INDEX_INTERVAL_LINES  = 1000;
+    /** Max time in milliseconds between two index entries. */
+    static final long INDEX_INTERVAL_MILLIS = 1000;
+
+    static final String INDEX_FILE       = "index";
+    /** Size of single index entry in bytes. */
+    static final int    INDEX_ENTRY_SIZE = 4 + 8 * 4;
+
+    private static final String SEGMENT_SUFFIX            = ".log";
+    private static final String COMPRESSED_SEGMENT_SUFFIX = ".log.gz";
+
+    /** Entry of the index of log. */
+    static class IndexEntry {
+        final int  segment;
+        final long firstLine;
+        final long segmentOffset;
+        final long logOffset;
+        final long timestamp;
+
+        IndexEntry(int segment, long firstLine, long segmentOffset, long logOffset, long timestamp) {
+            this.segment = segment;
+            this.firstLine = firstLine;
+            this.segmentOffset = segmentOffset;
+            this.logOffset = logOffset;
+            this.timestamp = timestamp;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(segment);
+            out.writeLong(firstLine);
+            out.writeLong(segmentOffset);
+            out.writeLong(logOffset);
+            out.writeLong(timestamp);
+        }
+
+        static IndexEntry readFrom(ByteBuffer buffer) {
+            return new IndexEntry(buffer.getInt(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    /**
+     * Index of log opened for reading. Entries that point to segments which were already removed by retention policy are
+     * not visible, entry which is being written right now is not visible either.
+     */
+    static final class Index implements Closeable {
+        private final File        logDir;
+        private final FileChannel channel;
+        private final ByteBuffer  buffer;
+        /** Number of the first entry that points to existing segment. */
+        private final long        first;
+        /** Number of complete entries in index file. */
+        private final long        size;
+
+        /** Opens index of log, index is empty if log is empty or doesn't exist. */
+        static Index open(File logDir) throws IOException {
+            final File indexFile = new File(logDir, INDEX_FILE);
+            if (!indexFile.isFile()) {
+                return new Index(logDir, null);
+            }
+            return new Index(logDir, FileChannel.open(indexFile.toPath(), StandardOpenOption.READ));
+        }
+
+        private Index(File logDir, FileChannel channel) throws IOException {
+            this.logDir = logDir;
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+            try {
+                // the last entry may be incomplete if it is being written right now
+                size = channel == null ? 0 : channel.size() / INDEX_ENTRY_SIZE;
+                first = findFirstExisting();
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        boolean isEmpty() {
+            return first == size;
+        }
+
+        /** Number of visible entries. */
+        long size() {
+            return size - first;
+        }
+
+        /** Returns visible entry by its number, number of the first visible entry is 0. */
+        IndexEntry get(long i) throws IOException {
+            return read(first + i);
+        }
+
+        IndexEntry first() throws IOException {
+            return get(0);
+        }
+
+        IndexEntry last() throws IOException {
+            return get(size() - 1);
+        }
+
+        /**
+         * Finds the last entry which {@code key} is not greater than {@code value} or the first entry if keys of all entries are
+         * greater. Index must not be empty.
+         */
+        IndexEntry findLast(ToLongFunction<IndexEntry> key, long value) throws IOException {
+            IndexEntry found = first();
+            long low = 1;
+            long high = size() - 1;
+            while (low <= high) {
+                final long mid = (low + high) >>> 1;
+                final IndexEntry entry = get(mid);
+                if (key.applyAsLong(entry) <= value) {
+                    found = entry;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        /** Copies visible entries to {@code target} as they are stored in index file. */
+        void copyTo(WritableByteChannel target) throws IOException {
+            long position = first * INDEX_ENTRY_SIZE;
+            final long end = size * INDEX_ENTRY_SIZE;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+        /** Segments are removed from the oldest one, so entries of removed segments are always at the start of index. */
+        private long findFirstExisting() throws IOException {
+            if (size == 0 || segmentExists(logDir, read(0).segment)) {
+                return 0;
+            }
+            long low = 1;
+            long high = size;
+            while (low < high) {
+                final long mid = (low + high) >>> 1;
+                if (segmentExists(logDir, read(mid).segment)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private IndexEntry read(long i) throws IOException {
+            buffer.clear();
+            final long position = i * INDEX_ENTRY_SIZE;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) == -1) {
+                    throw new EOFException(String.format("Unexpected end of index of log '%s'", logDir));
+                }
+            }
+            buffer.flip();
+            return IndexEntry.readFrom(buffer);
+        }
+    }
+
+    static File segmentFile(File logDir, int segment) {
+        return new File(logDir, String.format("%08d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    static File compressedSegmentFile(File logDir, int segment) {
+        return new File(logDir, String.format("%08d%s", segment, COMPRESSED_SEGMENT_SUFFIX));
+    }
+
+    /** Checks whether segment with specified number still exists in plain or compressed form. */
+    static boolean segmentExists(File logDir, int segment) {
+        return segmentFile(logDir, segment).isFile() || compressedSegmentFile(logDir, segment).isFile();
+    }
+
+    /** Opens the whole log. */
+    static InputStream openAll(File logDir) throws IOException {
+        try (Index index = Index.open(logDir)) {
+            if (index.isEmpty()) {
+                return emptyStream();
+            }
+            return openFrom(logDir, index.first().segment, 0);
+        }
+    }
+
+    /**
+     * Opens log at the start of the block that contains lines written not earlier than {@code timestamp}. Some lines of the
+     * first block may be written earlier, precision of the method is limited by {@link #INDEX_INTERVAL_MILLIS}.
+     */
+    static InputStream openSince(File logDir, long timestamp) throws IOException {
+        try (Index index = Index.open(logDir)) {
+            if (index.isEmpty()) {
+                return emptyStream();
+            }
+            final IndexEntry start = index.findLast(entry -> entry.timestamp, timestamp);
+            return openFrom(logDir, start.segment, start.segmentOffset);
+        }
+    }
+
+    /** Opens log at the start of the line that is {@code lines} lines before the end of log. */
+    static InputStream openTail(File logDir, long lines) throws IOException {
+        final IndexEntry start;
+        final long startLine;
+        try (Index index = Index.open(logDir)) {
+            if (index.isEmpty() || lines <= 0) {
+                return emptyStream();
+            }
+            final IndexEntry last = index.last();
+            long linesInLastBlock = 0;
+            try (InputStream in = openFrom(logDir, last.segment, last.segmentOffset)) {
+                linesInLastBlock = skipLines(in, Long.MAX_VALUE);
+            }
+            startLine = Math.max(index.first().firstLine, last.firstLine + linesInLastBlock - lines);
+            start = index.findLast(entry -> entry.firstLine, startLine);
+        }
+        final InputStream in = openFrom(logDir, start.segment, start.segmentOffset);
+        try {
+            skipLines(in, startLine - start.firstLine);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    /** Opens at most {@code length} bytes of log starting from {@code offset}. */
+    static InputStream openRange(File logDir, long offset, long length) throws IOException {
+        final IndexEntry start;
+        try (Index index = Index.open(logDir)) {
+            if (index.isEmpty() || length <= 0) {
+                return emptyStream();
+            }
+            start = index.findLast(entry -> entry.logOffset, offset);
+        }
+        final InputStream in = openFrom(logDir, start.segment, start.segmentOffset);
+        try {
+            if (offset > start.logOffset) {
+                ByteStreams.skipFully(in, offset - start.logOffset);
+            }
+        } catch (IOException e) {
+            in.close();
+            // offset is after the end of log
+            return emptyStream();
+        }
+        return ByteStreams.limit(in, length);
+    }
+
+    /** Opens stream that reads segments one by one starting from {@code offset} of segment {@code segment}. */
+    private static InputStream openFrom(File logDir, int segment, long offset) throws IOException {
+        final InputStream first = openSegment(logDir, segment);
+        try {
+            ByteStreams.skipFully(first, offset);
+        } catch (IOException e) {
+            first.close();
+            throw e;
+        }
+        return new BufferedInputStream(new SequenceInputStream(new Enumeration<InputStream>() {
+            InputStream next    = first;
+            int         current = segment;
+
+            @Override
+            public boolean hasMoreElements() {
+                if (next == null && segmentExists(logDir, current + 1)) {
+                    try {
+                        next = openSegment(logDir, ++current);
+                    } catch (IOException e) {
+                        // segment was removed after check
+                        return false;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (!hasMoreElements()) {
+                    throw new NoSuchElementException();
+                }
+                final InputStream result = next;
+                next = null;
+                return result;
+            }
+        }));
+    }
+
+    private static InputStream openSegment(File logDir, int segment) throws IOException {
+        final File plain = segmentFile(logDir, segment);
+        try {
+            return new FileInputStream(plain);
+        } catch (IOException e) {
+            // segment might be compressed
+        }
+        return new GZIPInputStream(new FileInputStream(compressedSegmentFile(logDir, segment)));
+    }
+
+    /** Skips at most {@code lines} lines and returns number of skipped lines. */
+    private static long skipLines(InputStream in, long lines) throws IOException {
+        long skipped = 0;
+        int b;
+        while (skipped < lines && (b = in.read()) != -1) {
+            if (b == '\n') {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static InputStream emptyStream() {
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    private SegmentedLog() {
+    }
+}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.util.AsyncFileLineConsumer;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.eclipse.che.api.machine.server.log.SegmentedLog.INDEX_FILE;
+import static org.eclipse.che.api.machine.server.log.SegmentedLog.INDEX_INTERVAL_LINES;
+import static org.eclipse.che.api.machine.server.log.SegmentedLog.INDEX_INTERVAL_MILLIS;
+import static org.eclipse.che.api.machine.server.log.SegmentedLog.compressedSegmentFile;
+import static org.eclipse.che.api.machine.server.log.SegmentedLog.segmentFile;
+
+/**
+ * Writes log in the format described in {@link SegmentedLog}. Lines are written asynchronously, see {@link AsyncFileLineConsumer}.
+ * Content of log directory is removed when writer is created. Full segments are compressed by separate thread, so compression
+ * doesn't delay writing of lines of this and other logs, all segments are compressed when {@link #close()} returns.
+ *
+ * @see LogRange
+ */
+public class SegmentedLogWriter extends AsyncFileLineConsumer {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedLogWriter.class);
+
+    /** Default size limit of single segment. */
+    public static final long DEFAULT_SEGMENT_SIZE = 10 * 1024 * 1024;
+    /** Default max number of segments kept per log. */
+    public static final int  DEFAULT_MAX_SEGMENTS = 10;
+
+    private static final ExecutorService COMPRESSOR =
+            Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("SegmentedLogCompressor")
+                                                                        .setDaemon(true)
+                                                                        .build());
+
+    private final long    maxSegmentSize;
+    private final boolean compress;
+    private final int     maxSegments;
+    private final Charset charset;
+    /** Compressions of segments by number of segment, completed compressions are removed from time to time. */
+    private final ConcurrentNavigableMap<Integer, Future<?>> compressions;
+    /** Index entries that are written to index file after data they point to is flushed, accessed only from writer thread. */
+    private final ByteArrayOutputStream                      pendingIndex;
+    private final DataOutputStream                           pendingIndexData;
+
+    // accessed only from writer thread
+    private OutputStream     segmentOutput;
+    private FileOutputStream indexOutput;
+    private int              segment;
+    private long             segmentSize;
+    private long             lines;
+    private long             logSize;
+    private long             lastIndexedLine;
+    private long             lastIndexedTime;
+
+    /**
+     * Creates writer.
+     *
+     * @param logDir
+     *         directory of log, it is created if it doesn't exist
+     * @param maxSegmentSize
+     *         size of segment in bytes after which new segment is started
+     * @param compress
+     *         if {@code true} segments are compressed when they reach size limit
+     * @param maxSegments
+     *         max number of segments to keep, the oldest segments are removed when this number is exceeded, {@code 0} means
+     *         unlimited number of segments
+     */
+    public SegmentedLogWriter(File logDir, long maxSegmentSize, boolean compress, int maxSegments) throws IOException {
+        // log directory is checked before periodical flushing is started by superclass, so nothing is left behind on failure
+        super(prepareLogDir(logDir, maxSegmentSize, maxSegments), DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS, false);
+        this.maxSegmentSize = maxSegmentSize;
+        this.compress = compress;
+        this.maxSegments = maxSegments;
+        this.charset = Charset.defaultCharset();
+        this.compressions = new ConcurrentSkipListMap<>();
+        this.pendingIndex = new ByteArrayOutputStream();
+        this.pendingIndexData = new DataOutputStream(pendingIndex);
+        try {
+            segmentOutput = new BufferedOutputStream(new FileOutputStream(segmentFile(logDir, segment)));
+            indexOutput = new FileOutputStream(new File(logDir, INDEX_FILE));
+        } catch (IOException | RuntimeException e) {
+            try {
+                close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    private static File prepareLogDir(File logDir, long maxSegmentSize, int maxSegments) throws IOException {
+        if (maxSegmentSize <= 0 || maxSegments < 0) {
+            throw new IllegalArgumentException("Segment size must be greater than 0 and max number of segments can't be negative.");
+        }
+        if (logDir.exists() && !IoUtil.deleteRecursive(logDir)) {
+            throw new IOException(String.format("Unable clean log directory '%s'", logDir));
+        }
+        if (!logDir.mkdirs()) {
+            throw new IOException(String.format("Unable create log directory '%s'", logDir));
+        }
+        return logDir;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        awaitCompressions(compressions.values());
+    }
+
+    @Override
+    protected void doWrite(String line) throws IOException {
+        final byte[] bytes = (line + '\n').getBytes(charset);
+        if (segmentSize > 0 && segmentSize + bytes.length > maxSegmentSize) {
+            startNextSegment();
+        }
+        final long now = System.currentTimeMillis();
+        if (segmentSize == 0 || lines - lastIndexedLine >= INDEX_INTERVAL_LINES || now - lastIndexedTime >= INDEX_INTERVAL_MILLIS) {
+            new SegmentedLog.IndexEntry(segment, lines, segmentSize, logSize, now).writeTo(pendingIndexData);
+            lastIndexedLine = lines;
+            lastIndexedTime = now;
+        }
+        segmentOutput.write(bytes);
+        segmentSize += bytes.length;
+        logSize += bytes.length;
+        lines++;
+    }
+
+    @Override
+    protected void doFlush() throws IOException {
+        // data first, so index never points to data that is not in segment yet
+        segmentOutput.flush();
+        writePendingIndexEntries();
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        // streams are not opened if constructor fails
+        try {
+            if (segmentOutput != null) {
+                segmentOutput.close();
+                writePendingIndexEntries();
+            }
+        } finally {
+            if (indexOutput != null) {
+                indexOutput.close();
+            }
+        }
+    }
+
+    private void writePendingIndexEntries() throws IOException {
+        if (pendingIndex.size() > 0) {
+            pendingIndex.writeTo(indexOutput);
+            pendingIndex.reset();
+        }
+    }
+
+    private void startNextSegment() throws IOException {
+        segmentOutput.close();
+        final File logDir = getFile();
+        if (compress) {
+            final int fullSegment = segment;
+            compressions.values().removeIf(Future::isDone);
+            compressions.put(fullSegment, COMPRESSOR.submit(() -> compressSegment(logDir, fullSegment)));
+        }
+        segment++;
+        segmentSize = 0;
+        segmentOutput = new BufferedOutputStream(new FileOutputStream(segmentFile(logDir, segment)));
+        if (maxSegments > 0 && segment - maxSegments >= 0) {
+            removeOldSegments(logDir, segment - maxSegments);
+        }
+    }
+
+    private void removeOldSegments(File logDir, int lastToRemove) throws IOException {
+        // segment that is being compressed would be recreated by compressor after removal
+        awaitCompressions(compressions.headMap(lastToRemove, true).values());
+        boolean removed = false;
+        for (int i = lastToRemove; i >= 0; i--) {
+            final boolean plain = segmentFile(logDir, i).delete();
+            final boolean compressed = compressedSegmentFile(logDir, i).delete();
+            if (!plain && !compressed) {
+                break;
+            }
+            removed = true;
+        }
+        if (removed) {
+            // rewrite index without entries of removed segments so it doesn't grow forever,
+            // data of the previous segment is already flushed, so its entries may be written
+            writePendingIndexEntries();
+            indexOutput.close();
+            final File tmp = new File(logDir, INDEX_FILE + ".tmp");
+            try (SegmentedLog.Index index = SegmentedLog.Index.open(logDir);
+                 FileOutputStream out = new FileOutputStream(tmp)) {
+                index.copyTo(out.getChannel());
+            }
+            Files.move(tmp.toPath(), new File(logDir, INDEX_FILE).toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            indexOutput = new FileOutputStream(new File(logDir, INDEX_FILE), true);
+        }
+    }
+
+    private static void awaitCompressions(Collection<Future<?>> futures) throws IOException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for compression of log segments");
+            } catch (ExecutionException e) {
+                // compressSegment logs its failures
+            }
+        }
+    }
+
+    private static void compressSegment(File logDir, int segment) {
+        final File source = segmentFile(logDir, segment);
+        final File target = compressedSegmentFile(logDir, segment);
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(target))) {
+            final byte[] buf = new byte[8192];
+            int r;
+            while ((r = in.read(buf)) != -1) {
+                out.write(buf, 0, r);
+            }
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable compress log segment '%s'. %s", source, e.getMessage()));
+            if (!target.delete()) {
+                LOG.warn("Unable delete {}", target);
+            }
+            return;
+        }
+        if (!source.delete()) {
+            LOG.warn("Unable delete {}", source);
+        }
+    }
+}
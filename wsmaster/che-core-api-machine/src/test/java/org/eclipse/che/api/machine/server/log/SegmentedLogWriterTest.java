@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import com.google.common.io.CharStreams;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class SegmentedLogWriterTest {
+    private File logDir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        logDir = new File(Files.createTempDirectory("segmented-log").toFile(), "log");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(logDir.getParentFile());
+    }
+
+    @Test
+    public void shouldReadWholeLogFromSeveralSegments() throws Exception {
+        writeLines(new SegmentedLogWriter(logDir, 100, true, 0), 100);
+
+        assertTrue(SegmentedLog.compressedSegmentFile(logDir, 0).isFile());
+        assertEquals(read(LogRange.all()), expectedLines(0, 100));
+    }
+
+    @Test
+    public void shouldReadTailOfLog() throws Exception {
+        writeLines(new SegmentedLogWriter(logDir, 100, true, 0), 3000);
+
+        assertEquals(read(LogRange.tail(5)), expectedLines(2995, 3000));
+        assertEquals(read(LogRange.tail(10_000)), expectedLines(0, 3000));
+        assertEquals(read(LogRange.tail(0)), "");
+    }
+
+    @Test
+    public void shouldReadRangeOfBytes() throws Exception {
+        writeLines(new SegmentedLogWriter(logDir, 100, false, 0), 3000);
+
+        final String all = expectedLines(0, 3000);
+        assertEquals(read(LogRange.bytes(12_345, 100)), all.substring(12_345, 12_445));
+        assertEquals(read(LogRange.bytes(all.length() - 10, 100)), all.substring(all.length() - 10));
+        assertEquals(read(LogRange.bytes(all.length() + 10, 100)), "");
+    }
+
+    @Test
+    public void shouldReadLinesWrittenSinceTimestamp() throws Exception {
+        final long start = System.currentTimeMillis();
+
+        writeLines(new SegmentedLogWriter(logDir, 1024, false, 0), 10);
+
+        assertEquals(read(LogRange.since(start)), expectedLines(0, 10));
+        assertEquals(read(LogRange.since(0)), expectedLines(0, 10));
+    }
+
+    @Test
+    public void shouldRemoveOldestSegments() throws Exception {
+        writeLines(new SegmentedLogWriter(logDir, 100, true, 3), 1000);
+
+        assertFalse(SegmentedLog.segmentExists(logDir, 0));
+        assertEquals(read(LogRange.tail(3)), expectedLines(997, 1000));
+        assertTrue(expectedLines(0, 1000).endsWith(read(LogRange.all())));
+    }
+
+    @Test
+    public void shouldRemoveIndexEntriesOfRemovedSegments() throws Exception {
+        writeLines(new SegmentedLogWriter(logDir, 100, false, 3), 1000);
+
+        final String all = expectedLines(0, 1000);
+        final String available = read(LogRange.all());
+        final long indexSize = new File(logDir, SegmentedLog.INDEX_FILE).length();
+        try (SegmentedLog.Index index = SegmentedLog.Index.open(logDir)) {
+            assertEquals(indexSize, index.size() * SegmentedLog.INDEX_ENTRY_SIZE);
+            assertTrue(SegmentedLog.segmentExists(logDir, index.first().segment));
+            assertEquals(index.first().logOffset, all.length() - available.length());
+        }
+        final long offset = all.length() - available.length() + 15;
+        assertEquals(read(LogRange.bytes(offset, 20)), all.substring((int)offset, (int)offset + 20));
+    }
+
+    @Test
+    public void shouldCompressAllFullSegmentsBeforeCloseReturns() throws Exception {
+        writeLines(new SegmentedLogWriter(logDir, 100, true, 5), 3000);
+
+        int last = 0;
+        while (!SegmentedLog.segmentExists(logDir, last)) {
+            last++;
+        }
+        while (SegmentedLog.segmentExists(logDir, last + 1)) {
+            last++;
+        }
+        for (int segment = last - 4; segment < last; segment++) {
+            assertFalse(SegmentedLog.segmentFile(logDir, segment).exists());
+            assertTrue(SegmentedLog.compressedSegmentFile(logDir, segment).isFile());
+        }
+        assertTrue(SegmentedLog.segmentFile(logDir, last).isFile());
+        assertEquals(logDir.list().length, 6);
+        assertEquals(read(LogRange.tail(3)), expectedLines(2997, 3000));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldFailWhenLogDirectoryCanNotBeCreated() throws Exception {
+        Files.write(logDir.getParentFile().toPath().resolve("file"), new byte[0]);
+
+        new SegmentedLogWriter(new File(logDir.getParentFile(), "file/log"), 100, true, 0);
+    }
+
+    private void writeLines(SegmentedLogWriter writer, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            writer.writeLine("line " + i);
+        }
+        writer.close();
+    }
+
+    private String read(LogRange range) throws Exception {
+        try (Reader reader = range.open(logDir)) {
+            return CharStreams.toString(reader);
+        }
+    }
+
+    private static String expectedLines(int from, int to) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+}